@@ -37,6 +37,6 @@ public class FluxSentinelOperator<T> extends FluxOperator<T, T> {
 
     @Override
     public void subscribe(CoreSubscriber<? super T> actual) {
-        source.subscribe(new SentinelReactorSubscriber<>(entryConfig, actual, false));
+        new SentinelReactorSubscriber<>(entryConfig, actual, false).subscribeTo(source);
     }
 }
@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -26,8 +28,12 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Supplier;
 
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -44,6 +50,11 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     private volatile AsyncEntry currentEntry;
     private final AtomicBoolean entryExited = new AtomicBoolean(false);
 
+    /**
+     * Subscription given to the downstream if the entry is paced, see {@link #subscribeTo(Publisher)}.
+     */
+    private PacedSubscription pacedSubscription;
+
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
                                      boolean unary) {
@@ -82,6 +93,71 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
+    /**
+     * Perform the entry, and subscribe to the source if passed: at once, or at the pass time on the parallel
+     * scheduler if the entry is paced by rules with queueing (rate limiter) behavior, so that the subscribing
+     * thread (usually an event loop) won't wait.
+     *
+     * @param source the source publisher
+     * @since 1.8.1
+     */
+    public void subscribeTo(Publisher<? extends T> source) {
+        doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
+            this::entryBeforeSubscribed);
+        AsyncEntry entry = currentEntry;
+        if (entry == null) {
+            // Blocked.
+            return;
+        }
+        long pacingDelayMs = entry.getPacingDelayMs();
+        if (pacingDelayMs <= 0) {
+            source.subscribe(this);
+            return;
+        }
+        // Let the downstream request or cancel during pacing, before the source is subscribed.
+        PacedSubscription paced = new PacedSubscription();
+        this.pacedSubscription = paced;
+        actual.onSubscribe(paced);
+        if (isDisposed()) {
+            return;
+        }
+        try {
+            paced.timer = Schedulers.parallel().schedule(() -> {
+                if (!isDisposed()) {
+                    source.subscribe(this);
+                }
+            }, pacingDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            if (!isDisposed()) {
+                // Exit the entry and propagate the error.
+                cancel();
+                tryCompleteEntry();
+                actual.onError(ex);
+            }
+        }
+    }
+
+    private void entryBeforeSubscribed() {
+        ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
+        if (sentinelContextConfig != null) {
+            // If current we're already in a context, the context config won't work.
+            ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
+        }
+        try {
+            this.currentEntry = SphU.asyncEntryWithPacing(entryConfig.getResourceName(),
+                entryConfig.getResourceType(), entryConfig.getEntryType(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
+        } catch (BlockException ex) {
+            // Mark as completed (exited) explicitly, and the source won't be subscribed.
+            entryExited.set(true);
+            Operators.error(actual, ex);
+        } finally {
+            if (sentinelContextConfig != null) {
+                ContextUtil.exit();
+            }
+        }
+    }
+
     private void entryWhenSubscribed() {
         ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
         if (sentinelContextConfig != null) {
@@ -109,6 +185,17 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
+        if (currentEntry != null) {
+            // Entered before subscribed, see {@link #subscribeTo(Publisher)}.
+            PacedSubscription paced = this.pacedSubscription;
+            if (paced == null) {
+                actual.onSubscribe(this);
+            } else {
+                // Downstream has been subscribed during pacing, so forward its pending demand.
+                paced.set(this);
+            }
+            return;
+        }
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
             this::entryWhenSubscribed);
     }
@@ -165,4 +252,25 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
         return false;
     }
+
+    /**
+     * Buffers the demand of the downstream until the source is subscribed at the pass time. Cancelling it
+     * disposes the pending subscribing and exits the entry.
+     */
+    private final class PacedSubscription extends Operators.DeferredSubscription {
+
+        private volatile Disposable timer;
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            Disposable timer = this.timer;
+            if (timer != null) {
+                timer.dispose();
+            }
+            SentinelReactorSubscriber.this.cancel();
+            // The cancel hook is not called if the source has not been subscribed yet.
+            tryCompleteEntry();
+        }
+    }
 }
@@ -3,17 +3,23 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 import org.junit.Test;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -175,12 +181,67 @@ public class MonoSentinelOperatorIntegrationTest {
             .expectError(BlockException.class)
             .verify();
 
-        ClusterNode cn1 = ClusterBuilderSlot.getClusterNode(resourceName1);
-        assertNotNull(cn1);
+        // The latter entry is checked before subscribing to the source, so the former is not entered when blocked.
+        assertNull(ClusterBuilderSlot.getClusterNode(resourceName1));
         ClusterNode cn2 = ClusterBuilderSlot.getClusterNode(resourceName2);
         assertNotNull(cn2);
         assertEquals(1, cn2.blockRequest());
-        assertEquals(1, cn1.totalSuccess());
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testPacedWithoutBlockingSubscriber() throws InterruptedException {
+        String resourceName = createResourceName("testPacedWithoutBlockingSubscriber");
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(1000)));
+
+        final List<Long> passTimes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(3);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            // The callable is called when subscribed.
+            Mono.fromCallable(System::currentTimeMillis)
+                .transform(new SentinelReactorTransformer<>(resourceName))
+                .subscribe(t -> {
+                    passTimes.add(t);
+                    latch.countDown();
+                });
+        }
+        // The subscribing thread doesn't wait for the pass time.
+        assertTrue(System.currentTimeMillis() - start < 100);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        // The last one passes about 200 ms later.
+        assertTrue(Collections.max(passTimes) - start >= 150);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(0, cn.blockRequest());
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testCancelDuringPacing() throws InterruptedException {
+        String resourceName = createResourceName("testCancelDuringPacing");
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(1000)));
+
+        final AtomicInteger subscribed = new AtomicInteger();
+        Mono<Integer> mono = Mono.fromCallable(subscribed::incrementAndGet)
+            .transform(new SentinelReactorTransformer<>(resourceName));
+        mono.subscribe();
+        // The second one is paced, and cancelled before the pass time.
+        Disposable disposable = mono.subscribe();
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+
+        Thread.sleep(300);
+        assertEquals(1, subscribed.get());
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        // The paced entry is exited when cancelled.
+        assertEquals(0, cn.curThreadNum());
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
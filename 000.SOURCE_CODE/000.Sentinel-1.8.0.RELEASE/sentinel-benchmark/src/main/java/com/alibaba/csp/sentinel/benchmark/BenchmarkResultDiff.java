@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * <p>Compares two JMH JSON result files (e.g. written by {@link BenchmarkSuite} for two releases) and
+ * prints the change of the primary score of each benchmark. A benchmark is reported as a regression if
+ * its score is worse than the base score by more than the threshold, taking the benchmark mode into
+ * account (higher throughput is better, lower time is better).</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.BenchmarkResultDiff
+ * base.json current.json [thresholdPercent]}</p>
+ *
+ * <p>The process exits with status 1 if any regression is found.</p>
+ */
+public final class BenchmarkResultDiff {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkResultDiff base.json current.json [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JSONObject> base = load(args[0]);
+        Map<String, JSONObject> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-100s %14s %14s %9s%n", "Benchmark", "Base", "Current", "Change");
+        for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            String key = entry.getKey();
+            JSONObject result = entry.getValue();
+            JSONObject metric = result.getJSONObject("primaryMetric");
+            double score = metric.getDoubleValue("score");
+            String unit = metric.getString("scoreUnit");
+            JSONObject baseResult = base.get(key);
+            if (baseResult == null) {
+                System.out.printf("%-100s %14s %14.3f %9s  %s (new)%n", key, "-", score, "-", unit);
+                continue;
+            }
+            double baseScore = baseResult.getJSONObject("primaryMetric").getDoubleValue("score");
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            boolean higherIsBetter = "thrpt".equals(result.getString("mode"));
+            boolean regression = higherIsBetter ? change < -threshold : change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-100s %14.3f %14.3f %+8.1f%%  %s%s%n", key, baseScore, score, change, unit,
+                regression ? "  REGRESSION" : "");
+        }
+        for (String key : base.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-100s (removed)%n", key);
+            }
+        }
+        System.out.printf("%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Load results keyed by benchmark name, mode, thread count and parameters.
+     */
+    private static Map<String, JSONObject> load(String file) throws IOException {
+        String content = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        JSONArray results = JSON.parseArray(content);
+        Map<String, JSONObject> map = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            StringBuilder key = new StringBuilder(result.getString("benchmark"))
+                .append(" [").append(result.getString("mode"))
+                .append(", threads=").append(result.getIntValue("threads"));
+            JSONObject params = result.getJSONObject("params");
+            if (params != null) {
+                for (Map.Entry<String, Object> param : new TreeMap<>(params).entrySet()) {
+                    key.append(", ").append(param.getKey()).append('=').append(param.getValue());
+                }
+            }
+            map.put(key.append(']').toString(), result);
+        }
+        return map;
+    }
+
+    private BenchmarkResultDiff() {}
+}
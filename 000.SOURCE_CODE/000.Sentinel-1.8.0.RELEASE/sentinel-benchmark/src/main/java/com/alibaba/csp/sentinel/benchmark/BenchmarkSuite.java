@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import com.alibaba.csp.sentinel.Constants;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the regression benchmark suite and writes the results in JMH JSON format, so that the
+ * results of two releases can be compared with {@link BenchmarkResultDiff}.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.BenchmarkSuite [JMH options]}</p>
+ *
+ * <p>All JMH command line options are supported. If no benchmark is given, the classes in {@link #SUITE}
+ * are run. The results are written to {@code sentinel-benchmark-${version}.json} unless {@code -rff} is given.</p>
+ */
+public final class BenchmarkSuite {
+
+    static final Class<?>[] SUITE = new Class<?>[] {
+        SlotBenchmark.class,
+        EntryExitBenchmark.class,
+        MetricBucketBenchmark.class,
+        ResourceRegistryBenchmark.class,
+        HotParamCheckBenchmark.class,
+        ClusterCodecBenchmark.class,
+        MetricLogBenchmark.class,
+        MetricDeltaBenchmark.class,
+        ClusterFlowCheckBenchmark.class
+    };
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            for (Class<?> benchmark : SUITE) {
+                builder.include("\\." + benchmark.getSimpleName() + "\\.");
+            }
+        }
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result("sentinel-benchmark-" + Constants.SENTINEL_VERSION + ".json");
+        }
+        new Runner(builder.build()).run();
+    }
+
+    private BenchmarkSuite() {}
+}
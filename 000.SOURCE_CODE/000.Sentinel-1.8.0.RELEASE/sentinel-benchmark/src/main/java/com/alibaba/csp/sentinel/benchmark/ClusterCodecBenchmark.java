@@ -0,0 +1,229 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.Recyclable;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyRequestDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
+import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the Netty codec of the cluster token protocol (client request encoding, server request
+ * decoding and processing, client response decoding), using the real pipeline handlers on embedded channels.
+ *
+ * <p>Run with the GC profiler ({@code -prof gc}) to get the allocation per message
+ * ({@code gc.alloc.rate.norm}).</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ClusterCodecBenchmark {
+
+    private static final String NAMESPACE = "benchmark-namespace";
+    private static final long FLOW_ID = 1001L;
+
+    private EmbeddedChannel clientEncodeChannel;
+    private EmbeddedChannel clientDecodeChannel;
+    private EmbeddedChannel serverDecodeChannel;
+    private EmbeddedChannel serverChannel;
+
+    private byte[] flowRequestFrame;
+    private byte[] paramFlowRequestFrame;
+    private byte[] flowResponseFrame;
+
+    private List<Object> params;
+
+    @Setup
+    public void setUp() {
+        InitExecutor.doInit();
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e12));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        FlowRule rule = new FlowRule("cluster-benchmark-resource").setCount(1e12);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+
+        params = new ArrayList<>();
+        params.add("user-123456");
+        params.add(100L);
+        params.add(7);
+
+        clientEncodeChannel = new EmbeddedChannel(new NettyRequestEncoder());
+        clientDecodeChannel = new EmbeddedChannel(newFrameDecoder(), new NettyResponseDecoder());
+        serverDecodeChannel = new EmbeddedChannel(newFrameDecoder(), new NettyRequestDecoder());
+        serverChannel = new EmbeddedChannel(newFrameDecoder(), new NettyRequestDecoder(),
+            new NettyResponseEncoder(), new ServerProcessHandler());
+
+        flowRequestFrame = encodeClientRequest(newFlowRequest());
+        paramFlowRequestFrame = encodeClientRequest(newParamFlowRequest());
+        serverChannel.writeInbound(newInboundBuffer(flowRequestFrame));
+        ByteBuf response = serverChannel.readOutbound();
+        flowResponseFrame = ByteBufUtil.getBytes(response);
+        response.release();
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientEncodeChannel.finishAndReleaseAll();
+        clientDecodeChannel.finishAndReleaseAll();
+        serverDecodeChannel.finishAndReleaseAll();
+        serverChannel.finishAndReleaseAll();
+    }
+
+    private static LengthFieldBasedFrameDecoder newFrameDecoder() {
+        return new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2);
+    }
+
+    private ClusterRequest<FlowRequestData> newFlowRequest() {
+        FlowRequestData data = new FlowRequestData().setFlowId(FLOW_ID).setCount(1).setPriority(false);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    private ClusterRequest<ParamFlowRequestData> newParamFlowRequest() {
+        ParamFlowRequestData data = new ParamFlowRequestData().setFlowId(FLOW_ID).setCount(1).setParams(params);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
+    }
+
+    private byte[] encodeClientRequest(ClusterRequest<?> request) {
+        clientEncodeChannel.writeAndFlush(request, clientEncodeChannel.voidPromise());
+        ByteBuf out = clientEncodeChannel.readOutbound();
+        byte[] bytes = ByteBufUtil.getBytes(out);
+        out.release();
+        return bytes;
+    }
+
+    private static ByteBuf newInboundBuffer(byte[] frame) {
+        return PooledByteBufAllocator.DEFAULT.heapBuffer(frame.length).writeBytes(frame);
+    }
+
+    private static void recycle(Object msg) {
+        if (msg instanceof Recyclable) {
+            ((Recyclable)msg).recycle();
+        }
+    }
+
+    private int releaseOutbound(EmbeddedChannel channel) {
+        ByteBuf out = channel.readOutbound();
+        int size = out.readableBytes();
+        out.release();
+        return size;
+    }
+
+    @Benchmark
+    public int clientEncodeFlowRequest() {
+        clientEncodeChannel.writeAndFlush(newFlowRequest(), clientEncodeChannel.voidPromise());
+        return releaseOutbound(clientEncodeChannel);
+    }
+
+    @Benchmark
+    public int clientEncodeParamFlowRequest() {
+        clientEncodeChannel.writeAndFlush(newParamFlowRequest(), clientEncodeChannel.voidPromise());
+        return releaseOutbound(clientEncodeChannel);
+    }
+
+    @Benchmark
+    public Object serverDecodeFlowRequest() {
+        serverDecodeChannel.pipeline().fireChannelRead(newInboundBuffer(flowRequestFrame));
+        Object request = serverDecodeChannel.readInbound();
+        recycle(request);
+        return request;
+    }
+
+    @Benchmark
+    public Object serverDecodeParamFlowRequest() {
+        serverDecodeChannel.pipeline().fireChannelRead(newInboundBuffer(paramFlowRequestFrame));
+        Object request = serverDecodeChannel.readInbound();
+        recycle(request);
+        return request;
+    }
+
+    /**
+     * Decode the flow request, request token from the token service, and encode the response.
+     */
+    @Benchmark
+    public int serverProcessFlowRequest() {
+        serverChannel.pipeline().fireChannelRead(newInboundBuffer(flowRequestFrame));
+        return releaseOutbound(serverChannel);
+    }
+
+    @Benchmark
+    public Object clientDecodeFlowResponse() {
+        clientDecodeChannel.pipeline().fireChannelRead(newInboundBuffer(flowResponseFrame));
+        return clientDecodeChannel.readInbound();
+    }
+
+    /**
+     * Same as what {@code TokenServerHandler} does for requests, without the connection management.
+     */
+    private static class ServerProcessHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ClusterRequest request = (ClusterRequest)msg;
+            try {
+                RequestProcessor processor = RequestProcessorProvider.getProcessor(request.getType());
+                ClusterResponse<?> response = processor.processRequest(request);
+                ctx.writeAndFlush(response, ctx.voidPromise());
+            } finally {
+                recycle(request);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the token check of cluster flow rules in the token server, with concurrent requests
+ * of the same flow rule.</p>
+ *
+ * <p>{@code checkThenAdd} is the previous way: get the average pass QPS of the sliding window and then
+ * add the pass count, which is not atomic. {@code atomicAcquire} takes tokens with the atomic token
+ * counter. Both record the same statistics. A small threshold means that most requests are blocked.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class ClusterFlowCheckBenchmark {
+
+    @Param({"1000000000", "10000"})
+    private double threshold;
+
+    private ClusterMetric metric;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        metric = new ClusterMetric(10, 1000);
+    }
+
+    @Benchmark
+    public boolean checkThenAdd() {
+        double nextRemaining = threshold - metric.getAvg(ClusterFlowEvent.PASS) - 1;
+        return record(nextRemaining >= 0);
+    }
+
+    @Benchmark
+    public boolean atomicAcquire() {
+        return record(metric.tryAcquireToken(1, threshold) >= 0);
+    }
+
+    private boolean record(boolean pass) {
+        if (pass) {
+            metric.add(ClusterFlowEvent.PASS, 1);
+            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+        } else {
+            metric.add(ClusterFlowEvent.BLOCK, 1);
+            metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        }
+        return pass;
+    }
+}
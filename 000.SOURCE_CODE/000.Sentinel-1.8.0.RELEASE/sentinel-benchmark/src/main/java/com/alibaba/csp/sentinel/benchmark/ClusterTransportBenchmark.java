@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback benchmark of the Netty transports of cluster token server and client: NIO (the baseline)
+ * and native epoll, with and without flush consolidation. Client and server run in one JVM, so the
+ * requests served per core is the throughput divided by {@link Runtime#availableProcessors()}.
+ *
+ * <p>The epoll transport needs Linux (x86_64); the benchmark fails to set up elsewhere.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ClusterTransportBenchmark {
+
+    private static final String NAMESPACE = "benchmark-namespace";
+    private static final long FLOW_ID = 1001L;
+
+    @Param({NettyTransportSupport.TRANSPORT_NIO, NettyTransportSupport.TRANSPORT_EPOLL})
+    private String transport;
+
+    @Param({"false", "true"})
+    private boolean flushConsolidation;
+
+    private NettyTransportServer tokenServer;
+    private DefaultClusterTokenClient tokenClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (NettyTransportSupport.TRANSPORT_EPOLL.equals(transport) && !NettyTransportSupport.isEpollAvailable()) {
+            throw new IllegalStateException("Epoll transport is not available");
+        }
+        InitExecutor.doInit();
+
+        // Server side: a huge global threshold, so that all requests pass.
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        FlowRule rule = new FlowRule("cluster-benchmark-resource").setCount(1e9);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+
+        int port = findFreePort();
+        tokenServer = new NettyTransportServer(new ServerTransportConfig().setPort(port)
+            .setNativeTransport(transport).setWorkerThreads(1).setFlushConsolidation(flushConsolidation));
+        tokenServer.start();
+
+        // Client side.
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000)
+            .setNativeTransport(transport).setEventLoopThreads(1).setFlushConsolidation(flushConsolidation));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", port));
+        tokenClient = new DefaultClusterTokenClient();
+        tokenClient.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (tokenClient.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token client is not ready");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        tokenClient.stop();
+        tokenServer.stop();
+    }
+
+    private static int findFreePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TokenResult testRequestTokenSingleThread() {
+        return tokenClient.requestToken(FLOW_ID, 1, false);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TokenResult testRequestToken16Threads() {
+        return tokenClient.requestToken(FLOW_ID, 1, false);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.transport.command.netty.HttpServer;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Loopback benchmark of the Netty command center polled by concurrent clients, like a dashboard
+ * fetching metrics of many resources. A {@code small} command returns a short text and a {@code large}
+ * command returns about 200 KB of metric lines, which is written in chunks.</p>
+ *
+ * <p>With {@code keepAlive} off, every command takes a new connection, which is how the command center
+ * was polled before connections were kept alive. With {@code gzip} on, the client accepts compressed
+ * responses.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class CommandCenterBenchmark {
+
+    private static final int LARGE_RESPONSE_SIZE = 200 * 1024;
+
+    @Param({"small", "large"})
+    private String command;
+
+    @Param({"true", "false"})
+    private boolean keepAlive;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private HttpServer server;
+    private URL url;
+
+    @Setup
+    public void setUp() throws Exception {
+        // The server is started directly rather than by InitExecutor, so there is only one command center.
+        // Keep alive a connection for each client thread.
+        System.setProperty("http.maxConnections", "16");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        SentinelConfig.setConfig(TransportConfig.SERVER_PORT, String.valueOf(port));
+
+        server = new HttpServer();
+        server.registerCommand("small", new FixedCommandHandler("success"));
+        server.registerCommand("large", new FixedCommandHandler(metricLines(LARGE_RESPONSE_SIZE)));
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.start();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }, "benchmark-command-center");
+        thread.setDaemon(true);
+        thread.start();
+        while (TransportConfig.getRuntimePort() <= 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        url = new URL("http://127.0.0.1:" + TransportConfig.getRuntimePort() + "/" + command);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int poll() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        if (!keepAlive) {
+            connection.setRequestProperty("Connection", "close");
+        }
+        if (gzip) {
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+        }
+        InputStream in = connection.getInputStream();
+        try {
+            if ("gzip".equals(connection.getContentEncoding())) {
+                in = new GZIPInputStream(in);
+            }
+            return readAll(in);
+        } finally {
+            // Fully read and closed, so the connection goes back to the keep-alive cache.
+            in.close();
+        }
+    }
+
+    private static int readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.size();
+    }
+
+    private static String metricLines(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        long timestamp = 1600000000000L;
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append(timestamp + i / 100 * 1000).append('|').append("com.alibaba.csp.sentinel.Resource").append(i)
+                .append('|').append(i % 97).append('|').append(i % 7).append('|').append(i % 97).append("|0|")
+                .append(i % 13).append("|0|0|0\n");
+        }
+        return sb.toString();
+    }
+
+    private static class FixedCommandHandler implements CommandHandler<String> {
+
+        private final String result;
+
+        FixedCommandHandler(String result) {
+            this.result = result;
+        }
+
+        @Override
+        public CommandResponse<String> handle(CommandRequest request) {
+            return CommandResponse.ofSuccess(result);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for allocation of {@code SphU.entry(String)} in try-with-resources, with and without entry
+ * pooling ({@code csp.sentinel.entry.pooling}). Run with {@code -prof gc} to see the allocation per operation
+ * ({@code gc.alloc.rate.norm}).</p>
+ *
+ * <p>Thresholds are never reached, so no request is blocked.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EntryAllocationBenchmark {
+
+    private static final double MAX_COUNT = 1e9;
+
+    @Param({"false", "true"})
+    private boolean pooling;
+
+    @Param({"none", "flow", "degrade"})
+    private String rules;
+
+    @Param({"1", "100"})
+    private int resourceCount;
+
+    private String[] resources;
+
+    @Setup
+    public void prepare() {
+        // Set before the first entry, as the mode is resolved once.
+        SentinelConfig.setConfig(SentinelConfig.ENTRY_POOLING, String.valueOf(pooling));
+        resources = new String[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resources[i] = "allocation-benchmark-" + i;
+        }
+
+        List<FlowRule> flowRules = new ArrayList<>();
+        List<DegradeRule> degradeRules = new ArrayList<>();
+        for (String resource : resources) {
+            if ("flow".equals(rules)) {
+                flowRules.add(new FlowRule(resource).setCount(MAX_COUNT));
+            } else if ("degrade".equals(rules)) {
+                degradeRules.add(new DegradeRule(resource)
+                    .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+                    .setCount(0.5)
+                    .setTimeWindow(10));
+            }
+        }
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+        DegradeRuleManager.loadRules(null);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testEntry(ThreadState state) {
+        int i = state.index + 1;
+        if (i >= resourceCount) {
+            i = 0;
+        }
+        state.index = i;
+        try (Entry entry = SphU.entry(resources[i])) {
+            return entry != null;
+        } catch (BlockException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>End-to-end benchmark for {@code SphU.entry} and {@code Entry.exit} without any business logic,
+ * with a sweep of the amount of distinct resources and of the rules loaded for each resource:</p>
+ *
+ * <ul>
+ *     <li>{@code none}: no rules;</li>
+ *     <li>{@code flow}: one flow rule;</li>
+ *     <li>{@code all}: one flow rule, one degrade rule and one parameter flow rule, with a global system rule.</li>
+ * </ul>
+ *
+ * <p>Thresholds are never reached, so no request is blocked.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EntryExitBenchmark {
+
+    private static final double MAX_COUNT = 1e9;
+
+    @Param({"none", "flow", "all"})
+    private String rules;
+
+    @Param({"1", "100", "1000"})
+    private int resourceCount;
+
+    private String[] resources;
+    private Long[] params;
+
+    @Setup
+    public void prepare() {
+        resources = new String[resourceCount];
+        params = new Long[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resources[i] = "entry-benchmark-" + i;
+            params[i] = 1000000L + i;
+        }
+
+        List<FlowRule> flowRules = new ArrayList<>();
+        List<DegradeRule> degradeRules = new ArrayList<>();
+        List<ParamFlowRule> paramFlowRules = new ArrayList<>();
+        if (!"none".equals(rules)) {
+            for (String resource : resources) {
+                flowRules.add(new FlowRule(resource).setCount(MAX_COUNT));
+                if ("all".equals(rules)) {
+                    degradeRules.add(new DegradeRule(resource)
+                        .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+                        .setCount(0.5)
+                        .setTimeWindow(10));
+                    paramFlowRules.add(new ParamFlowRule(resource).setParamIdx(0).setCount(MAX_COUNT));
+                }
+            }
+        }
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+        ParamFlowRuleManager.loadRules(paramFlowRules);
+        if ("all".equals(rules)) {
+            SystemRule systemRule = new SystemRule();
+            systemRule.setQps(MAX_COUNT);
+            SystemRuleManager.loadRules(Collections.singletonList(systemRule));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+        DegradeRuleManager.loadRules(null);
+        ParamFlowRuleManager.loadRules(null);
+        SystemRuleManager.loadRules(null);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index;
+    }
+
+    private boolean entryAndExit(ThreadState state) {
+        int i = state.index + 1;
+        if (i >= resourceCount) {
+            i = 0;
+        }
+        state.index = i;
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resources[i], EntryType.IN, 1, params[i]);
+            return true;
+        } catch (BlockException ex) {
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit(1, params[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testEntry1Thread(ThreadState state) {
+        return entryAndExit(state);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean testEntry2Threads(ThreadState state) {
+        return entryAndExit(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean testEntry4Threads(ThreadState state) {
+        return entryAndExit(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean testEntry8Threads(ThreadState state) {
+        return entryAndExit(state);
+    }
+}
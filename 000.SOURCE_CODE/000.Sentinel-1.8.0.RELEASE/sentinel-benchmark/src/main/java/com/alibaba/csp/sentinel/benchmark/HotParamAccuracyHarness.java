@@ -0,0 +1,188 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowApproximateConfig;
+import com.alibaba.csp.sentinel.slots.statistic.data.CountMinSketch;
+import com.alibaba.csp.sentinel.slots.statistic.metric.CountMinSketchLeapArray;
+
+/**
+ * <p>Reports the accuracy of approximate parameter flow control. A Zipfian stream of parameter values
+ * is replayed with explicit timestamps against three per-value sliding window counters:</p>
+ *
+ * <ul>
+ *     <li>an exact counter with unbounded memory, used as the ground truth;</li>
+ *     <li>an exact counter bounded by LRU eviction, which is how {@code ParameterMetric} bounds its memory;</li>
+ *     <li>the count-min sketch used by rules in approximate mode.</li>
+ * </ul>
+ *
+ * <p>A "false block" is a request blocked by a counter but passed by the ground truth, and a
+ * "false pass" is the opposite. As each counter only records the requests it passes, an earlier false
+ * block can lead to a later false pass of the same value, while the sketch never passes more requests
+ * of a value within a window than the threshold.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.HotParamAccuracyHarness
+ * [errorRate] [lruCapacity] [requestsPerMs] [seconds]}</p>
+ */
+public final class HotParamAccuracyHarness {
+
+    private static final int KEY_SPACE = 1000000;
+    private static final int SAMPLE_COUNT = 2;
+    private static final int INTERVAL_MS = 1000;
+    private static final long THRESHOLD = 100;
+
+    public static void main(String[] args) {
+        double errorRate = args.length > 0 ? Double.parseDouble(args[0])
+            : ParamFlowApproximateConfig.DEFAULT_ERROR_RATE;
+        int lruCapacity = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+        int requestsPerMs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+        int width = CountMinSketch.widthFor(errorRate);
+        int depth = CountMinSketch.depthFor(ParamFlowApproximateConfig.DEFAULT_CONFIDENCE);
+        CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(SAMPLE_COUNT, INTERVAL_MS, depth, width, 10);
+        WindowCounter exact = new WindowCounter(new HashMap<Long, long[]>());
+        WindowCounter bounded = new WindowCounter(new LruMap(lruCapacity));
+
+        double[] cdf = zipfCdf(KEY_SPACE, 0.99);
+        Random random = new Random(42);
+        long exactPass = 0, boundedPass = 0, sketchPass = 0, boundedFalsePass = 0, boundedFalseBlock = 0, sketchFalsePass = 0, sketchFalseBlock = 0;
+        long total = 0;
+        long start = 1000000;
+        for (long time = start; time < start + seconds * 1000L; time++) {
+            for (int i = 0; i < requestsPerMs; i++) {
+                Long value = (long)sample(cdf, random.nextDouble());
+                boolean truth = exact.tryAdd(value, time);
+                boolean lru = bounded.tryAdd(value, time);
+                boolean approximate = sketch.tryAdd(value, 1, THRESHOLD, time);
+                total++;
+                exactPass += truth ? 1 : 0;
+                boundedPass += lru ? 1 : 0;
+                sketchPass += approximate ? 1 : 0;
+                if (lru && !truth) {
+                    boundedFalsePass++;
+                } else if (!lru && truth) {
+                    boundedFalseBlock++;
+                }
+                if (approximate && !truth) {
+                    sketchFalsePass++;
+                } else if (!approximate && truth) {
+                    sketchFalseBlock++;
+                }
+            }
+        }
+
+        System.out.printf("requests=%d, qps=%d, threshold=%d, passed by ground truth=%d%n", total,
+            requestsPerMs * 1000, THRESHOLD, exactPass);
+        System.out.printf("lru(capacity=%d): passed=%d, false pass=%d (%.4f%%), false block=%d (%.4f%%)%n",
+            lruCapacity, boundedPass, boundedFalsePass, percent(boundedFalsePass, total), boundedFalseBlock, percent(boundedFalseBlock, total));
+        System.out.printf("sketch(errorRate=%s, depth=%d, width=%d, %d counters): passed=%d, false pass=%d (%.4f%%), "
+                + "false block=%d (%.4f%%)%n", errorRate, depth, width, SAMPLE_COUNT * depth * width, sketchPass,
+            sketchFalsePass, percent(sketchFalsePass, total), sketchFalseBlock, percent(sketchFalseBlock, total));
+        System.out.println("sketch top values: " + sketch.getTopValues(5, start + seconds * 1000L - 1));
+    }
+
+    private static double percent(long count, long total) {
+        return count * 100.0 / total;
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double p) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < p) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Exact per-value sliding window with the same bucket layout as the sketch. Each value keeps
+     * {@code [bucketStart0, count0, bucketStart1, count1]}.
+     */
+    private static final class WindowCounter {
+
+        private static final long WINDOW_LENGTH = INTERVAL_MS / SAMPLE_COUNT;
+
+        private final Map<Long, long[]> counters;
+
+        WindowCounter(Map<Long, long[]> counters) {
+            this.counters = counters;
+        }
+
+        boolean tryAdd(Long value, long time) {
+            long[] buckets = counters.get(value);
+            if (buckets == null) {
+                buckets = new long[] {-1, 0, -1, 0};
+                counters.put(value, buckets);
+            }
+            long windowStart = time - time % WINDOW_LENGTH;
+            int idx = (int)((time / WINDOW_LENGTH) % SAMPLE_COUNT) * 2;
+            if (buckets[idx] != windowStart) {
+                buckets[idx] = windowStart;
+                buckets[idx + 1] = 0;
+            }
+            long sum = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] >= 0 && time - buckets[i] <= INTERVAL_MS) {
+                    sum += buckets[i + 1];
+                }
+            }
+            if (sum + 1 > THRESHOLD) {
+                return false;
+            }
+            buckets[idx + 1]++;
+            return true;
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<Long, long[]> {
+
+        private final int capacity;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowApproximateConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for local hot parameter checks ({@link ParamFlowChecker}) with {@code CacheMap} and
+ * {@code ParamTokenTable} token counters, and with the count-min sketch of approximate mode ({@code sketch},
+ * which only applies to the default control behavior). Parameter values follow a Zipfian distribution over a key space
+ * much larger than the counter capacity, so both hot-key contention and eviction are exercised.
+ *
+ * <p>Run with {@code -prof gc} to compare the allocation rate.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HotParamCheckBenchmark {
+
+    private static final int KEY_SPACE = 1000000;
+    private static final int SAMPLE_COUNT = 1 << 20;
+
+    private static final String COUNTER_TYPE_SKETCH = "sketch";
+
+    @Param({ParameterMetric.COUNTER_TYPE_MAP, ParameterMetric.COUNTER_TYPE_TABLE, COUNTER_TYPE_SKETCH})
+    private String counterType;
+
+    @Param({"long", "string"})
+    private String keyType;
+
+    @Param({"0.99"})
+    private double zipfExponent;
+
+    @Param({"" + RuleConstant.CONTROL_BEHAVIOR_DEFAULT, "" + RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER})
+    private int controlBehavior;
+
+    private ResourceWrapper resource;
+    private ParamFlowRule rule;
+    private Object[] samples;
+
+    @Setup
+    public void prepare() {
+        boolean approximate = COUNTER_TYPE_SKETCH.equals(counterType);
+        SentinelConfig.setConfig(ParameterMetric.COUNTER_TYPE,
+            approximate ? ParameterMetric.COUNTER_TYPE_MAP : counterType);
+        resource = new StringResourceWrapper("hot-param-benchmark", EntryType.IN);
+        // Rate limiter with no queueing, so that no thread ever sleeps.
+        rule = new ParamFlowRule(resource.getName())
+            .setParamIdx(0)
+            .setCount(100)
+            .setControlBehavior(controlBehavior)
+            .setMaxQueueingTimeMs(0)
+            .setApproximateMode(approximate)
+            .setApproximateConfig(approximate ? new ParamFlowApproximateConfig() : null);
+        ParameterMetricStorage.initParamMetricsFor(resource, rule);
+
+        double[] cdf = zipfCdf(KEY_SPACE, zipfExponent);
+        Random random = new Random(42);
+        samples = new Object[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            long key = sample(cdf, random.nextDouble());
+            // Values are created up front, so the benchmark measures the counters rather than boxing.
+            samples[i] = "long".equals(keyType) ? (Object)(key * 7919L + 1000000007L) : ("user-" + key);
+        }
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double p) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < p) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final Object[] args = new Object[1];
+        int index = new Random().nextInt(SAMPLE_COUNT);
+    }
+
+    private boolean check(ThreadState state) {
+        state.index = (state.index + 1) & (SAMPLE_COUNT - 1);
+        state.args[0] = samples[state.index];
+        return ParamFlowChecker.passCheck(resource, rule, 1, state.args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testCheck1Thread(ThreadState state) {
+        return check(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean testCheck4Threads(ThreadState state) {
+        return check(state);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>Reports the latency of cluster flow token requests (including the fallback to local rules on failure)
+ * with and without token lease, when the token server is healthy and when it is slow.</p>
+ *
+ * <p>The token client connects to the token server through a local proxy that injects a delay into the
+ * responses in the "slow" phase, longer than the request timeout, as a stand-in for a sick token server.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.LeaseFallbackHarness
+ * [threads] [secondsPerPhase]}</p>
+ */
+public final class LeaseFallbackHarness {
+
+    private static final String NAMESPACE = "benchmark-namespace";
+    private static final long FLOW_ID = 2001L;
+    private static final int REQUEST_TIMEOUT_MS = 100;
+    private static final int SLOW_DELAY_MS = 300;
+    private static final long PACE_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        InitExecutor.doInit();
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        FlowRule rule = new FlowRule("cluster-lease-resource").setCount(100000);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+
+        int serverPort = findFreePort();
+        NettyTransportServer server = new NettyTransportServer(serverPort);
+        server.start();
+        FaultInjectingProxy proxy = new FaultInjectingProxy(serverPort);
+        proxy.start();
+
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(REQUEST_TIMEOUT_MS));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", proxy.port));
+
+        System.out.printf("%-6s %-8s %10s %10s %10s %10s %9s%n", "lease", "server", "requests", "p50(us)",
+            "p99(us)", "max(us)", "fallback");
+        for (boolean leaseEnabled : new boolean[] {false, true}) {
+            SentinelConfig.setConfig("csp.sentinel.cluster.client.lease.enabled", String.valueOf(leaseEnabled));
+            DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+            client.start();
+            awaitReady(client);
+
+            proxy.delayMs = 0;
+            run(client, threads, 1);
+            report(leaseEnabled, "healthy", run(client, threads, seconds));
+            proxy.delayMs = SLOW_DELAY_MS;
+            report(leaseEnabled, "slow", run(client, threads, seconds));
+            proxy.delayMs = 0;
+            client.stop();
+        }
+
+        server.stop();
+        System.exit(0);
+    }
+
+    private static void report(boolean leaseEnabled, String phase, Result result) {
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("%-6s %-8s %10d %10.1f %10.1f %10.1f %8.1f%%%n", leaseEnabled, phase, latencies.length,
+            percentile(latencies, 0.5) / 1000.0, percentile(latencies, 0.99) / 1000.0,
+            latencies[latencies.length - 1] / 1000.0, result.fallbackCount * 100.0 / latencies.length);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int)(sorted.length * p))];
+    }
+
+    private static Result run(final DefaultClusterTokenClient client, int threads, int seconds)
+        throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final List<long[]> latencies = Collections.synchronizedList(new ArrayList<long[]>());
+        final long[] fallbackCount = new long[1];
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] samples = new long[1024];
+                    int size = 0;
+                    long fallback = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int status = client.requestToken(FLOW_ID, 1, false).getStatus();
+                        // Non-OK results other than BLOCKED fall back to local rules, which costs little.
+                        if (status != TokenResultStatus.OK && status != TokenResultStatus.BLOCKED) {
+                            fallback++;
+                        }
+                        if (size == samples.length) {
+                            samples = Arrays.copyOf(samples, size * 2);
+                        }
+                        samples[size++] = System.nanoTime() - start;
+                        LockSupport.parkNanos(PACE_NANOS);
+                    }
+                    latencies.add(Arrays.copyOf(samples, size));
+                    synchronized (fallbackCount) {
+                        fallbackCount[0] += fallback;
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        int total = 0;
+        for (long[] samples : latencies) {
+            total += samples.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] samples : latencies) {
+            System.arraycopy(samples, 0, all, offset, samples.length);
+            offset += samples.length;
+        }
+        return new Result(all, fallbackCount[0]);
+    }
+
+    private static void awaitReady(DefaultClusterTokenClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (client.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token client is not ready");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static int findFreePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final long fallbackCount;
+
+        private Result(long[] latencies, long fallbackCount) {
+            this.latencies = latencies;
+            this.fallbackCount = fallbackCount;
+        }
+    }
+
+    /**
+     * TCP proxy in front of the token server, which delays the responses by {@code delayMs}.
+     */
+    private static final class FaultInjectingProxy {
+
+        private final int targetPort;
+        private final ServerSocket serverSocket;
+        private final int port;
+        private volatile int delayMs;
+
+        private FaultInjectingProxy(int targetPort) throws Exception {
+            this.targetPort = targetPort;
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.port = serverSocket.getLocalPort();
+        }
+
+        private void start() {
+            daemon(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            Socket client = serverSocket.accept();
+                            Socket server = new Socket("127.0.0.1", targetPort);
+                            client.setTcpNoDelay(true);
+                            server.setTcpNoDelay(true);
+                            pipe(client, server, false);
+                            pipe(server, client, true);
+                        } catch (Exception ex) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+
+        private void pipe(final Socket from, final Socket to, final boolean injectDelay) {
+            daemon(new Runnable() {
+                @Override
+                public void run() {
+                    byte[] buffer = new byte[8192];
+                    try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                        int n;
+                        while ((n = in.read(buffer)) >= 0) {
+                            int delay = delayMs;
+                            if (injectDelay && delay > 0) {
+                                Thread.sleep(delay);
+                            }
+                            out.write(buffer, 0, n);
+                            out.flush();
+                        }
+                    } catch (Exception ex) {
+                        // Connection closed.
+                    }
+                }
+            });
+        }
+
+        private static void daemon(Runnable task) {
+            Thread thread = new Thread(task, "fault-injecting-proxy");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private LeaseFallbackHarness() {}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@code LongAdder}-based and padded metric buckets. Run with {@code -prof gc}
+ * to compare the allocation rate of bucket creation.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricBucketBenchmark {
+
+    @Param({SentinelConfig.STATISTIC_BUCKET_TYPE_ADDER, SentinelConfig.STATISTIC_BUCKET_TYPE_PADDED})
+    private String bucketType;
+
+    @Param({"1", "4"})
+    private int stripes;
+
+    private MetricBucket bucket;
+
+    @Setup
+    public void prepare() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_TYPE, bucketType);
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, String.valueOf(stripes));
+        bucket = MetricBucketProvider.newBucket();
+    }
+
+    private long addAndRead() {
+        bucket.addPass(1);
+        bucket.addSuccess(1);
+        bucket.addRT(5);
+        return bucket.pass();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testAdd1Thread() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long testAdd4Threads() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long testAdd16Threads() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MetricBucket testNewBucket() {
+        return MetricBucketProvider.newBucket();
+    }
+}
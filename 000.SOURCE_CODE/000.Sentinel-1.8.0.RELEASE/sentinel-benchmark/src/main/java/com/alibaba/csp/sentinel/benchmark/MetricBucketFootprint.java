@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketProvider;
+
+/**
+ * <p>Reports the retained heap of metric buckets of each type. The buckets are updated
+ * concurrently first, so that the {@code LongAdder} buckets have inflated their cells
+ * like hot resources in production do.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.MetricBucketFootprint [bucketCount] [threads]}</p>
+ */
+public final class MetricBucketFootprint {
+
+    public static void main(String[] args) throws Exception {
+        int bucketCount = args.length > 0 ? Integer.parseInt(args[0]) : 60 * 10000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        report(SentinelConfig.STATISTIC_BUCKET_TYPE_ADDER, 1, bucketCount, 1);
+        report(SentinelConfig.STATISTIC_BUCKET_TYPE_ADDER, 1, bucketCount, threads);
+        report(SentinelConfig.STATISTIC_BUCKET_TYPE_PADDED, 1, bucketCount, threads);
+        report(SentinelConfig.STATISTIC_BUCKET_TYPE_PADDED, 4, bucketCount, threads);
+    }
+
+    private static void report(String type, int stripes, int bucketCount, int threads) throws Exception {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_TYPE, type);
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, String.valueOf(stripes));
+
+        long before = usedHeap();
+        final MetricBucket[] buckets = new MetricBucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = MetricBucketProvider.newBucket();
+        }
+        touchConcurrently(buckets, threads);
+        long after = usedHeap();
+
+        System.out.printf("type=%s, stripes=%d, updaterThreads=%d, buckets=%d: %.1f MB retained, %d bytes/bucket%n",
+            type, stripes, threads, bucketCount, (after - before) / 1024.0 / 1024.0, (after - before) / bucketCount);
+        // Keep the buckets reachable until measured.
+        if (buckets[bucketCount - 1].pass() < 0) {
+            System.out.println("unexpected");
+        }
+    }
+
+    private static void touchConcurrently(final MetricBucket[] buckets, int threads) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int round = 0; round < 20; round++) {
+                            for (MetricBucket bucket : buckets) {
+                                bucket.addPass(1);
+                                bucket.addSuccess(1);
+                                bucket.addRT(1);
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private MetricBucketFootprint() {}
+}
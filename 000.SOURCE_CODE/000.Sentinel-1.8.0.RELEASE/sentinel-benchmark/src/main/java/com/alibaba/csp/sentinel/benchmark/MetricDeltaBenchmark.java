@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaDecoder;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the text and delta formats of the {@code metric} command: encoding on the client, and
+ * decoding on the dashboard, of one fetch (6 seconds) of a machine. See {@link MetricWireSizeHarness}
+ * for the bytes on the wire.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricDeltaBenchmark {
+
+    static final int FETCH_SECONDS = 6;
+
+    @Param({"100", "2000"})
+    private int resourceCount;
+
+    private List<MetricNode> nodes;
+    private MetricDeltaEncoder encoder;
+    private String text;
+    private String delta;
+    private MetricDeltaDecoder decoder;
+    private long cursor;
+
+    @Setup
+    public void prepare() throws Exception {
+        nodes = newNodes(resourceCount, FETCH_SECONDS, 42);
+        encoder = new MetricDeltaEncoder();
+        text = encodeText(nodes);
+        // The dashboard knows the dictionary after the first fetch.
+        decoder = new MetricDeltaDecoder();
+        cursor = lastTimestamp(nodes);
+        decoder.decode(encoder.encode(nodes, decoder.getCursor(), cursor, 0, 0));
+        delta = encoder.encode(nodes, decoder.getCursor(), cursor, decoder.getEpoch(), decoder.getDictSize());
+    }
+
+    /**
+     * Metrics of resources with steady traffic, in the order of the metric log.
+     */
+    static List<MetricNode> newNodes(int resourceCount, int seconds, long seed) {
+        Random random = new Random(seed);
+        long[] basePass = new long[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            basePass[i] = 1 + random.nextInt(1000);
+        }
+        long time = System.currentTimeMillis() / 1000 * 1000;
+        List<MetricNode> nodes = new ArrayList<MetricNode>(resourceCount * seconds);
+        for (int s = 0; s < seconds; s++) {
+            for (int i = 0; i < resourceCount; i++) {
+                long pass = basePass[i] + random.nextInt((int)(basePass[i] / 10 + 1));
+                MetricNode node = new MetricNode();
+                node.setTimestamp(time + s * 1000);
+                node.setResource("com.alibaba.csp.sentinel.demo.OrderService:createOrder" + i
+                    + "(java.lang.String,long)");
+                node.setPassQps(pass);
+                node.setSuccessQps(pass);
+                node.setBlockQps(random.nextInt(10) == 0 ? random.nextInt(20) : 0);
+                node.setRt(5 + random.nextInt(3));
+                node.setConcurrency(random.nextInt(4));
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
+    static long lastTimestamp(List<MetricNode> nodes) {
+        return nodes.get(nodes.size() - 1).getTimestamp();
+    }
+
+    static String encodeText(List<MetricNode> nodes) {
+        StringBuilder sb = new StringBuilder();
+        for (MetricNode node : nodes) {
+            sb.append(node.toThinString()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String testEncodeText() {
+        return encodeText(nodes);
+    }
+
+    @Benchmark
+    public String testEncodeDelta() {
+        return encoder.encode(nodes, cursor, cursor, decoder.getEpoch(), decoder.getDictSize());
+    }
+
+    @Benchmark
+    public List<MetricNode> testDecodeText() {
+        String[] lines = text.split("\n");
+        List<MetricNode> list = new ArrayList<MetricNode>(lines.length);
+        for (String line : lines) {
+            list.add(MetricNode.fromThinString(line));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<MetricNode> testDecodeDelta() throws Exception {
+        return decoder.decode(delta);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.node.metric.MappedMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MappedMetricWriter;
+import com.alibaba.csp.sentinel.node.metric.MetricLogSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricLogWriter;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the text and binary metric logs: the cost of writing the metrics of one second,
+ * and the latency of the queries of the dashboard, as the amount of resources grows.
+ * The logs are written to a temporary directory, which is removed after each trial.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricLogBenchmark {
+
+    private static final int PREFILL_SECONDS = 120;
+    private static final long SINGLE_FILE_SIZE = 64 * 1024 * 1024;
+    private static final int TOTAL_FILE_COUNT = 8;
+
+    static {
+        try {
+            // Must be set before the metric writer is loaded, as the base directory is resolved only once.
+            System.setProperty(LogBase.LOG_DIR,
+                Files.createTempDirectory("sentinel-metric-benchmark").toFile().getAbsolutePath());
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Param({SentinelConfig.METRIC_FILE_FORMAT_TEXT, SentinelConfig.METRIC_FILE_FORMAT_BINARY})
+    private String format;
+
+    @Param({"100", "1000", "5000"})
+    private int resourceCount;
+
+    private MetricLogWriter writer;
+    private MetricLogSearcher searcher;
+    private List<MetricNode> nodes;
+    private long baseTime;
+    private long time;
+    private int queryIndex;
+
+    @Setup
+    public void prepare() throws Exception {
+        cleanBaseDir();
+        String appName = SentinelConfig.getAppName();
+        int pid = PidUtil.getPid();
+        if (SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format)) {
+            writer = new MappedMetricWriter(SINGLE_FILE_SIZE, TOTAL_FILE_COUNT);
+            searcher = new MappedMetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                MappedMetricWriter.formMetricFileName(appName, pid));
+        } else {
+            writer = new MetricWriter(SINGLE_FILE_SIZE, TOTAL_FILE_COUNT);
+            searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                MetricWriter.formMetricFileName(appName, pid));
+        }
+        nodes = new ArrayList<MetricNode>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("com.alibaba.csp.sentinel.benchmark.Service:method" + i + "(java.lang.String)");
+            node.setPassQps(100 + i);
+            node.setSuccessQps(100 + i);
+            node.setBlockQps(i % 10);
+            node.setRt(5);
+            node.setConcurrency(2);
+            nodes.add(node);
+        }
+        // The text writer ignores the seconds before it was created.
+        baseTime = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        for (time = baseTime; time < baseTime + PREFILL_SECONDS * 1000; time += 1000) {
+            writer.write(time, nodes);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        writer.close();
+        cleanBaseDir();
+    }
+
+    private static void cleanBaseDir() {
+        File[] files = new File(MetricWriter.METRIC_BASE_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Benchmark
+    public long testWriteSecond() throws Exception {
+        writer.write(time, nodes);
+        time += 1000;
+        return time;
+    }
+
+    /**
+     * Fetch all the resources of one second, as the dashboard does periodically.
+     */
+    @Benchmark
+    public List<MetricNode> testFindAllResourcesOfSecond() throws Exception {
+        long second = baseTime + (nextQuery() % PREFILL_SECONDS) * 1000;
+        return searcher.findByTimeAndResource(second, second + 999, null);
+    }
+
+    /**
+     * Fetch one resource in one minute, as the dashboard does for a single resource chart.
+     */
+    @Benchmark
+    public List<MetricNode> testFindResourceOfMinute() throws Exception {
+        int query = nextQuery();
+        long begin = baseTime + (query % (PREFILL_SECONDS - 60)) * 1000;
+        return searcher.findByTimeAndResource(begin, begin + 59999, nodes.get(query % resourceCount).getResource());
+    }
+
+    private int nextQuery() {
+        return (queryIndex = queryIndex * 31 + 17) & Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaDecoder;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaEncoder;
+
+/**
+ * <p>Reports the bytes of the response of the {@code metric} command for one fetch of a machine,
+ * in the text format and in the delta format, for the first fetch (with the full resource
+ * dictionary) and the following ones.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.MetricWireSizeHarness
+ * [resourceCount...]}</p>
+ */
+public final class MetricWireSizeHarness {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String[] args) throws Exception {
+        int[] resourceCounts = args.length > 0 ? new int[args.length] : new int[] {100, 500, 2000};
+        for (int i = 0; i < args.length; i++) {
+            resourceCounts[i] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("%10s %12s %12s %12s %8s%n", "resources", "text", "delta-first", "delta-next",
+            "ratio");
+        for (int resourceCount : resourceCounts) {
+            List<MetricNode> first = MetricDeltaBenchmark.newNodes(resourceCount,
+                MetricDeltaBenchmark.FETCH_SECONDS, 1);
+            List<MetricNode> next = MetricDeltaBenchmark.newNodes(resourceCount,
+                MetricDeltaBenchmark.FETCH_SECONDS, 2);
+            MetricDeltaEncoder encoder = new MetricDeltaEncoder();
+            MetricDeltaDecoder decoder = new MetricDeltaDecoder();
+
+            int textBytes = MetricDeltaBenchmark.encodeText(next).getBytes(UTF_8).length;
+            String firstDelta = encoder.encode(first, decoder.getCursor(),
+                MetricDeltaBenchmark.lastTimestamp(first), decoder.getEpoch(), decoder.getDictSize());
+            decoder.decode(firstDelta);
+            String nextDelta = encoder.encode(next, decoder.getCursor(),
+                MetricDeltaBenchmark.lastTimestamp(next), decoder.getEpoch(), decoder.getDictSize());
+            if (decoder.decode(nextDelta).size() != next.size()) {
+                throw new IllegalStateException("Decoded metrics mismatch");
+            }
+            int nextBytes = nextDelta.getBytes(UTF_8).length;
+            System.out.printf("%10d %12d %12d %12d %7.1fx%n", resourceCount, textBytes,
+                firstDelta.getBytes(UTF_8).length, nextBytes, (double)textBytes / nextBytes);
+        }
+    }
+
+    private MetricWireSizeHarness() {}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+
+/**
+ * <p>Reports the retained heap of statistic nodes of a topology: each resource has a cluster node, a
+ * {@code DefaultNode} in each context and an origin node for each caller. The nodes are updated every 100 ms
+ * for a minute like live traffic, so that all buckets of the sliding windows are created. The metric log
+ * reads all cluster nodes each second, and a rule reads the minute-level statistics of one origin node of some
+ * resources.</p>
+ *
+ * <p>Each topology is measured with minute-level statistics of all nodes (the former behavior), lazy
+ * minute-level statistics, and additionally second-level statistics shared with the cluster node.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.NodeFootprint
+ * [resources] [contexts] [origins] [seconds]}</p>
+ */
+public final class NodeFootprint {
+
+    /**
+     * One of this many resources has a rule reading minute-level statistics (e.g. warm-up).
+     */
+    private static final int RULE_RESOURCE_INTERVAL = 10;
+    private static final int TICKS_PER_SECOND = 10;
+
+    public static void main(String[] args) throws Exception {
+        int resources = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int contexts = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int origins = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 61;
+
+        report("eager", false, false, resources, contexts, origins, seconds);
+        report("lazy", true, false, resources, contexts, origins, seconds);
+        report("lazy+shared", true, true, resources, contexts, origins, seconds);
+    }
+
+    private static void report(String mode, boolean lazy, boolean shared, int resources, int contexts, int origins,
+                               int seconds) throws Exception {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_MINUTE_LAZY, String.valueOf(lazy));
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_DEFAULT_NODE_SHARED, String.valueOf(shared));
+
+        long before = usedHeap();
+        Topology topology = new Topology(resources, contexts, origins);
+        for (int i = 0; i < seconds * TICKS_PER_SECOND; i++) {
+            long start = System.currentTimeMillis();
+            topology.touch();
+            if (i % TICKS_PER_SECOND == 0) {
+                topology.read();
+            }
+            Thread.sleep(Math.max(0, 1000 / TICKS_PER_SECOND - (System.currentTimeMillis() - start)));
+        }
+        long after = usedHeap();
+
+        int nodes = resources * (1 + contexts + origins);
+        System.out.printf("mode=%s, resources=%d, contexts=%d, origins=%d: %.1f MB retained, %d bytes/node%n",
+            mode, resources, contexts, origins, (after - before) / 1024.0 / 1024.0, (after - before) / nodes);
+        // Keep the nodes reachable until measured.
+        if (topology.clusterNodes.get(0).totalRequest() < 0) {
+            System.out.println("unexpected");
+        }
+    }
+
+    private static class Topology {
+
+        private final List<ClusterNode> clusterNodes = new ArrayList<>();
+        private final List<DefaultNode> defaultNodes = new ArrayList<>();
+        private final List<Node> originNodes = new ArrayList<>();
+
+        Topology(int resources, int contexts, int origins) {
+            for (int r = 0; r < resources; r++) {
+                String resource = "resource-" + r;
+                ClusterNode clusterNode = new ClusterNode(resource);
+                clusterNodes.add(clusterNode);
+                for (int c = 0; c < contexts; c++) {
+                    DefaultNode node = new DefaultNode(new StringResourceWrapper(resource, EntryType.IN), null);
+                    node.setClusterNode(clusterNode);
+                    defaultNodes.add(node);
+                }
+                for (int o = 0; o < origins; o++) {
+                    originNodes.add(clusterNode.getOrCreateOriginNode("origin-" + o));
+                }
+            }
+        }
+
+        /**
+         * Record a request in every node like {@code StatisticSlot}.
+         */
+        void touch() {
+            for (DefaultNode node : defaultNodes) {
+                node.addPassRequest(1);
+                node.addRtAndSuccess(5, 1);
+            }
+            for (Node node : originNodes) {
+                node.addPassRequest(1);
+                node.addRtAndSuccess(5, 1);
+            }
+        }
+
+        /**
+         * Read like the metric log and rules.
+         */
+        void read() {
+            for (int i = 0; i < clusterNodes.size(); i++) {
+                ClusterNode node = clusterNodes.get(i);
+                node.metrics();
+                if (i % RULE_RESOURCE_INTERVAL == 0) {
+                    // A warm-up rule limiting one origin.
+                    node.getOrCreateOriginNode("origin-0").previousPassQps();
+                }
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private NodeFootprint() {}
+}
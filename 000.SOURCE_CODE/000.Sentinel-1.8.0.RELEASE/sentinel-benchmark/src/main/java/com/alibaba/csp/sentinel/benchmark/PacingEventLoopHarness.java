@@ -0,0 +1,169 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+/**
+ * <p>Reports how a single event loop thread copes with requests offered at a rate far above the threshold
+ * of a rate limiter (queueing) flow rule, when entering with {@link SphU#entry(String)} (which waits in the
+ * event loop for the pass time) and with {@link SphU#asyncEntryWithPacing} (which schedules the invocation
+ * at the pass time instead).</p>
+ *
+ * <p>A producer thread posts requests to the event loop at the offered rate. For each mode the harness reports
+ * the requests handled by the event loop within the period, the passed ones, and the dispatch latency (from
+ * posting to being handled by the event loop) of the handled requests.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.PacingEventLoopHarness
+ * [offeredQps] [thresholdQps] [maxQueueingTimeMs] [seconds]}</p>
+ */
+public final class PacingEventLoopHarness {
+
+    private static final String RESOURCE = "pacing-event-loop-resource";
+
+    public static void main(String[] args) throws Exception {
+        int offeredQps = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int thresholdQps = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int maxQueueingTimeMs = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        System.out.printf("%-8s %10s %10s %10s %12s %12s%n", "mode", "offered", "handled", "passed",
+            "p50(ms)", "p99(ms)");
+        for (boolean pacing : new boolean[] {false, true}) {
+            FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE).setCount(thresholdQps)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(maxQueueingTimeMs)));
+            run(pacing, offeredQps, 1);
+            report(pacing, run(pacing, offeredQps, seconds));
+            FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        }
+        System.exit(0);
+    }
+
+    private static void report(boolean pacing, Result result) {
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %10d %10d %10d %12.2f %12.2f%n", pacing ? "pacing" : "blocking", result.offered,
+            latencies.length, result.passed, percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int)(sorted.length * p))];
+    }
+
+    private static Result run(final boolean pacing, int offeredQps, int seconds) throws InterruptedException {
+        final ScheduledThreadPoolExecutor eventLoop = new ScheduledThreadPoolExecutor(1);
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        final long[] latencies = new long[offeredQps * seconds];
+        final int[] handled = new int[1];
+        final AtomicLong passed = new AtomicLong();
+
+        long offered = 0;
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            // Post all requests due by now, so that the offered rate does not depend on the timer resolution.
+            long due = (now - start) * offeredQps / TimeUnit.SECONDS.toNanos(1);
+            for (; offered < due; offered++) {
+                final long postedAt = System.nanoTime();
+                eventLoop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        long dispatchedAt = System.nanoTime();
+                        if (dispatchedAt >= deadline) {
+                            return;
+                        }
+                        latencies[handled[0]++] = dispatchedAt - postedAt;
+                        handle(eventLoop, pacing, passed);
+                    }
+                });
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        }
+        // Requests left in the queue of a stalled event loop are not handled within the period.
+        eventLoop.shutdownNow();
+        eventLoop.awaitTermination(10, TimeUnit.SECONDS);
+        return new Result(offered, Arrays.copyOf(latencies, handled[0]), passed.get());
+    }
+
+    private static void handle(ScheduledThreadPoolExecutor eventLoop, boolean pacing, final AtomicLong passed) {
+        if (!pacing) {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(RESOURCE);
+                passed.incrementAndGet();
+            } catch (BlockException ex) {
+                // Rejected.
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+            }
+            return;
+        }
+        try {
+            final AsyncEntry entry = SphU.asyncEntryWithPacing(RESOURCE, ResourceTypeConstants.COMMON,
+                EntryType.IN, 1, new Object[0]);
+            Runnable invocation = new Runnable() {
+                @Override
+                public void run() {
+                    passed.incrementAndGet();
+                    entry.exit();
+                }
+            };
+            long delay = entry.getPacingDelayMs();
+            if (delay > 0) {
+                eventLoop.schedule(invocation, delay, TimeUnit.MILLISECONDS);
+            } else {
+                invocation.run();
+            }
+        } catch (BlockException ex) {
+            // Rejected.
+        }
+    }
+
+    private static final class Result {
+        private final long offered;
+        private final long[] latencies;
+        private final long passed;
+
+        private Result(long offered, long[] latencies, long passed) {
+            this.offered = offered;
+            this.latencies = latencies;
+            this.passed = passed;
+        }
+    }
+
+    private PacingEventLoopHarness() {}
+}
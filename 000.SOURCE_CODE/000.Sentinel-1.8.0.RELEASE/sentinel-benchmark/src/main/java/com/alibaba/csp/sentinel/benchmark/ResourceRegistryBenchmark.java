@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the first entry of new resources (i.e. slot chain and cluster node creation),
+ * as the amount of already registered resources grows.
+ *
+ * <p>In each measured batch, every thread enters {@link #BATCH_SIZE} distinct resources that have never been
+ * entered before.</p>
+ */
+@Warmup(iterations = 5, batchSize = ResourceRegistryBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = ResourceRegistryBenchmark.BATCH_SIZE)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResourceRegistryBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    /**
+     * Amount of resources that have been registered before measuring.
+     */
+    @Param({"0", "1000", "2000", "4000"})
+    private int registeredCount;
+
+    private final AtomicInteger seq = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void prepare() throws Exception {
+        Method resetChainMap = CtSph.class.getDeclaredMethod("resetChainMap");
+        resetChainMap.setAccessible(true);
+        resetChainMap.invoke(null);
+        ClusterBuilderSlot.getClusterNodeMap().clear();
+        resetEntranceChildren();
+
+        seq.set(0);
+        for (int i = 0; i < registeredCount; i++) {
+            entryAndExit("registered-res-" + i);
+        }
+    }
+
+    private void resetEntranceChildren() throws BlockException {
+        Entry e = SphU.entry("benchmark-reset");
+        ContextUtil.getContext().getEntranceNode().removeChildList();
+        e.exit();
+    }
+
+    private void entryAndExit(String resourceName) {
+        Entry e = null;
+        try {
+            e = SphU.entry(resourceName);
+        } catch (BlockException ex) {
+            // Ignore.
+        } finally {
+            if (e != null) {
+                e.exit();
+            }
+        }
+    }
+
+    private void doFirstEntry() {
+        entryAndExit("new-res-" + seq.getAndIncrement());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testFirstEntrySingleThread() {
+        doFirstEntry();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void testFirstEntry4Threads() {
+        doFirstEntry();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void testFirstEntry16Threads() {
+        doFirstEntry();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the cost of rule checking in a whole entry, with the given amount of flow, circuit breaking
+ * and parameter flow rules per resource (and one authority rule when there are rules). Other resources also
+ * have rules, so that lookups go through populated rule maps. Thresholds are never reached.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RuleCheckBenchmark {
+
+    private static final String RESOURCE_NAME = "rule-check-benchmark";
+    private static final String CONTEXT_NAME = "rule-check-benchmark-context";
+    private static final String ORIGIN = "rule-check-benchmark-app";
+    private static final int OTHER_RESOURCES = 100;
+    private static final double MAX_COUNT = 1e9;
+
+    @Param({"0", "1", "10"})
+    private int ruleCount;
+
+    private final Object[] args = new Object[] {"param"};
+
+    @Setup
+    public void prepare() {
+        List<FlowRule> flowRules = new ArrayList<>();
+        List<DegradeRule> degradeRules = new ArrayList<>();
+        List<ParamFlowRule> paramFlowRules = new ArrayList<>();
+        List<AuthorityRule> authorityRules = new ArrayList<>();
+        for (int i = 0; i < OTHER_RESOURCES; i++) {
+            addRules(RESOURCE_NAME + "-other-" + i, 1, flowRules, degradeRules, paramFlowRules, authorityRules);
+        }
+        addRules(RESOURCE_NAME, ruleCount, flowRules, degradeRules, paramFlowRules, authorityRules);
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+        ParamFlowRuleManager.loadRules(paramFlowRules);
+        AuthorityRuleManager.loadRules(authorityRules);
+    }
+
+    private static void addRules(String resource, int count, List<FlowRule> flowRules,
+                                 List<DegradeRule> degradeRules, List<ParamFlowRule> paramFlowRules,
+                                 List<AuthorityRule> authorityRules) {
+        for (int i = 0; i < count; i++) {
+            // Distinct thresholds, so that the rules are not deduplicated.
+            flowRules.add(new FlowRule(resource).setCount(MAX_COUNT + i));
+            degradeRules.add(new DegradeRule(resource)
+                .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+                .setCount(0.5)
+                .setTimeWindow(10 + i));
+            paramFlowRules.add(new ParamFlowRule(resource).setParamIdx(0).setCount(MAX_COUNT + i));
+        }
+        if (count > 0) {
+            AuthorityRule rule = new AuthorityRule();
+            rule.setResource(resource);
+            rule.setLimitApp("app-a,app-b," + ORIGIN);
+            rule.setStrategy(RuleConstant.AUTHORITY_WHITE);
+            authorityRules.add(rule);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+        DegradeRuleManager.loadRules(null);
+        ParamFlowRuleManager.loadRules(null);
+        AuthorityRuleManager.loadRules(Collections.<AuthorityRule>emptyList());
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        @Setup
+        public void enter() {
+            ContextUtil.enter(CONTEXT_NAME, ORIGIN);
+        }
+
+        @TearDown
+        public void exit() {
+            ContextUtil.exit();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testEntry(ThreadState state) {
+        try (Entry entry = SphU.entry(RESOURCE_NAME, EntryType.IN, 1, args)) {
+            return entry != null;
+        } catch (BlockException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.datasource.snapshot.FlowRuleSnapshotCodec;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleMapUtil;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.fastjson.JSON;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for loading flow rules: parsing JSON rules vs decoding binary rule snapshots, and applying
+ * a push with one changed rule by rebuilding the whole rule map vs updating the rule map by diff
+ * (as {@code FlowRuleManager} does).
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RuleLoadBenchmark {
+
+    private static final Function<FlowRule, String> RESOURCE = new Function<FlowRule, String>() {
+        @Override
+        public String apply(FlowRule rule) {
+            return rule.getResource();
+        }
+    };
+
+    @Param({"10000", "100000"})
+    private int ruleCount;
+
+    private final FlowRuleSnapshotCodec codec = new FlowRuleSnapshotCodec();
+    private String json;
+    private byte[] snapshot;
+
+    /**
+     * Two pushes differing in one rule, applied alternately.
+     */
+    private List<FlowRule> rulesA;
+    private List<FlowRule> rulesB;
+    private boolean applyA;
+    private final Map<String, List<FlowRule>> ruleMap = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() {
+        rulesA = generateRules(ruleCount);
+        rulesB = generateRules(ruleCount);
+        rulesB.get(ruleCount / 2).setCount(1);
+        json = JSON.toJSONString(rulesA);
+        snapshot = codec.encode(1, rulesA);
+        ruleMap.putAll(FlowRuleUtil.buildFlowRuleMap(rulesA));
+        System.out.printf("%nJSON: %d bytes, snapshot: %d bytes%n", json.length(), snapshot.length);
+    }
+
+    static List<FlowRule> generateRules(int count) {
+        List<FlowRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FlowRule rule = new FlowRule("com.alibaba.demo.service.DemoService:sayHello" + (i / 2) + "(java.lang.String)")
+                .setCount(100 + i % 50);
+            if (i % 2 == 1) {
+                rule.setLimitApp("app-" + (i % 10));
+            }
+            if (i % 5 == 0) {
+                rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP);
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private List<FlowRule> nextPush() {
+        applyA = !applyA;
+        return applyA ? rulesA : rulesB;
+    }
+
+    @Benchmark
+    public List<FlowRule> testParseJson() {
+        return JSON.parseArray(json, FlowRule.class);
+    }
+
+    @Benchmark
+    public List<FlowRule> testDecodeSnapshot() {
+        return codec.decode(snapshot);
+    }
+
+    @Benchmark
+    public Map<String, List<FlowRule>> testApplyFullRebuild() {
+        Map<String, List<FlowRule>> newRuleMap = FlowRuleUtil.buildFlowRuleMap(nextPush());
+        ruleMap.clear();
+        ruleMap.putAll(newRuleMap);
+        return ruleMap;
+    }
+
+    @Benchmark
+    public Map<String, List<FlowRule>> testApplyDiff() {
+        Map<String, List<FlowRule>> newRuleMap = FlowRuleUtil.buildFlowRuleMap(nextPush(), RESOURCE, null, true,
+            ruleMap);
+        RuleMapUtil.updateRuleMap(ruleMap, newRuleMap);
+        return ruleMap;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>In-process harness of sharded token servers: starts several token servers in one JVM, assigns the
+ * token client to the first 1, 2, ... of them as shard servers, and reports the throughput of token
+ * requests of many flows from concurrent threads, together with how the flows spread over the servers.</p>
+ *
+ * <p>The same client is re-assigned for each shard count, so the harness also goes through membership
+ * changes: connections to the remaining servers are kept. All servers run in the same JVM, so the scaling
+ * is bound by the CPU cores of the machine.</p>
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.ShardedTokenServerHarness
+ * [maxShards] [threads] [seconds]}</p>
+ */
+public final class ShardedTokenServerHarness {
+
+    private static final String NAMESPACE = "benchmark-namespace";
+    private static final int FLOW_COUNT = 256;
+
+    public static void main(String[] args) throws Exception {
+        int maxShards = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        InitExecutor.doInit();
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        List<FlowRule> rules = new ArrayList<>(FLOW_COUNT);
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            FlowRule rule = new FlowRule("cluster-shard-resource-" + flowId).setCount(1e9);
+            rule.setClusterMode(true);
+            rule.setClusterConfig(new ClusterFlowConfig().setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+            rules.add(rule);
+        }
+        // Every server has all rules, and only serves the flows it owns.
+        ClusterFlowRuleManager.loadRules(NAMESPACE, rules);
+
+        List<NettyTransportServer> servers = new ArrayList<>(maxShards);
+        List<String> addresses = new ArrayList<>(maxShards);
+        for (int i = 0; i < maxShards; i++) {
+            int port = findFreePort();
+            NettyTransportServer server = new NettyTransportServer(port);
+            server.start();
+            servers.add(server);
+            addresses.add("127.0.0.1:" + port);
+        }
+
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig()
+            .setShardServers(addresses.subList(0, 1)));
+        DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+        client.start();
+
+        System.out.printf("%8s %14s %10s  %s%n", "shards", "requests/s", "failed", "flows per server");
+        double baseline = 0;
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig()
+                .setShardServers(new ArrayList<>(addresses.subList(0, shards))));
+            awaitReady(client);
+            run(client, threads, 1);
+            long[] result = run(client, threads, seconds);
+            double throughput = result[0] / (double)seconds;
+            if (shards == 1) {
+                baseline = throughput;
+            }
+            System.out.printf("%8d %14.0f %10d  %s (%.2fx)%n", shards, throughput, result[1],
+                flowsPerServer(client).values(), throughput / baseline);
+        }
+
+        client.stop();
+        for (NettyTransportServer server : servers) {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static long[] run(final DefaultClusterTokenClient client, int threads, int seconds)
+        throws InterruptedException {
+        final AtomicLong passed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final long deadline = System.currentTimeMillis() + seconds * 1000L;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long ok = 0;
+                    long fail = 0;
+                    while (System.currentTimeMillis() < deadline) {
+                        long flowId = 1 + ThreadLocalRandom.current().nextInt(FLOW_COUNT);
+                        if (client.requestToken(flowId, 1, false).getStatus() == TokenResultStatus.OK) {
+                            ok++;
+                        } else {
+                            fail++;
+                        }
+                    }
+                    passed.addAndGet(ok);
+                    failed.addAndGet(fail);
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        return new long[] {passed.get(), failed.get()};
+    }
+
+    private static Map<Integer, Integer> flowsPerServer(DefaultClusterTokenClient client) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            TokenServerDescriptor owner = client.getOwnerServer(flowId);
+            Integer count = counts.get(owner.getPort());
+            counts.put(owner.getPort(), count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    private static void awaitReady(DefaultClusterTokenClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (client.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token client is not ready");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static int findFreePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private ShardedTokenServerHarness() {}
+}
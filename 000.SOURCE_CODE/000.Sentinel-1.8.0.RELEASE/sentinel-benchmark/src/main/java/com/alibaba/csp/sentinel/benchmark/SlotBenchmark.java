@@ -0,0 +1,218 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlot;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for each processor slot on its own, i.e. the cost one slot adds to an entry.
+ * The flow slot is measured with each traffic shaping controller and the degrade slot with
+ * each circuit breaker. Rules are configured with thresholds that are never reached, so that
+ * the whole checking path is measured rather than the cost of throwing {@code BlockException}.</p>
+ *
+ * <p>Each invocation runs in a context holding a real entry of another resource, as the slots
+ * read the current entry of the context.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SlotBenchmark {
+
+    private static final String RESOURCE_NAME = "slot-benchmark";
+    private static final String CONTEXT_NAME = "slot-benchmark-context";
+    private static final String ORIGIN = "slot-benchmark-app";
+    private static final double MAX_COUNT = 1e9;
+    private static final int PARAM_COUNT = 1024;
+
+    @Param({"nodeSelector", "clusterBuilder", "statistic", "flow-default", "flow-rateLimiter", "flow-warmUp",
+        "flow-warmUpRateLimiter", "degrade-responseTime", "degrade-exception", "system", "authority", "paramFlow"})
+    private String slot;
+
+    private ProcessorSlot<Object> processorSlot;
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Long[] params;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void prepare() {
+        resource = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(RESOURCE_NAME));
+
+        params = new Long[PARAM_COUNT];
+        for (int i = 0; i < PARAM_COUNT; i++) {
+            params[i] = 1000000L + i;
+        }
+
+        String type = slot.contains("-") ? slot.substring(0, slot.indexOf('-')) : slot;
+        if ("nodeSelector".equals(type)) {
+            processorSlot = (ProcessorSlot)new NodeSelectorSlot();
+        } else if ("clusterBuilder".equals(type)) {
+            processorSlot = (ProcessorSlot)new ClusterBuilderSlot();
+        } else if ("statistic".equals(type)) {
+            processorSlot = (ProcessorSlot)new StatisticSlot();
+        } else if ("flow".equals(type)) {
+            processorSlot = (ProcessorSlot)new FlowSlot();
+            FlowRuleManager.loadRules(Collections.singletonList(flowRule(slot.substring(type.length() + 1))));
+        } else if ("degrade".equals(type)) {
+            processorSlot = (ProcessorSlot)new DegradeSlot();
+            DegradeRuleManager.loadRules(Collections.singletonList(degradeRule(slot.substring(type.length() + 1))));
+        } else if ("system".equals(type)) {
+            processorSlot = (ProcessorSlot)new SystemSlot();
+            SystemRule rule = new SystemRule();
+            rule.setQps(MAX_COUNT);
+            rule.setMaxThread((long)MAX_COUNT);
+            SystemRuleManager.loadRules(Collections.singletonList(rule));
+        } else if ("authority".equals(type)) {
+            processorSlot = (ProcessorSlot)new AuthoritySlot();
+            AuthorityRule rule = new AuthorityRule();
+            rule.setResource(RESOURCE_NAME);
+            rule.setLimitApp("app-a,app-b," + ORIGIN);
+            rule.setStrategy(RuleConstant.AUTHORITY_WHITE);
+            AuthorityRuleManager.loadRules(Collections.singletonList(rule));
+        } else if ("paramFlow".equals(type)) {
+            processorSlot = (ProcessorSlot)new ParamFlowSlot();
+            ParamFlowRuleManager.loadRules(Collections.singletonList(new ParamFlowRule(RESOURCE_NAME)
+                .setParamIdx(0)
+                .setCount(MAX_COUNT)));
+        } else {
+            throw new IllegalArgumentException("Unknown slot: " + slot);
+        }
+    }
+
+    private static FlowRule flowRule(String controller) {
+        FlowRule rule = new FlowRule(RESOURCE_NAME).setCount(MAX_COUNT);
+        if ("rateLimiter".equals(controller)) {
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(0);
+        } else if ("warmUp".equals(controller)) {
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP).setWarmUpPeriodSec(10);
+        } else if ("warmUpRateLimiter".equals(controller)) {
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER)
+                .setWarmUpPeriodSec(10)
+                .setMaxQueueingTimeMs(0);
+        }
+        return rule;
+    }
+
+    private static DegradeRule degradeRule(String breaker) {
+        DegradeRule rule = new DegradeRule(RESOURCE_NAME).setTimeWindow(10).setMinRequestAmount(5);
+        if ("responseTime".equals(breaker)) {
+            // The response time is measured from the creation of the holder entry, so the threshold is unreachable.
+            return rule.setGrade(RuleConstant.DEGRADE_GRADE_RT).setCount(Integer.MAX_VALUE).setSlowRatioThreshold(1);
+        }
+        return rule.setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO).setCount(0.5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+        DegradeRuleManager.loadRules(null);
+        SystemRuleManager.loadRules(null);
+        AuthorityRuleManager.loadRules(null);
+        ParamFlowRuleManager.loadRules(null);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        Context context;
+        Entry holder;
+        final Object[] args = new Object[1];
+        int index;
+
+        @Setup
+        public void enter() throws Exception {
+            context = ContextUtil.enter(CONTEXT_NAME, ORIGIN);
+            holder = SphU.entry("slot-benchmark-holder");
+        }
+
+        @TearDown
+        public void exit() {
+            holder.exit();
+            ContextUtil.exit();
+        }
+    }
+
+    private void entryAndExit(ThreadState state) throws Throwable {
+        Context context = state.context;
+        // Reset the current node, as the node selector slot replaces it.
+        context.setCurNode(node);
+        Object[] args = state.args;
+        state.index = (state.index + 1) & (PARAM_COUNT - 1);
+        args[0] = params[state.index];
+        processorSlot.entry(context, resource, node, 1, false, args);
+        processorSlot.exit(context, resource, 1, args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryExit1Thread(ThreadState state) throws Throwable {
+        entryAndExit(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void testEntryExit4Threads(ThreadState state) throws Throwable {
+        entryAndExit(state);
+    }
+}
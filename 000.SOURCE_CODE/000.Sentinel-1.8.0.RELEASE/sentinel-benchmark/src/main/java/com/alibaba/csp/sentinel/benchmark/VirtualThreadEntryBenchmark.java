@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for entries of a new resource in the given amount of concurrent virtual threads, each of which
+ * enters a context, enters and exits the resource, and exits the context. All threads are started and wait
+ * at a gate before entering, so the invocation tree and the slot chain of the resource are created under
+ * contention.</p>
+ *
+ * <p>Virtual threads are created reflectively, so the benchmark should be run on JDK 21+ (the benchmark jar
+ * itself is built for JDK 1.8).</p>
+ */
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VirtualThreadEntryBenchmark {
+
+    private static final String CONTEXT_NAME = "virtual-thread-benchmark-context";
+
+    @Param({"false", "true"})
+    private boolean pooling;
+
+    @Param({"100000", "1000000"})
+    private int threadCount;
+
+    private final AtomicInteger resourceIndex = new AtomicInteger();
+
+    private ThreadFactory virtualThreadFactory;
+    private String resource;
+
+    @Setup
+    public void prepare() throws Exception {
+        // Set before the first entry, as the mode is resolved once.
+        SentinelConfig.setConfig(SentinelConfig.ENTRY_POOLING, String.valueOf(pooling));
+        Object builder;
+        try {
+            builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Virtual threads require JDK 21+", ex);
+        }
+        virtualThreadFactory = (ThreadFactory)Class.forName("java.lang.Thread$Builder")
+            .getMethod("factory").invoke(builder);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextResource() {
+        resource = "virtual-thread-benchmark-" + resourceIndex.getAndIncrement();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int testEntry() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final AtomicInteger passed = new AtomicInteger();
+        final String resourceName = resource;
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    gate.await();
+                    ContextUtil.enter(CONTEXT_NAME);
+                    try (Entry entry = SphU.entry(resourceName)) {
+                        passed.incrementAndGet();
+                    } catch (BlockException ex) {
+                        // Not blocked without rules.
+                    } finally {
+                        ContextUtil.exit();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < threadCount; i++) {
+            virtualThreadFactory.newThread(task).start();
+        }
+        gate.countDown();
+        done.await();
+        return passed.get();
+    }
+}
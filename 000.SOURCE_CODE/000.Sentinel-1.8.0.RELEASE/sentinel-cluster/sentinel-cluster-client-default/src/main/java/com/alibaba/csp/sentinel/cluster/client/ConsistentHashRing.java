@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Consistent hash ring that maps flow IDs to nodes (e.g. token servers).</p>
+ *
+ * <p>Each node is placed on the ring at {@code virtualNodeCount} points hashed from its name, and a flow ID
+ * belongs to the first node point clockwise from the hash of the flow ID. Adding or removing one node of N
+ * only moves about 1/N of the flow IDs, and the other flow IDs keep their owners. The ring is immutable.</p>
+ *
+ * @param <T> type of the nodes
+ * @since 1.8.1
+ */
+public final class ConsistentHashRing<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final long[] points;
+    private final Object[] owners;
+    private final int nodeCount;
+
+    /**
+     * @param nodes            nodes by their names, the names decide the places of the nodes on the ring
+     * @param virtualNodeCount amount of points of each node on the ring
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodeCount) {
+        AssertUtil.notNull(nodes, "nodes cannot be null");
+        AssertUtil.isTrue(virtualNodeCount > 0, "virtualNodeCount should be positive");
+        List<Point> ring = new ArrayList<>(nodes.size() * virtualNodeCount);
+        for (Map.Entry<String, T> node : nodes.entrySet()) {
+            long nameHash = hash(node.getKey());
+            for (int i = 0; i < virtualNodeCount; i++) {
+                ring.add(new Point(mix(nameHash + i * 0x9E3779B97F4A7C15L), node.getValue()));
+            }
+        }
+        Collections.sort(ring);
+        this.points = new long[ring.size()];
+        this.owners = new Object[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash;
+            owners[i] = ring.get(i).owner;
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    /**
+     * Get the node that owns the flow.
+     *
+     * @param flowId flow ID
+     * @return owner node of the flow, or null if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long flowId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, mix(flowId));
+        if (i < 0) {
+            i = -i - 1;
+            if (i == points.length) {
+                i = 0;
+            }
+        }
+        return (T)owners[i];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public boolean isEmpty() {
+        return nodeCount == 0;
+    }
+
+    private static long hash(String name) {
+        // 64-bit FNV-1a.
+        long h = 0xCBF29CE484222325L;
+        for (byte b : name.getBytes(UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        // Finalizer of MurmurHash3 (64-bit), so that sequential flow IDs spread over the ring.
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Point implements Comparable<Point> {
+
+        private final long hash;
+        private final Object owner;
+
+        private Point(long hash, Object owner) {
+            this.hash = hash;
+            this.owner = owner;
+        }
+
+        @Override
+        public int compareTo(Point o) {
+            return Long.compare(hash, o.hash);
+        }
+    }
+}
@@ -16,6 +16,14 @@
 package com.alibaba.csp.sentinel.cluster.client;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -26,30 +34,69 @@ import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
+import com.alibaba.csp.sentinel.cluster.client.TokenLeaseTable.FlowLease;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.log.RecordLog;
-import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
- * Default implementation of {@link ClusterTokenClient}.
+ * <p>Default implementation of {@link ClusterTokenClient}.</p>
+ *
+ * <p>The client may be assigned to a group of shard token servers, in which case each token request is sent
+ * to the server that owns the flow ID on a consistent hash ring.</p>
+ *
+ * <p>If token lease is enabled, flow token requests that are not prioritized are served from the token
+ * leases granted by the token servers without a round trip, see {@link TokenLeaseTable}.</p>
  *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
-    private ClusterTransportClient transportClient;
-    private TokenServerDescriptor serverDescriptor;
+    /**
+     * Amount of points of each token server on the consistent hash ring.
+     */
+    static final int VIRTUAL_NODE_COUNT = 160;
+
+    private static final int LEASE_REFRESH_QUEUE_SIZE = 1024;
+
+    /**
+     * Token servers and their transport clients. With more than one server (shard servers), flow IDs are
+     * assigned to the servers by consistent hashing.
+     */
+    private volatile ServerShards shards = ServerShards.EMPTY;
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
+    private final boolean batchEnabled;
+
+    /**
+     * Token leases of flows, null if token lease is disabled.
+     */
+    private final TokenLeaseTable leaseTable;
+    private final ExecutorService leaseRefreshExecutor;
+
     public DefaultClusterTokenClient() {
+        this.batchEnabled = ClusterClientStartUpConfig.isBatchEnabled();
+        if (ClusterClientStartUpConfig.isLeaseEnabled()) {
+            this.leaseTable = new TokenLeaseTable(ClusterClientStartUpConfig.getLeaseFailBackoffMs());
+            // Renewals are deduplicated per flow, so the queue is bounded by the amount of flows in use.
+            this.leaseRefreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(LEASE_REFRESH_QUEUE_SIZE),
+                new NamedThreadFactory("sentinel-cluster-lease-refresh", true));
+        } else {
+            this.leaseTable = null;
+            this.leaseRefreshExecutor = null;
+        }
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
             @Override
             public void onRemoteServerChange(ClusterClientAssignConfig assignConfig) {
@@ -59,91 +106,127 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         initNewConnection();
     }
 
-    private boolean serverEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
-        if (descriptor == null || config == null) {
-            return false;
-        }
-        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
-    }
-
-    private void initNewConnection() {
-        if (transportClient != null) {
+    private synchronized void initNewConnection() {
+        if (!shards.isEmpty()) {
             return;
         }
-        String host = ClusterClientConfigManager.getServerHost();
-        int port = ClusterClientConfigManager.getServerPort();
-        if (StringUtil.isBlank(host) || port <= 0) {
+        List<TokenServerDescriptor> servers = ClusterClientConfigManager.getTokenServers();
+        if (servers.isEmpty()) {
             return;
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
-            RecordLog.info("[DefaultClusterTokenClient] New client created: " + serverDescriptor);
+            updateShards(servers);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
         }
     }
 
-    private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
-        if (serverEqual(serverDescriptor, config)) {
-            return;
-        }
+    private synchronized void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
         try {
-            if (transportClient != null) {
-                transportClient.stop();
-            }
-            // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
-            startClientIfScheduled();
-            RecordLog.info("[DefaultClusterTokenClient] New client created: " + serverDescriptor);
+            updateShards(ClusterClientConfigManager.resolveTokenServers(config));
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to change remote token server", ex);
         }
     }
 
-    private void startClientIfScheduled() throws Exception {
-        if (shouldStart.get()) {
-            if (transportClient != null) {
-                transportClient.start();
-            } else {
-                RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
+    /**
+     * Replace the token servers. Clients of servers that remain are kept (with their connections), so that
+     * membership changes of shard servers only move the flows owned by the servers that join or leave.
+     */
+    private void updateShards(List<TokenServerDescriptor> servers) throws Exception {
+        ServerShards current = this.shards;
+        Map<String, ServerShard> next = new LinkedHashMap<>();
+        for (TokenServerDescriptor server : servers) {
+            String address = server.getHost() + ":" + server.getPort();
+            if (next.containsKey(address)) {
+                continue;
+            }
+            ServerShard shard = current.get(address);
+            if (shard == null) {
+                // Replace with new, even if the new client is not ready.
+                shard = new ServerShard(server, new NettyTransportClient(server.getHost(), server.getPort()),
+                    batchEnabled ? new TokenRequestBatcher(ClusterClientStartUpConfig.getBatchMaxSize()) : null);
+                startClientIfScheduled(shard.transportClient);
+                RecordLog.info("[DefaultClusterTokenClient] New client created: " + server);
+            }
+            next.put(address, shard);
+        }
+        this.shards = new ServerShards(next);
+        for (Map.Entry<String, ServerShard> e : current.shards.entrySet()) {
+            if (!next.containsKey(e.getKey())) {
+                e.getValue().transportClient.stop();
             }
         }
     }
 
-    private void stopClientIfStarted() throws Exception {
-        if (shouldStart.compareAndSet(true, false)) {
-            if (transportClient != null) {
-                transportClient.stop();
+    private void startClientIfScheduled(ClusterTransportClient transportClient) {
+        if (shouldStart.get()) {
+            try {
+                transportClient.start();
+            } catch (Exception ex) {
+                RecordLog.warn("[DefaultClusterTokenClient] Failed to start transport client", ex);
             }
         }
     }
 
     @Override
-    public void start() throws Exception {
+    public synchronized void start() throws Exception {
         if (shouldStart.compareAndSet(false, true)) {
-            startClientIfScheduled();
+            if (shards.isEmpty()) {
+                RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
+            }
+            for (ServerShard shard : shards.shards.values()) {
+                shard.transportClient.start();
+            }
         }
     }
 
     @Override
-    public void stop() throws Exception {
-        stopClientIfStarted();
+    public synchronized void stop() throws Exception {
+        if (shouldStart.compareAndSet(true, false)) {
+            for (ServerShard shard : shards.shards.values()) {
+                shard.transportClient.stop();
+            }
+        }
     }
 
     @Override
     public int getState() {
-        if (transportClient == null) {
+        ServerShards shards = this.shards;
+        if (shards.isEmpty()) {
+            return ClientConstants.CLIENT_STATUS_OFF;
+        }
+        int readyCount = 0;
+        for (ServerShard shard : shards.shards.values()) {
+            if (shard.transportClient.isReady()) {
+                readyCount++;
+            }
+        }
+        if (readyCount == 0) {
             return ClientConstants.CLIENT_STATUS_OFF;
         }
-        return transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_OFF;
+        // Some of the shard servers are not connected yet.
+        return readyCount == shards.shards.size()
+            ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_PENDING;
     }
 
     @Override
     public TokenServerDescriptor currentServer() {
-        return serverDescriptor;
+        ServerShard first = shards.first;
+        return first == null ? null : first.server;
+    }
+
+    /**
+     * Get the token server that owns the flow.
+     *
+     * @param flowId flow ID
+     * @return the token server that owns the flow, or null if no server is assigned
+     * @since 1.8.1
+     */
+    public TokenServerDescriptor getOwnerServer(long flowId) {
+        ServerShard shard = shards.select(flowId);
+        return shard == null ? null : shard.server;
     }
 
     @Override
@@ -151,11 +234,18 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
+        if (leaseTable != null && !prioritized) {
+            return requestTokenWithLease(flowId, acquireCount);
+        }
         FlowRequestData data = new FlowRequestData().setCount(acquireCount)
             .setFlowId(flowId).setPriority(prioritized);
+        ServerShard shard = shards.select(flowId);
+        if (shard != null && shard.requestBatcher != null) {
+            return requestTokenInBatch(shard, data);
+        }
         ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(shard, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -164,6 +254,103 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    private TokenResult requestTokenInBatch(ServerShard shard, FlowRequestData data) {
+        try {
+            TokenResult result = shard.requestBatcher.requestToken(shard.transportClient, data);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    private TokenResult requestTokenWithLease(long flowId, int acquireCount) {
+        long now = TimeUtil.currentTimeMillis();
+        FlowLease lease = leaseTable.getLease(flowId);
+        long remaining = lease.tryTake(acquireCount, now);
+        if (remaining >= 0) {
+            if (lease.shouldRenew(now)) {
+                renewLeaseAsync(flowId, lease);
+            }
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining((int)Math.min(remaining, Integer.MAX_VALUE))
+                .setWaitInMs(0);
+        }
+        if (lease.isFailing()) {
+            // Fail at once, so that the caller falls back to local rules without waiting for the timeout.
+            if (lease.shouldProbe(now)) {
+                renewLeaseAsync(flowId, lease);
+            }
+            return clientFail();
+        }
+        try {
+            TokenResult result = requestLease(flowId, acquireCount, acquireCount, lease);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            lease.markFailing(TimeUtil.currentTimeMillis(), leaseTable.getFailBackoffMs());
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    private void renewLeaseAsync(final long flowId, final FlowLease lease) {
+        if (!lease.startRefresh()) {
+            return;
+        }
+        try {
+            leaseRefreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        requestLease(flowId, 1, 0, lease);
+                    } catch (Exception ex) {
+                        lease.markFailing(TimeUtil.currentTimeMillis(), leaseTable.getFailBackoffMs());
+                        ClusterClientStatLogUtil.log(ex.getMessage());
+                    } finally {
+                        lease.endRefresh();
+                    }
+                }
+            });
+        } catch (Exception ex) {
+            lease.endRefresh();
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to renew token lease of flow: " + flowId, ex);
+        }
+    }
+
+    /**
+     * Request a token lease from the token server that owns the flow.
+     *
+     * @param minCount  min count of tokens to grant
+     * @param takeCount count of the granted tokens taken by current request
+     * @return result of the lease request, with the count of tokens left in the lease as remaining count
+     * @throws Exception if failed to send the request (e.g. timed out)
+     */
+    private TokenResult requestLease(long flowId, int minCount, int takeCount, FlowLease lease) throws Exception {
+        ServerShard shard = shards.select(flowId);
+        if (shard == null) {
+            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+        }
+        FlowRequestData data = new FlowRequestData().setCount(minCount).setFlowId(flowId).setPriority(false);
+        TokenResult result = toTokenResult(shard.transportClient.sendRequest(
+            new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data)));
+        // The token server responded, so it is healthy, whatever the result is.
+        lease.markHealthy();
+        if (result.getStatus() == TokenResultStatus.OK) {
+            int granted = result.getRemaining();
+            int leaseMs = result.getWaitInMs();
+            if (leaseMs > 0 && granted >= minCount) {
+                lease.grant(granted, takeCount, leaseMs, TimeUtil.currentTimeMillis());
+                result.setRemaining(granted - takeCount);
+            } else {
+                result.setRemaining(0);
+            }
+            result.setWaitInMs(0);
+        }
+        return result;
+    }
+
     @Override
     public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
@@ -173,7 +360,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             .setFlowId(flowId).setParams(params);
         ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(shards.select(flowId), request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -194,13 +381,16 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
-        if (transportClient == null) {
+    private TokenResult sendTokenRequest(ServerShard shard, ClusterRequest request) throws Exception {
+        if (shard == null) {
             RecordLog.warn(
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        return toTokenResult(shard.transportClient.sendRequest(request));
+    }
+
+    static TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
@@ -221,4 +411,48 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     private TokenResult clientFail() {
         return new TokenResult(TokenResultStatus.FAIL);
     }
+
+    private static final class ServerShard {
+
+        private final TokenServerDescriptor server;
+        private final ClusterTransportClient transportClient;
+        /**
+         * Coalesces concurrent flow token requests into batch requests, null if batching is disabled.
+         */
+        private final TokenRequestBatcher requestBatcher;
+
+        private ServerShard(TokenServerDescriptor server, ClusterTransportClient transportClient,
+                            TokenRequestBatcher requestBatcher) {
+            this.server = server;
+            this.transportClient = transportClient;
+            this.requestBatcher = requestBatcher;
+        }
+    }
+
+    private static final class ServerShards {
+
+        private static final ServerShards EMPTY = new ServerShards(Collections.<String, ServerShard>emptyMap());
+
+        private final Map<String, ServerShard> shards;
+        private final ServerShard first;
+        private final ConsistentHashRing<ServerShard> ring;
+
+        private ServerShards(Map<String, ServerShard> shards) {
+            this.shards = shards;
+            this.first = shards.isEmpty() ? null : shards.values().iterator().next();
+            this.ring = shards.size() > 1 ? new ConsistentHashRing<>(shards, VIRTUAL_NODE_COUNT) : null;
+        }
+
+        private ServerShard get(String address) {
+            return shards.get(address);
+        }
+
+        private ServerShard select(long flowId) {
+            return ring == null ? first : ring.get(flowId);
+        }
+
+        private boolean isEmpty() {
+            return shards.isEmpty();
+        }
+    }
 }
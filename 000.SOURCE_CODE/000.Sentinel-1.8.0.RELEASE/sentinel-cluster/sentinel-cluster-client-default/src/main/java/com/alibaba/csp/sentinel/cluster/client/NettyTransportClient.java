@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
-import java.util.AbstractMap.SimpleEntry;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -28,8 +27,10 @@ import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
+import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromise;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.Request;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
@@ -44,12 +45,10 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.ChannelPromise;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
@@ -70,7 +69,7 @@ public class NettyTransportClient implements ClusterTransportClient {
     private final int port;
 
     private Channel channel;
-    private NioEventLoopGroup eventLoopGroup;
+    private EventLoopGroup eventLoopGroup;
     private TokenClientHandler clientHandler;
 
     private final AtomicInteger idGenerator = new AtomicInteger(0);
@@ -88,9 +87,11 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     private Bootstrap initClientBootstrap() {
         Bootstrap b = new Bootstrap();
-        eventLoopGroup = new NioEventLoopGroup();
+        eventLoopGroup = NettyTransportSupport.newEventLoopGroup(ClusterClientConfigManager.getNativeTransport(),
+            ClusterClientConfigManager.getEventLoopThreads());
+        final boolean flushConsolidation = ClusterClientConfigManager.isFlushConsolidation();
         b.group(eventLoopGroup)
-            .channel(NioSocketChannel.class)
+            .channel(NettyTransportSupport.socketChannelClass(eventLoopGroup))
             .option(ChannelOption.TCP_NODELAY, true)
             .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterClientConfigManager.getConnectTimeout())
@@ -100,13 +101,21 @@ public class NettyTransportClient implements ClusterTransportClient {
                     clientHandler = new TokenClientHandler(currentState, disconnectCallback);
 
                     ChannelPipeline pipeline = ch.pipeline();
+                    if (flushConsolidation) {
+                        // Requests written by concurrent threads are flushed together in the event loop.
+                        pipeline.addLast(NettyTransportSupport.newFlushConsolidationHandler(true));
+                    }
                     pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
                     pipeline.addLast(new NettyResponseDecoder());
-                    pipeline.addLast(new LengthFieldPrepender(2));
                     pipeline.addLast(new NettyRequestEncoder());
                     pipeline.addLast(clientHandler);
                 }
             });
+        if (ClusterClientConfigManager.getWriteBufferHighWaterMark() > 0) {
+            b.option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                ClusterClientConfigManager.getWriteBufferLowWaterMark(),
+                ClusterClientConfigManager.getWriteBufferHighWaterMark()));
+        }
 
         return b;
     }
@@ -214,26 +223,21 @@ public class NettyTransportClient implements ClusterTransportClient {
             throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
         }
         int xid = getCurrentId();
-        try {
-            request.setId(xid);
-
-            channel.writeAndFlush(request);
+        request.setId(xid);
 
-            ChannelPromise promise = channel.newPromise();
-            TokenClientPromiseHolder.putPromise(xid, promise);
+        // Register the promise before writing, otherwise a fast response may arrive before the promise
+        // is registered, and the request will wait until timeout.
+        TokenClientPromise promise = TokenClientPromiseHolder.newPromise(xid);
+        try {
+            channel.writeAndFlush(request, channel.voidPromise());
 
-            if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
+            ClusterResponse response = promise.await(ClusterClientConfigManager.getRequestTimeout());
+            if (response == null) {
                 throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
             }
-
-            SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
-            if (entry == null || entry.getValue() == null) {
-                // Should not go through here.
-                throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
-            }
-            return entry.getValue();
+            return response;
         } finally {
-            TokenClientPromiseHolder.remove(xid);
+            TokenClientPromiseHolder.remove(promise);
         }
     }
 
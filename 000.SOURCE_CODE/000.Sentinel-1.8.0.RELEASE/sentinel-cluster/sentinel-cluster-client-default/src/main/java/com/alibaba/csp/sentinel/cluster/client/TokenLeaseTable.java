@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Token leases of cluster flow rules held by the client.</p>
+ *
+ * <p>A lease is a budget of tokens granted by the token server, which the client may use locally until the
+ * lease expires, so that requests served by the lease do not wait for a round trip. When a request to the
+ * token server fails (e.g. times out), the lease of the flow is marked failing: requests that the lease
+ * cannot serve fail at once (so that the caller falls back to local rules without waiting for the request
+ * timeout), until a background probe gets a response from the server again.</p>
+ *
+ * @since 1.8.1
+ */
+final class TokenLeaseTable {
+
+    private final ConcurrentMap<Long, FlowLease> leases = new ConcurrentHashMap<>();
+    private final long failBackoffMs;
+
+    TokenLeaseTable(long failBackoffMs) {
+        this.failBackoffMs = failBackoffMs;
+    }
+
+    FlowLease getLease(long flowId) {
+        FlowLease lease = leases.get(flowId);
+        if (lease == null) {
+            FlowLease newLease = new FlowLease();
+            lease = leases.putIfAbsent(flowId, newLease);
+            if (lease == null) {
+                lease = newLease;
+            }
+        }
+        return lease;
+    }
+
+    long getFailBackoffMs() {
+        return failBackoffMs;
+    }
+
+    static final class FlowLease {
+
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        private volatile long granted;
+        private volatile int leaseMs;
+        private volatile long expireAt;
+
+        private volatile boolean failing;
+        private volatile long nextProbeAt;
+
+        /**
+         * Take tokens from the lease.
+         *
+         * @return remaining tokens after taking; -1 if the lease has expired or the tokens are not enough
+         */
+        long tryTake(int count, long now) {
+            if (now >= expireAt) {
+                return -1;
+            }
+            while (true) {
+                long current = tokens.get();
+                if (current < count) {
+                    return -1;
+                }
+                if (tokens.compareAndSet(current, current - count)) {
+                    return current - count;
+                }
+            }
+        }
+
+        /**
+         * Whether to renew the lease ahead of time: when a quarter of the tokens or of the lease time is left.
+         */
+        boolean shouldRenew(long now) {
+            return tokens.get() * 4 < granted || (expireAt - now) * 4 < leaseMs;
+        }
+
+        /**
+         * Apply the tokens granted by the token server. The new grant replaces the balance: tokens left from
+         * an earlier grant (expired or not) are dropped, since the server has already counted them as passed
+         * in the window they were granted for, and spending them in a later window would exceed the threshold.
+         *
+         * @param granted count of granted tokens
+         * @param taken   count of the granted tokens taken by current request
+         * @param leaseMs lease time
+         * @param now     current time
+         */
+        void grant(long granted, int taken, int leaseMs, long now) {
+            tokens.set(granted - taken);
+            this.granted = granted;
+            this.leaseMs = leaseMs;
+            this.expireAt = now + leaseMs;
+        }
+
+        void markFailing(long now, long backoffMs) {
+            this.nextProbeAt = now + backoffMs;
+            this.failing = true;
+        }
+
+        void markHealthy() {
+            this.failing = false;
+        }
+
+        boolean isFailing() {
+            return failing;
+        }
+
+        boolean shouldProbe(long now) {
+            return failing && now >= nextProbeAt;
+        }
+
+        boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        void endRefresh() {
+            refreshing.set(false);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+
+/**
+ * <p>Coalesces concurrent flow token requests into batch requests (group commit).</p>
+ *
+ * <p>Requesting threads put their requests into a pending queue. At most one batch is in flight at a time:
+ * the thread that succeeds in becoming the sender drains the queue (up to {@code maxBatchSize} requests),
+ * sends them in one round trip, and hands the results back to the waiting threads. Requests that arrive
+ * meanwhile pile up in the queue and go out together in the next batch, so a single caller never waits
+ * for a batching window, while N concurrent callers share about one round trip instead of paying N.</p>
+ *
+ * <p>A batch of one request is sent as a plain flow request, so the batch request type is only used
+ * under concurrency.</p>
+ *
+ * @since 1.8.1
+ */
+final class TokenRequestBatcher {
+
+    /**
+     * Park interval when the request is already in flight but the waiting deadline has passed.
+     * The in-flight batch is bounded by the request timeout of the transport client.
+     */
+    private static final long IN_FLIGHT_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int maxBatchSize;
+    private final Queue<PendingRequest> pendingQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+
+    TokenRequestBatcher(int maxBatchSize) {
+        if (maxBatchSize <= 0 || maxBatchSize > ClusterConstants.MAX_FLOW_BATCH_SIZE) {
+            throw new IllegalArgumentException("maxBatchSize should be in [1, "
+                + ClusterConstants.MAX_FLOW_BATCH_SIZE + "]");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Request token for the flow, possibly together with other concurrent requests.
+     *
+     * @param transportClient transport client to send the batch with, if current thread becomes the sender
+     * @param data            flow request data
+     * @return result of the token request
+     * @throws Exception if failed to send the request, or timed out waiting in the queue
+     */
+    TokenResult requestToken(ClusterTransportClient transportClient, FlowRequestData data) throws Exception {
+        PendingRequest request = new PendingRequest(data, Thread.currentThread());
+        pendingQueue.offer(request);
+        // Waiting in queue may take a few rounds of batches.
+        long deadline = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos(2L * ClusterClientConfigManager.getRequestTimeout());
+        while (!request.done) {
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    sendNextBatch(transportClient);
+                } finally {
+                    sending.set(false);
+                    wakeUpNextSender();
+                }
+                continue;
+            }
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) {
+                if (pendingQueue.remove(request)) {
+                    throw new TimeoutException("Timed out waiting for batch flow request");
+                }
+                // The request has been drained by the sender, wait for its result.
+                waitNanos = IN_FLIGHT_PARK_NANOS;
+            }
+            LockSupport.parkNanos(this, waitNanos);
+        }
+        if (request.error != null) {
+            throw request.error;
+        }
+        return request.result;
+    }
+
+    private void wakeUpNextSender() {
+        PendingRequest next = pendingQueue.peek();
+        if (next != null) {
+            LockSupport.unpark(next.thread);
+        }
+    }
+
+    private void sendNextBatch(ClusterTransportClient transportClient) {
+        List<PendingRequest> batch = drainBatch();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (batch.size() == 1) {
+                PendingRequest request = batch.get(0);
+                ClusterResponse response = transportClient.sendRequest(
+                    new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, request.data));
+                request.complete(DefaultClusterTokenClient.toTokenResult(response));
+            } else {
+                completeBatch(batch, transportClient.sendRequest(newBatchRequest(batch)));
+            }
+        } catch (Exception ex) {
+            for (PendingRequest request : batch) {
+                request.fail(ex);
+            }
+        }
+    }
+
+    private List<PendingRequest> drainBatch() {
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        PendingRequest request;
+        while (batch.size() < maxBatchSize && (request = pendingQueue.poll()) != null) {
+            batch.add(request);
+        }
+        return batch;
+    }
+
+    private ClusterRequest<BatchFlowRequestData> newBatchRequest(List<PendingRequest> batch) {
+        List<FlowRequestData> requests = new ArrayList<>(batch.size());
+        for (PendingRequest request : batch) {
+            requests.add(request.data);
+        }
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_BATCH,
+            new BatchFlowRequestData().setRequests(requests));
+    }
+
+    private void completeBatch(List<PendingRequest> batch, ClusterResponse response) {
+        List<TokenResult> results = null;
+        if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK && response.getData() != null) {
+            results = ((BatchFlowTokenResponseData)response.getData()).getResults();
+        }
+        if (results == null || results.size() != batch.size()) {
+            int status = response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK
+                ? TokenResultStatus.FAIL : response.getStatus();
+            for (PendingRequest request : batch) {
+                request.complete(new TokenResult(status));
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    private static final class PendingRequest {
+
+        private final FlowRequestData data;
+        private final Thread thread;
+
+        private TokenResult result;
+        private Exception error;
+        private volatile boolean done;
+
+        PendingRequest(FlowRequestData data, Thread thread) {
+            this.data = data;
+            this.thread = thread;
+        }
+
+        void complete(TokenResult result) {
+            this.result = result;
+            this.done = true;
+            LockSupport.unpark(thread);
+        }
+
+        void fail(Exception error) {
+            this.error = error;
+            this.done = true;
+            LockSupport.unpark(thread);
+        }
+    }
+}
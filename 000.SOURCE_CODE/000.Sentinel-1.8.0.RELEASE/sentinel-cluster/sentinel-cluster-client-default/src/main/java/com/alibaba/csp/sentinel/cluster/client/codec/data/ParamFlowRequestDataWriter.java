@@ -21,6 +21,7 @@ import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -49,15 +50,30 @@ public class ParamFlowRequestDataWriter implements EntityWriter<ParamFlowRequest
         target.writeLong(entity.getFlowId());
         target.writeInt(entity.getCount());
 
+        // Write valid params directly, and fill in the amount afterwards.
+        int amountIndex = target.writerIndex();
+        target.writeInt(0);
+        int amount = 0;
+        int size = 0;
         Collection<Object> params = entity.getParams();
-
-        params = resolveValidParams(params);
-        target.writeInt(params.size());
-
-        // Serialize parameters with type flag.
         for (Object param : params) {
+            int s = calculateParamTransportSize(param);
+            if (s <= 0) {
+                RecordLog.warn("[ParamFlowRequestDataWriter] WARN: Non-primitive type detected in params of "
+                        + "cluster parameter flow control, which is not supported: " + param);
+                continue;
+            }
+            if (size + s > maxParamByteSize) {
+                RecordLog.warn("[ParamFlowRequestDataWriter] WARN: params size is too big." +
+                        " the configure value is : " + maxParamByteSize + ", the params size is: " + params.size());
+                break;
+            }
+            size += s;
+            // Serialize parameters with type flag.
             encodeValue(param, target);
+            amount++;
         }
+        target.setInt(amountIndex, amount);
     }
 
     /**
@@ -119,9 +135,8 @@ public class ParamFlowRequestDataWriter implements EntityWriter<ParamFlowRequest
 
     private void encodeString(String param, ByteBuf target) {
         target.writeByte(ClusterConstants.PARAM_TYPE_STRING);
-        byte[] tmpChars = param.getBytes();
-        target.writeInt(tmpChars.length);
-        target.writeBytes(tmpChars);
+        target.writeInt(ByteBufUtil.utf8Bytes(param));
+        ByteBufUtil.writeUtf8(target, param);
     }
 
 
@@ -135,9 +150,7 @@ public class ParamFlowRequestDataWriter implements EntityWriter<ParamFlowRequest
             return 5;
         } else if (value instanceof String) {
             // Layout for string: |type flag(1)|length(4)|string content|
-            String tmpValue = (String) value;
-            byte[] tmpChars = tmpValue.getBytes();
-            return 1 + 4 + tmpChars.length;
+            return 1 + 4 + ByteBufUtil.utf8Bytes((String) value);
         } else if (boolean.class.isInstance(value) || value instanceof Boolean) {
             return 2;
         } else if (long.class.isInstance(value) || value instanceof Long) {
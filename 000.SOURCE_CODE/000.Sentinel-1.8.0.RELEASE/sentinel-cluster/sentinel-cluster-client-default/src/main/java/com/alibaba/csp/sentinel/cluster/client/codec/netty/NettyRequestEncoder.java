@@ -23,14 +23,22 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
+ * <p>Encoder for cluster requests. Each request is written as a frame with a 2-byte length field ahead,
+ * which is filled in place after the request has been written, so no extra buffer is allocated for the
+ * length field (as {@code LengthFieldPrepender} does).</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
 
+    private static final int LENGTH_FIELD_SIZE = 2;
+    private static final int MAX_FRAME_LENGTH = 0xFFFF;
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) throws Exception {
         RequestEntityWriter<Request, ByteBuf> requestEntityWriter = ClientEntityCodecProvider.getRequestEntityWriter();
@@ -39,6 +47,20 @@ public class NettyRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
             return;
         }
 
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
         requestEntityWriter.writeTo(request, out);
+
+        int length = out.writerIndex() - lengthIndex - LENGTH_FIELD_SIZE;
+        if (length == 0) {
+            // Nothing written (the request is dropped by the writer).
+            out.writerIndex(lengthIndex);
+            return;
+        }
+        if (length > MAX_FRAME_LENGTH) {
+            out.writerIndex(lengthIndex);
+            throw new EncoderException("Request frame too large: " + length);
+        }
+        out.setShort(lengthIndex, length);
     }
 }
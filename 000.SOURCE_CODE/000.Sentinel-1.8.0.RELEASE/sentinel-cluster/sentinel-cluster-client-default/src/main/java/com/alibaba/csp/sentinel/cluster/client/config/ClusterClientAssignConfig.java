@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -24,6 +26,15 @@ public class ClusterClientAssignConfig {
     private String serverHost;
     private Integer serverPort;
 
+    /**
+     * Addresses ({@code host:port}) of token servers that share the cluster rules by consistent hashing
+     * of flow IDs. If present, the client routes each token request to the server that owns the flow,
+     * and {@code serverHost} and {@code serverPort} are not used for routing.
+     *
+     * @since 1.8.1
+     */
+    private List<String> shardServers;
+
     public ClusterClientAssignConfig() {}
 
     public ClusterClientAssignConfig(String serverHost, Integer serverPort) {
@@ -49,11 +60,21 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<String> getShardServers() {
+        return shardServers;
+    }
+
+    public ClusterClientAssignConfig setShardServers(List<String> shardServers) {
+        this.shardServers = shardServers;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", shardServers=" + shardServers +
             '}';
     }
 }
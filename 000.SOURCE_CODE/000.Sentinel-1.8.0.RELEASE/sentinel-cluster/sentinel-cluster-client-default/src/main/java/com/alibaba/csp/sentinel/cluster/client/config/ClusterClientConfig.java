@@ -23,6 +23,33 @@ public class ClusterClientConfig {
 
     private Integer requestTimeout;
 
+    /**
+     * Netty transport of the client: "auto" (epoll if available), "epoll" or "nio".
+     * The Netty options are applied when the client (re)connects to the token server.
+     *
+     * @since 1.8.1
+     */
+    private String nativeTransport;
+    /**
+     * Amount of event loop threads of each client, 0 for the default of Netty.
+     *
+     * @since 1.8.1
+     */
+    private Integer eventLoopThreads;
+    /**
+     * Write buffer water marks (in bytes) of the connection.
+     *
+     * @since 1.8.1
+     */
+    private Integer writeBufferLowWaterMark;
+    private Integer writeBufferHighWaterMark;
+    /**
+     * Whether to consolidate the flushes of concurrent requests.
+     *
+     * @since 1.8.1
+     */
+    private Boolean flushConsolidation;
+
     public Integer getRequestTimeout() {
         return requestTimeout;
     }
@@ -32,10 +59,60 @@ public class ClusterClientConfig {
         return this;
     }
 
+    public String getNativeTransport() {
+        return nativeTransport;
+    }
+
+    public ClusterClientConfig setNativeTransport(String nativeTransport) {
+        this.nativeTransport = nativeTransport;
+        return this;
+    }
+
+    public Integer getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public ClusterClientConfig setEventLoopThreads(Integer eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+        return this;
+    }
+
+    public Integer getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public ClusterClientConfig setWriteBufferLowWaterMark(Integer writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+        return this;
+    }
+
+    public Integer getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public ClusterClientConfig setWriteBufferHighWaterMark(Integer writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+        return this;
+    }
+
+    public Boolean getFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public ClusterClientConfig setFlushConsolidation(Boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientConfig{" +
             "requestTimeout=" + requestTimeout +
+            ", nativeTransport='" + nativeTransport + '\'' +
+            ", eventLoopThreads=" + eventLoopThreads +
+            ", writeBufferLowWaterMark=" + writeBufferLowWaterMark +
+            ", writeBufferHighWaterMark=" + writeBufferHighWaterMark +
+            ", flushConsolidation=" + flushConsolidation +
             '}';
     }
 }
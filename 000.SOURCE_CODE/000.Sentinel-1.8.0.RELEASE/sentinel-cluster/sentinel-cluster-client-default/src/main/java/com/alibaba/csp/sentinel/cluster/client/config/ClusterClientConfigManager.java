@@ -16,9 +16,12 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
@@ -37,10 +40,20 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile List<String> shardServers = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
 
+    /**
+     * Netty options of the client, 0 for the defaults of Netty.
+     */
+    private static volatile String nativeTransport = NettyTransportSupport.TRANSPORT_AUTO;
+    private static volatile int eventLoopThreads = 0;
+    private static volatile int writeBufferLowWaterMark = 0;
+    private static volatile int writeBufferHighWaterMark = 0;
+    private static volatile boolean flushConsolidation = false;
+
     private static final PropertyListener<ClusterClientConfig> CONFIG_PROPERTY_LISTENER
         = new ClientConfigPropertyListener();
     private static final PropertyListener<ClusterClientAssignConfig> ASSIGN_PROPERTY_LISTENER
@@ -127,7 +140,7 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (isCurrentAssignment(config)) {
                 return;
             }
 
@@ -170,28 +183,143 @@ public final class ClusterClientConfigManager {
         if (config.getRequestTimeout() != requestTimeout) {
             requestTimeout = config.getRequestTimeout();
         }
+        if (config.getNativeTransport() != null) {
+            nativeTransport = config.getNativeTransport();
+        }
+        if (config.getEventLoopThreads() != null) {
+            eventLoopThreads = config.getEventLoopThreads();
+        }
+        if (config.getWriteBufferHighWaterMark() != null) {
+            writeBufferHighWaterMark = config.getWriteBufferHighWaterMark();
+            writeBufferLowWaterMark = config.getWriteBufferLowWaterMark() == null ? 0
+                : config.getWriteBufferLowWaterMark();
+        }
+        if (config.getFlushConsolidation() != null) {
+            flushConsolidation = config.getFlushConsolidation();
+        }
+    }
+
+    private static boolean isCurrentAssignment(ClusterClientAssignConfig config) {
+        List<String> shards = config.getShardServers() == null
+            ? Collections.<String>emptyList() : config.getShardServers();
+        if (!shards.equals(shardServers)) {
+            return false;
+        }
+        if (!shards.isEmpty()) {
+            return true;
+        }
+        return config.getServerPort() == serverPort && config.getServerHost().equals(serverHost);
     }
 
     private static void updateServerAssignment(/*@Valid*/ ClusterClientAssignConfig config) {
-        String host = config.getServerHost();
-        int port = config.getServerPort();
+        // With shard servers, the first one is reported as the assigned server.
+        TokenServerDescriptor first = resolveTokenServers(config).get(0);
+        List<String> shards = config.getShardServers() == null
+            ? Collections.<String>emptyList() : new ArrayList<>(config.getShardServers());
 
         for (ServerChangeObserver observer : SERVER_CHANGE_OBSERVERS) {
             observer.onRemoteServerChange(config);
         }
 
-        serverHost = host;
-        serverPort = port;
+        serverHost = first.getHost();
+        serverPort = first.getPort();
+        shardServers = Collections.unmodifiableList(shards);
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
-        return config != null && StringUtil.isNotBlank(config.getServerHost())
+        if (config == null) {
+            return false;
+        }
+        List<String> shards = config.getShardServers();
+        if (shards != null && !shards.isEmpty()) {
+            for (String address : shards) {
+                if (parseServerAddress(address) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return StringUtil.isNotBlank(config.getServerHost())
+            && config.getServerPort() != null
             && config.getServerPort() > 0
             && config.getServerPort() <= 65535;
     }
 
+    /**
+     * Get token servers of the assignment: the shard servers if present, or else the single server.
+     *
+     * @param config valid assignment config
+     * @return token servers of the assignment
+     * @since 1.8.1
+     */
+    public static List<TokenServerDescriptor> resolveTokenServers(/*@Valid*/ ClusterClientAssignConfig config) {
+        List<String> shards = config.getShardServers();
+        if (shards == null || shards.isEmpty()) {
+            return Collections.singletonList(
+                new TokenServerDescriptor(config.getServerHost(), config.getServerPort()));
+        }
+        List<TokenServerDescriptor> servers = new ArrayList<>(shards.size());
+        for (String address : shards) {
+            servers.add(parseServerAddress(address));
+        }
+        return servers;
+    }
+
+    /**
+     * Get token servers of current assignment.
+     *
+     * @return token servers of current assignment, empty if no server is assigned
+     * @since 1.8.1
+     */
+    public static List<TokenServerDescriptor> getTokenServers() {
+        List<String> shards = shardServers;
+        if (!shards.isEmpty()) {
+            return resolveTokenServers(new ClusterClientAssignConfig().setShardServers(shards));
+        }
+        String host = serverHost;
+        int port = serverPort;
+        if (StringUtil.isBlank(host) || port <= 0) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new TokenServerDescriptor(host, port));
+    }
+
+    static TokenServerDescriptor parseServerAddress(String address) {
+        if (StringUtil.isBlank(address)) {
+            return null;
+        }
+        int i = address.lastIndexOf(':');
+        if (i <= 0 || i == address.length() - 1) {
+            return null;
+        }
+        try {
+            int port = Integer.parseInt(address.substring(i + 1).trim());
+            if (port <= 0 || port > 65535) {
+                return null;
+            }
+            String host = address.substring(0, i).trim();
+            return host.isEmpty() ? null : new TokenServerDescriptor(host, port);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
     public static boolean isValidClientConfig(ClusterClientConfig config) {
-        return config != null && config.getRequestTimeout() > 0;
+        if (config == null || config.getRequestTimeout() == null || config.getRequestTimeout() <= 0) {
+            return false;
+        }
+        if (!NettyTransportSupport.isValidTransport(config.getNativeTransport())) {
+            return false;
+        }
+        if (config.getEventLoopThreads() != null && config.getEventLoopThreads() < 0) {
+            return false;
+        }
+        Integer high = config.getWriteBufferHighWaterMark();
+        if (high == null) {
+            return config.getWriteBufferLowWaterMark() == null;
+        }
+        int low = config.getWriteBufferLowWaterMark() == null ? 0 : config.getWriteBufferLowWaterMark();
+        return low >= 0 && high >= low;
     }
 
     public static String getServerHost() {
@@ -202,6 +330,10 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    public static List<String> getShardServers() {
+        return shardServers;
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -210,5 +342,25 @@ public final class ClusterClientConfigManager {
         return connectTimeout;
     }
 
+    public static String getNativeTransport() {
+        return nativeTransport;
+    }
+
+    public static int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public static int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public static int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public static boolean isFlushConsolidation() {
+        return flushConsolidation;
+    }
+
     private ClusterClientConfigManager() {}
 }
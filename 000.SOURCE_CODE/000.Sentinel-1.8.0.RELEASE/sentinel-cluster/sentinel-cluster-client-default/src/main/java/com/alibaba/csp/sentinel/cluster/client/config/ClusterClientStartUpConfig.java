@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -29,6 +30,13 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 public class ClusterClientStartUpConfig {
 
     private static final String MAX_PARAM_BYTE_SIZE = "csp.sentinel.cluster.max.param.byte.size";
+    private static final String BATCH_ENABLED = "csp.sentinel.cluster.client.batch.enabled";
+    private static final String BATCH_MAX_SIZE = "csp.sentinel.cluster.client.batch.max.size";
+    private static final String LEASE_ENABLED = "csp.sentinel.cluster.client.lease.enabled";
+    private static final String LEASE_FAIL_BACKOFF_MS = "csp.sentinel.cluster.client.lease.fail.backoff.ms";
+
+    private static final int DEFAULT_BATCH_MAX_SIZE = 32;
+    private static final long DEFAULT_LEASE_FAIL_BACKOFF_MS = 1000;
 
     /**
      * Get the max bytes params can be serialized
@@ -45,5 +53,74 @@ public class ClusterClientStartUpConfig {
         }
     }
 
+    /**
+     * Whether concurrent flow token requests should be coalesced into batch requests.
+     * Only turn it on when the token server supports batch flow requests.
+     *
+     * @return true if batch flow request is enabled, otherwise false (by default)
+     * @since 1.8.1
+     */
+    public static boolean isBatchEnabled() {
+        return Boolean.parseBoolean(SentinelConfig.getConfig(BATCH_ENABLED));
+    }
+
+    /**
+     * Get the max amount of flow token requests in one batch request.
+     *
+     * @return the max batch size, within [1, {@link ClusterConstants#MAX_FLOW_BATCH_SIZE}]
+     * @since 1.8.1
+     */
+    public static int getBatchMaxSize() {
+        String batchMaxSize = SentinelConfig.getConfig(BATCH_MAX_SIZE);
+        if (batchMaxSize == null) {
+            return DEFAULT_BATCH_MAX_SIZE;
+        }
+        try {
+            int size = Integer.parseInt(batchMaxSize);
+            if (size > 0) {
+                return Math.min(size, ClusterConstants.MAX_FLOW_BATCH_SIZE);
+            }
+        } catch (Exception ex) {
+            // Fall through.
+        }
+        RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse batchMaxSize: " + batchMaxSize
+            + ", using the default value: " + DEFAULT_BATCH_MAX_SIZE);
+        return DEFAULT_BATCH_MAX_SIZE;
+    }
 
+    /**
+     * Whether flow token requests (not prioritized) should be served from token leases granted by the
+     * token server. Only turn it on when the token server supports flow lease requests.
+     *
+     * @return true if token lease is enabled, otherwise false (by default)
+     * @since 1.8.1
+     */
+    public static boolean isLeaseEnabled() {
+        return Boolean.parseBoolean(SentinelConfig.getConfig(LEASE_ENABLED));
+    }
+
+    /**
+     * Get the interval (in ms) to probe the token server in background after a failed lease request.
+     * Meanwhile, requests that the lease cannot serve fail at once.
+     *
+     * @return the interval to probe the token server after failure
+     * @since 1.8.1
+     */
+    public static long getLeaseFailBackoffMs() {
+        String backoffMs = SentinelConfig.getConfig(LEASE_FAIL_BACKOFF_MS);
+        if (backoffMs == null) {
+            return DEFAULT_LEASE_FAIL_BACKOFF_MS;
+        }
+        try {
+            long value = Long.parseLong(backoffMs);
+            if (value > 0) {
+                return value;
+            }
+        } catch (Exception ex) {
+            // Fall through.
+        }
+        RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse leaseFailBackoffMs: " + backoffMs
+            + ", using the default value: " + DEFAULT_LEASE_FAIL_BACKOFF_MS);
+        return DEFAULT_LEASE_FAIL_BACKOFF_MS;
+    }
 }
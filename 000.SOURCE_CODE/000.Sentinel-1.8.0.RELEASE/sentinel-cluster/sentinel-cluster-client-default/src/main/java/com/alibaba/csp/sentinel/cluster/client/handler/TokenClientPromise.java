@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import io.netty.util.Recycler;
+
+/**
+ * <p>A recyclable promise for the response of an in-flight cluster request.</p>
+ *
+ * <p>The promise is created by the requesting thread via {@link TokenClientPromiseHolder#newPromise(int)},
+ * completed by the I/O thread, and returned to the pool via {@link TokenClientPromiseHolder#remove}
+ * once the requesting thread is done with it. Completion is matched against the request ID, so a late
+ * response never completes a promise that has been reused by another request.</p>
+ *
+ * @since 1.8.1
+ */
+public final class TokenClientPromise {
+
+    private static final Recycler<TokenClientPromise> RECYCLER = new Recycler<TokenClientPromise>() {
+        @Override
+        protected TokenClientPromise newObject(Handle<TokenClientPromise> handle) {
+            return new TokenClientPromise(handle);
+        }
+    };
+
+    private final Recycler.Handle<TokenClientPromise> handle;
+
+    private int xid;
+    private Thread waiter;
+    private volatile ClusterResponse response;
+
+    private TokenClientPromise(Recycler.Handle<TokenClientPromise> handle) {
+        this.handle = handle;
+    }
+
+    static TokenClientPromise newInstance(int xid) {
+        TokenClientPromise promise = RECYCLER.get();
+        synchronized (promise) {
+            promise.xid = xid;
+            promise.waiter = Thread.currentThread();
+        }
+        return promise;
+    }
+
+    public int getXid() {
+        return xid;
+    }
+
+    /**
+     * Wait for the response until timeout. Only the thread that created the promise can wait on it.
+     *
+     * @param timeoutMs max time to wait, in milliseconds
+     * @return the response, or null if timed out
+     * @throws InterruptedException if current thread is interrupted
+     */
+    public ClusterResponse await(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ClusterResponse result;
+        while ((result = response) == null) {
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return result;
+    }
+
+    boolean complete(int xid, ClusterResponse response) {
+        Thread waitingThread;
+        synchronized (this) {
+            if (this.waiter == null || this.xid != xid || this.response != null) {
+                return false;
+            }
+            this.response = response;
+            waitingThread = this.waiter;
+        }
+        LockSupport.unpark(waitingThread);
+        return true;
+    }
+
+    void recycle() {
+        synchronized (this) {
+            this.waiter = null;
+            this.response = null;
+        }
+        handle.recycle(this);
+    }
+}
@@ -15,49 +15,70 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 
-import io.netty.channel.ChannelPromise;
-
 /**
+ * <p>Holder of the promises of in-flight cluster requests.</p>
+ *
+ * <p>Promises are kept in a fixed-size slot table indexed by request ID (the ID increases monotonically,
+ * so in-flight requests rarely share a slot). Only when the slot is occupied, the promise goes to
+ * an overflow map. This avoids allocating map entries and boxed keys for every request.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public final class TokenClientPromiseHolder {
 
-    private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
+    private static final int SLOT_COUNT = 1024;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
 
-    public static void putPromise(int xid, ChannelPromise promise) {
-        PROMISE_MAP.put(xid, new SimpleEntry<ChannelPromise, ClusterResponse>(promise, null));
-    }
+    private static final AtomicReferenceArray<TokenClientPromise> PROMISE_SLOTS =
+        new AtomicReferenceArray<>(SLOT_COUNT);
+    private static final Map<Integer, TokenClientPromise> OVERFLOW_PROMISE_MAP = new ConcurrentHashMap<>();
 
-    public static SimpleEntry<ChannelPromise, ClusterResponse> getEntry(int xid) {
-        return PROMISE_MAP.get(xid);
+    /**
+     * Create and register the promise for a request.
+     *
+     * @param xid ID of the request
+     * @return the registered promise
+     * @since 1.8.1
+     */
+    public static TokenClientPromise newPromise(int xid) {
+        TokenClientPromise promise = TokenClientPromise.newInstance(xid);
+        if (!PROMISE_SLOTS.compareAndSet(xid & SLOT_MASK, null, promise)) {
+            OVERFLOW_PROMISE_MAP.put(xid, promise);
+        }
+        return promise;
     }
 
-    public static void remove(int xid) {
-        PROMISE_MAP.remove(xid);
+    /**
+     * Unregister the promise and put it back to the pool. The promise should not be used afterwards.
+     *
+     * @param promise a registered promise
+     * @since 1.8.1
+     */
+    public static void remove(TokenClientPromise promise) {
+        int xid = promise.getXid();
+        if (!PROMISE_SLOTS.compareAndSet(xid & SLOT_MASK, promise, null)) {
+            OVERFLOW_PROMISE_MAP.remove(xid, promise);
+        }
+        promise.recycle();
     }
 
     public static <T> boolean completePromise(int xid, ClusterResponse<T> response) {
-        if (!PROMISE_MAP.containsKey(xid)) {
-            return false;
-        }
-        SimpleEntry<ChannelPromise, ClusterResponse> entry = PROMISE_MAP.get(xid);
-        if (entry != null) {
-            ChannelPromise promise = entry.getKey();
-            if (promise.isDone() || promise.isCancelled()) {
-                return false;
-            }
-            entry.setValue(response);
-            promise.setSuccess();
+        TokenClientPromise promise = PROMISE_SLOTS.get(xid & SLOT_MASK);
+        if (promise != null && promise.complete(xid, response)) {
             return true;
         }
-        return false;
+        if (OVERFLOW_PROMISE_MAP.isEmpty()) {
+            return false;
+        }
+        promise = OVERFLOW_PROMISE_MAP.get(xid);
+        return promise != null && promise.complete(xid, response);
     }
 
     private TokenClientPromiseHolder() {}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.command.entity;
 
+import java.util.List;
+
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
 
@@ -26,6 +28,7 @@ public class ClusterClientStateEntity {
 
     private String serverHost;
     private Integer serverPort;
+    private List<String> shardServers;
 
     private Integer clientState;
 
@@ -49,6 +52,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public List<String> getShardServers() {
+        return shardServers;
+    }
+
+    public ClusterClientStateEntity setShardServers(List<String> shardServers) {
+        this.shardServers = shardServers;
+        return this;
+    }
+
     public Integer getRequestTimeout() {
         return requestTimeout;
     }
@@ -74,7 +86,8 @@ public class ClusterClientStateEntity {
     public ClusterClientAssignConfig toAssignConfig() {
         return new ClusterClientAssignConfig()
             .setServerHost(serverHost)
-            .setServerPort(serverPort);
+            .setServerPort(serverPort)
+            .setShardServers(shardServers);
     }
 
     @Override
@@ -82,6 +95,7 @@ public class ClusterClientStateEntity {
         return "ClusterClientStateEntity{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", shardServers=" + shardServers +
             ", clientState=" + clientState +
             ", requestTimeout=" + requestTimeout +
             '}';
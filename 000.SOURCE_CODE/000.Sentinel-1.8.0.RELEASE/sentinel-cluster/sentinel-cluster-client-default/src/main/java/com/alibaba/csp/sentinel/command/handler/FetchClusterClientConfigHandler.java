@@ -37,6 +37,7 @@ public class FetchClusterClientConfigHandler implements CommandHandler<String> {
         ClusterClientStateEntity stateVO = new ClusterClientStateEntity()
             .setServerHost(ClusterClientConfigManager.getServerHost())
             .setServerPort(ClusterClientConfigManager.getServerPort())
+            .setShardServers(ClusterClientConfigManager.getShardServers())
             .setRequestTimeout(ClusterClientConfigManager.getRequestTimeout());
         if (TokenClientProvider.isClientSpiAvailable()) {
             stateVO.setClientState(TokenClientProvider.getClient().getState());
@@ -0,0 +1,91 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConsistentHashRing}.
+ */
+public class ConsistentHashRingTest {
+
+    private static final int FLOW_COUNT = 30000;
+
+    @Test
+    public void testEmptyRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(Collections.<String, String>emptyMap(), 160);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.get(1L));
+    }
+
+    @Test
+    public void testBalance() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(servers(3), 160);
+        assertEquals(3, ring.getNodeCount());
+        Map<String, Integer> counts = new HashMap<>();
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            String owner = ring.get(flowId);
+            Integer count = counts.get(owner);
+            counts.put(owner, count == null ? 1 : count + 1);
+        }
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(FLOW_COUNT / 3.0, count, FLOW_COUNT / 3.0 * 0.2);
+        }
+    }
+
+    @Test
+    public void testMembershipChangeOnlyMovesFlowsOfChangedServer() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(servers(3), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(servers(4), 160);
+        int moved = 0;
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            String owner = after.get(flowId);
+            if (!owner.equals(before.get(flowId))) {
+                // Flows only move to the joined server.
+                assertEquals("10.0.0.4:18730", owner);
+                moved++;
+            }
+        }
+        assertEquals(FLOW_COUNT / 4.0, moved, FLOW_COUNT / 4.0 * 0.2);
+
+        // The order of nodes does not matter.
+        Map<String, String> reversed = new LinkedHashMap<>();
+        for (int i = 4; i >= 1; i--) {
+            reversed.put("10.0.0." + i + ":18730", "10.0.0." + i + ":18730");
+        }
+        ConsistentHashRing<String> reversedRing = new ConsistentHashRing<>(reversed, 160);
+        for (long flowId = 1; flowId <= 1000; flowId++) {
+            assertEquals(after.get(flowId), reversedRing.get(flowId));
+        }
+    }
+
+    private static Map<String, String> servers(int count) {
+        Map<String, String> servers = new LinkedHashMap<>();
+        for (int i = 1; i <= count; i++) {
+            String address = "10.0.0." + i + ":18730";
+            servers.put(address, address);
+        }
+        return servers;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import com.alibaba.csp.sentinel.cluster.client.TokenLeaseTable.FlowLease;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenLeaseTable}.
+ */
+public class TokenLeaseTableTest {
+
+    @Test
+    public void testTakeFromLease() {
+        TokenLeaseTable table = new TokenLeaseTable(1000);
+        FlowLease lease = table.getLease(1L);
+        assertSame(lease, table.getLease(1L));
+        long now = 10000;
+        // No lease granted yet.
+        assertEquals(-1, lease.tryTake(1, now));
+
+        lease.grant(10, 2, 100, now);
+        assertEquals(7, lease.tryTake(1, now + 10));
+        assertEquals(2, lease.tryTake(5, now + 20));
+        assertEquals(-1, lease.tryTake(3, now + 30));
+        // Renew when a quarter of the tokens is left.
+        assertTrue(lease.shouldRenew(now + 30));
+        assertEquals(0, lease.tryTake(2, now + 40));
+
+        lease.grant(10, 0, 100, now + 50);
+        assertEquals(9, lease.tryTake(1, now + 60));
+        assertFalse(lease.shouldRenew(now + 60));
+        // Renew when a quarter of the lease time is left.
+        assertTrue(lease.shouldRenew(now + 130));
+        // Tokens of an expired lease are dropped.
+        assertEquals(-1, lease.tryTake(1, now + 150));
+        lease.grant(4, 1, 100, now + 200);
+        assertEquals(-1, lease.tryTake(4, now + 210));
+        assertEquals(0, lease.tryTake(3, now + 210));
+    }
+
+    @Test
+    public void testRenewDropsLeftTokens() {
+        TokenLeaseTable table = new TokenLeaseTable(1000);
+        FlowLease lease = table.getLease(3L);
+        long now = 10000;
+        lease.grant(10, 1, 100, now);
+        assertEquals(6, lease.tryTake(3, now + 10));
+
+        // Renew ahead of time while the lease still holds 6 tokens: they must not be carried over.
+        lease.grant(5, 1, 100, now + 80);
+        assertEquals(-1, lease.tryTake(5, now + 90));
+        assertEquals(0, lease.tryTake(4, now + 90));
+        // The renewed lease lasts until the new expiry, but only with its own tokens.
+        assertEquals(-1, lease.tryTake(1, now + 150));
+    }
+
+    @Test
+    public void testFailingAndProbe() {
+        TokenLeaseTable table = new TokenLeaseTable(500);
+        FlowLease lease = table.getLease(2L);
+        long now = 10000;
+        assertFalse(lease.isFailing());
+        lease.markFailing(now, table.getFailBackoffMs());
+        assertTrue(lease.isFailing());
+        assertFalse(lease.shouldProbe(now + 499));
+        assertTrue(lease.shouldProbe(now + 500));
+
+        // Only one refresh at a time.
+        assertTrue(lease.startRefresh());
+        assertFalse(lease.startRefresh());
+        lease.endRefresh();
+        assertTrue(lease.startRefresh());
+
+        lease.markHealthy();
+        assertFalse(lease.isFailing());
+        assertFalse(lease.shouldProbe(now + 1000));
+    }
+}
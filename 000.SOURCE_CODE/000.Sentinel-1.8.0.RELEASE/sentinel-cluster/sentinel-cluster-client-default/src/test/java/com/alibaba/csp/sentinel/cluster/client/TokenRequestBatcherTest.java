@@ -0,0 +1,177 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenRequestBatcherTest {
+
+    @Test
+    public void testSingleRequestSentAsFlowRequest() throws Exception {
+        EchoTransportClient transportClient = new EchoTransportClient(null);
+        TokenRequestBatcher batcher = new TokenRequestBatcher(8);
+
+        TokenResult result = batcher.requestToken(transportClient, newData(3));
+        assertEquals(TokenResultStatus.OK, (int)result.getStatus());
+        assertEquals(3, result.getRemaining());
+        assertEquals(1, transportClient.requestTypes.size());
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, (int)transportClient.requestTypes.get(0));
+    }
+
+    @Test
+    public void testConcurrentRequestsCoalesced() throws Exception {
+        final int threadCount = 16;
+        final CountDownLatch queuedLatch = new CountDownLatch(threadCount - 1);
+        final EchoTransportClient transportClient = new EchoTransportClient(queuedLatch);
+        final TokenRequestBatcher batcher = new TokenRequestBatcher(32);
+        final List<TokenResult> results = new CopyOnWriteArrayList<>();
+        final AtomicInteger mismatch = new AtomicInteger();
+
+        // The first request blocks the sender until all other requests are queued.
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final int count = i + 1;
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (count > 1) {
+                            while (transportClient.requestTypes.isEmpty()) {
+                                Thread.sleep(1);
+                            }
+                            queuedLatch.countDown();
+                        }
+                        TokenResult result = batcher.requestToken(transportClient, newData(count));
+                        if (result.getRemaining() != count) {
+                            mismatch.incrementAndGet();
+                        }
+                        results.add(result);
+                    } catch (Exception ex) {
+                        mismatch.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+            if (i == 0) {
+                while (transportClient.requestTypes.isEmpty()) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+        for (Thread t : threads) {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(0, mismatch.get());
+        assertEquals(threadCount, results.size());
+        // Flow request of the first thread, then (most likely) one batch with the rest.
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, (int)transportClient.requestTypes.get(0));
+        assertTrue(transportClient.requestTypes.size() < threadCount);
+        assertTrue(transportClient.requestTypes.contains(ClusterConstants.MSG_TYPE_FLOW_BATCH));
+    }
+
+    @Test
+    public void testSendFailure() throws Exception {
+        ClusterTransportClient transportClient = new EchoTransportClient(null) {
+            @Override
+            public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+                throw new IOException("connection reset");
+            }
+        };
+        TokenRequestBatcher batcher = new TokenRequestBatcher(8);
+        try {
+            batcher.requestToken(transportClient, newData(1));
+            fail("should throw the send failure");
+        } catch (IOException ex) {
+            assertEquals("connection reset", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBatchSize() {
+        new TokenRequestBatcher(ClusterConstants.MAX_FLOW_BATCH_SIZE + 1);
+    }
+
+    private static FlowRequestData newData(int count) {
+        return new FlowRequestData().setFlowId(1L).setCount(count);
+    }
+
+    /**
+     * Transport client that grants every request with the remaining count set to the acquire count.
+     */
+    private static class EchoTransportClient implements ClusterTransportClient {
+
+        private final CountDownLatch firstRequestLatch;
+        final List<Integer> requestTypes = new CopyOnWriteArrayList<>();
+
+        EchoTransportClient(CountDownLatch firstRequestLatch) {
+            this.firstRequestLatch = firstRequestLatch;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+            requestTypes.add(request.getType());
+            if (request.getType() == ClusterConstants.MSG_TYPE_FLOW) {
+                if (firstRequestLatch != null && requestTypes.size() == 1) {
+                    firstRequestLatch.await(1, TimeUnit.SECONDS);
+                }
+                FlowRequestData data = (FlowRequestData)request.getData();
+                return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.OK,
+                    new FlowTokenResponseData().setRemainingCount(data.getCount()));
+            }
+            List<TokenResult> results = new ArrayList<>();
+            for (FlowRequestData data : ((BatchFlowRequestData)request.getData()).getRequests()) {
+                results.add(new TokenResult(TokenResultStatus.OK).setRemaining(data.getCount()));
+            }
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+                new BatchFlowTokenResponseData().setResults(results));
+        }
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void stop() {}
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenClientPromiseHolderTest {
+
+    @Test
+    public void testCompleteAndAwait() throws Exception {
+        final int xid = 10001;
+        TokenClientPromise promise = TokenClientPromiseHolder.newPromise(xid);
+        final ClusterResponse<Void> response = newResponse(xid);
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                TokenClientPromiseHolder.completePromise(xid, response);
+            }
+        }).start();
+        try {
+            latch.countDown();
+            assertSame(response, promise.await(TimeUnit.SECONDS.toMillis(5)));
+            // Completed only once.
+            assertFalse(TokenClientPromiseHolder.completePromise(xid, newResponse(xid)));
+        } finally {
+            TokenClientPromiseHolder.remove(promise);
+        }
+    }
+
+    @Test
+    public void testAwaitTimeout() throws Exception {
+        TokenClientPromise promise = TokenClientPromiseHolder.newPromise(10002);
+        try {
+            assertNull(promise.await(5));
+        } finally {
+            TokenClientPromiseHolder.remove(promise);
+        }
+        // Late response after removed.
+        assertFalse(TokenClientPromiseHolder.completePromise(10002, newResponse(10002)));
+    }
+
+    @Test
+    public void testSlotConflict() throws Exception {
+        // Same slot, different request ID.
+        int xid1 = 20480;
+        int xid2 = xid1 + 1024;
+        TokenClientPromise promise1 = TokenClientPromiseHolder.newPromise(xid1);
+        TokenClientPromise promise2 = TokenClientPromiseHolder.newPromise(xid2);
+        try {
+            ClusterResponse<Void> response2 = newResponse(xid2);
+            assertTrue(TokenClientPromiseHolder.completePromise(xid2, response2));
+            assertSame(response2, promise2.await(10));
+            assertNull(promise1.await(1));
+
+            ClusterResponse<Void> response1 = newResponse(xid1);
+            assertTrue(TokenClientPromiseHolder.completePromise(xid1, response1));
+            assertSame(response1, promise1.await(10));
+        } finally {
+            TokenClientPromiseHolder.remove(promise1);
+            TokenClientPromiseHolder.remove(promise2);
+        }
+    }
+
+    @Test
+    public void testStaleResponseNotCompleteReusedPromise() throws Exception {
+        TokenClientPromise promise = TokenClientPromiseHolder.newPromise(30001);
+        TokenClientPromiseHolder.remove(promise);
+
+        // The pooled promise may be reused by the next request of the same thread.
+        TokenClientPromise next = TokenClientPromiseHolder.newPromise(31025);
+        try {
+            assertFalse(TokenClientPromiseHolder.completePromise(30001, newResponse(30001)));
+            assertNull(next.await(1));
+        } finally {
+            TokenClientPromiseHolder.remove(next);
+        }
+    }
+
+    private static ClusterResponse<Void> newResponse(int xid) {
+        return new ClusterResponse<>(xid, ClusterConstants.MSG_TYPE_FLOW, ClusterConstants.RESPONSE_STATUS_OK, null);
+    }
+}
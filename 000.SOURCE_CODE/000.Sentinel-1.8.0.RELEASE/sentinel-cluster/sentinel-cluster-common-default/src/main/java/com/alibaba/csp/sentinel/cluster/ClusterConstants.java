@@ -24,6 +24,19 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PING = 0;
     public static final int MSG_TYPE_FLOW = 1;
     public static final int MSG_TYPE_PARAM_FLOW = 2;
+    /**
+     * Multiple flow token requests (of any flowId) packed in one frame.
+     *
+     * @since 1.8.1
+     */
+    public static final int MSG_TYPE_FLOW_BATCH = 3;
+    /**
+     * Flow token lease request: the server grants a share of tokens (at least the requested count)
+     * that the client may use locally within the lease time.
+     *
+     * @since 1.8.1
+     */
+    public static final int MSG_TYPE_FLOW_LEASE = 4;
 
     public static final int RESPONSE_STATUS_BAD = -1;
     public static final int RESPONSE_STATUS_OK = 0;
@@ -37,6 +50,14 @@ public final class ClusterConstants {
     public static final int PARAM_TYPE_BOOLEAN = 6;
     public static final int PARAM_TYPE_STRING = 7;
 
+    /**
+     * Max amount of flow token requests in one batch request, which keeps the batch request
+     * and response frame within the 1024-byte frame limit of the default transport.
+     *
+     * @since 1.8.1
+     */
+    public static final int MAX_FLOW_BATCH_SIZE = 64;
+
     public static final int DEFAULT_CLUSTER_SERVER_PORT = 18730;
     public static final int DEFAULT_REQUEST_TIMEOUT = 20;
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
@@ -0,0 +1,167 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.netty;
+
+import java.lang.reflect.Constructor;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * <p>Selects the Netty transport of cluster token server and client.</p>
+ *
+ * <p>The native epoll transport is used when {@code netty-transport-native-epoll} (with the classifier of
+ * the platform, e.g. {@code linux-x86_64}) is present in the classpath and can be loaded. It's looked up
+ * by reflection, so Sentinel does not depend on it. Otherwise the NIO transport is used.</p>
+ *
+ * @since 1.8.1
+ */
+public final class NettyTransportSupport {
+
+    public static final String TRANSPORT_AUTO = "auto";
+    public static final String TRANSPORT_NIO = "nio";
+    public static final String TRANSPORT_EPOLL = "epoll";
+
+    private static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
+
+    /**
+     * Max amount of pending flushes before an explicit flush, same as the default of Netty.
+     */
+    private static final int EXPLICIT_FLUSH_AFTER_FLUSHES = 256;
+
+    private static final boolean EPOLL_AVAILABLE = checkEpollAvailable();
+
+    private static boolean checkEpollAvailable() {
+        try {
+            Class<?> clazz = Class.forName(EPOLL_PACKAGE + "Epoll");
+            return (Boolean)clazz.getMethod("isAvailable").invoke(null);
+        } catch (Throwable ex) {
+            // Not present in classpath or the native library cannot be loaded.
+            return false;
+        }
+    }
+
+    public static boolean isEpollAvailable() {
+        return EPOLL_AVAILABLE;
+    }
+
+    /**
+     * @param transport transport name, blank for {@link #TRANSPORT_AUTO}
+     * @return whether the name is a valid transport name
+     */
+    public static boolean isValidTransport(String transport) {
+        return StringUtil.isBlank(transport) || TRANSPORT_AUTO.equalsIgnoreCase(transport)
+            || TRANSPORT_NIO.equalsIgnoreCase(transport) || TRANSPORT_EPOLL.equalsIgnoreCase(transport);
+    }
+
+    /**
+     * Resolve the transport to use. {@link #TRANSPORT_AUTO} turns to epoll if available,
+     * and epoll falls back to NIO if it is not available.
+     *
+     * @param transport transport name, blank for {@link #TRANSPORT_AUTO}
+     * @return {@link #TRANSPORT_EPOLL} or {@link #TRANSPORT_NIO}
+     */
+    public static String resolveTransport(String transport) {
+        if (TRANSPORT_NIO.equalsIgnoreCase(transport)) {
+            return TRANSPORT_NIO;
+        }
+        if (EPOLL_AVAILABLE) {
+            return TRANSPORT_EPOLL;
+        }
+        if (TRANSPORT_EPOLL.equalsIgnoreCase(transport)) {
+            RecordLog.warn("[NettyTransportSupport] Epoll transport is not available, falling back to NIO");
+        }
+        return TRANSPORT_NIO;
+    }
+
+    /**
+     * Create a new event loop group of the transport.
+     *
+     * @param transport transport name, blank for {@link #TRANSPORT_AUTO}
+     * @param threads   amount of event loop threads, 0 for the default of Netty
+     * @return new event loop group
+     */
+    public static EventLoopGroup newEventLoopGroup(String transport, int threads) {
+        if (TRANSPORT_EPOLL.equals(resolveTransport(transport))) {
+            try {
+                Constructor<?> constructor = Class.forName(EPOLL_PACKAGE + "EpollEventLoopGroup")
+                    .getConstructor(int.class);
+                return (EventLoopGroup)constructor.newInstance(threads);
+            } catch (Throwable ex) {
+                RecordLog.warn("[NettyTransportSupport] Failed to create epoll event loop group, falling back to NIO",
+                    ex);
+            }
+        }
+        return new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * @param group event loop group created by {@link #newEventLoopGroup(String, int)}
+     * @return server channel class matching the event loop group
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends ServerChannel> serverChannelClass(EventLoopGroup group) {
+        if (isEpoll(group)) {
+            try {
+                return (Class<? extends ServerChannel>)Class.forName(EPOLL_PACKAGE + "EpollServerSocketChannel");
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException("Epoll server channel not found", ex);
+            }
+        }
+        return NioServerSocketChannel.class;
+    }
+
+    /**
+     * @param group event loop group created by {@link #newEventLoopGroup(String, int)}
+     * @return socket channel class matching the event loop group
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Channel> socketChannelClass(EventLoopGroup group) {
+        if (isEpoll(group)) {
+            try {
+                return (Class<? extends Channel>)Class.forName(EPOLL_PACKAGE + "EpollSocketChannel");
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException("Epoll socket channel not found", ex);
+            }
+        }
+        return NioSocketChannel.class;
+    }
+
+    /**
+     * Create a handler consolidating flushes, which should be the first handler of the pipeline.
+     *
+     * @param consolidateWhenNoReadInProgress whether to also consolidate the flushes issued
+     *                                        outside of a read loop (e.g. by other threads)
+     * @return new flush consolidation handler
+     */
+    public static FlushConsolidationHandler newFlushConsolidationHandler(boolean consolidateWhenNoReadInProgress) {
+        return new FlushConsolidationHandler(EXPLICIT_FLUSH_AFTER_FLUSHES, consolidateWhenNoReadInProgress);
+    }
+
+    public static boolean isEpoll(EventLoopGroup group) {
+        return group != null && group.getClass().getName().startsWith(EPOLL_PACKAGE);
+    }
+
+    private NettyTransportSupport() {}
+}
@@ -64,12 +64,11 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        // Checking and taking tokens is one atomic operation, so concurrent requests cannot over-admit.
+        double nextRemaining = metric.tryAcquireToken(acquireCount, globalThreshold);
 
         if (nextRemaining >= 0) {
-            // TODO: checking logic and metric operation should be separated.
             metric.add(ClusterFlowEvent.PASS, acquireCount);
             metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
             if (prioritized) {
@@ -85,7 +84,7 @@ final class ClusterFlowChecker {
                 // Try to occupy incoming buckets.
                 double occupyAvg = metric.getAvg(ClusterFlowEvent.WAITING);
                 if (occupyAvg <= ClusterServerConfigManager.getMaxOccupyRatio() * globalThreshold) {
-                    int waitInMs = metric.tryOccupyNext(ClusterFlowEvent.PASS, acquireCount, globalThreshold);
+                    int waitInMs = metric.tryOccupyNextToken(acquireCount, globalThreshold);
                     // waitInMs > 0 indicates pre-occupy incoming buckets successfully.
                     if (waitInMs > 0) {
                         ClusterServerStatLogUtil.log("flow|waiting|" + id);
@@ -111,6 +110,46 @@ final class ClusterFlowChecker {
         }
     }
 
+    /**
+     * Grant a lease of tokens for the flow: a share of the threshold in one bucket of the sliding window,
+     * divided by the connected clients (at least {@code acquireCount} tokens, and no more than the available
+     * tokens). The client may use the tokens locally within the lease time, which is the bucket length.
+     *
+     * @return result with the granted count as remaining count and the lease time as wait time
+     * @since 1.8.1
+     */
+    static TokenResult acquireClusterLease(/*@Valid*/ FlowRule rule, int acquireCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        int leaseMs = metric.getBucketLengthInMs();
+        int connectedCount = Math.max(1, ClusterFlowRuleManager.getConnectedCount(id));
+        long share = (long)(globalThreshold * leaseMs / 1000 / connectedCount);
+        long granted = metric.tryAcquireTokenUpTo(acquireCount, Math.max(share, acquireCount), globalThreshold);
+
+        if (granted > 0) {
+            metric.add(ClusterFlowEvent.PASS, granted);
+            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining((int)Math.min(granted, Integer.MAX_VALUE))
+                .setWaitInMs(leaseMs);
+        }
+        metric.add(ClusterFlowEvent.BLOCK, acquireCount);
+        metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        ClusterServerStatLogUtil.log("flow|block|" + id, acquireCount);
+        ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+        return blockedResult();
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
@@ -47,6 +47,27 @@ public class DefaultTokenService implements TokenService {
         return ClusterFlowChecker.acquireClusterToken(rule, acquireCount, prioritized);
     }
 
+    /**
+     * Request a lease of tokens of the cluster flow rule, which the client may use locally within the
+     * lease time.
+     *
+     * @param ruleId       the unique rule ID
+     * @param acquireCount min count of tokens to grant
+     * @return result with the granted count as remaining count, and the lease time (in ms) as wait time
+     * @since 1.8.1
+     */
+    public TokenResult requestTokenLease(Long ruleId, int acquireCount) {
+        if (notValidRequest(ruleId, acquireCount)) {
+            return badRequest();
+        }
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+
+        return ClusterFlowChecker.acquireClusterLease(rule, acquireCount);
+    }
+
     @Override
     public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(ruleId, acquireCount) || params == null || params.isEmpty()) {
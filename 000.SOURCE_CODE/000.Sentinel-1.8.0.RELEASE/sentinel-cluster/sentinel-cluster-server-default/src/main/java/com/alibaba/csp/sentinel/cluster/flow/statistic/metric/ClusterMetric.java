@@ -28,12 +28,14 @@ import com.alibaba.csp.sentinel.util.AssertUtil;
 public class ClusterMetric {
 
     private final ClusterMetricLeapArray metric;
+    private final ClusterTokenCounter tokenCounter;
 
     public ClusterMetric(int sampleCount, int intervalInMs) {
         AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
         AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
         this.metric = new ClusterMetricLeapArray(sampleCount, intervalInMs);
+        this.tokenCounter = new ClusterTokenCounter(sampleCount, intervalInMs);
     }
 
     public void add(ClusterFlowEvent event, long count) {
@@ -86,6 +88,51 @@ public class ClusterMetric {
         return 1000 / metric.getSampleCount();
     }
 
+    /**
+     * Atomically check and take tokens from the token counter. Statistics are not recorded here.
+     *
+     * @return remaining count after taking the tokens; negative if tokens are not enough
+     * @since 1.8.1
+     */
+    public double tryAcquireToken(int acquireCount, double threshold) {
+        return tokenCounter.tryAcquire(acquireCount, threshold);
+    }
+
+    /**
+     * Atomically take as many tokens as available (but no more than {@code maxCount}) from the token
+     * counter, if at least {@code minCount} tokens are available. Statistics are not recorded here.
+     *
+     * @return count of tokens taken; 0 if tokens are not enough
+     * @since 1.8.1
+     */
+    public long tryAcquireTokenUpTo(int minCount, long maxCount, double threshold) {
+        return tokenCounter.tryAcquireUpTo(minCount, maxCount, threshold);
+    }
+
+    /**
+     * Get time length of one bucket of the sliding window (in ms).
+     *
+     * @since 1.8.1
+     */
+    public int getBucketLengthInMs() {
+        return tokenCounter.getBucketLengthInMs();
+    }
+
+    /**
+     * Atomically pre-occupy tokens of the next bucket from the token counter.
+     *
+     * @return time to wait for next bucket (in ms); 0 if cannot occupy next bucket
+     * @since 1.8.1
+     */
+    public int tryOccupyNextToken(int acquireCount, double threshold) {
+        int waitInMs = tokenCounter.tryOccupyNext(acquireCount, threshold);
+        if (waitInMs > 0) {
+            metric.addOccupyPass(acquireCount);
+            add(ClusterFlowEvent.WAITING, acquireCount);
+        }
+        return waitInMs;
+    }
+
     private boolean canOccupy(ClusterFlowEvent event, int acquireCount, double latestQps, double threshold) {
         long headPass = metric.getFirstCountOfWindow(event);
         long occupiedCount = metric.getOccupiedCount(event);
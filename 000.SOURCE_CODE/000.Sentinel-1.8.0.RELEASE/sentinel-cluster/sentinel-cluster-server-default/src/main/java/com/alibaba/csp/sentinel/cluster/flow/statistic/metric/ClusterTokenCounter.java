@@ -0,0 +1,238 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Sliding-window token counter of one cluster flow rule, in which checking and consuming tokens is
+ * a single atomic operation.</p>
+ *
+ * <p>Only the current bucket is mutable. Its pass count and the count pre-occupied for the next bucket
+ * are packed into one {@code long}, so a request compares the window sum against the threshold and takes
+ * its tokens with one CAS. Concurrent requests in the same bucket are serialized by the CAS, thus the
+ * passed count in the window never exceeds the threshold. When time moves to a new bucket, the current
+ * bucket is sealed first (so that no late CAS can change its count) and the final counts of previous
+ * buckets are carried over to the new bucket, which keeps their sum so that the check does not need to
+ * scan the window.</p>
+ *
+ * @since 1.8.1
+ */
+public class ClusterTokenCounter {
+
+    private static final long SEALED = Long.MIN_VALUE;
+    private static final int OCCUPIED_SHIFT = 40;
+    private static final long PASS_MASK = (1L << OCCUPIED_SHIFT) - 1;
+    private static final long OCCUPIED_MASK = (1L << (63 - OCCUPIED_SHIFT)) - 1;
+
+    private final int sampleCount;
+    private final int bucketLengthInMs;
+    private final double intervalInSecond;
+
+    private final AtomicReference<Bucket> current;
+
+    public ClusterTokenCounter(int sampleCount, int intervalInMs) {
+        AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
+        AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        this.sampleCount = sampleCount;
+        this.bucketLengthInMs = intervalInMs / sampleCount;
+        this.intervalInSecond = intervalInMs / 1000.0;
+        this.current = new AtomicReference<Bucket>(new Bucket(0, new long[sampleCount - 1], 0));
+    }
+
+    public double tryAcquire(int acquireCount, double threshold) {
+        return tryAcquire(acquireCount, threshold, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Take tokens if the average pass count per second in the window would not exceed the threshold.
+     *
+     * @param acquireCount count of tokens to take
+     * @param threshold    max average pass count per second
+     * @param timeMillis   current time
+     * @return remaining count after taking the tokens; negative if tokens are not enough, in which case
+     * no token has been taken
+     */
+    public double tryAcquire(int acquireCount, double threshold, long timeMillis) {
+        while (true) {
+            Bucket bucket = currentBucket(timeMillis);
+            long state = bucket.state.get();
+            if (state < 0) {
+                // Sealed by the thread that is moving to a new bucket.
+                continue;
+            }
+            long pass = state & PASS_MASK;
+            double remaining = threshold - (bucket.previousSum + pass) / intervalInSecond - acquireCount;
+            if (remaining < 0 || pass + acquireCount > PASS_MASK) {
+                return Math.min(remaining, -1);
+            }
+            if (bucket.state.compareAndSet(state, state + acquireCount)) {
+                return remaining;
+            }
+        }
+    }
+
+    public long tryAcquireUpTo(int minCount, long maxCount, double threshold) {
+        return tryAcquireUpTo(minCount, maxCount, threshold, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Take as many tokens as available but no more than {@code maxCount}, if at least {@code minCount}
+     * tokens are available.
+     *
+     * @param minCount   min count of tokens to take
+     * @param maxCount   max count of tokens to take
+     * @param threshold  max average pass count per second
+     * @param timeMillis current time
+     * @return count of tokens taken; 0 if tokens are not enough, in which case no token has been taken
+     * @since 1.8.1
+     */
+    public long tryAcquireUpTo(int minCount, long maxCount, double threshold, long timeMillis) {
+        while (true) {
+            Bucket bucket = currentBucket(timeMillis);
+            long state = bucket.state.get();
+            if (state < 0) {
+                continue;
+            }
+            long pass = state & PASS_MASK;
+            double available = threshold - (bucket.previousSum + pass) / intervalInSecond;
+            long count = Math.min(maxCount, (long)Math.floor(available));
+            if (count < minCount || count <= 0 || pass + count > PASS_MASK) {
+                return 0;
+            }
+            if (bucket.state.compareAndSet(state, state + count)) {
+                return count;
+            }
+        }
+    }
+
+    public int tryOccupyNext(int acquireCount, double threshold) {
+        return tryOccupyNext(acquireCount, threshold, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Pre-occupy tokens of the next bucket, if the window ending with the next bucket would not exceed
+     * the threshold. Occupied tokens are counted as passed ones when the next bucket starts.
+     *
+     * @param acquireCount count of tokens to occupy
+     * @param threshold    max average pass count per second
+     * @param timeMillis   current time
+     * @return time to wait for next bucket (in ms); 0 if cannot occupy next bucket
+     */
+    public int tryOccupyNext(int acquireCount, double threshold, long timeMillis) {
+        while (true) {
+            Bucket bucket = currentBucket(timeMillis);
+            long state = bucket.state.get();
+            if (state < 0) {
+                continue;
+            }
+            long pass = state & PASS_MASK;
+            long occupied = state >>> OCCUPIED_SHIFT;
+            //  bucket to occupy (= incoming bucket)
+            //       ↓
+            // | head bucket |    |    |    | current bucket |
+            // +-------------+----+----+----+----------------+
+            //   (headPass)
+            long headPass = sampleCount > 1 ? bucket.history[sampleCount - 2] : pass;
+            long nextSum = bucket.previousSum + pass - headPass + occupied + acquireCount;
+            if (nextSum / intervalInSecond > threshold || occupied + acquireCount > OCCUPIED_MASK) {
+                return 0;
+            }
+            if (bucket.state.compareAndSet(state, state + ((long)acquireCount << OCCUPIED_SHIFT))) {
+                return 1000 / sampleCount;
+            }
+        }
+    }
+
+    /**
+     * Get total pass count in the window, including tokens occupied for the next bucket.
+     */
+    public long getPassCount(long timeMillis) {
+        while (true) {
+            Bucket bucket = currentBucket(timeMillis);
+            long state = bucket.state.get();
+            if (state >= 0) {
+                return bucket.previousSum + (state & PASS_MASK) + (state >>> OCCUPIED_SHIFT);
+            }
+        }
+    }
+
+    public int getBucketLengthInMs() {
+        return bucketLengthInMs;
+    }
+
+    private Bucket currentBucket(long timeMillis) {
+        long index = timeMillis / bucketLengthInMs;
+        Bucket bucket = current.get();
+        while (index > bucket.index) {
+            Bucket next = bucket.next(index, seal(bucket));
+            if (current.compareAndSet(bucket, next)) {
+                return next;
+            }
+            bucket = current.get();
+        }
+        // Requests with an outdated time go to the current bucket.
+        return bucket;
+    }
+
+    private static long seal(Bucket bucket) {
+        while (true) {
+            long state = bucket.state.get();
+            if (state < 0 || bucket.state.compareAndSet(state, state | SEALED)) {
+                return state & ~SEALED;
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long index;
+        /**
+         * Pass count of previous buckets, {@code history[i]} for bucket {@code index - 1 - i}.
+         */
+        private final long[] history;
+        private final long previousSum;
+        private final AtomicLong state;
+
+        private Bucket(long index, long[] history, long pass) {
+            this.index = index;
+            this.history = history;
+            long sum = 0;
+            for (long count : history) {
+                sum += count;
+            }
+            this.previousSum = sum;
+            this.state = new AtomicLong(pass);
+        }
+
+        private Bucket next(long nextIndex, long finalState) {
+            long[] nextHistory = new long[history.length];
+            long gap = nextIndex - index;
+            if (gap <= nextHistory.length) {
+                int offset = (int)gap - 1;
+                nextHistory[offset] = finalState & PASS_MASK;
+                System.arraycopy(history, 0, nextHistory, offset + 1, nextHistory.length - offset - 1);
+            }
+            // Tokens occupied in advance pass in the next bucket.
+            return new Bucket(nextIndex, nextHistory, finalState >>> OCCUPIED_SHIFT);
+        }
+    }
+}
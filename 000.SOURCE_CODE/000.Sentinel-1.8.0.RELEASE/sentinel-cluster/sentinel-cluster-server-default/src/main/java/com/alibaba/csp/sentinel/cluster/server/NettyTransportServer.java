@@ -19,8 +19,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyRequestDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
 import com.alibaba.csp.sentinel.cluster.server.connection.Connection;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
 import com.alibaba.csp.sentinel.cluster.server.handler.TokenServerHandler;
@@ -32,11 +35,10 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.concurrent.GenericFutureListener;
@@ -56,9 +58,10 @@ public class NettyTransportServer implements ClusterTokenServer {
     private static final int RETRY_SLEEP_MS = 2000;
 
     private final int port;
+    private final ServerTransportConfig config;
 
-    private NioEventLoopGroup bossGroup;
-    private NioEventLoopGroup workerGroup;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
 
     private final ConnectionPool connectionPool = new ConnectionPool();
 
@@ -66,7 +69,16 @@ public class NettyTransportServer implements ClusterTokenServer {
     private final AtomicInteger failedTimes = new AtomicInteger(0);
 
     public NettyTransportServer(int port) {
-        this.port = port;
+        this(ClusterServerConfigManager.getTransportConfig().setPort(port));
+    }
+
+    /**
+     * @param config transport config of the token server, including the Netty options
+     * @since 1.8.1
+     */
+    public NettyTransportServer(ServerTransportConfig config) {
+        this.port = config.getPort();
+        this.config = config;
     }
 
     @Override
@@ -76,29 +88,44 @@ public class NettyTransportServer implements ClusterTokenServer {
         }
 
         ServerBootstrap b = new ServerBootstrap();
-        this.bossGroup = new NioEventLoopGroup(1);
-        this.workerGroup = new NioEventLoopGroup(DEFAULT_EVENT_LOOP_THREADS);
+        String transport = config.getNativeTransport();
+        int workerThreads = config.getWorkerThreads() > 0 ? config.getWorkerThreads() : DEFAULT_EVENT_LOOP_THREADS;
+        this.bossGroup = NettyTransportSupport.newEventLoopGroup(transport, 1);
+        this.workerGroup = NettyTransportSupport.newEventLoopGroup(transport, workerThreads);
+        final boolean flushConsolidation = config.isFlushConsolidation();
         b.group(bossGroup, workerGroup)
-            .channel(NioServerSocketChannel.class)
+            .channel(NettyTransportSupport.serverChannelClass(bossGroup))
             .option(ChannelOption.SO_BACKLOG, 128)
             .handler(new LoggingHandler(LogLevel.INFO))
             .childHandler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 public void initChannel(SocketChannel ch) throws Exception {
                     ChannelPipeline p = ch.pipeline();
+                    if (flushConsolidation) {
+                        // Responses to the requests of one read are flushed together when the read completes.
+                        p.addLast(NettyTransportSupport.newFlushConsolidationHandler(false));
+                    }
                     p.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
                     p.addLast(new NettyRequestDecoder());
-                    p.addLast(new LengthFieldPrepender(2));
                     p.addLast(new NettyResponseEncoder());
                     p.addLast(new TokenServerHandler(connectionPool));
                 }
             })
             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-            .childOption(ChannelOption.SO_SNDBUF, 32 * 1024)
             .childOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
             .childOption(ChannelOption.SO_TIMEOUT, 10)
-            .childOption(ChannelOption.TCP_NODELAY, true)
-            .childOption(ChannelOption.SO_RCVBUF, 32 * 1024);
+            .childOption(ChannelOption.TCP_NODELAY, true);
+        if (config.getSocketBufferSize() > 0) {
+            b.childOption(ChannelOption.SO_SNDBUF, config.getSocketBufferSize())
+                .childOption(ChannelOption.SO_RCVBUF, config.getSocketBufferSize());
+        }
+        if (config.getWriteBufferHighWaterMark() > 0) {
+            b.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()));
+        }
+        RecordLog.info("[NettyTransportServer] Starting token server with " + (NettyTransportSupport.isEpoll(bossGroup)
+            ? NettyTransportSupport.TRANSPORT_EPOLL : NettyTransportSupport.TRANSPORT_NIO) + " transport, "
+            + workerThreads + " worker threads");
         b.bind(port).addListener(new GenericFutureListener<ChannelFuture>() {
             @Override
             public void operationComplete(ChannelFuture future) {
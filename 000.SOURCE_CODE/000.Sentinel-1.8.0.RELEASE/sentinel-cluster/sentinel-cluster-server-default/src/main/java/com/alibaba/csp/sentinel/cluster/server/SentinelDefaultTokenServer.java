@@ -40,6 +40,7 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
 
     private ClusterTokenServer server;
     private int port;
+    private ServerTransportConfig transportConfig;
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
     static {
@@ -65,10 +66,12 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
         if (server != null) {
             return;
         }
-        int port = ClusterServerConfigManager.getPort();
+        ServerTransportConfig config = ClusterServerConfigManager.getTransportConfig();
+        int port = config.getPort();
         if (port > 0) {
-            this.server = new NettyTransportServer(port);
+            this.server = new NettyTransportServer(config);
             this.port = port;
+            this.transportConfig = config;
         }
     }
 
@@ -77,15 +80,16 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
             return;
         }
         int newPort = config.getPort();
-        if (newPort == port) {
+        if (newPort == port && config.nettyOptionsEqual(transportConfig)) {
             return;
         }
         try {
             if (server != null) {
                 stopServer();
             }
-            this.server = new NettyTransportServer(newPort);
+            this.server = new NettyTransportServer(config);
             this.port = newPort;
+            this.transportConfig = config;
             startServerIfScheduled();
         } catch (Exception ex) {
             RecordLog.warn("[SentinelDefaultTokenServer] Failed to apply modification to token server", ex);
@@ -57,7 +57,7 @@ public class DefaultRequestEntityDecoder implements RequestEntityDecoder<ByteBuf
                 data = dataDecoder.decode(source);
             }
 
-            return new ClusterRequest<>(xid, type, data);
+            return RecyclableClusterRequest.newInstance(xid, type, data);
         }
         return null;
     }
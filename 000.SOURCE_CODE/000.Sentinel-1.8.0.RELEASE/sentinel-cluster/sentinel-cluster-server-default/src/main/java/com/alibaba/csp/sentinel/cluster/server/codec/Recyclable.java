@@ -0,0 +1,33 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec;
+
+/**
+ * <p>A pooled entity of the token server, which should be returned to its pool after use.</p>
+ *
+ * <p>Recyclable requests are recycled by the token server handler after the request has been processed,
+ * and recyclable responses are recycled by the response encoder after the response has been written.
+ * So request processors must not keep references to the request (or its data) after processing.</p>
+ *
+ * @since 1.8.1
+ */
+public interface Recyclable {
+
+    /**
+     * Return the entity (and its recyclable data) to the pool. The entity should not be used afterwards.
+     */
+    void recycle();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec;
+
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import io.netty.util.Recycler;
+
+/**
+ * A pooled {@link ClusterResponse} produced by the token server.
+ *
+ * @since 1.8.1
+ */
+public final class RecyclableClusterResponse<T> extends ClusterResponse<T> implements Recyclable {
+
+    private static final Recycler<RecyclableClusterResponse> RECYCLER = new Recycler<RecyclableClusterResponse>() {
+        @Override
+        protected RecyclableClusterResponse newObject(Handle<RecyclableClusterResponse> handle) {
+            return new RecyclableClusterResponse(handle);
+        }
+    };
+
+    private final Recycler.Handle<RecyclableClusterResponse> handle;
+
+    private RecyclableClusterResponse(Recycler.Handle<RecyclableClusterResponse> handle) {
+        this.handle = handle;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RecyclableClusterResponse<T> newInstance(int id, int type, int status, T data) {
+        RecyclableClusterResponse<T> response = RECYCLER.get();
+        response.setId(id).setType(type).setStatus(status).setData(data);
+        return response;
+    }
+
+    @Override
+    public void recycle() {
+        T data = getData();
+        if (data instanceof Recyclable) {
+            ((Recyclable)data).recycle();
+        }
+        setData(null);
+        handle.recycle(this);
+    }
+}
@@ -36,7 +36,7 @@ public class FlowRequestDataDecoder implements EntityDecoder<ByteBuf, FlowReques
     @Override
     public FlowRequestData decode(ByteBuf source) {
         if (source.readableBytes() >= 12) {
-            FlowRequestData requestData = new FlowRequestData()
+            FlowRequestData requestData = RecyclableFlowRequestData.newInstance()
                 .setFlowId(source.readLong())
                 .setCount(source.readInt());
             if (source.readableBytes() >= 1) {
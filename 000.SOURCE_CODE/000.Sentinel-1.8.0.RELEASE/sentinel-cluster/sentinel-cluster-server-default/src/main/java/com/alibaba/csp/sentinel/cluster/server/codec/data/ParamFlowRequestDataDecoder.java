@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.codec.data;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -61,10 +62,8 @@ public class ParamFlowRequestDataDecoder implements EntityDecoder<ByteBuf, Param
                 return true;
             case ClusterConstants.PARAM_TYPE_STRING:
                 int length = source.readInt();
-                byte[] bytes = new byte[length];
-                source.readBytes(bytes);
-                // TODO: take care of charset?
-                params.add(new String(bytes));
+                // Decode directly from the buffer, without an intermediate byte array.
+                params.add(source.readCharSequence(length, StandardCharsets.UTF_8).toString());
                 return true;
             case ClusterConstants.PARAM_TYPE_BOOLEAN:
                 params.add(source.readBoolean());
@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.Recyclable;
+
+import io.netty.util.Recycler;
+
+/**
+ * A pooled {@link FlowRequestData} decoded by the token server.
+ *
+ * @since 1.8.1
+ */
+public final class RecyclableFlowRequestData extends FlowRequestData implements Recyclable {
+
+    private static final Recycler<RecyclableFlowRequestData> RECYCLER = new Recycler<RecyclableFlowRequestData>() {
+        @Override
+        protected RecyclableFlowRequestData newObject(Handle<RecyclableFlowRequestData> handle) {
+            return new RecyclableFlowRequestData(handle);
+        }
+    };
+
+    private final Recycler.Handle<RecyclableFlowRequestData> handle;
+
+    private RecyclableFlowRequestData(Recycler.Handle<RecyclableFlowRequestData> handle) {
+        this.handle = handle;
+    }
+
+    public static RecyclableFlowRequestData newInstance() {
+        RecyclableFlowRequestData data = RECYCLER.get();
+        data.setFlowId(0).setCount(0).setPriority(false);
+        return data;
+    }
+
+    @Override
+    public void recycle() {
+        handle.recycle(this);
+    }
+}
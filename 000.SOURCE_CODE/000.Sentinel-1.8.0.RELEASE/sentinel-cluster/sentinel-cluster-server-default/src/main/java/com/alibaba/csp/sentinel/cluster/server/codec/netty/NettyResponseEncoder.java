@@ -20,22 +20,50 @@ import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
 import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityWriter;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.Response;
+import com.alibaba.csp.sentinel.cluster.server.codec.Recyclable;
 import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
 import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
+ * <p>Encoder for cluster responses. Each response is written as a frame with a 2-byte length field ahead,
+ * which is filled in place after the response has been written, so no extra buffer is allocated for the
+ * length field (as {@code LengthFieldPrepender} does). Recyclable responses are recycled once written.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyResponseEncoder extends MessageToByteEncoder<ClusterResponse> {
 
+    private static final int LENGTH_FIELD_SIZE = 2;
+    private static final int MAX_FRAME_LENGTH = 0xFFFF;
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterResponse response, ByteBuf out) throws Exception {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        try {
+            writeResponse(response, out);
+        } finally {
+            if (response instanceof Recyclable) {
+                ((Recyclable)response).recycle();
+            }
+        }
+
+        int length = out.writerIndex() - lengthIndex - LENGTH_FIELD_SIZE;
+        if (length > MAX_FRAME_LENGTH) {
+            out.writerIndex(lengthIndex);
+            throw new EncoderException("Response frame too large: " + length);
+        }
+        out.setShort(lengthIndex, length);
+    }
+
+    private void writeResponse(ClusterResponse response, ByteBuf out) {
         ResponseEntityWriter<ClusterResponse, ByteBuf> responseEntityWriter = ServerEntityCodecProvider.getResponseEntityWriter();
         if (responseEntityWriter == null) {
             RecordLog.warn("[NettyResponseEncoder] Cannot resolve the global response entity writer, reply bad status");
@@ -46,7 +74,6 @@ public class NettyResponseEncoder extends MessageToByteEncoder<ClusterResponse>
         responseEntityWriter.writeTo(response, out);
     }
 
-
     private void writeBadStatusHead(Response response, ByteBuf out) {
         out.writeInt(response.getId());
         out.writeByte(ClusterConstants.RESPONSE_STATUS_BAD);
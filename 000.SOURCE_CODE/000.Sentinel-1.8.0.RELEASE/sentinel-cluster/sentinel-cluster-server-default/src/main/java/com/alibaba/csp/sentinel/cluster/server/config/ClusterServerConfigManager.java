@@ -29,6 +29,7 @@ import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterParamFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterParamMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.limit.GlobalRequestLimiter;
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -51,6 +52,10 @@ public final class ClusterServerConfigManager {
      */
     private static volatile int port = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
     private static volatile int idleSeconds = ServerTransportConfig.DEFAULT_IDLE_SECONDS;
+    /**
+     * Netty options of the token server (the port and idle seconds in it are not used).
+     */
+    private static volatile ServerTransportConfig nettyConfig = new ServerTransportConfig();
     private static volatile Set<String> namespaceSet = Collections.singleton(ServerConstants.DEFAULT_NAMESPACE);
 
     /**
@@ -290,10 +295,11 @@ public final class ClusterServerConfigManager {
     private static void updateTokenServer(ServerTransportConfig config) {
         int newPort = config.getPort();
         AssertUtil.isTrue(newPort > 0, "token server port should be valid (positive)");
-        if (newPort == port) {
+        if (newPort == port && config.nettyOptionsEqual(nettyConfig)) {
             return;
         }
         ClusterServerConfigManager.port = newPort;
+        ClusterServerConfigManager.nettyConfig = copyTransportConfig(config);
 
         for (ServerTransportConfigObserver observer : TRANSPORT_CONFIG_OBSERVERS) {
             observer.onTransportConfigChange(config);
@@ -345,8 +351,22 @@ public final class ClusterServerConfigManager {
         }
     }
 
+    private static ServerTransportConfig copyTransportConfig(ServerTransportConfig config) {
+        return new ServerTransportConfig(config.getPort(), config.getIdleSeconds())
+            .setNativeTransport(config.getNativeTransport())
+            .setWorkerThreads(config.getWorkerThreads())
+            .setWriteBufferLowWaterMark(config.getWriteBufferLowWaterMark())
+            .setWriteBufferHighWaterMark(config.getWriteBufferHighWaterMark())
+            .setFlushConsolidation(config.isFlushConsolidation())
+            .setSocketBufferSize(config.getSocketBufferSize());
+    }
+
     public static boolean isValidTransportConfig(ServerTransportConfig config) {
-        return config != null && config.getPort() > 0 && config.getPort() <= 65535;
+        return config != null && config.getPort() > 0 && config.getPort() <= 65535
+            && NettyTransportSupport.isValidTransport(config.getNativeTransport())
+            && config.getWorkerThreads() >= 0 && config.getSocketBufferSize() >= 0
+            && config.getWriteBufferLowWaterMark() >= 0
+            && config.getWriteBufferHighWaterMark() >= config.getWriteBufferLowWaterMark();
     }
 
     public static boolean isValidFlowConfig(ServerFlowConfig config) {
@@ -430,6 +450,16 @@ public final class ClusterServerConfigManager {
         return idleSeconds;
     }
 
+    /**
+     * Get a copy of current server transport config, including the Netty options.
+     *
+     * @return current server transport config
+     * @since 1.8.1
+     */
+    public static ServerTransportConfig getTransportConfig() {
+        return copyTransportConfig(nettyConfig).setPort(port).setIdleSeconds(idleSeconds);
+    }
+
     public static int getIntervalMs() {
         return intervalMs;
     }
@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.cluster.server.config;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.netty.NettyTransportSupport;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * @author Eric Zhao
@@ -24,10 +26,44 @@ import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 public class ServerTransportConfig {
 
     public static final int DEFAULT_IDLE_SECONDS = 600;
+    public static final String DEFAULT_NATIVE_TRANSPORT = NettyTransportSupport.TRANSPORT_AUTO;
+    public static final boolean DEFAULT_FLUSH_CONSOLIDATION = true;
 
     private int port;
     private int idleSeconds;
 
+    /**
+     * Netty transport of the token server: "auto" (epoll if available), "epoll" or "nio".
+     *
+     * @since 1.8.1
+     */
+    private String nativeTransport = DEFAULT_NATIVE_TRANSPORT;
+    /**
+     * Amount of I/O worker threads, 0 for the default (twice the number of processors).
+     *
+     * @since 1.8.1
+     */
+    private int workerThreads = 0;
+    /**
+     * Write buffer water marks (in bytes) of client connections, 0 for the default of Netty.
+     *
+     * @since 1.8.1
+     */
+    private int writeBufferLowWaterMark = 0;
+    private int writeBufferHighWaterMark = 0;
+    /**
+     * Whether to consolidate the flushes of responses to requests read in one read loop.
+     *
+     * @since 1.8.1
+     */
+    private boolean flushConsolidation = DEFAULT_FLUSH_CONSOLIDATION;
+    /**
+     * Send and receive buffer size (in bytes) of client connections, 0 for the system default.
+     *
+     * @since 1.8.1
+     */
+    private int socketBufferSize = 0;
+
     public ServerTransportConfig() {
         this(ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT, DEFAULT_IDLE_SECONDS);
     }
@@ -55,11 +91,94 @@ public class ServerTransportConfig {
         return this;
     }
 
+    public String getNativeTransport() {
+        return nativeTransport;
+    }
+
+    public ServerTransportConfig setNativeTransport(String nativeTransport) {
+        this.nativeTransport = nativeTransport;
+        return this;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public ServerTransportConfig setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public ServerTransportConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+        return this;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public ServerTransportConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+        return this;
+    }
+
+    public boolean isFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public ServerTransportConfig setFlushConsolidation(boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+        return this;
+    }
+
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    public ServerTransportConfig setSocketBufferSize(int socketBufferSize) {
+        this.socketBufferSize = socketBufferSize;
+        return this;
+    }
+
+    /**
+     * Check whether the Netty options (which need a restart of the token server to apply)
+     * are the same as the given config. The port and idle seconds are not included.
+     *
+     * @param other another config
+     * @return true if the Netty options are the same
+     * @since 1.8.1
+     */
+    public boolean nettyOptionsEqual(ServerTransportConfig other) {
+        if (other == null) {
+            return false;
+        }
+        String transport = StringUtil.isBlank(nativeTransport) ? DEFAULT_NATIVE_TRANSPORT : nativeTransport;
+        String otherTransport = StringUtil.isBlank(other.nativeTransport) ? DEFAULT_NATIVE_TRANSPORT
+            : other.nativeTransport;
+        return transport.equalsIgnoreCase(otherTransport)
+            && workerThreads == other.workerThreads
+            && writeBufferLowWaterMark == other.writeBufferLowWaterMark
+            && writeBufferHighWaterMark == other.writeBufferHighWaterMark
+            && flushConsolidation == other.flushConsolidation
+            && socketBufferSize == other.socketBufferSize;
+    }
+
     @Override
     public String toString() {
         return "ServerTransportConfig{" +
             "port=" + port +
             ", idleSeconds=" + idleSeconds +
+            ", nativeTransport='" + nativeTransport + '\'' +
+            ", workerThreads=" + workerThreads +
+            ", writeBufferLowWaterMark=" + writeBufferLowWaterMark +
+            ", writeBufferHighWaterMark=" + writeBufferHighWaterMark +
+            ", flushConsolidation=" + flushConsolidation +
+            ", socketBufferSize=" + socketBufferSize +
             '}';
     }
 }
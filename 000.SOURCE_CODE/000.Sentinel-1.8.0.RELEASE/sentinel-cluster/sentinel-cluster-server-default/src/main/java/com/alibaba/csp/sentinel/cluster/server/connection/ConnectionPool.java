@@ -28,6 +28,8 @@ import java.util.concurrent.TimeUnit;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 
 /**
  * Universal connection pool for connection management.
@@ -38,6 +40,8 @@ import io.netty.channel.Channel;
  */
 public class ConnectionPool {
 
+    private static final AttributeKey<String> CONNECTION_KEY_ATTR = AttributeKey.valueOf("sentinelConnectionKey");
+
     @SuppressWarnings("PMD.ThreadPoolCreationRule")
     private static final ScheduledExecutorService TIMER = Executors.newScheduledThreadPool(2);
 
@@ -79,10 +83,17 @@ public class ConnectionPool {
      * @return formatted key
      */
     private String getConnectionKey(Channel channel) {
-        InetSocketAddress socketAddress = (InetSocketAddress)channel.remoteAddress();
-        String remoteIp = socketAddress.getAddress().getHostAddress();
-        int remotePort = socketAddress.getPort();
-        return remoteIp + ":" + remotePort;
+        // The key is resolved on every read, so cache it in the channel.
+        Attribute<String> keyAttr = channel.attr(CONNECTION_KEY_ATTR);
+        String connKey = keyAttr.get();
+        if (connKey == null) {
+            InetSocketAddress socketAddress = (InetSocketAddress)channel.remoteAddress();
+            String remoteIp = socketAddress.getAddress().getHostAddress();
+            int remotePort = socketAddress.getPort();
+            connKey = remoteIp + ":" + remotePort;
+            keyAttr.set(connKey);
+        }
+        return connKey;
     }
 
     private String getConnectionKey(String ip, int port) {
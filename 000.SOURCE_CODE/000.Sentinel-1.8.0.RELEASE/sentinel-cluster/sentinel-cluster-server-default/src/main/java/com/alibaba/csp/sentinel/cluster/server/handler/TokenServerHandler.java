@@ -20,6 +20,7 @@ import java.net.InetSocketAddress;
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.Recyclable;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
@@ -57,27 +58,37 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         globalConnectionPool.refreshLastReadTime(ctx.channel());
         if (msg instanceof ClusterRequest) {
             ClusterRequest request = (ClusterRequest)msg;
-
-            // Client ping with its namespace, add to connection manager.
-            if (request.getType() == ClusterConstants.MSG_TYPE_PING) {
-                handlePingRequest(ctx, request);
-                return;
+            try {
+                handleRequest(ctx, request);
+            } finally {
+                // The request is not referenced any more after processed.
+                if (request instanceof Recyclable) {
+                    ((Recyclable)request).recycle();
+                }
             }
+        }
+    }
 
-            // Pick request processor for request type.
-            RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
-            if (processor == null) {
-                RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
-                writeBadResponse(ctx, request);
-            } else {
-                ClusterResponse<?> response = processor.processRequest(request);
-                writeResponse(ctx, response);
-            }
+    @SuppressWarnings("unchecked")
+    private void handleRequest(ChannelHandlerContext ctx, ClusterRequest request) {
+        // Client ping with its namespace, add to connection manager.
+        if (request.getType() == ClusterConstants.MSG_TYPE_PING) {
+            handlePingRequest(ctx, request);
+            return;
+        }
+
+        // Pick request processor for request type.
+        RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
+        if (processor == null) {
+            RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
+            writeBadResponse(ctx, request);
+        } else {
+            ClusterResponse<?> response = processor.processRequest(request);
+            writeResponse(ctx, response);
         }
     }
 
@@ -88,7 +99,8 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void writeResponse(ChannelHandlerContext ctx, ClusterResponse response) {
-        ctx.writeAndFlush(response);
+        // Nobody listens to the result of the write, so spare the promise.
+        ctx.writeAndFlush(response, ctx.voidPromise());
     }
 
     private void handlePingRequest(ChannelHandlerContext ctx, ClusterRequest request) {
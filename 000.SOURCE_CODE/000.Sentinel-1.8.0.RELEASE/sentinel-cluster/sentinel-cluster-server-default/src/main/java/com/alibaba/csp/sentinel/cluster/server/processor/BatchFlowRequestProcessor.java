@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor for batch flow requests. Every request in the batch is checked by the token service
+ * separately (in order), just as if it came in a single flow request.
+ *
+ * @since 1.8.1
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_BATCH)
+public class BatchFlowRequestProcessor implements RequestProcessor<BatchFlowRequestData, BatchFlowTokenResponseData> {
+
+    @Override
+    public ClusterResponse<BatchFlowTokenResponseData> processRequest(ClusterRequest<BatchFlowRequestData> request) {
+        BatchFlowRequestData data = request.getData();
+        if (data == null || data.getRequests() == null || data.getRequests().isEmpty()) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD,
+                null);
+        }
+        TokenService tokenService = TokenServiceProvider.getService();
+        List<TokenResult> results = new ArrayList<>(data.getRequests().size());
+        for (FlowRequestData item : data.getRequests()) {
+            results.add(tokenService.requestToken(item.getFlowId(), item.getCount(), item.isPriority()));
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            new BatchFlowTokenResponseData().setResults(results));
+    }
+}
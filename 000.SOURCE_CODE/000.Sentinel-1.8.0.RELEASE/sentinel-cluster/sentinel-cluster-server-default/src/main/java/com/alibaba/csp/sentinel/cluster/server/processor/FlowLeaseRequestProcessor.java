@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.flow.DefaultTokenService;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.RecyclableClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.RecyclableFlowTokenResponseData;
+
+/**
+ * Processor for flow token lease requests. The response carries the granted count as the remaining count,
+ * and the lease time (in ms) as the wait time. Token services other than {@link DefaultTokenService}
+ * do not support leases, and the request is served as a plain flow request with no lease time.
+ *
+ * @since 1.8.1
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_LEASE)
+public class FlowLeaseRequestProcessor implements RequestProcessor<FlowRequestData, FlowTokenResponseData> {
+
+    @Override
+    public ClusterResponse<FlowTokenResponseData> processRequest(ClusterRequest<FlowRequestData> request) {
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        long flowId = request.getData().getFlowId();
+        int count = request.getData().getCount();
+
+        TokenResult result;
+        if (tokenService instanceof DefaultTokenService) {
+            result = ((DefaultTokenService)tokenService).requestTokenLease(flowId, count);
+        } else {
+            result = tokenService.requestToken(flowId, count, false);
+            if (result.getStatus() == TokenResultStatus.OK) {
+                result.setRemaining(count).setWaitInMs(0);
+            }
+        }
+        FlowTokenResponseData data = RecyclableFlowTokenResponseData.newInstance(result.getRemaining(),
+            result.getWaitInMs());
+        return RecyclableClusterResponse.newInstance(request.getId(), request.getType(), result.getStatus(), data);
+    }
+}
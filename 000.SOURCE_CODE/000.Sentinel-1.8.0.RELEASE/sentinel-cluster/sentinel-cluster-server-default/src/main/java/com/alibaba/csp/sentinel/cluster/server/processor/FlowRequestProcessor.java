@@ -24,6 +24,8 @@ import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.RecyclableClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.RecyclableFlowTokenResponseData;
 
 /**
  * @author Eric Zhao
@@ -45,10 +47,8 @@ public class FlowRequestProcessor implements RequestProcessor<FlowRequestData, F
     }
 
     private ClusterResponse<FlowTokenResponseData> toResponse(TokenResult result, ClusterRequest request) {
-        return new ClusterResponse<>(request.getId(), request.getType(), result.getStatus(),
-            new FlowTokenResponseData()
-                .setRemainingCount(result.getRemaining())
-                .setWaitInMs(result.getWaitInMs())
-        );
+        FlowTokenResponseData data = RecyclableFlowTokenResponseData.newInstance(result.getRemaining(),
+            result.getWaitInMs());
+        return RecyclableClusterResponse.newInstance(request.getId(), request.getType(), result.getStatus(), data);
     }
 }
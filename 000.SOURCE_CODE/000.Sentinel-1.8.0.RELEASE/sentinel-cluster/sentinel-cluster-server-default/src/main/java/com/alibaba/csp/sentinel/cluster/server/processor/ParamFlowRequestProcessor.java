@@ -26,6 +26,8 @@ import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.RecyclableClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.RecyclableFlowTokenResponseData;
 
 /**
  * @author Eric Zhao
@@ -47,10 +49,7 @@ public class ParamFlowRequestProcessor implements RequestProcessor<ParamFlowRequ
     }
 
     private ClusterResponse<FlowTokenResponseData> toResponse(TokenResult result, ClusterRequest request) {
-        return new ClusterResponse<>(request.getId(), request.getType(), result.getStatus(),
-            new FlowTokenResponseData()
-                .setRemainingCount(result.getRemaining())
-                .setWaitInMs(0)
-        );
+        FlowTokenResponseData data = RecyclableFlowTokenResponseData.newInstance(result.getRemaining(), 0);
+        return RecyclableClusterResponse.newInstance(request.getId(), request.getType(), result.getStatus(), data);
     }
 }
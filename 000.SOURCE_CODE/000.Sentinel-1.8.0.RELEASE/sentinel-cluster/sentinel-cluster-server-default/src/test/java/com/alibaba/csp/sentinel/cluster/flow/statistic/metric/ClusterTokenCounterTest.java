@@ -0,0 +1,139 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ClusterTokenCounter}.
+ */
+public class ClusterTokenCounterTest {
+
+    @Test
+    public void testTryAcquireInSlidingWindow() {
+        // 5 buckets of 200 ms.
+        ClusterTokenCounter counter = new ClusterTokenCounter(5, 1000);
+        long now = 100000;
+        assertEquals(7, counter.tryAcquire(3, 10, now), 0.01);
+        assertEquals(2, counter.tryAcquire(5, 10, now + 200), 0.01);
+        assertTrue(counter.tryAcquire(3, 10, now + 400) < 0);
+        assertEquals(0, counter.tryAcquire(2, 10, now + 800), 0.01);
+        assertEquals(10, counter.getPassCount(now + 800));
+        // The first bucket leaves the window.
+        assertEquals(0, counter.tryAcquire(3, 10, now + 1000), 0.01);
+        assertTrue(counter.tryAcquire(1, 10, now + 1100) < 0);
+        // Buckets of the second and third leave the window.
+        assertEquals(3, counter.tryAcquire(2, 10, now + 1400), 0.01);
+        // All buckets leave the window after an idle period.
+        assertEquals(0, counter.getPassCount(now + 5000));
+        assertEquals(0, counter.tryAcquire(10, 10, now + 5000), 0.01);
+    }
+
+    @Test
+    public void testIntervalLongerThanOneSecond() {
+        ClusterTokenCounter counter = new ClusterTokenCounter(2, 2000);
+        long now = 100000;
+        // Threshold is the average count per second.
+        assertEquals(1, counter.tryAcquire(4, 5, now), 0.01);
+        assertEquals(0, counter.tryAcquire(3, 5, now + 1000), 0.01);
+        assertTrue(counter.tryAcquire(2, 5, now + 1500) < 0);
+        // The first bucket leaves the window.
+        assertEquals(0.5, counter.tryAcquire(3, 5, now + 2000), 0.01);
+    }
+
+    @Test
+    public void testTryOccupyNext() {
+        ClusterTokenCounter counter = new ClusterTokenCounter(5, 1000);
+        long now = 100000;
+        assertEquals(6, counter.tryAcquire(4, 10, now), 0.01);
+        assertEquals(0, counter.tryAcquire(6, 10, now + 800), 0.01);
+        assertTrue(counter.tryAcquire(1, 10, now + 900) < 0);
+        // Passed count of the head bucket will be released in the next bucket.
+        assertEquals(200, counter.tryOccupyNext(3, 10, now + 900));
+        assertEquals(0, counter.tryOccupyNext(2, 10, now + 900));
+        assertEquals(13, counter.getPassCount(now + 900));
+        // Occupied tokens pass in the next bucket.
+        assertEquals(9, counter.getPassCount(now + 1000));
+        assertEquals(0, counter.tryAcquire(1, 10, now + 1000), 0.01);
+        assertTrue(counter.tryAcquire(1, 10, now + 1000) < 0);
+    }
+
+    @Test
+    public void testTryAcquireUpTo() {
+        ClusterTokenCounter counter = new ClusterTokenCounter(10, 1000);
+        long now = 100000;
+        assertEquals(30, counter.tryAcquireUpTo(1, 30, 100, now));
+        assertEquals(50, counter.tryAcquireUpTo(1, 50, 100, now + 100));
+        // Only the available tokens are granted.
+        assertEquals(20, counter.tryAcquireUpTo(1, 30, 100, now + 200));
+        assertEquals(0, counter.tryAcquireUpTo(1, 30, 100, now + 300));
+        assertEquals(100, counter.getPassCount(now + 300));
+        // The first bucket leaves the window, but the tokens are not enough.
+        assertEquals(0, counter.tryAcquireUpTo(40, 50, 100, now + 1000));
+        assertEquals(30, counter.tryAcquireUpTo(10, 50, 100, now + 1000));
+    }
+
+    @Test
+    public void testSingleBucket() {
+        ClusterTokenCounter counter = new ClusterTokenCounter(1, 1000);
+        long now = 100000;
+        assertEquals(0, counter.tryAcquire(5, 5, now), 0.01);
+        assertTrue(counter.tryAcquire(1, 5, now + 999) < 0);
+        assertEquals(1000, counter.tryOccupyNext(2, 5, now + 999));
+        assertEquals(2, counter.tryAcquire(1, 5, now + 1000), 0.01);
+    }
+
+    @Test
+    public void testConcurrentAcquireNeverExceedsThreshold() throws Exception {
+        final ClusterTokenCounter counter = new ClusterTokenCounter(10, 1000);
+        final int threshold = 1000;
+        final long base = 100000;
+        int threadCount = 8;
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        // Threads move through all buckets of one window at their own paces.
+                        for (int j = 0; j < 1000; j++) {
+                            if (counter.tryAcquire(1, threshold, base + j) >= 0) {
+                                passed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(threshold, passed.get());
+        assertEquals(threshold, counter.getPassCount(base + 999));
+    }
+}
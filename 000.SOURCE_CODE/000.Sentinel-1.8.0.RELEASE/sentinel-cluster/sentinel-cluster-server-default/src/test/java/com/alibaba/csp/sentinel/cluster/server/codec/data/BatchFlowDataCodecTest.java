@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link BatchFlowRequestDataDecoder} and {@link BatchFlowResponseDataWriter}.
+ */
+public class BatchFlowDataCodecTest {
+
+    @Test
+    public void testDecodeBatchFlowRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeLong(11L).writeInt(1).writeBoolean(false);
+        buf.writeLong(12L).writeInt(3).writeBoolean(true);
+
+        BatchFlowRequestData data = new BatchFlowRequestDataDecoder().decode(buf);
+        assertThat(data).isNotNull();
+        assertThat(data.getRequests()).hasSize(2);
+        FlowRequestData second = data.getRequests().get(1);
+        assertThat(second.getFlowId()).isEqualTo(12L);
+        assertThat(second.getCount()).isEqualTo(3);
+        assertThat(second.isPriority()).isTrue();
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeIllegalBatchFlowRequest() {
+        BatchFlowRequestDataDecoder decoder = new BatchFlowRequestDataDecoder();
+
+        ByteBuf truncated = Unpooled.buffer();
+        truncated.writeShort(2);
+        truncated.writeLong(11L).writeInt(1).writeBoolean(false);
+        assertThat(decoder.decode(truncated)).isNull();
+        truncated.release();
+
+        ByteBuf oversized = Unpooled.buffer();
+        oversized.writeShort(ClusterConstants.MAX_FLOW_BATCH_SIZE + 1);
+        assertThat(decoder.decode(oversized)).isNull();
+        oversized.release();
+    }
+
+    @Test
+    public void testWriteBatchFlowResponse() {
+        ByteBuf buf = Unpooled.buffer();
+        BatchFlowTokenResponseData data = new BatchFlowTokenResponseData().setResults(Arrays.asList(
+            new TokenResult(TokenResultStatus.OK).setRemaining(5),
+            new TokenResult(TokenResultStatus.SHOULD_WAIT).setWaitInMs(20)
+        ));
+        new BatchFlowResponseDataWriter().writeTo(data, buf);
+
+        assertThat(buf.readableBytes()).isEqualTo(2 + 2 * 9);
+        assertThat(buf.readUnsignedShort()).isEqualTo(2);
+        assertThat((int)buf.readByte()).isEqualTo(TokenResultStatus.OK);
+        assertThat(buf.readInt()).isEqualTo(5);
+        assertThat(buf.readInt()).isEqualTo(0);
+        assertThat((int)buf.readByte()).isEqualTo(TokenResultStatus.SHOULD_WAIT);
+        assertThat(buf.readInt()).isEqualTo(0);
+        assertThat(buf.readInt()).isEqualTo(20);
+        buf.release();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.netty;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.RecyclableClusterRequest;
+import com.alibaba.csp.sentinel.cluster.server.codec.RecyclableClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.RecyclableFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.RecyclableFlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.init.DefaultClusterServerInitFunc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link NettyRequestDecoder} and {@link NettyResponseEncoder}.
+ */
+public class NettyServerCodecTest {
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        new DefaultClusterServerInitFunc().init();
+    }
+
+    @Test
+    public void testDecodeFlowRequest() {
+        EmbeddedChannel channel = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2),
+            new NettyRequestDecoder());
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeShort(4 + 1 + 8 + 4 + 1);
+        frame.writeInt(7).writeByte(ClusterConstants.MSG_TYPE_FLOW);
+        frame.writeLong(111L).writeInt(2).writeBoolean(true);
+        assertThat(channel.writeInbound(frame)).isTrue();
+
+        Object msg = channel.readInbound();
+        assertThat(msg).isInstanceOf(RecyclableClusterRequest.class);
+        RecyclableClusterRequest<?> request = (RecyclableClusterRequest<?>)msg;
+        assertThat(request.getId()).isEqualTo(7);
+        assertThat(request.getData()).isInstanceOf(RecyclableFlowRequestData.class);
+        FlowRequestData data = (FlowRequestData)request.getData();
+        assertThat(data.getFlowId()).isEqualTo(111L);
+        assertThat(data.getCount()).isEqualTo(2);
+        assertThat(data.isPriority()).isTrue();
+
+        request.recycle();
+        assertThat(request.getData()).isNull();
+        channel.finish();
+    }
+
+    @Test
+    public void testEncodeFlowResponseWithLengthField() {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyResponseEncoder());
+        RecyclableClusterResponse<?> response = RecyclableClusterResponse.newInstance(9,
+            ClusterConstants.MSG_TYPE_FLOW, ClusterConstants.RESPONSE_STATUS_OK,
+            RecyclableFlowTokenResponseData.newInstance(5, 20));
+        assertThat(channel.writeOutbound(response)).isTrue();
+
+        ByteBuf out = channel.readOutbound();
+        assertThat(out.readUnsignedShort()).isEqualTo(out.readableBytes());
+        assertThat(out.readInt()).isEqualTo(9);
+        assertThat((int)out.readByte()).isEqualTo(ClusterConstants.MSG_TYPE_FLOW);
+        assertThat((int)out.readByte()).isEqualTo(ClusterConstants.RESPONSE_STATUS_OK);
+        assertThat(out.readInt()).isEqualTo(5);
+        assertThat(out.readInt()).isEqualTo(20);
+        assertThat(out.readableBytes()).isZero();
+        out.release();
+
+        // Recycled after written.
+        assertThat(response.getData()).isNull();
+        channel.finish();
+    }
+}
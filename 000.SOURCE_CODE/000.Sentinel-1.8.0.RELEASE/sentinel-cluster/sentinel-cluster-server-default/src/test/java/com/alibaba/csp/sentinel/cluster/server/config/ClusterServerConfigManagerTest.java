@@ -19,6 +19,29 @@ public class ClusterServerConfigManagerTest {
         assertTrue(ClusterServerConfigManager.isValidTransportConfig(goodConfig1));
     }
 
+    @Test
+    public void testIsValidTransportNettyOptions() {
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(
+            new ServerTransportConfig().setNativeTransport("io_uring")));
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(
+            new ServerTransportConfig().setWorkerThreads(-1)));
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(
+            new ServerTransportConfig().setWriteBufferLowWaterMark(64 * 1024).setWriteBufferHighWaterMark(32 * 1024)));
+        assertTrue(ClusterServerConfigManager.isValidTransportConfig(
+            new ServerTransportConfig().setNativeTransport("EPOLL").setWorkerThreads(4)
+                .setWriteBufferLowWaterMark(32 * 1024).setWriteBufferHighWaterMark(64 * 1024)));
+    }
+
+    @Test
+    public void testNettyOptionsEqual() {
+        ServerTransportConfig config = new ServerTransportConfig().setNativeTransport(null);
+        assertTrue(config.nettyOptionsEqual(new ServerTransportConfig().setPort(23456).setIdleSeconds(10)));
+        assertFalse(config.nettyOptionsEqual(null));
+        assertFalse(config.nettyOptionsEqual(new ServerTransportConfig().setNativeTransport("nio")));
+        assertFalse(config.nettyOptionsEqual(new ServerTransportConfig().setWorkerThreads(2)));
+        assertFalse(config.nettyOptionsEqual(new ServerTransportConfig().setFlushConsolidation(false)));
+    }
+
     @Test
     public void testIsValidFlowConfig() {
         ServerFlowConfig badConfig1 = new ServerFlowConfig().setMaxAllowedQps(-2);
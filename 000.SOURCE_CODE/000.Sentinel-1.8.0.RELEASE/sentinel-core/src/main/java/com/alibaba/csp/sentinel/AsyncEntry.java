@@ -31,6 +31,9 @@ public class AsyncEntry extends CtEntry {
 
     private Context asyncContext;
 
+    private boolean pacingDeferred;
+    private long pacingDelayMs;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper, chain, context);
     }
@@ -65,6 +68,46 @@ public class AsyncEntry extends CtEntry {
         return asyncContext;
     }
 
+    void setPacingDeferred(boolean pacingDeferred) {
+        this.pacingDeferred = pacingDeferred;
+    }
+
+    /**
+     * Whether the entry is created by {@link SphU#asyncEntryWithPacing}, so that rule checkers should
+     * {@link #deferPacing(long)} rather than wait in current thread.
+     *
+     * @return true if pacing of the entry is deferred to the caller
+     * @since 1.8.1
+     */
+    public boolean isPacingDeferred() {
+        return pacingDeferred;
+    }
+
+    /**
+     * Record the time to wait before the invocation passes. Only for rule checkers during rule checking
+     * of the entry.
+     *
+     * @param waitTimeMs time to wait in milliseconds
+     * @since 1.8.1
+     */
+    public void deferPacing(long waitTimeMs) {
+        // Each reservation is made since now, so the invocation should wait for the longest one.
+        if (waitTimeMs > pacingDelayMs) {
+            this.pacingDelayMs = waitTimeMs;
+        }
+    }
+
+    /**
+     * Get the time to wait before starting the invocation of the entry created by
+     * {@link SphU#asyncEntryWithPacing}, which is reserved by rules with queueing (rate limiter) behavior.
+     *
+     * @return the time to wait in milliseconds, or 0 for starting the invocation immediately
+     * @since 1.8.1
+     */
+    public long getPacingDelayMs() {
+        return pacingDelayMs;
+    }
+
     /**
      * The async context should not be initialized until the node for current resource has been set to current entry.
      */
@@ -24,6 +24,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.BiConsumer;
 
 /**
@@ -41,6 +42,11 @@ class CtEntry extends Entry {
     protected Context context;
     protected LinkedList<BiConsumer<Context, Entry>> exitHandlers;
 
+    /**
+     * The pool to return the entry to after exit, or null if the entry is not recycled.
+     */
+    private EntryPool pool;
+
     CtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper);
         this.chain = chain;
@@ -49,6 +55,25 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
+    /**
+     * Create an entry which is returned to the pool after exit.
+     */
+    CtEntry(EntryPool pool, ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        this(resourceWrapper, chain, context);
+        this.pool = pool;
+    }
+
+    /**
+     * Reuse the recycled entry for a new invocation.
+     */
+    void reuse(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        reset(resourceWrapper, TimeUtil.currentTimeMillis());
+        this.chain = chain;
+        this.context = context;
+
+        setUpEntryFor(context);
+    }
+
     private void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
@@ -93,15 +118,18 @@ class CtEntry extends Entry {
             if (context.getCurEntry() != this) {
                 String curEntryNameInContext = context.getCurEntry() == null ? null
                     : context.getCurEntry().getResourceWrapper().getName();
+                String expectedEntryName = resourceWrapper.getName();
                 // Clean previous call stack.
                 CtEntry e = (CtEntry) context.getCurEntry();
                 while (e != null) {
+                    // Recycled entries lose the reference to their parent on exit.
+                    CtEntry parentEntry = (CtEntry) e.parent;
                     e.exit(count, args);
-                    e = (CtEntry) e.parent;
+                    e = parentEntry;
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                         + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext,
-                    resourceWrapper.getName());
+                    expectedEntryName);
                 throw new ErrorEntryFreeException(errorMessage);
             } else {
                 // Go through the onExit hook of all slots.
@@ -120,10 +148,16 @@ class CtEntry extends Entry {
                     // Default context (auto entered) will be exited automatically.
                     if (ContextUtil.isDefaultContext(context)) {
                         ContextUtil.exit();
+                        if (pool != null) {
+                            pool.releaseDefaultContext(context);
+                        }
                     }
                 }
                 // Clean the reference of context in current entry to avoid duplicate exit.
                 clearEntryContext();
+                if (pool != null) {
+                    recycle();
+                }
             }
         }
     }
@@ -132,6 +166,15 @@ class CtEntry extends Entry {
         this.context = null;
     }
 
+    private void recycle() {
+        // Release references to the invocation, e.g. the business exception.
+        this.parent = null;
+        this.child = null;
+        this.exitHandlers = null;
+        reset(null, 0);
+        pool.release(this);
+    }
+
     @Override
     public void whenTerminate(BiConsumer<Context, Entry> handler) {
         if (this.exitHandlers == null) {
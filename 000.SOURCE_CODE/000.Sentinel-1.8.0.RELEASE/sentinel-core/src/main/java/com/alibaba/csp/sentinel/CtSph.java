@@ -16,9 +16,9 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
@@ -27,7 +27,8 @@ import com.alibaba.csp.sentinel.slotchain.MethodResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
-import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapperCache;
+import com.alibaba.csp.sentinel.slotchain.SlotChainRegistry;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
@@ -48,10 +49,17 @@ public class CtSph implements Sph {
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static final SlotChainRegistry chainRegistry = new SlotChainRegistry(Constants.MAX_SLOT_CHAIN_SIZE);
 
-    private static final Object LOCK = new Object();
+    /**
+     * Wrappers of string resources, only used when entries are recycled.
+     */
+    private static final ResourceWrapperCache wrapperCache = new ResourceWrapperCache(Constants.MAX_SLOT_CHAIN_SIZE);
+
+    /**
+     * Whether entries of synchronous invocations are recycled, see {@link SentinelConfig#entryPooling()}.
+     */
+    private static volatile boolean entryPooling = SentinelConfig.entryPooling();
 
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
@@ -63,6 +71,11 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, count, prioritized, false, args);
+    }
+
+    private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
+                                                      boolean deferPacing, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -87,6 +100,7 @@ public class CtSph implements Sph {
         }
 
         AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context);
+        asyncEntry.setPacingDeferred(deferPacing);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
             // Initiate the async context only when the entry successfully passed the slot chain.
@@ -123,9 +137,11 @@ public class CtSph implements Sph {
             return new CtEntry(resourceWrapper, null, context);
         }
 
+        EntryPool pool = entryPooling ? EntryPool.current() : null;
         if (context == null) {
             // Using default context.
-            context = InternalContextUtil.internalEnter(Constants.CONTEXT_DEFAULT_NAME);
+            context = pool == null ? InternalContextUtil.internalEnter(Constants.CONTEXT_DEFAULT_NAME)
+                : InternalContextUtil.internalReenterDefault(pool.pollDefaultContext());
         }
 
         // Global switch is close, no rule checking will do.
@@ -143,7 +159,8 @@ public class CtSph implements Sph {
             return new CtEntry(resourceWrapper, null, context);
         }
 
-        Entry e = new CtEntry(resourceWrapper, chain, context);
+        Entry e = pool == null ? new CtEntry(resourceWrapper, chain, context)
+            : pool.acquire(resourceWrapper, chain, context);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
         } catch (BlockException e1) {
@@ -192,25 +209,7 @@ public class CtSph implements Sph {
      * @return {@link ProcessorSlotChain} of the resource
      */
     ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
-        ProcessorSlotChain chain = chainMap.get(resourceWrapper);
-        if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
-                }
-            }
-        }
-        return chain;
+        return chainRegistry.getOrCreate(resourceWrapper);
     }
 
     /**
@@ -220,7 +219,7 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     public static int entrySize() {
-        return chainMap.size();
+        return chainRegistry.size();
     }
 
     /**
@@ -229,7 +228,7 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     static void resetChainMap() {
-        chainMap.clear();
+        chainRegistry.clear();
     }
 
     /**
@@ -238,7 +237,27 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     static Map<ResourceWrapper, ProcessorSlotChain> getChainMap() {
-        return chainMap;
+        return chainRegistry.asMap();
+    }
+
+    /**
+     * Get the wrapper of the string resource, which is cached if entries are recycled.
+     */
+    private static StringResourceWrapper stringResource(String name, EntryType entryType, int resourceType) {
+        if (entryPooling) {
+            return wrapperCache.get(name, entryType, resourceType);
+        }
+        return new StringResourceWrapper(name, entryType, resourceType);
+    }
+
+    /**
+     * Enable or disable recycling of entries. Only for internal test.
+     *
+     * @since 1.8.1
+     */
+    static void setEntryPooling(boolean entryPooling) {
+        CtSph.entryPooling = entryPooling;
+        wrapperCache.clear();
     }
 
     /**
@@ -252,11 +271,15 @@ public class CtSph implements Sph {
         static Context internalEnter(String name, String origin) {
             return trueEnter(name, origin);
         }
+
+        static Context internalReenterDefault(Context recycled) {
+            return reenterDefault(recycled);
+        }
     }
 
     @Override
     public Entry entry(String name) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, EntryType.OUT);
+        StringResourceWrapper resource = stringResource(name, EntryType.OUT, ResourceTypeConstants.COMMON);
         return entry(resource, 1, OBJECTS0);
     }
 
@@ -274,7 +297,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type, ResourceTypeConstants.COMMON);
         return entry(resource, 1, OBJECTS0);
     }
 
@@ -286,7 +309,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type, int count) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type, ResourceTypeConstants.COMMON);
         return entry(resource, count, OBJECTS0);
     }
 
@@ -298,7 +321,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, int count) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, EntryType.OUT);
+        StringResourceWrapper resource = stringResource(name, EntryType.OUT, ResourceTypeConstants.COMMON);
         return entry(resource, count, OBJECTS0);
     }
 
@@ -310,7 +333,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type, int count, Object... args) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type, ResourceTypeConstants.COMMON);
         return entry(resource, count, args);
     }
 
@@ -322,14 +345,14 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entryWithPriority(String name, EntryType type, int count, boolean prioritized) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type, ResourceTypeConstants.COMMON);
         return entryWithPriority(resource, count, prioritized);
     }
 
     @Override
     public Entry entryWithPriority(String name, EntryType type, int count, boolean prioritized, Object... args)
         throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type, ResourceTypeConstants.COMMON);
         return entryWithPriority(resource, count, prioritized, args);
     }
 
@@ -342,7 +365,7 @@ public class CtSph implements Sph {
     @Override
     public Entry entryWithType(String name, int resourceType, EntryType entryType, int count, boolean prioritized,
                                Object[] args) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        StringResourceWrapper resource = stringResource(name, entryType, resourceType);
         return entryWithPriority(resource, count, prioritized, args);
     }
 
@@ -352,4 +375,11 @@ public class CtSph implements Sph {
         StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
         return asyncEntryWithPriorityInternal(resource, count, prioritized, args);
     }
+
+    @Override
+    public AsyncEntry asyncEntryWithPacing(String name, int resourceType, EntryType entryType, int count,
+                                           Object[] args) throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        return asyncEntryWithPriorityInternal(resource, count, false, true, args);
+    }
 }
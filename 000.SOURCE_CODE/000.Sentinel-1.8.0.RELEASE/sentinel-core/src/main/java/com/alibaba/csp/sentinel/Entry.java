@@ -55,7 +55,7 @@ public abstract class Entry implements AutoCloseable {
 
     private static final Object[] OBJECTS0 = new Object[0];
 
-    private final long createTimestamp;
+    private long createTimestamp;
     private long completeTimestamp;
 
     private Node curNode;
@@ -67,13 +67,31 @@ public abstract class Entry implements AutoCloseable {
     private Throwable error;
     private BlockException blockError;
 
-    protected final ResourceWrapper resourceWrapper;
+    protected ResourceWrapper resourceWrapper;
 
     public Entry(ResourceWrapper resourceWrapper) {
         this.resourceWrapper = resourceWrapper;
         this.createTimestamp = TimeUtil.currentTimeMillis();
     }
 
+    /**
+     * Reset the entry for a new invocation of the resource, as if it had just been created.
+     * Only for recycled entries.
+     *
+     * @param resourceWrapper the resource of the new invocation
+     * @param createTimestamp the time when the invocation begins
+     * @since 1.8.1
+     */
+    void reset(ResourceWrapper resourceWrapper, long createTimestamp) {
+        this.resourceWrapper = resourceWrapper;
+        this.createTimestamp = createTimestamp;
+        this.completeTimestamp = 0;
+        this.curNode = null;
+        this.originNode = null;
+        this.error = null;
+        this.blockError = null;
+    }
+
     public ResourceWrapper getResourceWrapper() {
         return resourceWrapper;
     }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.ThreadUtil;
+
+/**
+ * <p>Per-thread pool of recycled entries (see {@link com.alibaba.csp.sentinel.config.SentinelConfig#entryPooling()}).
+ * An entry is returned to the pool of the thread that created it after a normal exit in that thread, and
+ * the auto-entered default context with it if the entry is the root of the invocation tree.</p>
+ *
+ * <p>Entries are pooled as a stack, so nested entries in a thread need as many pooled entries as the depth of
+ * the invocation tree, no more than {@link #MAX_POOLED_ENTRIES}.</p>
+ *
+ * <p>Virtual threads don't have pools: they are usually created per task, so a pool would be retained
+ * with the thread but seldom reused.</p>
+ *
+ * @since 1.8.1
+ */
+final class EntryPool {
+
+    static final int MAX_POOLED_ENTRIES = 16;
+
+    private static final ThreadLocal<EntryPool> POOLS = new ThreadLocal<EntryPool>() {
+        @Override
+        protected EntryPool initialValue() {
+            return new EntryPool(Thread.currentThread());
+        }
+    };
+
+    private final Thread owner;
+    private final CtEntry[] entries = new CtEntry[MAX_POOLED_ENTRIES];
+    private int size = 0;
+    private Context defaultContext;
+
+    private EntryPool(Thread owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Get the pool of current thread, or null if current thread is a virtual thread.
+     */
+    static EntryPool current() {
+        if (ThreadUtil.isVirtual(Thread.currentThread())) {
+            return null;
+        }
+        return POOLS.get();
+    }
+
+    CtEntry acquire(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        if (size == 0) {
+            return new CtEntry(this, resourceWrapper, chain, context);
+        }
+        CtEntry entry = entries[--size];
+        entries[size] = null;
+        entry.reuse(resourceWrapper, chain, context);
+        return entry;
+    }
+
+    void release(CtEntry entry) {
+        // Entries exited in other threads are dropped, as the pool is not thread-safe.
+        if (Thread.currentThread() == owner && size < MAX_POOLED_ENTRIES) {
+            entries[size++] = entry;
+        }
+    }
+
+    /**
+     * Get the default context exited in this thread for reuse, or null if absent.
+     */
+    Context pollDefaultContext() {
+        Context context = defaultContext;
+        defaultContext = null;
+        return context;
+    }
+
+    void releaseDefaultContext(Context context) {
+        if (Thread.currentThread() == owner) {
+            defaultContext = context;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -193,4 +193,30 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Create a protected asynchronous resource with non-blocking pacing. When rules with queueing
+     * (rate limiter) behavior let the invocation pass after a while, the caller thread is not blocked.
+     * Instead, the time to wait is reserved and recorded to {@link AsyncEntry#getPacingDelayMs()},
+     * and the caller should start the invocation after that delay.
+     * <p>
+     * The default implementation falls back to
+     * {@link #asyncEntryWithType(String, int, EntryType, int, boolean, Object[])}, which waits in the caller
+     * thread for the pass time, so that the returned entry has no pacing delay.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.1
+     */
+    default AsyncEntry asyncEntryWithPacing(String name, int resourceType, EntryType trafficType, int batchCount,
+                                            Object[] args) throws BlockException {
+        return asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
+    }
 }
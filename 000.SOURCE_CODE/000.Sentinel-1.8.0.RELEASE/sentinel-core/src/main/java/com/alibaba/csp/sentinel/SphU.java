@@ -365,4 +365,26 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates an async invocation,
+     * without blocking current thread for pacing. If rules with queueing (rate limiter) behavior let
+     * the invocation pass after a while, the time to wait is given by {@link AsyncEntry#getPacingDelayMs()},
+     * and the invocation should be started after that delay (e.g. scheduled with a timer).
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.1
+     */
+    public static AsyncEntry asyncEntryWithPacing(String name, int resourceType, EntryType trafficType,
+                                                  int batchCount, Object[] args) throws BlockException {
+        return Env.sph.asyncEntryWithPacing(name, resourceType, trafficType, batchCount, args);
+    }
 }
@@ -55,12 +55,30 @@ public final class SentinelConfig {
     public static final String COLD_FACTOR = "csp.sentinel.flow.cold.factor";
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
+    public static final String STATISTIC_BUCKET_TYPE = "csp.sentinel.statistic.bucket.type";
+    public static final String STATISTIC_BUCKET_STRIPES = "csp.sentinel.statistic.bucket.stripes";
+    public static final String CLOCK_SOURCE = "csp.sentinel.clock.source";
+    public static final String CLOCK_TICK_MODE = "csp.sentinel.clock.tick.mode";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
+    public static final String STATISTIC_MINUTE_LAZY = "csp.sentinel.statistic.minute.lazy";
+    public static final String STATISTIC_DEFAULT_NODE_SHARED = "csp.sentinel.statistic.default.node.shared";
+    public static final String ENTRY_POOLING = "csp.sentinel.entry.pooling";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
     public static final int DEFAULT_TOTAL_METRIC_FILE_COUNT = 6;
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
+    public static final String STATISTIC_BUCKET_TYPE_ADDER = "adder";
+    public static final String STATISTIC_BUCKET_TYPE_PADDED = "padded";
+    public static final int DEFAULT_STATISTIC_BUCKET_STRIPES = 1;
+    public static final String CLOCK_SOURCE_MONOTONIC = "monotonic";
+    public static final String CLOCK_SOURCE_SYSTEM = "system";
+    public static final String CLOCK_TICK_MODE_ADAPTIVE = "adaptive";
+    public static final String CLOCK_TICK_MODE_ALWAYS = "always";
+    public static final String CLOCK_TICK_MODE_NEVER = "never";
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
 
     static {
         try {
@@ -214,6 +232,101 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * <p>Get the type of metric buckets used in sliding windows: {@code adder} (one {@code LongAdder}
+     * per event, by default) or {@code padded} (all events in one padded array).</p>
+     *
+     * @return the metric bucket type
+     * @since 1.8.1
+     */
+    public static String statisticBucketType() {
+        String v = props.get(STATISTIC_BUCKET_TYPE);
+        if (STATISTIC_BUCKET_TYPE_PADDED.equalsIgnoreCase(v)) {
+            return STATISTIC_BUCKET_TYPE_PADDED;
+        }
+        return STATISTIC_BUCKET_TYPE_ADDER;
+    }
+
+    /**
+     * <p>Get the amount of counter rows of each {@code padded} metric bucket. The value is rounded up
+     * to power of 2.</p>
+     *
+     * @return the amount of counter rows of each padded metric bucket
+     * @since 1.8.1
+     */
+    public static int statisticBucketStripes() {
+        String v = props.get(STATISTIC_BUCKET_STRIPES);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_STATISTIC_BUCKET_STRIPES;
+            }
+            int stripes = Integer.parseInt(v);
+            if (stripes <= 1) {
+                return DEFAULT_STATISTIC_BUCKET_STRIPES;
+            }
+            // Round up to power of 2, and no more than 64.
+            return Math.min(Integer.highestOneBit(stripes - 1) << 1, 64);
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticBucketStripes value: {}, using the default value instead: "
+                + DEFAULT_STATISTIC_BUCKET_STRIPES, v, throwable);
+            SentinelConfig.setConfig(STATISTIC_BUCKET_STRIPES, String.valueOf(DEFAULT_STATISTIC_BUCKET_STRIPES));
+            return DEFAULT_STATISTIC_BUCKET_STRIPES;
+        }
+    }
+
+    /**
+     * <p>Get the format of metric log files: {@code text} (lines with index files, by default) or
+     * {@code binary} (memory-mapped segments with fixed-width records).</p>
+     *
+     * @return the metric log file format
+     * @since 1.8.1
+     */
+    public static String metricFileFormat() {
+        String v = props.get(METRIC_FILE_FORMAT);
+        if (METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(v)) {
+            return METRIC_FILE_FORMAT_BINARY;
+        }
+        return METRIC_FILE_FORMAT_TEXT;
+    }
+
+    /**
+     * <p>Whether minute-level statistics of resource nodes in contexts ({@code DefaultNode}) and origin nodes
+     * are created only when they are first read, e.g. by rules or commands. Enabled by default.
+     * Cluster nodes always keep minute-level statistics, as the metric log reads them every second.</p>
+     *
+     * @return whether minute-level statistics are created lazily
+     * @since 1.8.1
+     */
+    public static boolean statisticMinuteLazy() {
+        return !"false".equalsIgnoreCase(props.get(STATISTIC_MINUTE_LAZY));
+    }
+
+    /**
+     * <p>Whether second-level statistics of resource nodes in contexts ({@code DefaultNode}) are read from
+     * the cluster node of the resource rather than kept per context. Disabled by default. When enabled,
+     * rules of the {@code chain} strategy see the statistics of the resource in all contexts.</p>
+     *
+     * @return whether resource nodes in contexts share second-level statistics with the cluster node
+     * @since 1.8.1
+     */
+    public static boolean statisticDefaultNodeShared() {
+        return "true".equalsIgnoreCase(props.get(STATISTIC_DEFAULT_NODE_SHARED));
+    }
+
+    /**
+     * <p>Whether entries of synchronous invocations and resource wrappers of string resources are recycled,
+     * so that entering a resource which passes all rules does not allocate. Disabled by default.</p>
+     *
+     * <p>When enabled, an entry must be exited exactly once (e.g. by try-with-resources) and must not be used
+     * after exit, as it may have been handed out again. Asynchronous entries are never recycled.</p>
+     *
+     * @return whether entries are recycled
+     * @since 1.8.1
+     */
+    public static boolean entryPooling() {
+        return "true".equalsIgnoreCase(props.get(ENTRY_POOLING));
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
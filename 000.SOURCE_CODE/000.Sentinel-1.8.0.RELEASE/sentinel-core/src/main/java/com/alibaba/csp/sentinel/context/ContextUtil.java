@@ -160,6 +160,24 @@ public class ContextUtil {
         return context;
     }
 
+    /**
+     * Enter the default context with the given context recycled from a previous invocation in current thread,
+     * or a new context if the recycled one is absent or stale.
+     *
+     * @param recycled the default context exited in current thread, could be null
+     * @return the default context of current thread
+     * @since 1.8.1
+     */
+    protected static Context reenterDefault(Context recycled) {
+        if (recycled == null || contextHolder.get() != null
+            || recycled.getEntranceNode() != contextNameNodeMap.get(Constants.CONTEXT_DEFAULT_NAME)) {
+            return trueEnter(Constants.CONTEXT_DEFAULT_NAME, "");
+        }
+        recycled.setCurEntry(null).setOrigin("");
+        contextHolder.set(recycled);
+        return recycled;
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
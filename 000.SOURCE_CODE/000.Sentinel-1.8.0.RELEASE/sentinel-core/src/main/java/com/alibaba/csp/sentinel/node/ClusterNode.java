@@ -52,6 +52,8 @@ public class ClusterNode extends StatisticNode {
     }
 
     public ClusterNode(String name, int resourceType) {
+        // The metric log reads minute-level statistics of every cluster node.
+        super(true, true);
         AssertUtil.notEmpty(name, "name cannot be empty");
         this.name = name;
         this.resourceType = resourceType;
@@ -17,12 +17,16 @@ package com.alibaba.csp.sentinel.node;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 
 /**
@@ -40,6 +44,12 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
  */
 public class DefaultNode extends StatisticNode {
 
+    /**
+     * Second-level statistics read before the cluster node is set, which are always empty.
+     */
+    private static final Metric EMPTY_SECOND_METRIC = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT,
+        IntervalProperty.INTERVAL);
+
     /**
      * The resource associated with the node.
      */
@@ -50,14 +60,36 @@ public class DefaultNode extends StatisticNode {
      */
     private volatile Set<Node> childList = new HashSet<>();
 
+    /**
+     * Lock for adding child nodes, which won't pin the carrier thread of a virtual thread when waiting.
+     */
+    private final ReentrantLock childLock = new ReentrantLock();
+
     /**
      * Associated cluster node.
      */
     private ClusterNode clusterNode;
 
+    /**
+     * Whether second-level statistics are read from the cluster node rather than kept by this node.
+     */
+    private final boolean sharedSecondStatistic;
+
     public DefaultNode(ResourceWrapper id, ClusterNode clusterNode) {
+        this(id, clusterNode, SentinelConfig.statisticDefaultNodeShared());
+    }
+
+    /**
+     * @param id                    the resource
+     * @param clusterNode           the cluster node of the resource
+     * @param sharedSecondStatistic whether second-level statistics are read from the cluster node
+     * @since 1.8.1
+     */
+    protected DefaultNode(ResourceWrapper id, ClusterNode clusterNode, boolean sharedSecondStatistic) {
+        super(!sharedSecondStatistic, !SentinelConfig.statisticMinuteLazy());
         this.id = id;
         this.clusterNode = clusterNode;
+        this.sharedSecondStatistic = sharedSecondStatistic;
     }
 
     public ResourceWrapper getId() {
@@ -72,6 +104,16 @@ public class DefaultNode extends StatisticNode {
         this.clusterNode = clusterNode;
     }
 
+    @Override
+    protected Metric secondMetric() {
+        if (!sharedSecondStatistic) {
+            return super.secondMetric();
+        }
+        ClusterNode node = clusterNode;
+        // The node has just been created in the invocation tree, and the cluster node is not set yet.
+        return node == null ? EMPTY_SECOND_METRIC : node.secondMetric();
+    }
+
     /**
      * Add child node to current node.
      *
@@ -83,13 +125,16 @@ public class DefaultNode extends StatisticNode {
             return;
         }
         if (!childList.contains(node)) {
-            synchronized (this) {
+            childLock.lock();
+            try {
                 if (!childList.contains(node)) {
                     Set<Node> newSet = new HashSet<>(childList.size() + 1);
                     newSet.addAll(childList);
                     newSet.add(node);
                     childList = newSet;
                 }
+            } finally {
+                childLock.unlock();
             }
             RecordLog.info("Add child <{}> to node <{}>", ((DefaultNode)node).id.getName(), id.getName());
         }
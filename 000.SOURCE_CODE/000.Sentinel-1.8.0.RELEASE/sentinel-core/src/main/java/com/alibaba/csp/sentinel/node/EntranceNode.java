@@ -39,7 +39,7 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 public class EntranceNode extends DefaultNode {
 
     public EntranceNode(ResourceWrapper id, ClusterNode clusterNode) {
-        super(id, clusterNode);
+        super(id, clusterNode, false);
     }
 
     @Override
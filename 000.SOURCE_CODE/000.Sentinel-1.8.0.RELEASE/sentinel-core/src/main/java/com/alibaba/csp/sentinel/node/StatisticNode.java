@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
@@ -25,6 +26,7 @@ import com.alibaba.csp.sentinel.util.function.Predicate;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * <p>The statistic node keep three kinds of real-time statistics metrics:(统计节点保存三种实时统计指标)</p>
@@ -100,6 +102,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * 两者结合可以同时满足实时性和稳定性的需求，为 Sentinel 的流量控制和熔断降级提供全面的数据支持。
  * </pre>
  *
+ * <p>Minute-level statistics may be created lazily, when they are first read (see
+ * {@link SentinelConfig#statisticMinuteLazy()}). Until then, events are only counted in second level, and
+ * minute-level statistics only cover the events since the first read.</p>
+ *
  *
  * @author qinan.qn
  * @author jialiang.linjl
@@ -110,14 +116,17 @@ public class StatisticNode implements Node {
      * 秒级数据: Holds statistics of the recent {@code INTERVAL} seconds. The {@code INTERVAL} is divided into time spans
      * by given {@code sampleCount}.(保存最近 INTERVAL 秒的统计数据。INTERVAL 会根据给定的 sampleCount 被划分为多个时间片段。)
      */
-    private transient volatile Metric rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT/*桶数量*/, IntervalProperty.INTERVAL /*总时间跨度*/);
+    private transient volatile Metric rollingCounterInSecond;
 
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately(有意的) set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.(保存最近60秒的统计数据。
      * windowLengthInMs 被特意设置为1000毫秒，即每秒一个窗口桶，通过这种方式我们可以获得每秒的精确统计数据。)
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60/*桶数量*/, 60 * 1000/*总时间跨度*/, false);
+    private transient volatile Metric rollingCounterInMinute;
+
+    private static final AtomicReferenceFieldUpdater<StatisticNode, Metric> MINUTE_METRIC_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(StatisticNode.class, Metric.class, "rollingCounterInMinute");
 
     /**
      * The counter for thread count.
@@ -129,13 +138,71 @@ public class StatisticNode implements Node {
      */
     private long lastFetchTime = -1;
 
+    public StatisticNode() {
+        this(true, !SentinelConfig.statisticMinuteLazy());
+    }
+
+    /**
+     * @param secondStatistic      whether the node keeps its own second-level statistics, false if they are read
+     *                             from another node by overriding {@link #secondMetric()}
+     * @param eagerMinuteStatistic whether minute-level statistics are created now, or when they are first read
+     * @since 1.8.1
+     */
+    protected StatisticNode(boolean secondStatistic, boolean eagerMinuteStatistic) {
+        if (secondStatistic) {
+            this.rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT/*桶数量*/, IntervalProperty.INTERVAL /*总时间跨度*/);
+        }
+        if (eagerMinuteStatistic) {
+            this.rollingCounterInMinute = newMinuteMetric();
+        }
+    }
+
+    private static Metric newMinuteMetric() {
+        return new ArrayMetric(60/*桶数量*/, 60 * 1000/*总时间跨度*/, false);
+    }
+
+    /**
+     * Get the second-level statistics to read.
+     *
+     * @return the second-level statistics
+     * @since 1.8.1
+     */
+    protected Metric secondMetric() {
+        return rollingCounterInSecond;
+    }
+
+    /**
+     * Get the minute-level statistics to read, which are created if absent. The statistics are published
+     * without locking: a thread losing the race drops its own instance.
+     */
+    private Metric minuteMetric() {
+        Metric metric = rollingCounterInMinute;
+        if (metric == null) {
+            metric = newMinuteMetric();
+            if (!MINUTE_METRIC_UPDATER.compareAndSet(this, null, metric)) {
+                metric = rollingCounterInMinute;
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Whether the minute-level statistics have been created.
+     *
+     * @return true if the minute-level statistics have been created
+     * @since 1.8.1
+     */
+    public boolean hasMinuteStatistic() {
+        return rollingCounterInMinute != null;
+    }
+
     @Override
     public Map<Long, MetricNode> metrics() {
         // The fetch operation is thread-safe under a single-thread scheduler pool.
         long currentTime = TimeUtil.currentTimeMillis();
         currentTime = currentTime - currentTime % 1000;
         Map<Long, MetricNode> metrics = new ConcurrentHashMap<>();
-        List<MetricNode> nodesOfEverySecond = rollingCounterInMinute.details();
+        List<MetricNode> nodesOfEverySecond = minuteMetric().details();
         long newLastFetchTime = lastFetchTime;
         // Iterate metrics of all resources, filter valid metrics (not-empty and up-to-date).
         for (MetricNode node : nodesOfEverySecond) {
@@ -151,7 +218,7 @@ public class StatisticNode implements Node {
 
     @Override
     public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
-        return rollingCounterInMinute.detailsOnCondition(timePredicate);
+        return minuteMetric().detailsOnCondition(timePredicate);
     }
 
     private boolean isNodeInTime(MetricNode node, long currentTime) {
@@ -164,32 +231,36 @@ public class StatisticNode implements Node {
 
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        if (rollingCounterInSecond != null) {
+            rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        }
     }
 
     @Override
     public long totalRequest() {
-        return rollingCounterInMinute.pass() + rollingCounterInMinute.block();
+        Metric minuteMetric = minuteMetric();
+        return minuteMetric.pass() + minuteMetric.block();
     }
 
     @Override
     public long blockRequest() {
-        return rollingCounterInMinute.block();
+        return minuteMetric().block();
     }
 
     @Override
     public double blockQps() {
-        return rollingCounterInSecond.block() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return secondMetric.block() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public double previousBlockQps() {
-        return this.rollingCounterInMinute.previousWindowBlock();
+        return minuteMetric().previousWindowBlock();
     }
 
     @Override
     public double previousPassQps() {
-        return this.rollingCounterInMinute.previousWindowPass();
+        return minuteMetric().previousWindowPass();
     }
 
     @Override
@@ -199,57 +270,63 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalSuccess() {
-        return rollingCounterInMinute.success();
+        return minuteMetric().success();
     }
 
     @Override
     public double exceptionQps() {
-        return rollingCounterInSecond.exception() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return secondMetric.exception() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public long totalException() {
-        return rollingCounterInMinute.exception();
+        return minuteMetric().exception();
     }
 
     @Override
     public double passQps() {
-        return rollingCounterInSecond.pass() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return secondMetric.pass() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public long totalPass() {
-        return rollingCounterInMinute.pass();
+        return minuteMetric().pass();
     }
 
     @Override
     public double successQps() {
-        return rollingCounterInSecond.success() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return secondMetric.success() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public double maxSuccessQps() {
-        return (double) rollingCounterInSecond.maxSuccess() * rollingCounterInSecond.getSampleCount() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return (double) secondMetric.maxSuccess() * secondMetric.getSampleCount() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public double occupiedPassQps() {
-        return rollingCounterInSecond.occupiedPass() / rollingCounterInSecond.getWindowIntervalInSec();
+        Metric secondMetric = secondMetric();
+        return secondMetric.occupiedPass() / secondMetric.getWindowIntervalInSec();
     }
 
     @Override
     public double avgRt() {
-        long successCount = rollingCounterInSecond.success();
+        Metric secondMetric = secondMetric();
+        long successCount = secondMetric.success();
         if (successCount == 0) {
             return 0;
         }
 
-        return rollingCounterInSecond.rt() * 1.0 / successCount;
+        return secondMetric.rt() * 1.0 / successCount;
     }
 
     @Override
     public double minRt() {
-        return rollingCounterInSecond.minRt();
+        return secondMetric().minRt();
     }
 
     @Override
@@ -259,29 +336,52 @@ public class StatisticNode implements Node {
 
     @Override
     public void addPassRequest(int count) {
-        rollingCounterInSecond.addPass(count);
-        rollingCounterInMinute.addPass(count);
+        Metric secondMetric = rollingCounterInSecond;
+        if (secondMetric != null) {
+            secondMetric.addPass(count);
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addPass(count);
+        }
     }
 
     @Override
     public void addRtAndSuccess(long rt, int successCount) {
-        rollingCounterInSecond.addSuccess(successCount);
-        rollingCounterInSecond.addRT(rt);
-
-        rollingCounterInMinute.addSuccess(successCount);
-        rollingCounterInMinute.addRT(rt);
+        Metric secondMetric = rollingCounterInSecond;
+        if (secondMetric != null) {
+            secondMetric.addSuccess(successCount);
+            secondMetric.addRT(rt);
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addSuccess(successCount);
+            minuteMetric.addRT(rt);
+        }
     }
 
     @Override
     public void increaseBlockQps(int count) {
-        rollingCounterInSecond.addBlock(count);
-        rollingCounterInMinute.addBlock(count);
+        Metric secondMetric = rollingCounterInSecond;
+        if (secondMetric != null) {
+            secondMetric.addBlock(count);
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addBlock(count);
+        }
     }
 
     @Override
     public void increaseExceptionQps(int count) {
-        rollingCounterInSecond.addException(count);
-        rollingCounterInMinute.addException(count);
+        Metric secondMetric = rollingCounterInSecond;
+        if (secondMetric != null) {
+            secondMetric.addException(count);
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addException(count);
+        }
     }
 
     @Override
@@ -296,13 +396,14 @@ public class StatisticNode implements Node {
 
     @Override
     public void debug() {
-        rollingCounterInSecond.debug();
+        secondMetric().debug();
     }
 
     @Override
     public long tryOccupyNext(long currentTime, int acquireCount, double threshold) {
         double maxCount = threshold * IntervalProperty.INTERVAL / 1000;
-        long currentBorrow = rollingCounterInSecond.waiting();
+        Metric secondMetric = secondMetric();
+        long currentBorrow = secondMetric.waiting();
         if (currentBorrow >= maxCount) {
             return OccupyTimeoutProperty.getOccupyTimeout();
         }
@@ -316,13 +417,13 @@ public class StatisticNode implements Node {
          * since call rollingCounterInSecond.pass(). So in high concurrency, the following code may
          * lead more tokens be borrowed.
          */
-        long currentPass = rollingCounterInSecond.pass();
+        long currentPass = secondMetric.pass();
         while (earliestTime < currentTime) {
             long waitInMs = idx * windowLength + windowLength - currentTime % windowLength;
             if (waitInMs >= OccupyTimeoutProperty.getOccupyTimeout()) {
                 break;
             }
-            long windowPass = rollingCounterInSecond.getWindowPass(earliestTime);
+            long windowPass = secondMetric.getWindowPass(earliestTime);
             if (currentPass + currentBorrow + acquireCount - windowPass <= maxCount) {
                 return waitInMs;
             }
@@ -336,17 +437,20 @@ public class StatisticNode implements Node {
 
     @Override
     public long waiting() {
-        return rollingCounterInSecond.waiting();
+        return secondMetric().waiting();
     }
 
     @Override
     public void addWaitingRequest(long futureTime, int acquireCount) {
-        rollingCounterInSecond.addWaiting(futureTime, acquireCount);
+        secondMetric().addWaiting(futureTime, acquireCount);
     }
 
     @Override
     public void addOccupiedPass(int acquireCount) {
-        rollingCounterInMinute.addOccupiedPass(acquireCount);
-        rollingCounterInMinute.addPass(acquireCount);
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addOccupiedPass(acquireCount);
+            minuteMetric.addPass(acquireCount);
+        }
     }
 }
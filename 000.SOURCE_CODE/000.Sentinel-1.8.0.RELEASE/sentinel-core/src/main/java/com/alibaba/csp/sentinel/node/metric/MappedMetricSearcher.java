@@ -0,0 +1,279 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * <p>Searches metrics in binary metric segments written by {@link MappedMetricWriter}. Seconds are
+ * found by binary search on the time index of each segment, and records of other resources are skipped
+ * by comparing resource ids, without decoding them.</p>
+ *
+ * <p>The searcher holds no mutable state, so concurrent searches never block each other or the writer.</p>
+ *
+ * @since 1.8.1
+ */
+public class MappedMetricSearcher implements MetricLogSearcher {
+
+    /**
+     * Avoid OOM in any cases.
+     */
+    private static final int MAX_LINES_RETURN = 100000;
+
+    private final String baseDir;
+    private final String baseFileName;
+
+    /**
+     * @param baseDir      directory of metric segment files
+     * @param baseFileName base name of metric segment files, see {@link MappedMetricWriter#formMetricFileName(String, int)}
+     */
+    public MappedMetricSearcher(String baseDir, String baseFileName) {
+        if (baseDir == null) {
+            throw new IllegalArgumentException("baseDir can't be null");
+        }
+        if (baseFileName == null) {
+            throw new IllegalArgumentException("baseFileName can't be null");
+        }
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        this.baseFileName = baseFileName;
+    }
+
+    @Override
+    public List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
+        List<MappedMetricSegment> segments = listSegments();
+        long beginSecond = beginTimeMs / 1000;
+        for (int i = 0; i < segments.size(); i++) {
+            MappedMetricSegment segment = segments.get(i);
+            int record = findFirstRecord(segment, beginSecond);
+            if (record < 0) {
+                continue;
+            }
+            List<MetricNode> list = new ArrayList<MetricNode>(Math.min(recommendLines, MAX_LINES_RETURN));
+            long lastSecond = -1;
+            for (; i < segments.size(); i++, record = 0) {
+                segment = segments.get(i);
+                int recordCount = segment.recordCount();
+                for (; record < recordCount; record++) {
+                    long second = segment.timestampAt(record) / 1000;
+                    if (second < beginSecond) {
+                        continue;
+                    }
+                    // Metrics of the same second should not be split.
+                    if ((list.size() >= recommendLines && second != lastSecond) || list.size() >= MAX_LINES_RETURN) {
+                        return list;
+                    }
+                    list.add(segment.readRecord(record));
+                    lastSecond = second;
+                }
+            }
+            return list;
+        }
+        return null;
+    }
+
+    @Override
+    public List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        final List<MetricNode> list = new ArrayList<MetricNode>();
+        boolean found = scan(beginTimeMs, endTimeMs, identity, new RecordVisitor() {
+            @Override
+            public boolean visit(MappedMetricSegment segment, int record) {
+                list.add(segment.readRecord(record));
+                return list.size() < MAX_LINES_RETURN;
+            }
+        });
+        return found ? list : null;
+    }
+
+    /**
+     * Export metrics between [beginTimeMs, endTimeMs] in the text format of {@link MetricWriter}
+     * (see {@link MetricNode#toFatString()}), e.g. for tools that parse text metric logs.
+     *
+     * @param beginTimeMs the minimum timestamp
+     * @param endTimeMs   the maximum timestamp
+     * @param identity    resource name, or null for all resources
+     * @param out         stream to write to, which is not closed
+     * @return amount of metrics exported
+     * @throws Exception if any IO error occurred
+     */
+    public long exportText(long beginTimeMs, long endTimeMs, String identity, final OutputStream out)
+        throws Exception {
+        final Charset charset = Charset.forName(SentinelConfig.charset());
+        final long[] count = new long[1];
+        final Exception[] error = new Exception[1];
+        scan(beginTimeMs, endTimeMs, identity, new RecordVisitor() {
+            @Override
+            public boolean visit(MappedMetricSegment segment, int record) {
+                try {
+                    out.write(segment.readRecord(record).toFatString().getBytes(charset));
+                    count[0]++;
+                    return true;
+                } catch (Exception ex) {
+                    error[0] = ex;
+                    return false;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        out.flush();
+        return count[0];
+    }
+
+    /**
+     * Visit records between [beginTimeMs, endTimeMs] of the given resource (or all resources if null).
+     *
+     * @return false if there is no metric since {@code beginTimeMs}
+     */
+    private boolean scan(long beginTimeMs, long endTimeMs, String identity, RecordVisitor visitor) throws Exception {
+        List<MappedMetricSegment> segments = listSegments();
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        boolean found = false;
+        for (int i = 0; i < segments.size(); i++) {
+            MappedMetricSegment segment = segments.get(i);
+            int record = found ? 0 : findFirstRecord(segment, beginSecond);
+            if (record < 0) {
+                continue;
+            }
+            found = true;
+            int resourceId = -1;
+            if (identity != null) {
+                resourceId = segment.idOf(identity);
+                if (resourceId < 0) {
+                    // The resource has no metric in this segment, but later segments should still be checked.
+                    int indexCount = segment.indexCount();
+                    if (indexCount > 0 && segment.secondAt(indexCount - 1) > endSecond) {
+                        return true;
+                    }
+                    continue;
+                }
+            }
+            int recordCount = segment.recordCount();
+            int end = findEndRecord(segment, endSecond, recordCount);
+            if (resourceId >= 0) {
+                if (!visitResource(segment, record, end, resourceId, visitor)) {
+                    return true;
+                }
+            } else {
+                for (; record < end; record++) {
+                    if (!visitor.visit(segment, record)) {
+                        return true;
+                    }
+                }
+            }
+            if (end < recordCount) {
+                return true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Visit records in [from, to) of the resource: find its last record in the range,
+     * then follow the links to its previous records.
+     *
+     * @return true to continue
+     */
+    private static boolean visitResource(MappedMetricSegment segment, int from, int to, int resourceId,
+                                         RecordVisitor visitor) {
+        int record = to - 1;
+        while (record >= from && segment.resourceIdAt(record) != resourceId) {
+            record--;
+        }
+        int[] records = new int[16];
+        int size = 0;
+        for (; record >= from; record = segment.previousRecordAt(record)) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (!visitor.visit(segment, records[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the first record later than {@code endSecond}, or {@code recordCount} if there is no such record
+     */
+    private static int findEndRecord(MappedMetricSegment segment, long endSecond, int recordCount) {
+        int indexCount = segment.indexCount();
+        int entry = segment.findEntry(endSecond + 1, indexCount);
+        if (entry < indexCount) {
+            // The index entry may have been published after the record count was read.
+            return Math.min(segment.firstRecordAt(entry), recordCount);
+        }
+        int record = indexCount == 0 ? 0 : Math.min(segment.firstRecordAt(indexCount - 1), recordCount);
+        for (; record < recordCount; record++) {
+            if (segment.timestampAt(record) / 1000 > endSecond) {
+                return record;
+            }
+        }
+        return recordCount;
+    }
+
+    /**
+     * @return the first record not earlier than {@code beginSecond}, or -1 if there is no such record
+     */
+    private static int findFirstRecord(MappedMetricSegment segment, long beginSecond) {
+        // Read the amount of index entries first, see MappedMetricSegment.
+        int indexCount = segment.indexCount();
+        int entry = segment.findEntry(beginSecond, indexCount);
+        if (entry < indexCount) {
+            return segment.firstRecordAt(entry);
+        }
+        // Records of the last second may have been published without its index entry.
+        int recordCount = segment.recordCount();
+        int record = indexCount == 0 ? 0 : segment.firstRecordAt(indexCount - 1);
+        for (; record < recordCount; record++) {
+            if (segment.timestampAt(record) / 1000 >= beginSecond) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private List<MappedMetricSegment> listSegments() throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        List<MappedMetricSegment> segments = new ArrayList<MappedMetricSegment>(fileNames.size());
+        for (String fileName : fileNames) {
+            MappedMetricSegment segment = MappedMetricSegment.get(fileName);
+            if (segment != null) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private interface RecordVisitor {
+        /**
+         * @return true to continue
+         */
+        boolean visit(MappedMetricSegment segment, int record);
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>A memory-mapped binary metric log file of fixed size, made up of four regions:</p>
+ *
+ * <pre>
+ * +--------+-------------------------+------------------------+------------------------------+
+ * | header | time index              | resource dictionary    | records                      |
+ * | 64B    | (second, first record)* | (length, UTF-8 name)*  | fixed-width metric records*  |
+ * +--------+-------------------------+------------------------+------------------------------+
+ * </pre>
+ *
+ * <p>Records are appended in time order, and the time index holds the first record of each second,
+ * so a second is found by binary search. Resources are referred to by their ordinal in the dictionary
+ * of the segment, which makes every record {@link #RECORD_SIZE} bytes. Each record also links to the
+ * previous record of the same resource, so the metrics of a resource are read without visiting the
+ * records of other resources.</p>
+ *
+ * <p>There is a single writer. It writes the data first, then publishes the amount of dictionary entries,
+ * records and index entries (in this order) to the header and to volatile fields, so readers never lock:
+ * a reader reads the amount of index entries first, so every record referred to by the index entries it
+ * sees is visible. The last second seen may have more records than its index entry implies, which readers
+ * tell apart by the timestamp of each record.</p>
+ *
+ * <p>Segments are shared by the writer and readers in the same process via {@link #get(String)}.</p>
+ *
+ * @since 1.8.1
+ */
+final class MappedMetricSegment {
+
+    static final int MAGIC = 0x534D4C47;
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int RECORD_SIZE = 72;
+    static final long MIN_FILE_SIZE = 64 * 1024;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int INDEX_CAPACITY_OFFSET = 8;
+    private static final int DICT_CAPACITY_OFFSET = 12;
+    private static final int RECORD_CAPACITY_OFFSET = 16;
+    private static final int INDEX_COUNT_OFFSET = 20;
+    private static final int DICT_COUNT_OFFSET = 24;
+    private static final int DICT_SIZE_OFFSET = 28;
+    private static final int RECORD_COUNT_OFFSET = 32;
+
+    /**
+     * Record layout: timestamp, resource id, classification, pass, block, success, exception,
+     * rt, occupied pass, concurrency and the previous record of the resource (-1 if none).
+     */
+    private static final int R_TIMESTAMP = 0;
+    private static final int R_RESOURCE = 8;
+    private static final int R_CLASSIFICATION = 12;
+    private static final int R_PASS = 16;
+    private static final int R_BLOCK = 24;
+    private static final int R_SUCCESS = 32;
+    private static final int R_EXCEPTION = 40;
+    private static final int R_RT = 48;
+    private static final int R_OCCUPIED_PASS = 56;
+    private static final int R_CONCURRENCY = 64;
+    private static final int R_PREVIOUS = 68;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final ConcurrentMap<String, MappedMetricSegment> SEGMENTS = new ConcurrentHashMap<>();
+
+    private final String fileName;
+    private final MappedByteBuffer buffer;
+    private final boolean writable;
+
+    private final int indexCapacity;
+    private final int dictCapacity;
+    private final int recordCapacity;
+    private final int indexStart;
+    private final int dictStart;
+    private final int recordStart;
+
+    /**
+     * Pending state, only accessed by the writer.
+     */
+    private int pendingIndexCount;
+    private int pendingDictCount;
+    private int pendingDictSize;
+    private int pendingRecordCount;
+    private long lastIndexedSecond = -1;
+    private int lastIndexedFirstRecord;
+    /**
+     * Last record of each resource id.
+     */
+    private int[] lastRecords = new int[0];
+
+    /**
+     * Committed state of a writable segment.
+     */
+    private volatile int indexCount;
+    private volatile int dictCount;
+    private volatile int recordCount;
+
+    private volatile Dictionary dictionary = new Dictionary(new String[0], new HashMap<String, Integer>(), 0);
+
+    private MappedMetricSegment(String fileName, MappedByteBuffer buffer, boolean writable) {
+        this.fileName = fileName;
+        this.buffer = buffer;
+        this.writable = writable;
+        this.indexCapacity = buffer.getInt(INDEX_CAPACITY_OFFSET);
+        this.dictCapacity = buffer.getInt(DICT_CAPACITY_OFFSET);
+        this.recordCapacity = buffer.getInt(RECORD_CAPACITY_OFFSET);
+        this.indexStart = HEADER_SIZE;
+        this.dictStart = indexStart + indexCapacity * INDEX_ENTRY_SIZE;
+        this.recordStart = dictStart + dictCapacity;
+    }
+
+    /**
+     * Create a new segment file and register it for readers.
+     *
+     * @param fileName absolute file name, should not exist
+     * @param fileSize size of the file in bytes
+     * @return the writable segment
+     */
+    static MappedMetricSegment create(String fileName, long fileSize) throws IOException {
+        long size = Math.min(Math.max(fileSize, MIN_FILE_SIZE), Integer.MAX_VALUE);
+        long available = size - HEADER_SIZE;
+        int indexCapacity = (int)(available / 16 / INDEX_ENTRY_SIZE);
+        int dictCapacity = (int)(available / 16);
+        int recordCapacity = (int)((available - (long)indexCapacity * INDEX_ENTRY_SIZE - dictCapacity) / RECORD_SIZE);
+
+        MappedByteBuffer buffer;
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            // The mapping stays valid after the channel is closed.
+            file.close();
+        }
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(INDEX_CAPACITY_OFFSET, indexCapacity);
+        buffer.putInt(DICT_CAPACITY_OFFSET, dictCapacity);
+        buffer.putInt(RECORD_CAPACITY_OFFSET, recordCapacity);
+        MappedMetricSegment segment = new MappedMetricSegment(fileName, buffer, true);
+        SEGMENTS.put(fileName, segment);
+        return segment;
+    }
+
+    /**
+     * Get the segment of the given file: the one being written in this process if any,
+     * otherwise the file is mapped read-only.
+     *
+     * @param fileName absolute file name
+     * @return the segment, or null if the file is not a valid segment
+     */
+    static MappedMetricSegment get(String fileName) throws IOException {
+        MappedMetricSegment segment = SEGMENTS.get(fileName);
+        if (segment != null) {
+            return segment;
+        }
+        File f = new File(fileName);
+        if (!f.isFile() || f.length() < HEADER_SIZE) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        RandomAccessFile file = new RandomAccessFile(f, "r");
+        try {
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            return null;
+        }
+        segment = new MappedMetricSegment(fileName, buffer, false);
+        MappedMetricSegment old = SEGMENTS.putIfAbsent(fileName, segment);
+        return old == null ? segment : old;
+    }
+
+    /**
+     * Forget the segment of the given file, e.g. when the file has been removed.
+     */
+    static void release(String fileName) {
+        SEGMENTS.remove(fileName);
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    // ----- Writer side -----
+
+    /**
+     * Test whether the segment has room for the given records of a second.
+     *
+     * @param second    the second of the records
+     * @param records   amount of records
+     * @param nameBytes total encoded size of resource names not in the dictionary yet
+     */
+    boolean hasRoom(long second, int records, int nameBytes) {
+        int indexEntries = second == lastIndexedSecond ? 0 : 1;
+        return pendingIndexCount + indexEntries <= indexCapacity
+            && pendingDictSize + nameBytes <= dictCapacity
+            && pendingRecordCount + records <= recordCapacity;
+    }
+
+    static int encodedSize(String name) {
+        return 2 + Math.min(name.getBytes(UTF_8).length, Short.MAX_VALUE);
+    }
+
+    /**
+     * Add a resource name to the dictionary.
+     *
+     * @return id of the resource in this segment
+     */
+    int addName(String name) {
+        byte[] bytes = name.getBytes(UTF_8);
+        int length = Math.min(bytes.length, Short.MAX_VALUE);
+        int position = dictStart + pendingDictSize;
+        buffer.putShort(position, (short)length);
+        for (int i = 0; i < length; i++) {
+            buffer.put(position + 2 + i, bytes[i]);
+        }
+        pendingDictSize += 2 + length;
+        if (pendingDictCount == lastRecords.length) {
+            int[] records = Arrays.copyOf(lastRecords, Math.max(16, lastRecords.length * 2));
+            Arrays.fill(records, lastRecords.length, records.length, -1);
+            lastRecords = records;
+        }
+        return pendingDictCount++;
+    }
+
+    void append(long second, MetricNode node, int resourceId) {
+        if (second != lastIndexedSecond) {
+            int position = indexStart + pendingIndexCount * INDEX_ENTRY_SIZE;
+            buffer.putLong(position, second);
+            buffer.putInt(position + 8, pendingRecordCount);
+            pendingIndexCount++;
+            lastIndexedSecond = second;
+            lastIndexedFirstRecord = pendingRecordCount;
+        }
+        int position = recordStart + pendingRecordCount * RECORD_SIZE;
+        buffer.putLong(position + R_TIMESTAMP, node.getTimestamp());
+        buffer.putInt(position + R_RESOURCE, resourceId);
+        buffer.putInt(position + R_CLASSIFICATION, node.getClassification());
+        buffer.putLong(position + R_PASS, node.getPassQps());
+        buffer.putLong(position + R_BLOCK, node.getBlockQps());
+        buffer.putLong(position + R_SUCCESS, node.getSuccessQps());
+        buffer.putLong(position + R_EXCEPTION, node.getExceptionQps());
+        buffer.putLong(position + R_RT, node.getRt());
+        buffer.putLong(position + R_OCCUPIED_PASS, node.getOccupiedPassQps());
+        buffer.putInt(position + R_CONCURRENCY, node.getConcurrency());
+        buffer.putInt(position + R_PREVIOUS, lastRecords[resourceId]);
+        lastRecords[resourceId] = pendingRecordCount;
+        pendingRecordCount++;
+        // Record count of the index entry, only for offline tools.
+        buffer.putInt(indexStart + (pendingIndexCount - 1) * INDEX_ENTRY_SIZE + 12,
+            pendingRecordCount - lastIndexedFirstRecord);
+    }
+
+    /**
+     * Publish what has been written to readers.
+     */
+    void commit() {
+        buffer.putInt(DICT_SIZE_OFFSET, pendingDictSize);
+        buffer.putInt(DICT_COUNT_OFFSET, pendingDictCount);
+        buffer.putInt(RECORD_COUNT_OFFSET, pendingRecordCount);
+        buffer.putInt(INDEX_COUNT_OFFSET, pendingIndexCount);
+        dictCount = pendingDictCount;
+        recordCount = pendingRecordCount;
+        indexCount = pendingIndexCount;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    // ----- Reader side -----
+
+    int indexCount() {
+        return writable ? indexCount : buffer.getInt(INDEX_COUNT_OFFSET);
+    }
+
+    int recordCount() {
+        return writable ? recordCount : buffer.getInt(RECORD_COUNT_OFFSET);
+    }
+
+    private int dictCount() {
+        return writable ? dictCount : buffer.getInt(DICT_COUNT_OFFSET);
+    }
+
+    long secondAt(int entry) {
+        return buffer.getLong(indexStart + entry * INDEX_ENTRY_SIZE);
+    }
+
+    int firstRecordAt(int entry) {
+        return buffer.getInt(indexStart + entry * INDEX_ENTRY_SIZE + 8);
+    }
+
+    /**
+     * Find the first index entry whose second is not less than the given second.
+     *
+     * @param second     the second to find
+     * @param indexCount amount of index entries to search
+     * @return the index entry, or {@code indexCount} if all seconds are less than the given second
+     */
+    int findEntry(long second, int indexCount) {
+        int low = 0;
+        int high = indexCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (secondAt(mid) < second) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long timestampAt(int record) {
+        return buffer.getLong(recordStart + record * RECORD_SIZE + R_TIMESTAMP);
+    }
+
+    int resourceIdAt(int record) {
+        return buffer.getInt(recordStart + record * RECORD_SIZE + R_RESOURCE);
+    }
+
+    /**
+     * @return the previous record of the same resource, or -1 if none
+     */
+    int previousRecordAt(int record) {
+        return buffer.getInt(recordStart + record * RECORD_SIZE + R_PREVIOUS);
+    }
+
+    MetricNode readRecord(int record) {
+        int position = recordStart + record * RECORD_SIZE;
+        MetricNode node = new MetricNode();
+        node.setTimestamp(buffer.getLong(position + R_TIMESTAMP));
+        node.setResource(nameOf(buffer.getInt(position + R_RESOURCE)));
+        node.setClassification(buffer.getInt(position + R_CLASSIFICATION));
+        node.setPassQps(buffer.getLong(position + R_PASS));
+        node.setBlockQps(buffer.getLong(position + R_BLOCK));
+        node.setSuccessQps(buffer.getLong(position + R_SUCCESS));
+        node.setExceptionQps(buffer.getLong(position + R_EXCEPTION));
+        node.setRt(buffer.getLong(position + R_RT));
+        node.setOccupiedPassQps(buffer.getLong(position + R_OCCUPIED_PASS));
+        node.setConcurrency(buffer.getInt(position + R_CONCURRENCY));
+        return node;
+    }
+
+    String nameOf(int resourceId) {
+        Dictionary dict = dictionary;
+        if (resourceId >= dict.names.length) {
+            dict = loadDictionary();
+        }
+        return resourceId < dict.names.length ? dict.names[resourceId] : "";
+    }
+
+    /**
+     * @return id of the resource in this segment, or -1 if the resource is not in this segment
+     */
+    int idOf(String name) {
+        Integer id = loadDictionary().ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Read dictionary entries published since the last load. Concurrent readers may load the same
+     * entries, and the last one wins, which is harmless as entries never change.
+     */
+    private Dictionary loadDictionary() {
+        Dictionary dict = dictionary;
+        int count = dictCount();
+        if (count <= dict.names.length) {
+            return dict;
+        }
+        String[] names = new String[count];
+        System.arraycopy(dict.names, 0, names, 0, dict.names.length);
+        Map<String, Integer> ids = new HashMap<>(dict.ids);
+        int position = dictStart + dict.size;
+        for (int i = dict.names.length; i < count; i++) {
+            int length = buffer.getShort(position);
+            byte[] bytes = new byte[length];
+            for (int j = 0; j < length; j++) {
+                bytes[j] = buffer.get(position + 2 + j);
+            }
+            names[i] = new String(bytes, UTF_8);
+            ids.put(names[i], i);
+            position += 2 + length;
+        }
+        dict = new Dictionary(names, ids, position - dictStart);
+        dictionary = dict;
+        return dict;
+    }
+
+    private static final class Dictionary {
+        final String[] names;
+        final Map<String, Integer> ids;
+        /**
+         * Size of the entries in bytes.
+         */
+        final int size;
+
+        Dictionary(String[] names, Map<String, Integer> ids, int size) {
+            this.names = names;
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+/**
+ * <p>Writes {@link MetricNode}s to binary memory-mapped segments (see {@link MappedMetricSegment}),
+ * which are read by {@link MappedMetricSearcher}. Compared to {@link MetricWriter}, no text is formatted
+ * and no stream is flushed per write, and the time index is kept in the same file.</p>
+ *
+ * <p>Segment files are rolled in the same way as text metric files: metrics of different days are in
+ * different files, the size of a single file is {@code singleFileSize}, and at most {@code totalFileCount}
+ * files are kept. The file name is like {@code ${appName}-metrics.bin.pid${pid}.yyyy-MM-dd.[number]}.</p>
+ *
+ * @since 1.8.1
+ */
+public class MappedMetricWriter implements MetricLogWriter {
+
+    public static final String METRIC_FILE = "metrics.bin";
+
+    private final String baseDir;
+    private final long singleFileSize;
+    private final int totalFileCount;
+    private final int pid = PidUtil.getPid();
+    private final DateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    private String baseFileName;
+    private MappedMetricSegment segment;
+    private String segmentDay;
+    /**
+     * Resource ids in the current segment.
+     */
+    private final Map<String, Integer> resourceIds = new HashMap<String, Integer>();
+    private long lastSecond = -1;
+
+    public MappedMetricWriter(long singleFileSize, int totalFileCount) {
+        this(MetricWriter.METRIC_BASE_DIR, singleFileSize, totalFileCount);
+    }
+
+    MappedMetricWriter(String baseDir, long singleFileSize, int totalFileCount) {
+        if (singleFileSize <= 0 || totalFileCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        RecordLog.info("[MappedMetricWriter] Creating new MappedMetricWriter, singleFileSize={}, totalFileCount={}",
+            singleFileSize, totalFileCount);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        File dir = new File(this.baseDir);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        this.singleFileSize = singleFileSize;
+        this.totalFileCount = totalFileCount;
+    }
+
+    @Override
+    public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
+        if (nodes == null) {
+            return;
+        }
+        long second = time / 1000;
+        if (second < lastSecond) {
+            // Earlier metrics are ignored, which should not happen.
+            return;
+        }
+        for (MetricNode node : nodes) {
+            node.setTimestamp(time);
+        }
+        if (baseFileName == null) {
+            baseFileName = formMetricFileName(SentinelConfig.getAppName(), pid);
+        }
+
+        String day = dayFormat.format(new Date(time));
+        if (segment == null || !day.equals(segmentDay) || !new File(segment.getFileName()).exists()) {
+            newSegment(time, day);
+        }
+        int from = 0;
+        while (from < nodes.size()) {
+            int to = fillSegment(second, nodes, from);
+            if (to < nodes.size()) {
+                if (to == from && isEmpty()) {
+                    // Not even fits in an empty segment, i.e. the resource name is too long.
+                    RecordLog.warn("[MappedMetricWriter] Metric ignored as it does not fit in a segment: {}",
+                        nodes.get(to).getResource());
+                    to++;
+                } else {
+                    newSegment(time, day);
+                }
+            }
+            from = to;
+        }
+        lastSecond = second;
+    }
+
+    private boolean isEmpty() {
+        return segment.recordCount() == 0 && resourceIds.isEmpty();
+    }
+
+    /**
+     * Write as many nodes as the current segment holds.
+     *
+     * @return index of the first node not written
+     */
+    private int fillSegment(long second, List<MetricNode> nodes, int from) {
+        int i = from;
+        for (; i < nodes.size(); i++) {
+            MetricNode node = nodes.get(i);
+            String resource = node.getResource() == null ? "" : node.getResource();
+            Integer id = resourceIds.get(resource);
+            int nameBytes = id == null ? MappedMetricSegment.encodedSize(resource) : 0;
+            if (!segment.hasRoom(second, 1, nameBytes)) {
+                break;
+            }
+            if (id == null) {
+                id = segment.addName(resource);
+                resourceIds.put(resource, id);
+            }
+            segment.append(second, node, id);
+        }
+        segment.commit();
+        return i;
+    }
+
+    private void newSegment(long time, String day) throws Exception {
+        closeSegment();
+        for (String removed : MetricWriter.removeMoreFiles(baseDir, baseFileName, totalFileCount)) {
+            MappedMetricSegment.release(removed);
+        }
+        String fileName = MetricWriter.nextFileNameOfDay(baseDir, baseFileName, time);
+        segment = MappedMetricSegment.create(new File(fileName).getAbsolutePath(), singleFileSize);
+        segmentDay = day;
+        resourceIds.clear();
+        RecordLog.info("[MappedMetricWriter] New metric segment created: {}", fileName);
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        closeSegment();
+    }
+
+    /**
+     * Form metric segment file name use the specific appName and pid. Note that only
+     * form the file name, not include path.
+     *
+     * @param appName application name
+     * @param pid     process id
+     * @return metric segment file name
+     */
+    public static String formMetricFileName(String appName, int pid) {
+        if (appName == null) {
+            appName = "";
+        }
+        // dot is special char that should be replaced.
+        String name = appName.replace(".", "-") + "-" + METRIC_FILE;
+        if (LogBase.isLogNameUsePid()) {
+            name += ".pid" + pid;
+        }
+        return name;
+    }
+}
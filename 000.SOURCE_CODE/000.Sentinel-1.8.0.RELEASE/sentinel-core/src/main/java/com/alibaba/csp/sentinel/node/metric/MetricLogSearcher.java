@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+
+/**
+ * Searches {@link MetricNode}s in metric log files by time.
+ *
+ * @since 1.8.1
+ */
+public interface MetricLogSearcher {
+
+    /**
+     * Find about {@code recommendLines} metrics from {@code beginTimeMs}. Metrics of the same second
+     * are never split, so more metrics may be returned.
+     *
+     * @param beginTimeMs    the minimum timestamp
+     * @param recommendLines expected amount of metrics
+     * @return the metrics found, or null if there is no metric since {@code beginTimeMs}
+     * @throws Exception if any IO error occurred
+     */
+    List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception;
+
+    /**
+     * Find metrics between [beginTimeMs, endTimeMs], both side inclusive. When identity is null,
+     * metrics of all resources will be read, otherwise only metrics of the specific resource will be read.
+     *
+     * @param beginTimeMs the minimum timestamp
+     * @param endTimeMs   the maximum timestamp
+     * @param identity    resource name, or null for all resources
+     * @return the metrics found, or null if there is no metric since {@code beginTimeMs}
+     * @throws Exception if any IO error occurred
+     */
+    List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity) throws Exception;
+}
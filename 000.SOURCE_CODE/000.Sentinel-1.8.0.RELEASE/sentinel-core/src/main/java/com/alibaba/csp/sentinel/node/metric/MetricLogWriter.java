@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+
+/**
+ * Writes {@link MetricNode}s of each second to metric log files.
+ *
+ * @since 1.8.1
+ */
+public interface MetricLogWriter {
+
+    /**
+     * Write metrics of the given second. All nodes will be stamped with {@code time}.
+     * Metrics of a second earlier than the last written second are ignored.
+     *
+     * @param time  timestamp of the metrics in milliseconds
+     * @param nodes metrics to write
+     * @throws Exception if any IO error occurred
+     */
+    void write(long time, List<MetricNode> nodes) throws Exception;
+
+    /**
+     * Close the files that are being written.
+     *
+     * @throws Exception if any IO error occurred
+     */
+    void close() throws Exception;
+}
@@ -31,7 +31,7 @@ import com.alibaba.csp.sentinel.config.SentinelConfig;
  *
  * @author leyou
  */
-public class MetricSearcher {
+public class MetricSearcher implements MetricLogSearcher {
 
     private static final Charset defaultCharset = Charset.forName(SentinelConfig.charset());
     private final MetricsReader metricsReader;
@@ -81,6 +81,7 @@ public class MetricSearcher {
      * @return
      * @throws Exception
      */
+    @Override
     public synchronized List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
         List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
         int i = 0;
@@ -110,6 +111,7 @@ public class MetricSearcher {
      * When identity is null, all metric between the time intervalMs will be read, otherwise, only the specific
      * identity will be read.
      */
+    @Override
     public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
         throws Exception {
         List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
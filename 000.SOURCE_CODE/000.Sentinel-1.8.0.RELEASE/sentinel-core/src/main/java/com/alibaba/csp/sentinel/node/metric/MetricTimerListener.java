@@ -33,8 +33,10 @@ import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
  */
 public class MetricTimerListener implements Runnable {
 
-    private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+    private static final MetricLogWriter metricWriter = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(
+        SentinelConfig.metricFileFormat())
+        ? new MappedMetricWriter(SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount())
+        : new MetricWriter(SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount());
 
     @Override
     public void run() {
@@ -44,7 +44,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
  *
  * @author Carpenter Lee
  */
-public class MetricWriter {
+public class MetricWriter implements MetricLogWriter {
 
     private static final String CHARSET = SentinelConfig.charset();
     public static final String METRIC_BASE_DIR = LogBase.getLogBaseDir();
@@ -118,6 +118,7 @@ public class MetricWriter {
      * @param time
      * @param nodes
      */
+    @Override
     public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
         if (nodes == null) {
             return;
@@ -174,6 +175,7 @@ public class MetricWriter {
         }
     }
 
+    @Override
     public synchronized void close() throws Exception {
         if (outMetricBuf != null) {
             outMetricBuf.close();
@@ -190,6 +192,16 @@ public class MetricWriter {
     }
 
     private String nextFileNameOfDay(long time) {
+        return nextFileNameOfDay(baseDir, baseFileName, time);
+    }
+
+    /**
+     * Get the name of the next metric file of the day of {@code time}, i.e. the name with the
+     * largest number of the day plus one.
+     *
+     * @since 1.8.1
+     */
+    static String nextFileNameOfDay(String baseDir, String baseFileName, long time) {
         List<String> list = new ArrayList<String>();
         File baseFile = new File(baseDir);
         DateFormat fileNameDf = new SimpleDateFormat("yyyy-MM-dd");
@@ -320,9 +332,21 @@ public class MetricWriter {
     }
 
     private void removeMoreFiles() throws Exception {
+        removeMoreFiles(baseDir, baseFileName, totalFileCount);
+    }
+
+    /**
+     * Remove the oldest metric files (and their index files), so that at most {@code totalFileCount - 1}
+     * files are kept before a new one is created.
+     *
+     * @return the removed metric files
+     * @since 1.8.1
+     */
+    static List<String> removeMoreFiles(String baseDir, String baseFileName, int totalFileCount) throws Exception {
         List<String> list = listMetricFiles(baseDir, baseFileName);
+        List<String> removed = new ArrayList<String>();
         if (list == null || list.isEmpty()) {
-            return;
+            return removed;
         }
         for (int i = 0; i < list.size() - totalFileCount + 1; i++) {
             String fileName = list.get(i);
@@ -331,7 +355,9 @@ public class MetricWriter {
             RecordLog.info("[MetricWriter] Removing metric file: " + fileName);
             new File(indexFile).delete();
             RecordLog.info("[MetricWriter] Removing metric index file: " + indexFile);
+            removed.add(fileName);
         }
+        return removed;
     }
 
     private void closeAndNewFile(String fileName) throws Exception {
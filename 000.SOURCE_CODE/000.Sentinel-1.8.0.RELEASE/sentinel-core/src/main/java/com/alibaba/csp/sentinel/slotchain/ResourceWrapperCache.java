@@ -0,0 +1,99 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.EntryType;
+
+/**
+ * <p>A bounded cache of {@link StringResourceWrapper}s, so that entering a resource by name does not
+ * create a new wrapper on each invocation. Wrappers of the same name but different entry type or
+ * resource type are cached separately.</p>
+ *
+ * <p>The cache holds wrappers of at most {@code maxSize} names. Beyond that, new wrappers are created
+ * for each lookup.</p>
+ *
+ * @since 1.8.1
+ */
+public final class ResourceWrapperCache {
+
+    private final int maxSize;
+    private final ConcurrentMap<String, StringResourceWrapper[]> wrapperMap = new ConcurrentHashMap<>();
+
+    public ResourceWrapperCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the cached wrapper of the resource, creating it if absent.
+     *
+     * @param name         resource name
+     * @param entryType    entry type of the resource
+     * @param resourceType classification of the resource
+     * @return the wrapper of the resource
+     */
+    public StringResourceWrapper get(String name, EntryType entryType, int resourceType) {
+        StringResourceWrapper[] wrappers = wrapperMap.get(name);
+        StringResourceWrapper wrapper = find(wrappers, entryType, resourceType);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        wrapper = new StringResourceWrapper(name, entryType, resourceType);
+        if (wrappers != null || wrapperMap.size() < maxSize) {
+            cache(name, wrapper);
+        }
+        return wrapper;
+    }
+
+    private void cache(String name, StringResourceWrapper wrapper) {
+        // Only a few combinations of entry type and resource type exist for a name, so copy on write.
+        wrapperMap.compute(name, (k, wrappers) -> {
+            if (wrappers == null) {
+                return new StringResourceWrapper[] {wrapper};
+            }
+            if (find(wrappers, wrapper.getEntryType(), wrapper.getResourceType()) != null) {
+                return wrappers;
+            }
+            StringResourceWrapper[] newWrappers = new StringResourceWrapper[wrappers.length + 1];
+            System.arraycopy(wrappers, 0, newWrappers, 0, wrappers.length);
+            newWrappers[wrappers.length] = wrapper;
+            return newWrappers;
+        });
+    }
+
+    private static StringResourceWrapper find(StringResourceWrapper[] wrappers, EntryType entryType,
+                                              int resourceType) {
+        if (wrappers == null) {
+            return null;
+        }
+        for (StringResourceWrapper wrapper : wrappers) {
+            if (wrapper.getEntryType() == entryType && wrapper.getResourceType() == resourceType) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return wrapperMap.size();
+    }
+
+    public void clear() {
+        wrapperMap.clear();
+    }
+}
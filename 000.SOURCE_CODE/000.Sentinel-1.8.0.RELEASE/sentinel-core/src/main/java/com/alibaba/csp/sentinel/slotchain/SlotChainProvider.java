@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.DefaultSlotChainBuilder;
 import com.alibaba.csp.sentinel.util.SpiLoader;
@@ -29,29 +31,49 @@ public final class SlotChainProvider {
 
     private static volatile SlotChainBuilder slotChainBuilder = null;
 
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
     /**
-     * The load and pick process is not thread-safe, but it's okay since the method should be only invoked
-     * via {@code lookProcessChain} in {@link com.alibaba.csp.sentinel.CtSph} under lock.
+     * Slot chains of different resources may be created concurrently (see {@link SlotChainRegistry}),
+     * so the slot chain builder SPI is resolved only once under lock.
      *
      * @return new created slot chain
      */
     public static ProcessorSlotChain newSlotChain() {
-        if (slotChainBuilder != null) {
-            return slotChainBuilder.build();
+        SlotChainBuilder builder = slotChainBuilder;
+        if (builder == null) {
+            builder = resolveSlotChainBuilder();
         }
+        return builder.build();
+    }
 
+    private static SlotChainBuilder resolveSlotChainBuilder() {
+        LOCK.lock();
+        try {
+            return doResolveSlotChainBuilder();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static SlotChainBuilder doResolveSlotChainBuilder() {
+        if (slotChainBuilder != null) {
+            return slotChainBuilder;
+        }
         // Resolve the slot chain builder SPI.
-        slotChainBuilder = SpiLoader.loadFirstInstanceOrDefault(SlotChainBuilder.class, DefaultSlotChainBuilder.class);
+        SlotChainBuilder builder = SpiLoader.loadFirstInstanceOrDefault(SlotChainBuilder.class,
+            DefaultSlotChainBuilder.class);
 
-        if (slotChainBuilder == null) {
+        if (builder == null) {
             // Should not go through here.
             RecordLog.warn("[SlotChainProvider] Wrong state when resolving slot chain builder, using default");
-            slotChainBuilder = new DefaultSlotChainBuilder();
+            builder = new DefaultSlotChainBuilder();
         } else {
             RecordLog.info("[SlotChainProvider] Global slot chain builder resolved: "
-                + slotChainBuilder.getClass().getCanonicalName());
+                + builder.getClass().getCanonicalName());
         }
-        return slotChainBuilder.build();
+        slotChainBuilder = builder;
+        return builder;
     }
 
     private SlotChainProvider() {}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A concurrent registry that maps resources to their {@link ProcessorSlotChain}.</p>
+ *
+ * <p>Lookups are lock-free. Creating the slot chain of a new resource only takes one of the striped
+ * creation locks, so registering N resources costs O(N) in total (instead of copying the whole
+ * map on every new resource), and concurrent registrations of different resources seldom wait
+ * for each other. The creation locks are {@link ReentrantLock}s rather than the monitor of the hash bin
+ * (i.e. {@link ConcurrentHashMap#computeIfAbsent}), so virtual threads waiting for the slot chain
+ * being created won't pin their carrier threads.</p>
+ *
+ * <p>The registry holds at most {@code maxSize} slot chains. The limit is checked when a new slot
+ * chain is about to be created, so under heavy concurrent registration it may be exceeded by at most
+ * the number of threads that are creating slot chains at the same moment.</p>
+ *
+ * @since 1.8.1
+ */
+public final class SlotChainRegistry {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    private final int maxSize;
+    private final ConcurrentMap<ResourceWrapper, ProcessorSlotChain> chainMap;
+    private final ReentrantLock[] creationLocks;
+
+    public SlotChainRegistry(int maxSize) {
+        this.maxSize = maxSize;
+        int concurrencyLevel = Math.max(Runtime.getRuntime().availableProcessors(), 16);
+        this.chainMap = new ConcurrentHashMap<>(DEFAULT_INITIAL_CAPACITY, 0.75f, concurrencyLevel);
+        // Power of two, so that the lock of a resource is picked by masking the hash.
+        this.creationLocks = new ReentrantLock[Integer.highestOneBit(concurrencyLevel - 1) << 1];
+        for (int i = 0; i < creationLocks.length; i++) {
+            creationLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get the slot chain of the resource, or {@code null} if it has not been created.
+     *
+     * @param resourceWrapper target resource
+     * @return the slot chain of the resource, or null if absent
+     */
+    public ProcessorSlotChain get(ResourceWrapper resourceWrapper) {
+        return chainMap.get(resourceWrapper);
+    }
+
+    /**
+     * Get the slot chain of the resource, creating it via {@link SlotChainProvider} if absent.
+     *
+     * @param resourceWrapper target resource
+     * @return the slot chain of the resource, or null if the amount of slot chains exceeds the max size
+     */
+    public ProcessorSlotChain getOrCreate(ResourceWrapper resourceWrapper) {
+        ProcessorSlotChain chain = chainMap.get(resourceWrapper);
+        if (chain != null) {
+            return chain;
+        }
+        // Entry size limit (fast path, avoid locking the bin when the registry is full).
+        if (chainMap.size() >= maxSize) {
+            return null;
+        }
+        ReentrantLock lock = creationLockOf(resourceWrapper);
+        lock.lock();
+        try {
+            chain = chainMap.get(resourceWrapper);
+            if (chain == null && chainMap.size() < maxSize) {
+                chain = SlotChainProvider.newSlotChain();
+                chainMap.put(resourceWrapper, chain);
+            }
+            return chain;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock creationLockOf(ResourceWrapper resourceWrapper) {
+        int h = resourceWrapper.hashCode();
+        return creationLocks[(h ^ (h >>> 16)) & (creationLocks.length - 1)];
+    }
+
+    public int size() {
+        return chainMap.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        chainMap.clear();
+    }
+
+    /**
+     * Get the live map view of the registry. Only for internal usage (e.g. test).
+     *
+     * @return the live map view of the registry
+     */
+    public Map<ResourceWrapper, ProcessorSlotChain> asMap() {
+        return chainMap;
+    }
+}
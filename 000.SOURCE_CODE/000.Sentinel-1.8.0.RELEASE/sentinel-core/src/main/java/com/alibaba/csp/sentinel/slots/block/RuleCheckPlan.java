@@ -0,0 +1,86 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.Collection;
+
+/**
+ * <p>The checks (rules, or controllers built from rules) of a resource compiled into a flat array for a slot,
+ * so that the slot does not look up the rule map of the rule manager on each entry.</p>
+ *
+ * <p>Each resource has its own slot chain, so a slot keeps the plan of its resource and compiles a new one
+ * only when the rule manager has loaded new rules, i.e. the rule version of the manager has changed.
+ * The rule version should be read before the rules when compiling, so that rules loaded meanwhile lead
+ * to another compilation rather than a stale plan.</p>
+ *
+ * @param <T> type of the checks
+ * @since 1.8.1
+ */
+public final class RuleCheckPlan<T> {
+
+    private final String resource;
+    private final long ruleVersion;
+    private final T[] checks;
+
+    /**
+     * @param resource    resource name
+     * @param ruleVersion rule version of the rule manager when compiling
+     * @param checks      checks of the resource, or null if the resource has no rules
+     */
+    public RuleCheckPlan(String resource, long ruleVersion, T[] checks) {
+        this.resource = resource;
+        this.ruleVersion = ruleVersion;
+        this.checks = checks == null || checks.length == 0 ? null : checks;
+    }
+
+    /**
+     * Compile the plan from the rules of the resource.
+     *
+     * @param resource    resource name
+     * @param ruleVersion rule version of the rule manager, read before the rules
+     * @param rules       rules of the resource, could be null
+     * @param emptyArray  empty array of the checks to get the type of the plan array
+     * @param <T>         type of the checks
+     * @return compiled plan
+     */
+    public static <T> RuleCheckPlan<T> compile(String resource, long ruleVersion, Collection<? extends T> rules,
+                                               T[] emptyArray) {
+        if (rules == null || rules.isEmpty()) {
+            return new RuleCheckPlan<T>(resource, ruleVersion, null);
+        }
+        return new RuleCheckPlan<T>(resource, ruleVersion, rules.toArray(emptyArray));
+    }
+
+    /**
+     * Check whether the plan is compiled for the resource from the rules of given version.
+     *
+     * @param resource    resource name
+     * @param ruleVersion current rule version of the rule manager
+     * @return true if the plan is up-to-date, otherwise false
+     */
+    public boolean isCompiledFor(String resource, long ruleVersion) {
+        return this.ruleVersion == ruleVersion && this.resource.equals(resource);
+    }
+
+    /**
+     * Get the checks of the resource in order. DO NOT modify the returned array.
+     *
+     * @return the checks, or null if the resource has no rules
+     */
+    public T[] getChecks() {
+        return checks;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Util class for rule maps (rule lists grouped by key, e.g. resource name) of rule managers.
+ *
+ * @since 1.8.1
+ */
+public final class RuleMapUtil {
+
+    /**
+     * <p>Update the rule map of a rule manager to the new rule map in place, key by key.</p>
+     *
+     * <p>Unlike clearing and then putting all, the keys are never absent from the map during the update
+     * unless they are removed, and the keys of which the rule lists are unchanged are not touched at all
+     * (the existing rule objects are kept).</p>
+     *
+     * @param ruleMap    current rule map of the rule manager, should be concurrent
+     * @param newRuleMap new rule map
+     * @param <K>        type of key
+     * @param <R>        type of rule
+     * @return amount of keys of which the rules are added, changed or removed
+     */
+    public static <K, R> int updateRuleMap(Map<K, List<R>> ruleMap, Map<K, List<R>> newRuleMap) {
+        int changed = 0;
+        for (Map.Entry<K, List<R>> entry : newRuleMap.entrySet()) {
+            List<R> rules = ruleMap.get(entry.getKey());
+            if (rules == null || !rules.equals(entry.getValue())) {
+                ruleMap.put(entry.getKey(), entry.getValue());
+                changed++;
+            }
+        }
+        if (ruleMap.size() == newRuleMap.size()) {
+            // All the keys of the new rule map are present, so there is nothing to remove.
+            return changed;
+        }
+        Iterator<K> iterator = ruleMap.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!newRuleMap.containsKey(iterator.next())) {
+                iterator.remove();
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private RuleMapUtil() {}
+}
@@ -41,6 +41,11 @@ public final class AuthorityRuleManager {
 
     private static Map<String, Set<AuthorityRule>> authorityRules = new ConcurrentHashMap<>();
 
+    /**
+     * Incremented after each loading of rules, see {@link com.alibaba.csp.sentinel.slots.block.RuleCheckPlan}.
+     */
+    private static volatile long ruleVersion = 0;
+
     private static final RulePropertyListener LISTENER = new RulePropertyListener();
     private static SentinelProperty<List<AuthorityRule>> currentProperty = new DynamicSentinelProperty<>();
 
@@ -92,13 +97,14 @@ public final class AuthorityRuleManager {
     private static class RulePropertyListener implements PropertyListener<List<AuthorityRule>> {
 
         @Override
-        public void configUpdate(List<AuthorityRule> conf) {
+        public synchronized void configUpdate(List<AuthorityRule> conf) {
             Map<String, Set<AuthorityRule>> rules = loadAuthorityConf(conf);
 
             authorityRules.clear();
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            ruleVersion++;
             RecordLog.info("[AuthorityRuleManager] Authority rules received: " + authorityRules);
         }
 
@@ -136,13 +142,14 @@ public final class AuthorityRuleManager {
         }
 
         @Override
-        public void configLoad(List<AuthorityRule> value) {
+        public synchronized void configLoad(List<AuthorityRule> value) {
             Map<String, Set<AuthorityRule>> rules = loadAuthorityConf(value);
 
             authorityRules.clear();
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            ruleVersion++;
             RecordLog.info("[AuthorityRuleManager] Load authority rules: " + authorityRules);
         }
     }
@@ -151,6 +158,10 @@ public final class AuthorityRuleManager {
         return authorityRules;
     }
 
+    static long getRuleVersion() {
+        return ruleVersion;
+    }
+
     public static boolean isValidRule(AuthorityRule rule) {
         return rule != null && !StringUtil.isBlank(rule.getResource())
             && rule.getStrategy() >= 0 && StringUtil.isNotBlank(rule.getLimitApp());
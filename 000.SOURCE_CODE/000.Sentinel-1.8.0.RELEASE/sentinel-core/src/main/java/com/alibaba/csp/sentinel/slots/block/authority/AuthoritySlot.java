@@ -15,14 +15,12 @@
  */
 package com.alibaba.csp.sentinel.slots.block.authority;
 
-import java.util.Map;
-import java.util.Set;
-
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 import com.alibaba.csp.sentinel.spi.SpiOrder;
 
 /**
@@ -34,6 +32,13 @@ import com.alibaba.csp.sentinel.spi.SpiOrder;
 @SpiOrder(-6000)
 public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    private static final AuthorityRule[] EMPTY_RULES = new AuthorityRule[0];
+
+    /**
+     * Authority rules of the resource of the slot chain.
+     */
+    private volatile RuleCheckPlan<AuthorityRule> checkPlan;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, boolean prioritized, Object... args)
         throws Throwable {
@@ -47,13 +52,7 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     }
 
     void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
-        Map<String, Set<AuthorityRule>> authorityRules = AuthorityRuleManager.getAuthorityRules();
-
-        if (authorityRules == null) {
-            return;
-        }
-
-        Set<AuthorityRule> rules = authorityRules.get(resource.getName());
+        AuthorityRule[] rules = checkPlanOf(resource.getName()).getChecks();
         if (rules == null) {
             return;
         }
@@ -64,4 +63,15 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             }
         }
     }
+
+    private RuleCheckPlan<AuthorityRule> checkPlanOf(String resource) {
+        long ruleVersion = AuthorityRuleManager.getRuleVersion();
+        RuleCheckPlan<AuthorityRule> plan = this.checkPlan;
+        if (plan == null || !plan.isCompiledFor(resource, ruleVersion)) {
+            plan = RuleCheckPlan.compile(resource, ruleVersion,
+                AuthorityRuleManager.getAuthorityRules().get(resource), EMPTY_RULES);
+            this.checkPlan = plan;
+        }
+        return plan;
+    }
 }
@@ -27,6 +27,7 @@ import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.AbstractCircuitBreaker;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ExceptionCircuitBreaker;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ResponseTimeCircuitBreaker;
@@ -44,6 +45,10 @@ public final class DegradeRuleManager {
 
     private static volatile Map<String, List<CircuitBreaker>> circuitBreakers = new HashMap<>();
     private static volatile Map<String, Set<DegradeRule>> ruleMap = new HashMap<>();
+    /**
+     * Incremented after each loading of rules, see {@link com.alibaba.csp.sentinel.slots.block.RuleCheckPlan}.
+     */
+    private static volatile long ruleVersion = 0;
 
     private static final RulePropertyListener LISTENER = new RulePropertyListener();
     private static SentinelProperty<List<DegradeRule>> currentProperty
@@ -73,6 +78,10 @@ public final class DegradeRuleManager {
         return circuitBreakers.get(resourceName);
     }
 
+    static long getRuleVersion() {
+        return ruleVersion;
+    }
+
     public static boolean hasConfig(String resource) {
         if (resource == null) {
             return false;
@@ -148,7 +157,7 @@ public final class DegradeRuleManager {
         }
     }
 
-    private static CircuitBreaker getExistingSameCbOrNew(/*@Valid*/ DegradeRule rule) {
+    private static CircuitBreaker getExistingSameCbOrNew(/*@Valid*/ DegradeRule rule, List<DegradeRule> newRules) {
         List<CircuitBreaker> cbs = getCircuitBreakers(rule.getResource());
         if (cbs == null || cbs.isEmpty()) {
             return newCircuitBreakerFrom(rule);
@@ -159,7 +168,55 @@ public final class DegradeRuleManager {
                 return cb;
             }
         }
-        return newCircuitBreakerFrom(rule);
+        CircuitBreaker cb = newCircuitBreakerFrom(rule);
+        CircuitBreaker previous = findPreviousOfChangedRule(rule, newRules, cbs);
+        if (previous != null && cb instanceof AbstractCircuitBreaker) {
+            // Only the thresholds are changed, so an open circuit breaker should not be closed by reloading.
+            ((AbstractCircuitBreaker)cb).inheritState(previous);
+        }
+        return cb;
+    }
+
+    /**
+     * Find the current circuit breaker that the changed rule comes from, i.e. the only one of the same rule
+     * identity whose rule is removed, given that the changed rule is the only new rule of that identity.
+     * Otherwise it's unknown which one the rule comes from, so none is found.
+     */
+    private static CircuitBreaker findPreviousOfChangedRule(DegradeRule rule, List<DegradeRule> newRules,
+                                                           List<CircuitBreaker> cbs) {
+        CircuitBreaker previous = null;
+        for (CircuitBreaker cb : cbs) {
+            if (isSameRuleIdentity(rule, cb.getRule()) && !newRules.contains(cb.getRule())) {
+                if (previous != null) {
+                    return null;
+                }
+                previous = cb;
+            }
+        }
+        if (previous == null) {
+            return null;
+        }
+        for (DegradeRule other : newRules) {
+            if (!rule.equals(other) && isSameRuleIdentity(rule, other) && !isCurrentRule(other, cbs)) {
+                return null;
+            }
+        }
+        return previous;
+    }
+
+    private static boolean isCurrentRule(DegradeRule rule, List<CircuitBreaker> cbs) {
+        for (CircuitBreaker cb : cbs) {
+            if (rule.equals(cb.getRule())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameRuleIdentity(DegradeRule rule, DegradeRule other) {
+        return other != null && rule.getGrade() == other.getGrade()
+            && StringUtil.equals(rule.getResource(), other.getResource())
+            && StringUtil.equals(rule.getLimitApp(), other.getLimitApp());
     }
 
     /**
@@ -219,6 +276,7 @@ public final class DegradeRuleManager {
 
             DegradeRuleManager.circuitBreakers = cbs;
             DegradeRuleManager.ruleMap = rm;
+            DegradeRuleManager.ruleVersion++;
         }
 
         @Override
@@ -238,6 +296,8 @@ public final class DegradeRuleManager {
             if (list == null || list.isEmpty()) {
                 return cbMap;
             }
+            // Rules are matched against each other when rebuilding circuit breakers, so normalize them first.
+            List<DegradeRule> validRules = new ArrayList<>(list.size());
             for (DegradeRule rule : list) {
                 if (!isValidRule(rule)) {
                     RecordLog.warn("[DegradeRuleManager] Ignoring invalid rule when loading new rules: " + rule);
@@ -247,7 +307,10 @@ public final class DegradeRuleManager {
                 if (StringUtil.isBlank(rule.getLimitApp())) {
                     rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
                 }
-                CircuitBreaker cb = getExistingSameCbOrNew(rule);
+                validRules.add(rule);
+            }
+            for (DegradeRule rule : validRules) {
+                CircuitBreaker cb = getExistingSameCbOrNew(rule, validRules);
                 if (cb == null) {
                     RecordLog.warn("[DegradeRuleManager] Unknown circuit breaking strategy, ignoring: " + rule);
                     continue;
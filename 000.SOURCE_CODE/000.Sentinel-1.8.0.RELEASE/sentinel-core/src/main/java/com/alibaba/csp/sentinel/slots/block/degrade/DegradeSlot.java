@@ -15,8 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade;
 
-import java.util.List;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
@@ -24,6 +22,7 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.spi.SpiOrder;
 
@@ -36,6 +35,13 @@ import com.alibaba.csp.sentinel.spi.SpiOrder;
 @SpiOrder(-1000)
 public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    private static final CircuitBreaker[] EMPTY_CIRCUIT_BREAKERS = new CircuitBreaker[0];
+
+    /**
+     * Circuit breakers of the resource of the slot chain.
+     */
+    private volatile RuleCheckPlan<CircuitBreaker> checkPlan;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
@@ -45,8 +51,8 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     }
 
     void performChecking(Context context, ResourceWrapper r) throws BlockException {
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
-        if (circuitBreakers == null || circuitBreakers.isEmpty()) {
+        CircuitBreaker[] circuitBreakers = checkPlanOf(r.getName()).getChecks();
+        if (circuitBreakers == null) {
             return;
         }
         for (CircuitBreaker cb : circuitBreakers) {
@@ -63,8 +69,8 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             fireExit(context, r, count, args);
             return;
         }
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
-        if (circuitBreakers == null || circuitBreakers.isEmpty()) {
+        CircuitBreaker[] circuitBreakers = checkPlanOf(r.getName()).getChecks();
+        if (circuitBreakers == null) {
             fireExit(context, r, count, args);
             return;
         }
@@ -78,4 +84,15 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
         fireExit(context, r, count, args);
     }
+
+    private RuleCheckPlan<CircuitBreaker> checkPlanOf(String resource) {
+        long ruleVersion = DegradeRuleManager.getRuleVersion();
+        RuleCheckPlan<CircuitBreaker> plan = this.checkPlan;
+        if (plan == null || !plan.isCompiledFor(resource, ruleVersion)) {
+            plan = RuleCheckPlan.compile(resource, ruleVersion, DegradeRuleManager.getCircuitBreakers(resource),
+                EMPTY_CIRCUIT_BREAKERS);
+            this.checkPlan = plan;
+        }
+        return plan;
+    }
 }
@@ -82,6 +82,29 @@ public abstract class AbstractCircuitBreaker implements CircuitBreaker {
      */
     abstract void resetStat();
 
+    /**
+     * Take over the state of the previous circuit breaker of the rule (e.g. when the thresholds are changed),
+     * so that an open circuit breaker remains open until its retry timestamp. A half-open one will be open
+     * and retried at once, as the probe request belongs to the previous one. The statistics are not inherited.
+     *
+     * @param previous previous circuit breaker of the rule
+     * @since 1.8.1
+     */
+    public void inheritState(CircuitBreaker previous) {
+        if (!(previous instanceof AbstractCircuitBreaker)) {
+            return;
+        }
+        AbstractCircuitBreaker cb = (AbstractCircuitBreaker)previous;
+        State state = cb.currentState.get();
+        if (state == State.CLOSED) {
+            return;
+        }
+        this.nextRetryTimestamp = state == State.OPEN ? cb.nextRetryTimestamp : TimeUtil.currentTimeMillis();
+        if (currentState.compareAndSet(State.CLOSED, State.OPEN)) {
+            notifyObservers(State.CLOSED, State.OPEN, null);
+        }
+    }
+
     protected boolean retryTimeoutArrived() {
         return TimeUtil.currentTimeMillis() >= nextRetryTimestamp;
     }
@@ -15,8 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
@@ -25,6 +23,7 @@ import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import static com.alibaba.csp.sentinel.slots.block.RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO;
 import static com.alibaba.csp.sentinel.slots.block.RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT;
@@ -93,13 +92,10 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
         
-        List<SimpleErrorCounter> counters = stat.values();
-        long errCount = 0;
-        long totalCount = 0;
-        for (SimpleErrorCounter counter : counters) {
-            errCount += counter.errorCount.sum();
-            totalCount += counter.totalCount.sum();
-        }
+        // Sum up the counters of the same buckets without creating the bucket list.
+        long now = TimeUtil.currentTimeMillis();
+        long errCount = stat.sum(now, counter -> counter.errorCount.sum());
+        long totalCount = stat.sum(now, counter -> counter.totalCount.sum());
         if (totalCount < minRequestAmount) {
             return;
         }
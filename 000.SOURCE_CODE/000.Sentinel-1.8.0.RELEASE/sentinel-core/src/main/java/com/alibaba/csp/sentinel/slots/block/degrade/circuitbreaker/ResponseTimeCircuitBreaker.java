@@ -15,8 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
@@ -96,13 +94,10 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
 
-        List<SlowRequestCounter> counters = slidingCounter.values();
-        long slowCount = 0;
-        long totalCount = 0;
-        for (SlowRequestCounter counter : counters) {
-            slowCount += counter.slowCount.sum();
-            totalCount += counter.totalCount.sum();
-        }
+        // Sum up the counters of the same buckets without creating the bucket list.
+        long now = TimeUtil.currentTimeMillis();
+        long slowCount = slidingCounter.sum(now, counter -> counter.slowCount.sum());
+        long totalCount = slidingCounter.sum(now, counter -> counter.totalCount.sum());
         if (totalCount < minRequestAmount) {
             return;
         }
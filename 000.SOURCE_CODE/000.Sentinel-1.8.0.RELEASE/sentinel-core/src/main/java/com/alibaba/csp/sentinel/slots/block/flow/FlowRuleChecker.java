@@ -16,7 +16,11 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
@@ -29,6 +33,7 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -41,21 +46,60 @@ import com.alibaba.csp.sentinel.util.function.Function;
  */
 public class FlowRuleChecker {
 
+    /**
+     * Check the flow rules in the compiled plan of the resource in order.
+     *
+     * @param plan        compiled flow rules of the resource
+     * @param context     current context
+     * @param node        current node of the resource
+     * @param count       count to acquire
+     * @param prioritized whether the entry is prioritized
+     * @throws BlockException if any rule blocks the request
+     * @since 1.8.1
+     */
+    public void checkFlow(RuleCheckPlan<FlowRule> plan, Context context, DefaultNode node, int count,
+                          boolean prioritized) throws BlockException {
+        FlowRule[] rules = plan == null ? null : plan.getChecks();
+        if (rules == null) {
+            return;
+        }
+        for (FlowRule rule : rules) {
+            checkFlow(rule, context, node, count, prioritized);
+        }
+    }
+
+    /**
+     * @deprecated since 1.8.1, {@link FlowSlot} checks the compiled rules of its resource with
+     * {@link #checkFlow(RuleCheckPlan, Context, DefaultNode, int, boolean)} rather than looking up the rules
+     * on each entry
+     */
+    @Deprecated
     public void checkFlow(Function<String, Collection<FlowRule>> ruleProvider, ResourceWrapper resource,
                           Context context, DefaultNode node, int count, boolean prioritized) throws BlockException {
         if (ruleProvider == null || resource == null) {
             return;
         }
         Collection<FlowRule> rules = ruleProvider.apply(resource.getName());
-        if (rules != null) {
+        if (rules instanceof List && rules instanceof RandomAccess) {
+            // Avoid allocating an iterator per invocation.
+            List<FlowRule> ruleList = (List<FlowRule>) rules;
+            for (int i = 0; i < ruleList.size(); i++) {
+                checkFlow(ruleList.get(i), context, node, count, prioritized);
+            }
+        } else if (rules != null) {
             for (FlowRule rule : rules) {
-                if (!canPassCheck(rule, context, node, count, prioritized)) {
-                    throw new FlowException(rule.getLimitApp(), rule);
-                }
+                checkFlow(rule, context, node, count, prioritized);
             }
         }
     }
 
+    private void checkFlow(FlowRule rule, Context context, DefaultNode node, int count, boolean prioritized)
+        throws BlockException {
+        if (!canPassCheck(rule, context, node, count, prioritized)) {
+            throw new FlowException(rule.getLimitApp(), rule);
+        }
+    }
+
     public boolean canPassCheck(/*@NonNull*/ FlowRule rule, Context context, DefaultNode node,
                                                     int acquireCount) {
         return canPassCheck(rule, context, node, acquireCount, false);
@@ -82,7 +126,30 @@ public class FlowRuleChecker {
             return true;
         }
 
-        return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+        TrafficShapingController rater = rule.getRater();
+        if (rater instanceof PacingController) {
+            AsyncEntry pacedEntry = pacingDeferredEntryOf(context);
+            if (pacedEntry != null) {
+                long waitTime = ((PacingController)rater).tryReserve(selectedNode, acquireCount);
+                if (waitTime == PacingController.BLOCKED) {
+                    return false;
+                }
+                pacedEntry.deferPacing(waitTime);
+                return true;
+            }
+        }
+        return rater.canPass(selectedNode, acquireCount, prioritized);
+    }
+
+    /**
+     * Get the entry being checked if it defers pacing to the caller, otherwise null.
+     */
+    private static AsyncEntry pacingDeferredEntryOf(Context context) {
+        Entry curEntry = context == null ? null : context.getCurEntry();
+        if (curEntry instanceof AsyncEntry && ((AsyncEntry)curEntry).isPacingDeferred()) {
+            return (AsyncEntry)curEntry;
+        }
+        return null;
     }
 
     static Node selectReferenceNode(FlowRule rule, Context context, DefaultNode node) {
@@ -190,6 +257,11 @@ public class FlowRuleChecker {
             case TokenResultStatus.OK:
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
+                AsyncEntry pacedEntry = pacingDeferredEntryOf(context);
+                if (pacedEntry != null) {
+                    pacedEntry.deferPacing(result.getWaitInMs());
+                    return true;
+                }
                 // Wait for next tick.
                 try {
                     Thread.sleep(result.getWaitInMs());
@@ -31,6 +31,7 @@ import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.RuleMapUtil;
 
 /**
  * <p>
@@ -48,6 +49,11 @@ public class FlowRuleManager {
 
     private static final Map<String, List<FlowRule>> flowRules = new ConcurrentHashMap<String, List<FlowRule>>();
 
+    /**
+     * Incremented after each loading of rules, see {@link com.alibaba.csp.sentinel.slots.block.RuleCheckPlan}.
+     */
+    private static volatile long ruleVersion = 0;
+
     private static final FlowPropertyListener LISTENER = new FlowPropertyListener();
     private static SentinelProperty<List<FlowRule>> currentProperty = new DynamicSentinelProperty<List<FlowRule>>();
 
@@ -102,6 +108,10 @@ public class FlowRuleManager {
         return flowRules;
     }
 
+    static long getRuleVersion() {
+        return ruleVersion;
+    }
+
     public static boolean hasConfig(String resource) {
         return flowRules.containsKey(resource);
     }
@@ -128,23 +138,23 @@ public class FlowRuleManager {
 
         @Override
         public void configUpdate(List<FlowRule> value) {
-            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value);
-            if (rules != null) {
-                flowRules.clear();
-                flowRules.putAll(rules);
-            }
+            applyRules(value);
             RecordLog.info("[FlowRuleManager] Flow rules received: " + flowRules);
         }
 
         @Override
         public void configLoad(List<FlowRule> conf) {
-            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
-            if (rules != null) {
-                flowRules.clear();
-                flowRules.putAll(rules);
-            }
+            applyRules(conf);
             RecordLog.info("[FlowRuleManager] Flow rules loaded: " + flowRules);
         }
+
+        private synchronized void applyRules(List<FlowRule> list) {
+            // Unchanged rules keep their traffic shaping controllers, and unchanged resources are not touched.
+            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(list, FlowRuleUtil.extractResource,
+                null, true, flowRules);
+            RuleMapUtil.updateRuleMap(flowRules, rules);
+            ruleVersion++;
+        }
     }
 
 }
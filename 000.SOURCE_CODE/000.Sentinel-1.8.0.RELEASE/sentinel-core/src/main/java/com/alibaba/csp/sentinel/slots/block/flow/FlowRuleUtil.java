@@ -88,6 +88,26 @@ public final class FlowRuleUtil {
      */
     public static <K> Map<K, List<FlowRule>> buildFlowRuleMap(List<FlowRule> list, Function<FlowRule, K> groupFunction,
                                                               Predicate<FlowRule> filter, boolean shouldSort) {
+        return buildFlowRuleMap(list, groupFunction, filter, shouldSort, null);
+    }
+
+    /**
+     * Build the flow rule map from raw list of flow rules, grouping by provided group function.
+     * New rules equal to current rules reuse the traffic shaping controllers of current rules,
+     * so that the state of the controllers (e.g. stored tokens of warm-up) is kept.
+     *
+     * @param list           raw list of flow rules
+     * @param groupFunction  grouping function of the map (by key)
+     * @param filter         rule filter
+     * @param shouldSort     whether the rules should be sorted
+     * @param currentRuleMap current flow rule map, nullable
+     * @param <K>            type of key
+     * @return constructed new flow rule map; empty map if list is null or empty, or no wanted rules
+     * @since 1.8.1
+     */
+    public static <K> Map<K, List<FlowRule>> buildFlowRuleMap(List<FlowRule> list, Function<FlowRule, K> groupFunction,
+                                                              Predicate<FlowRule> filter, boolean shouldSort,
+                                                              Map<K, List<FlowRule>> currentRuleMap) {
         Map<K, List<FlowRule>> newRuleMap = new ConcurrentHashMap<>();
         if (list == null || list.isEmpty()) {
             return newRuleMap;
@@ -106,9 +126,6 @@ public final class FlowRuleUtil {
                 rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
             }
 
-            TrafficShapingController rater = generateRater(rule);
-            rule.setRater(rater);
-
             K key = groupFunction.apply(rule);
             if (key == null) {
                 continue;
@@ -130,12 +147,90 @@ public final class FlowRuleUtil {
                 // Sort the rules.
                 Collections.sort(rules, comparator);
             }
+            List<FlowRule> currentRules = currentRuleMap == null ? null : currentRuleMap.get(entries.getKey());
+            if (currentRules != null && currentRules.equals(rules)) {
+                // Unchanged, keep the current rules (with their controllers).
+                newRuleMap.put(entries.getKey(), currentRules);
+                continue;
+            }
+            for (FlowRule rule : rules) {
+                rule.setRater(getExistingSameRaterOrNew(rule, rules, currentRules));
+            }
             newRuleMap.put(entries.getKey(), rules);
         }
 
         return newRuleMap;
     }
 
+    private static TrafficShapingController getExistingSameRaterOrNew(/*@Valid*/ FlowRule rule,
+                                                                      List<FlowRule> rules,
+                                                                      List<FlowRule> currentRules) {
+        if (currentRules != null) {
+            for (FlowRule currentRule : currentRules) {
+                if (currentRule.getRater() != null && rule.equals(currentRule)) {
+                    // Reuse the controller if the rule remains unchanged.
+                    return currentRule.getRater();
+                }
+            }
+        }
+        TrafficShapingController rater = generateRater(rule);
+        FlowRule previous = findPreviousOfChangedRule(rule, rules, currentRules);
+        if (previous != null && rater instanceof StatefulTrafficShapingController) {
+            // Only the thresholds are changed, so keep the state (e.g. warm-up progress) of the previous one.
+            ((StatefulTrafficShapingController)rater).inheritState(previous.getRater());
+        }
+        return rater;
+    }
+
+    /**
+     * Find the current rule that the changed rule comes from, i.e. the only removed current rule of the same
+     * rule identity, given that the changed rule is the only new rule of that identity. Otherwise (e.g. several
+     * rules differ only in thresholds) it's unknown which one the rule comes from, so none is found.
+     *
+     * @param rule         the changed rule
+     * @param rules        new rules of the resource
+     * @param currentRules current rules of the resource
+     * @return the current rule that the changed rule comes from, or null if absent or ambiguous
+     */
+    static FlowRule findPreviousOfChangedRule(FlowRule rule, List<FlowRule> rules, List<FlowRule> currentRules) {
+        if (currentRules == null) {
+            return null;
+        }
+        FlowRule previous = null;
+        for (FlowRule currentRule : currentRules) {
+            if (currentRule.getRater() != null && isSameRuleIdentity(rule, currentRule)
+                && !rules.contains(currentRule)) {
+                if (previous != null) {
+                    return null;
+                }
+                previous = currentRule;
+            }
+        }
+        if (previous == null) {
+            return null;
+        }
+        for (FlowRule other : rules) {
+            if (!rule.equals(other) && isSameRuleIdentity(rule, other) && !currentRules.contains(other)) {
+                return null;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Check whether the two rules are the same rule with (possibly) different thresholds,
+     * i.e. all fields other than the thresholds and cluster config are equal.
+     */
+    static boolean isSameRuleIdentity(FlowRule rule, FlowRule other) {
+        return rule.getGrade() == other.getGrade()
+            && rule.getStrategy() == other.getStrategy()
+            && rule.getControlBehavior() == other.getControlBehavior()
+            && rule.isClusterMode() == other.isClusterMode()
+            && StringUtil.equals(rule.getResource(), other.getResource())
+            && StringUtil.equals(rule.getLimitApp(), other.getLimitApp())
+            && StringUtil.equals(rule.getRefResource(), other.getRefResource());
+    }
+
     private static TrafficShapingController generateRater(/*@Valid*/ FlowRule rule) {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             switch (rule.getControlBehavior()) {
@@ -227,7 +322,7 @@ public final class FlowRuleUtil {
         }
     }
 
-    private static final Function<FlowRule, String> extractResource = new Function<FlowRule, String>() {
+    static final Function<FlowRule, String> extractResource = new Function<FlowRule, String>() {
         @Override
         public String apply(FlowRule rule) {
             return rule.getResource();
@@ -20,13 +20,9 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 import com.alibaba.csp.sentinel.spi.SpiOrder;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.function.Function;
-
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 
 /**
  * <p>
@@ -144,15 +140,14 @@ import java.util.Map;
 @SpiOrder(-2000)
 public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    private static final FlowRule[] EMPTY_RULES = new FlowRule[0];
+
     private final FlowRuleChecker checker;
-    private final Function<String, Collection<FlowRule>> ruleProvider = new Function<String, Collection<FlowRule>>() {
-        @Override
-        public Collection<FlowRule> apply(String resource) {
-            // Flow rule map should not be null.
-            Map<String, List<FlowRule>> flowRules = FlowRuleManager.getFlowRuleMap();
-            return flowRules.get(resource);
-        }
-    };
+
+    /**
+     * Flow rules of the resource of the slot chain.
+     */
+    private volatile RuleCheckPlan<FlowRule> checkPlan;
 
     public FlowSlot() {
         this(new FlowRuleChecker());
@@ -179,7 +174,19 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     void checkFlow(ResourceWrapper resource, Context context, DefaultNode node, int count, boolean prioritized)
             throws BlockException {
-        checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+        checker.checkFlow(checkPlanOf(resource.getName()), context, node, count, prioritized);
+    }
+
+    private RuleCheckPlan<FlowRule> checkPlanOf(String resource) {
+        long ruleVersion = FlowRuleManager.getRuleVersion();
+        RuleCheckPlan<FlowRule> plan = this.checkPlan;
+        if (plan == null || !plan.isCompiledFor(resource, ruleVersion)) {
+            // Flow rule map should not be null.
+            plan = RuleCheckPlan.compile(resource, ruleVersion, FlowRuleManager.getFlowRuleMap().get(resource),
+                EMPTY_RULES);
+            this.checkPlan = plan;
+        }
+        return plan;
     }
 
     @Override
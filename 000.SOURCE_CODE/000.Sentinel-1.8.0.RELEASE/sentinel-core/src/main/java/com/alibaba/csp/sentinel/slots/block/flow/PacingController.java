@@ -0,0 +1,44 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * <p>A traffic shaping controller that paces requests by queueing them (i.e. the rate limiter behavior).
+ * Besides {@link #canPass(Node, int, boolean)}, which waits in the caller thread until the pass time, it can
+ * reserve the pass time of a request without waiting, so that asynchronous callers (e.g. event loops of
+ * reactive servers) can schedule the invocation at that time instead of blocking.</p>
+ *
+ * @since 1.8.1
+ */
+public interface PacingController extends TrafficShapingController {
+
+    /**
+     * Returned by {@link #tryReserve(Node, int)} when the request should be blocked.
+     */
+    long BLOCKED = -1;
+
+    /**
+     * Reserve the pass time of the request without waiting.
+     *
+     * @param node         resource node
+     * @param acquireCount count to acquire
+     * @return the time to wait in milliseconds before passing ({@code 0} for passing immediately),
+     * or {@link #BLOCKED} if the request should be blocked
+     */
+    long tryReserve(Node node, int acquireCount);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+/**
+ * A traffic shaping controller with state (e.g. stored tokens of warm-up, or the latest passed time of
+ * pacing), which can take over the state of the previous controller when the thresholds of the rule are
+ * changed, so that reloading rules does not reset the state.
+ *
+ * @since 1.8.1
+ */
+public interface StatefulTrafficShapingController extends TrafficShapingController {
+
+    /**
+     * Take over the state of the previous controller of the rule. It's called before the controller is used.
+     *
+     * @param previous previous controller of the rule, with the same control behavior
+     */
+    void inheritState(TrafficShapingController previous);
+}
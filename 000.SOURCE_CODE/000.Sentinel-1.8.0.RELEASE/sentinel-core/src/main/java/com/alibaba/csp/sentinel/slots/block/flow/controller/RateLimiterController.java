@@ -16,7 +16,9 @@
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.PacingController;
 import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.slots.block.flow.StatefulTrafficShapingController;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -24,7 +26,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * 流控规则: 排队等待
  */
-public class RateLimiterController implements TrafficShapingController {
+public class RateLimiterController implements StatefulTrafficShapingController, PacingController {
 
     private final int maxQueueingTimeMs;
     private final double count;
@@ -46,14 +48,30 @@ public class RateLimiterController implements TrafficShapingController {
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long waitTime = tryReserve(node, acquireCount);
+        if (waitTime == BLOCKED) {
+            return false;
+        }
+        if (waitTime > 0) { // 阻塞当前线程
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long tryReserve(Node node, int acquireCount) {
         // Pass when acquire count is less or equal than 0.
         if (acquireCount <= 0) {
-            return true;
+            return 0;
         }
         // Reject when count is less or equal than 0.
         // Otherwise,the costTime will be max of long and waitTime will overflow in some cases.
         if (count <= 0) {
-            return false;
+            return BLOCKED;
         }
 
         long currentTime = TimeUtil.currentTimeMillis();
@@ -70,7 +88,7 @@ public class RateLimiterController implements TrafficShapingController {
         if (expectedTime <= currentTime) {  // 预期时间早于当前时间,立即处理
             // Contention may exist here, but it's okay.
             latestPassedTime.set(currentTime);
-            return true;
+            return 0;
         } else { // 反之，只能等到未来的某个时间处理了
             /**
              * Calculate the time to wait. 计算等待时间
@@ -81,27 +99,27 @@ public class RateLimiterController implements TrafficShapingController {
              * 等待时间大于在队列中最大等待时间，直接返回： 等待已超时
              */
             if (waitTime > maxQueueingTimeMs) {
-                return false;
+                return BLOCKED;
             } else {
                 // 等待未超时，oldTime就是本次请求预期处理时间
                 long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    // 重新计算等待时间
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime > maxQueueingTimeMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    // in race condition waitTime may <= 0
-                    if (waitTime > 0) { // 阻塞当前线程
-                        Thread.sleep(waitTime);
-                    }
-                    return true;
-                } catch (InterruptedException e) {
+                // 重新计算等待时间
+                waitTime = oldTime - TimeUtil.currentTimeMillis();
+                if (waitTime > maxQueueingTimeMs) {
+                    latestPassedTime.addAndGet(-costTime);
+                    return BLOCKED;
                 }
+                // in race condition waitTime may <= 0
+                return Math.max(waitTime, 0);
             }
         }
-        return false;
     }
 
+    @Override
+    public void inheritState(TrafficShapingController previous) {
+        if (previous instanceof RateLimiterController) {
+            // Continue pacing after the requests passed (or queued) by the previous controller.
+            latestPassedTime.set(((RateLimiterController)previous).latestPassedTime.get());
+        }
+    }
 }
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.slots.block.flow.StatefulTrafficShapingController;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -105,7 +106,7 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * @author jialiang.linjl
  */
-public class WarmUpController implements TrafficShapingController {
+public class WarmUpController implements StatefulTrafficShapingController {
     /**
      * <p> ## 来自: guava: SmoothRateLimiter.java </p>
      * <p>How is the RateLimiter designed, and why?</p>
@@ -526,4 +527,18 @@ public class WarmUpController implements TrafficShapingController {
         return Math.min(newValue, maxToken);
     }
 
+    @Override
+    public void inheritState(TrafficShapingController previous) {
+        if (!(previous instanceof WarmUpController)) {
+            return;
+        }
+        WarmUpController controller = (WarmUpController)previous;
+        // Keep the progress of warm-up, by scaling the stored tokens to the new max token.
+        long tokens = controller.storedTokens.get();
+        if (controller.maxToken > 0) {
+            tokens = (long)((double)tokens * maxToken / controller.maxToken);
+        }
+        storedTokens.set(Math.min(tokens, maxToken));
+        lastFilledTime.set(controller.lastFilledTime.get());
+    }
 }
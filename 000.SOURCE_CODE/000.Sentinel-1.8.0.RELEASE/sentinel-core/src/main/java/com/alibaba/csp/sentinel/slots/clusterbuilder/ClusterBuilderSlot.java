@@ -15,8 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
@@ -61,14 +63,15 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * in this map.
      * </p>
      * <p>
-     * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * Lookups on the concurrent map are lock-free, and creating the cluster node of
+     * a new resource only locks the hash bin of that resource, so cold-start storms
+     * with many distinct resources won't serialize on a global lock or copy the map.
      * </p>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
+    private static final ConcurrentMap<ResourceWrapper, ClusterNode> clusterNodeMap = new ConcurrentHashMap<>(256);
 
-    private static final Object lock = new Object();
+    private static final AtomicReferenceFieldUpdater<ClusterBuilderSlot, ClusterNode> CLUSTER_NODE_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(ClusterBuilderSlot.class, ClusterNode.class, "clusterNode");
 
     private volatile ClusterNode clusterNode = null;
 
@@ -77,16 +80,10 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
                       boolean prioritized, Object... args)
         throws Throwable {
         if (clusterNode == null) {
-            synchronized (lock) {
-                if (clusterNode == null) {
-                    // Create the cluster node.
-                    clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
-                }
+            // Create the cluster node. Only the winner of the CAS publishes it to the map.
+            ClusterNode newNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
+            if (CLUSTER_NODE_UPDATER.compareAndSet(this, null, newNode)) {
+                clusterNodeMap.put(node.getId(), newNode);
             }
         }
         node.setClusterNode(clusterNode);
@@ -26,6 +26,7 @@ import com.alibaba.csp.sentinel.spi.SpiOrder;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * </p>
@@ -131,6 +132,12 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
      */
     private volatile Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
 
+    /**
+     * Lock for creating nodes. Unlike {@code synchronized}, waiting for the lock won't pin the carrier
+     * thread of a virtual thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
         throws Throwable {
@@ -154,7 +161,8 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          */
         DefaultNode node = map.get(context.getName());
         if (node == null) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 node = map.get(context.getName());
                 if (node == null) {
                     node = new DefaultNode(resourceWrapper, null);
@@ -165,7 +173,8 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
                     // Build invocation tree
                     ((DefaultNode) context.getLastNode()).addChild(node);
                 }
-
+            } finally {
+                lock.unlock();
             }
         }
 
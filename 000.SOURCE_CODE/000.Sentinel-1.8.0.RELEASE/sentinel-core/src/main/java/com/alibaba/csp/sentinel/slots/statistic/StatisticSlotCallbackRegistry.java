@@ -43,34 +43,48 @@ public final class StatisticSlotCallbackRegistry {
     private static final Map<String, ProcessorSlotExitCallback> exitCallbackMap
         = new ConcurrentHashMap<String, ProcessorSlotExitCallback>();
 
-    public static void clearEntryCallback() {
+    /**
+     * Snapshots of the callbacks for {@link StatisticSlot}, so that iterating them does not allocate.
+     */
+    private static volatile ProcessorSlotEntryCallback<DefaultNode>[] entryCallbacks = newEntryCallbackArray(0);
+    private static volatile ProcessorSlotExitCallback[] exitCallbacks = new ProcessorSlotExitCallback[0];
+
+    public static synchronized void clearEntryCallback() {
         entryCallbackMap.clear();
+        refreshEntryCallbacks();
     }
 
-    public static void clearExitCallback() {
+    public static synchronized void clearExitCallback() {
         exitCallbackMap.clear();
+        refreshExitCallbacks();
     }
 
-    public static void addEntryCallback(String key, ProcessorSlotEntryCallback<DefaultNode> callback) {
+    public static synchronized void addEntryCallback(String key, ProcessorSlotEntryCallback<DefaultNode> callback) {
         entryCallbackMap.put(key, callback);
+        refreshEntryCallbacks();
     }
 
-    public static void addExitCallback(String key, ProcessorSlotExitCallback callback) {
+    public static synchronized void addExitCallback(String key, ProcessorSlotExitCallback callback) {
         exitCallbackMap.put(key, callback);
+        refreshExitCallbacks();
     }
 
-    public static ProcessorSlotEntryCallback<DefaultNode> removeEntryCallback(String key) {
+    public static synchronized ProcessorSlotEntryCallback<DefaultNode> removeEntryCallback(String key) {
         if (key == null) {
             return null;
         }
-        return entryCallbackMap.remove(key);
+        ProcessorSlotEntryCallback<DefaultNode> callback = entryCallbackMap.remove(key);
+        refreshEntryCallbacks();
+        return callback;
     }
 
-    public static ProcessorSlotExitCallback removeExitCallback(String key) {
+    public static synchronized ProcessorSlotExitCallback removeExitCallback(String key) {
         if (key == null) {
             return null;
         }
-        return exitCallbackMap.remove(key);
+        ProcessorSlotExitCallback callback = exitCallbackMap.remove(key);
+        refreshExitCallbacks();
+        return callback;
     }
 
     public static Collection<ProcessorSlotEntryCallback<DefaultNode>> getEntryCallbacks() {
@@ -81,5 +95,26 @@ public final class StatisticSlotCallbackRegistry {
         return exitCallbackMap.values();
     }
 
+    static ProcessorSlotEntryCallback<DefaultNode>[] entryCallbackArray() {
+        return entryCallbacks;
+    }
+
+    static ProcessorSlotExitCallback[] exitCallbackArray() {
+        return exitCallbacks;
+    }
+
+    private static void refreshEntryCallbacks() {
+        entryCallbacks = entryCallbackMap.values().toArray(newEntryCallbackArray(0));
+    }
+
+    private static void refreshExitCallbacks() {
+        exitCallbacks = exitCallbackMap.values().toArray(new ProcessorSlotExitCallback[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProcessorSlotEntryCallback<DefaultNode>[] newEntryCallbackArray(int size) {
+        return (ProcessorSlotEntryCallback<DefaultNode>[]) new ProcessorSlotEntryCallback[size];
+    }
+
     private StatisticSlotCallbackRegistry() {}
 }
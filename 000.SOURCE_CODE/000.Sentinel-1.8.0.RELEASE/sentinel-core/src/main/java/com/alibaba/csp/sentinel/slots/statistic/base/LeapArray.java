@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
 /**
  * <p>
@@ -349,6 +350,34 @@ public abstract class LeapArray<T> {
         return result;
     }
 
+    /**
+     * Sum up the values of "valid" buckets for entire sliding window, without creating the value list
+     * as {@link #values()} does.
+     *
+     * @param valueFunction function to get the value of a bucket
+     * @return sum of the values of valid buckets
+     * @since 1.8.1
+     */
+    public long sum(ToLongFunction<T> valueFunction) {
+        return sum(TimeUtil.currentTimeMillis(), valueFunction);
+    }
+
+    public long sum(long timeMillis, ToLongFunction<T> valueFunction) {
+        if (timeMillis < 0) {
+            return 0;
+        }
+        long sum = 0;
+        int size = array.length();
+        for (int i = 0; i < size; i++) {
+            WindowWrap<T> windowWrap = array.get(i);
+            if (windowWrap == null || isWindowDeprecated(timeMillis, windowWrap)) {
+                continue;
+            }
+            sum += valueFunction.applyAsLong(windowWrap.value());
+        }
+        return sum;
+    }
+
     /**
      * Get the valid "head" bucket of the sliding window for provided timestamp. Package-private for test.
      *
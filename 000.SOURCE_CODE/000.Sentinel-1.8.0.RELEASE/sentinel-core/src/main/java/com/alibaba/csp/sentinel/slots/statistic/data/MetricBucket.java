@@ -27,17 +27,30 @@ import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
  */
 public class MetricBucket {
 
+    /**
+     * The {@link LongAdder} counters of each event, or null if the subclass keeps
+     * the counters in its own layout (e.g. {@link PaddedMetricBucket}).
+     */
     private final LongAdder[] counters;
 
     private volatile long minRt;
 
     public MetricBucket() {
+        this(newAdders());
+    }
+
+    MetricBucket(LongAdder[] counters) {
+        this.counters = counters;
+        initMinRt();
+    }
+
+    private static LongAdder[] newAdders() {
         MetricEvent[] events = MetricEvent.values();
-        this.counters = new LongAdder[events.length];
+        LongAdder[] adders = new LongAdder[events.length];
         for (MetricEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+            adders[event.ordinal()] = new LongAdder();
         }
-        initMinRt();
+        return adders;
     }
 
     public MetricBucket reset(MetricBucket bucket) {
@@ -49,7 +62,7 @@ public class MetricBucket {
         return this;
     }
 
-    private void initMinRt() {
+    void initMinRt() {
         this.minRt = SentinelConfig.statisticMaxRt();
     }
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * A provider for creating {@link MetricBucket}s of the type configured by
+ * {@link SentinelConfig#STATISTIC_BUCKET_TYPE}.
+ *
+ * @since 1.8.1
+ */
+public final class MetricBucketProvider {
+
+    /**
+     * Create a new metric bucket in initial state.
+     *
+     * @return new created metric bucket
+     */
+    public static MetricBucket newBucket() {
+        if (SentinelConfig.STATISTIC_BUCKET_TYPE_PADDED.equals(SentinelConfig.statisticBucketType())) {
+            return new PaddedMetricBucket(SentinelConfig.statisticBucketStripes());
+        }
+        return new MetricBucket();
+    }
+
+    private MetricBucketProvider() {}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+
+/**
+ * <p>A {@link MetricBucket} that keeps the counters of all events in one contiguous
+ * {@link AtomicLongArray}, instead of one {@link com.alibaba.csp.sentinel.slots.statistic.base.LongAdder}
+ * (and its lazily allocated cells) per event.</p>
+ *
+ * <p>The array is made up of {@code stripes} rows. Each row holds the counters of all events. Updating
+ * threads are spread over the rows by thread id, and reading a counter sums the rows up. Each row is padded
+ * to a multiple of the cache line size and the whole array is padded at both ends, so that the counters
+ * do not share cache lines with other rows or with neighbouring objects (e.g. the buckets of other
+ * resources), also in the default single-row layout.</p>
+ *
+ * <p>The memory footprint of the bucket is fixed once created, no matter how contended it is.</p>
+ *
+ * @since 1.8.1
+ */
+public class PaddedMetricBucket extends MetricBucket {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    /**
+     * Amount of longs in one cache line (64 bytes).
+     */
+    private static final int LINE = 8;
+    private static final int PADDED_ROW_SIZE = (EVENTS.length + LINE - 1) / LINE * LINE;
+
+    private final AtomicLongArray counters;
+    private final int stripeMask;
+
+    public PaddedMetricBucket() {
+        this(1);
+    }
+
+    /**
+     * @param stripes amount of counter rows, should be power of 2
+     */
+    public PaddedMetricBucket(int stripes) {
+        super(null);
+        if (stripes <= 0 || (stripes & (stripes - 1)) != 0) {
+            throw new IllegalArgumentException("stripes should be positive power of 2");
+        }
+        this.stripeMask = stripes - 1;
+        this.counters = new AtomicLongArray(LINE + stripes * PADDED_ROW_SIZE + LINE);
+    }
+
+    private int indexOf(int stripe, int ordinal) {
+        return LINE + stripe * PADDED_ROW_SIZE + ordinal;
+    }
+
+    private int currentStripe() {
+        return (int)Thread.currentThread().getId() & stripeMask;
+    }
+
+    public int stripes() {
+        return stripeMask + 1;
+    }
+
+    @Override
+    public MetricBucket reset(MetricBucket bucket) {
+        clearCounters();
+        for (MetricEvent event : EVENTS) {
+            counters.set(indexOf(0, event.ordinal()), bucket.get(event));
+        }
+        initMinRt();
+        return this;
+    }
+
+    @Override
+    public MetricBucket reset() {
+        clearCounters();
+        initMinRt();
+        return this;
+    }
+
+    private void clearCounters() {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            for (int i = 0; i < EVENTS.length; i++) {
+                counters.set(indexOf(stripe, i), 0);
+            }
+        }
+    }
+
+    @Override
+    public long get(MetricEvent event) {
+        int ordinal = event.ordinal();
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            sum += counters.get(indexOf(stripe, ordinal));
+        }
+        return sum;
+    }
+
+    @Override
+    public MetricBucket add(MetricEvent event, long n) {
+        counters.getAndAdd(indexOf(currentStripe(), event.ordinal()), n);
+        return this;
+    }
+}
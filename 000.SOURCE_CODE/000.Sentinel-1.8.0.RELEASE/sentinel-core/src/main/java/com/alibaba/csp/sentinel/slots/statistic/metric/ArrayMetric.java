@@ -59,13 +59,7 @@ public class ArrayMetric implements Metric {
     @Override
     public long success() {
         data.currentWindow();
-        long success = 0;
-
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            success += window.success();
-        }
-        return success;
+        return data.sum(MetricBucket::success);
     }
 
     @Override
@@ -85,23 +79,13 @@ public class ArrayMetric implements Metric {
     @Override
     public long exception() {
         data.currentWindow();
-        long exception = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            exception += window.exception();
-        }
-        return exception;
+        return data.sum(MetricBucket::exception);
     }
 
     @Override
     public long block() {
         data.currentWindow();
-        long block = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            block += window.block();
-        }
-        return block;
+        return data.sum(MetricBucket::block);
     }
 
     /**
@@ -110,37 +94,20 @@ public class ArrayMetric implements Metric {
     @Override
     public long pass() {
         data.currentWindow();
-        long pass = 0;
-        // 获取有效的桶(有效的时间窗格)
-        List<MetricBucket> list = data.values();
-
-        for (MetricBucket window : list) {
-            // 统计通过的请求
-            pass += window.pass();
-        }
-        return pass;
+        // 统计有效的桶(有效的时间窗格)中通过的请求
+        return data.sum(MetricBucket::pass);
     }
 
     @Override
     public long occupiedPass() {
         data.currentWindow();
-        long pass = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            pass += window.occupiedPass();
-        }
-        return pass;
+        return data.sum(MetricBucket::occupiedPass);
     }
 
     @Override
     public long rt() {
         data.currentWindow();
-        long rt = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            rt += window.rt();
-        }
-        return rt;
+        return data.sum(MetricBucket::rt);
     }
 
     @Override
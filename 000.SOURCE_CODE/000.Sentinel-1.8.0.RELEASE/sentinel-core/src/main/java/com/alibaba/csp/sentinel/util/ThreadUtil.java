@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Util class of threads, which works on any JDK version since 1.8.
+ *
+ * @since 1.8.1
+ */
+public final class ThreadUtil {
+
+    /**
+     * {@code Thread#isVirtual()} since JDK 21, or null on prior versions.
+     */
+    private static final MethodHandle IS_VIRTUAL = resolveIsVirtual();
+
+    private static MethodHandle resolveIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the thread is a virtual thread.
+     *
+     * @param thread the thread to check
+     * @return true if the thread is a virtual thread, false if it's a platform thread or virtual threads
+     * are not supported by the JDK
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null || thread == null) {
+            return false;
+        }
+        try {
+            return (boolean)IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable ex) {
+            return false;
+        }
+    }
+
+    private ThreadUtil() {}
+}
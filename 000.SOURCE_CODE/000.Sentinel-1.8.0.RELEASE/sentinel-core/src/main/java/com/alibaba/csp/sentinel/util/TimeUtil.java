@@ -15,11 +15,25 @@
  */
 package com.alibaba.csp.sentinel.util;
 
-import java.util.concurrent.TimeUnit;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.clock.AdaptiveTickClock;
+import com.alibaba.csp.sentinel.util.clock.Clock;
+import com.alibaba.csp.sentinel.util.clock.MonotonicClock;
+import com.alibaba.csp.sentinel.util.clock.SystemClock;
 
 /**
  * Provides millisecond-level time of OS.(提供操作系统毫秒级别的时间)
  *
+ * <p>The time is provided by a {@link Clock}. A custom clock can be registered via SPI, otherwise the clock
+ * is built from the {@link SentinelConfig#CLOCK_SOURCE} config ({@code monotonic} by default, which is immune
+ * to wall clock steps, or {@code system} for the wall clock) and the {@link SentinelConfig#CLOCK_TICK_MODE} config
+ * ({@code adaptive} by default, {@code always} for the legacy 1ms tick thread, or {@code never}).</p>
+ *
+ * <p>The monotonic clock is anchored to the wall clock once at startup, so the window timestamps exported
+ * in metric logs stay comparable with the wall clock of other processes. Timestamps that leave the process
+ * and are not tied to statistic windows (e.g. heartbeats) should use {@link #wallClockMillis()}.</p>
+ *
  * <p>为什么要启动一个线程来记录系统当前时间?</p>
  * <pre>
  *     Sentinel 用于高并发系统
@@ -59,30 +73,57 @@ import java.util.concurrent.TimeUnit;
  */
 public final class TimeUtil {
 
-    private static volatile long currentTimeMillis;
+    /**
+     * Read rate (per second) to start / stop ticking in adaptive tick mode.
+     */
+    private static final long ENTER_TICKING_READ_RATE = 1000;
+    private static final long EXIT_TICKING_READ_RATE = 500;
 
-    static {
-        currentTimeMillis = System.currentTimeMillis();
-        Thread daemon = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    currentTimeMillis = System.currentTimeMillis();
-                    try {
-                        // sleep 1ms
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (Throwable e) {
+    private static final Clock clock = resolveClock();
 
-                    }
-                }
-            }
-        });
-        daemon.setDaemon(true);
-        daemon.setName("sentinel-time-tick-thread");
-        daemon.start();
+    private static Clock resolveClock() {
+        Clock customClock = SpiLoader.loadFirstInstance(Clock.class);
+        if (customClock != null) {
+            RecordLog.info("[TimeUtil] Custom clock resolved: " + customClock.getClass().getCanonicalName());
+            return customClock;
+        }
+        // Windows, pacing and timeouts must not break on wall clock steps, so stay monotonic unless told otherwise.
+        Clock source = SentinelConfig.CLOCK_SOURCE_SYSTEM.equalsIgnoreCase(
+            SentinelConfig.getConfig(SentinelConfig.CLOCK_SOURCE)) ? new SystemClock() : new MonotonicClock();
+        String tickMode = SentinelConfig.getConfig(SentinelConfig.CLOCK_TICK_MODE);
+        if (SentinelConfig.CLOCK_TICK_MODE_NEVER.equalsIgnoreCase(tickMode)) {
+            return source;
+        }
+        if (SentinelConfig.CLOCK_TICK_MODE_ALWAYS.equalsIgnoreCase(tickMode)) {
+            return new AdaptiveTickClock(source).start();
+        }
+        return new AdaptiveTickClock(source, ENTER_TICKING_READ_RATE, EXIT_TICKING_READ_RATE).start();
     }
 
     public static long currentTimeMillis() {
-        return currentTimeMillis;
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Get current time of the wall clock. Unlike {@link #currentTimeMillis()}, the time may step backwards or
+     * forwards, so it must only be used to stamp data that leaves the process, never for intervals.
+     *
+     * @return current wall clock time in milliseconds
+     * @since 1.8.1
+     */
+    public static long wallClockMillis() {
+        return System.currentTimeMillis();
     }
+
+    /**
+     * Get the clock that provides the time.
+     *
+     * @return the clock
+     * @since 1.8.1
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    private TimeUtil() {}
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
+
+/**
+ * <p>A {@link Clock} that caches the time of the source clock in a volatile field, which is refreshed
+ * every millisecond by a daemon tick thread, so that busy callers won't pay the cost of reading the
+ * source clock every time.</p>
+ *
+ * <p>When adaptive, the clock only ticks while it is read frequently. The read rate is measured every
+ * second: when it reaches {@code enterTickingRate} the tick thread starts refreshing the cached time,
+ * and when it drops below {@code exitTickingRate} the clock falls back to reading the source directly,
+ * while the tick thread only wakes up a few times per second to check the read rate. So idle
+ * applications won't burn 1000 wakeups per second.</p>
+ *
+ * <p>While ticking, reads are not counted one by one (which would put a shared write on every read),
+ * but by ticks: the first read after a tick flags it, so the read rate is measured as the amount of ticks
+ * with reads per second.</p>
+ *
+ * @since 1.8.1
+ */
+public class AdaptiveTickClock implements Clock {
+
+    private static final long TICK_INTERVAL_MS = 1;
+    private static final long IDLE_CHECK_INTERVAL_MS = 100;
+    private static final long RATE_INTERVAL_MS = 1000;
+
+    private final Clock source;
+    private final boolean adaptive;
+    private final long enterTickingRate;
+    private final long exitTickingRate;
+
+    private final LongAdder reads = new LongAdder();
+    /**
+     * Whether the clock is read since last tick, only written by the first read after a tick.
+     */
+    private volatile boolean readSinceTick;
+    /**
+     * Amount of ticks with reads, only accessed by the tick thread.
+     */
+    private long readTicks;
+
+    private volatile boolean ticking;
+    private volatile long cachedMillis;
+
+    /**
+     * Create a clock that always ticks.
+     *
+     * @param source the source clock
+     */
+    public AdaptiveTickClock(Clock source) {
+        this(source, false, 0, 0);
+    }
+
+    /**
+     * Create an adaptive tick clock.
+     *
+     * @param source           the source clock
+     * @param enterTickingRate the read rate (per second) to start ticking
+     * @param exitTickingRate  the read rate (per second) to stop ticking
+     */
+    public AdaptiveTickClock(Clock source, long enterTickingRate, long exitTickingRate) {
+        this(source, true, enterTickingRate, exitTickingRate);
+    }
+
+    private AdaptiveTickClock(Clock source, boolean adaptive, long enterTickingRate, long exitTickingRate) {
+        if (source == null) {
+            throw new IllegalArgumentException("source clock cannot be null");
+        }
+        if (adaptive && (exitTickingRate < 0 || exitTickingRate > enterTickingRate)) {
+            throw new IllegalArgumentException("should satisfy 0 <= exitTickingRate <= enterTickingRate");
+        }
+        this.source = source;
+        this.adaptive = adaptive;
+        this.enterTickingRate = enterTickingRate;
+        this.exitTickingRate = exitTickingRate;
+        this.cachedMillis = source.currentTimeMillis();
+        this.ticking = !adaptive;
+    }
+
+    /**
+     * Start the daemon tick thread.
+     *
+     * @return this clock
+     */
+    public AdaptiveTickClock start() {
+        Thread daemon = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runTickLoop();
+            }
+        });
+        daemon.setDaemon(true);
+        daemon.setName("sentinel-time-tick-thread");
+        daemon.start();
+        return this;
+    }
+
+    private void runTickLoop() {
+        long lastRateCheck = source.currentTimeMillis();
+        while (true) {
+            long now = source.currentTimeMillis();
+            if (ticking) {
+                tick(now);
+            }
+            if (adaptive && now - lastRateCheck >= RATE_INTERVAL_MS) {
+                updateState(readRateSince(now - lastRateCheck));
+                lastRateCheck = now;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(ticking ? TICK_INTERVAL_MS : IDLE_CHECK_INTERVAL_MS);
+            } catch (Throwable e) {
+                // Ignore.
+            }
+        }
+    }
+
+    void tick(long now) {
+        cachedMillis = now;
+        if (readSinceTick) {
+            readSinceTick = false;
+            readTicks++;
+        }
+    }
+
+    /**
+     * Get the read rate since last check, and reset the counters.
+     *
+     * @param elapsedMs time elapsed since last check
+     * @return reads (or ticks with reads when ticking) per second
+     */
+    long readRateSince(long elapsedMs) {
+        long count = reads.sumThenReset() + readTicks;
+        readTicks = 0;
+        return count * 1000 / elapsedMs;
+    }
+
+    /**
+     * Switch the ticking state according to the recent read rate.
+     *
+     * @param readsPerSecond recent read rate
+     */
+    void updateState(long readsPerSecond) {
+        if (!ticking && readsPerSecond >= enterTickingRate) {
+            // Refresh the cached time before publishing the state.
+            cachedMillis = source.currentTimeMillis();
+            ticking = true;
+        } else if (ticking && readsPerSecond < exitTickingRate) {
+            ticking = false;
+        }
+    }
+
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        if (ticking) {
+            if (adaptive && !readSinceTick) {
+                readSinceTick = true;
+            }
+            return cachedMillis;
+        }
+        if (adaptive) {
+            reads.increment();
+        }
+        return source.currentTimeMillis();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * <p>The millisecond-level time source of Sentinel, which backs
+ * {@link com.alibaba.csp.sentinel.util.TimeUtil#currentTimeMillis()} and thus all sliding
+ * window, traffic shaping and circuit breaking calculations.</p>
+ *
+ * <p>Custom implementations can be registered via SPI
+ * ({@code META-INF/services/com.alibaba.csp.sentinel.util.clock.Clock}). Implementations
+ * must be thread-safe and cheap to call, since the clock is read several times per entry.</p>
+ *
+ * @since 1.8.1
+ */
+public interface Clock {
+
+    /**
+     * Get current time in milliseconds.
+     *
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis();
+}
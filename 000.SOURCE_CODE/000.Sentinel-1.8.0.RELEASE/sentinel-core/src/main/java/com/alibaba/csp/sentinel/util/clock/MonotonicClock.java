@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A monotonic {@link Clock} based on {@link System#nanoTime()}. The time is anchored to the wall clock
+ * when the clock is created, and then only advances by the elapsed monotonic time, so wall clock steps
+ * (e.g. adjusted by NTP) won't corrupt time window calculations.</p>
+ *
+ * <p>As the time won't follow later wall clock adjustments, it may slowly drift from the wall clock
+ * during a long run.</p>
+ *
+ * @since 1.8.1
+ */
+public class MonotonicClock implements Clock {
+
+    private final long baseMillis;
+    private final long baseNanos;
+
+    public MonotonicClock() {
+        this.baseMillis = System.currentTimeMillis();
+        this.baseNanos = System.nanoTime();
+    }
+
+    MonotonicClock(long baseMillis, long baseNanos) {
+        this.baseMillis = baseMillis;
+        this.baseNanos = baseNanos;
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return baseMillis + TimeUnit.NANOSECONDS.toMillis(nanoTime() - baseNanos);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link SphU#asyncEntryWithPacing(String, int, EntryType, int, Object[])}.
+ */
+public class AsyncEntryPacingTest {
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        ContextUtil.exit();
+    }
+
+    @Test
+    public void testPacingDeferredToCaller() throws BlockException {
+        String resource = "testPacingDeferredToCaller";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(250)));
+
+        long start = TimeUtil.currentTimeMillis();
+        AsyncEntry entry1 = asyncEntryWithPacing(resource);
+        AsyncEntry entry2 = asyncEntryWithPacing(resource);
+        AsyncEntry entry3 = asyncEntryWithPacing(resource);
+        try {
+            asyncEntryWithPacing(resource);
+            fail("The request should be blocked when the queueing time exceeds the max");
+        } catch (FlowException ex) {
+            // Expected.
+        }
+        // Current thread is not blocked.
+        assertTrue(TimeUtil.currentTimeMillis() - start < 100);
+        assertEquals(0, entry1.getPacingDelayMs());
+        assertTrue(entry2.getPacingDelayMs() > 0 && entry2.getPacingDelayMs() <= 100);
+        assertTrue(entry3.getPacingDelayMs() > entry2.getPacingDelayMs());
+        entry1.exit();
+        entry2.exit();
+        entry3.exit();
+    }
+
+    @Test
+    public void testPacingOfOtherEntries() throws BlockException {
+        String resource = "testPacingOfOtherEntries";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(500)));
+
+        long start = TimeUtil.currentTimeMillis();
+        AsyncEntry entry = SphU.asyncEntry(resource);
+        entry.exit();
+        entry = SphU.asyncEntry(resource);
+        // Plain async entries still wait in current thread.
+        assertTrue(TimeUtil.currentTimeMillis() - start >= 50);
+        assertFalse(entry.isPacingDeferred());
+        assertEquals(0, entry.getPacingDelayMs());
+        entry.exit();
+    }
+
+    @Test
+    public void testDefaultPacingOfOtherSph() throws BlockException {
+        Sph sph = mock(Sph.class);
+        AsyncEntry entry = mock(AsyncEntry.class);
+        Object[] args = new Object[0];
+        when(sph.asyncEntryWithType("abc", ResourceTypeConstants.COMMON, EntryType.OUT, 2, false, args))
+            .thenReturn(entry);
+        when(sph.asyncEntryWithPacing(anyString(), anyInt(), any(EntryType.class), anyInt(), any(Object[].class)))
+            .thenCallRealMethod();
+
+        // Implementations without non-blocking pacing fall back to async entries which wait in current thread.
+        assertSame(entry, sph.asyncEntryWithPacing("abc", ResourceTypeConstants.COMMON, EntryType.OUT, 2, args));
+    }
+
+    private static AsyncEntry asyncEntryWithPacing(String resource) throws BlockException {
+        return SphU.asyncEntryWithPacing(resource, ResourceTypeConstants.COMMON, EntryType.OUT, 1, new Object[0]);
+    }
+}
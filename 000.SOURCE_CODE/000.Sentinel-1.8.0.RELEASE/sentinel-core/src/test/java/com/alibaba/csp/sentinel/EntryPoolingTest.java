@@ -0,0 +1,218 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for recycling of entries ({@code csp.sentinel.entry.pooling}).
+ */
+public class EntryPoolingTest {
+
+    @Before
+    public void setUp() {
+        CtSph.setEntryPooling(true);
+    }
+
+    @After
+    public void tearDown() {
+        CtSph.setEntryPooling(false);
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testRecycleEntryAndDefaultContext() throws BlockException {
+        String resource = "testRecycleEntryAndDefaultContext";
+        Entry entry = SphU.entry(resource);
+        Context context = ContextUtil.getContext();
+        assertTrue(ContextUtil.isDefaultContext(context));
+        assertSame(entry, context.getCurEntry());
+        entry.exit();
+        assertNull(ContextUtil.getContext());
+        assertNull(entry.getResourceWrapper());
+
+        try (Entry next = SphU.entry(resource)) {
+            assertSame(entry, next);
+            assertEquals(resource, next.getResourceWrapper().getName());
+            assertNotNull(next.getCurNode());
+            assertNull(next.getBlockError());
+            // The default context is reused with a clean state.
+            assertSame(context, ContextUtil.getContext());
+            assertSame(next, context.getCurEntry());
+            assertEquals("", context.getOrigin());
+        }
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testCacheResourceWrapper() throws BlockException {
+        String resource = "testCacheResourceWrapper";
+        Entry entry = SphU.entry(resource);
+        Object wrapper = entry.getResourceWrapper();
+        entry.exit();
+
+        try (Entry next = SphU.entry(resource)) {
+            assertSame(wrapper, next.getResourceWrapper());
+        }
+        try (Entry next = SphU.entry(resource, EntryType.IN)) {
+            assertNotSame(wrapper, next.getResourceWrapper());
+            assertEquals(EntryType.IN, next.getResourceWrapper().getEntryType());
+        }
+    }
+
+    @Test
+    public void testNestedEntries() throws BlockException {
+        String outerResource = "testNestedEntriesOuter";
+        String innerResource = "testNestedEntriesInner";
+        for (int i = 0; i < 3; i++) {
+            try (Entry outer = SphU.entry(outerResource)) {
+                try (Entry inner = SphU.entry(innerResource)) {
+                    assertNotSame(outer, inner);
+                    assertSame(outer, ((CtEntry) inner).parent);
+                    assertSame(inner, ((CtEntry) outer).child);
+                    assertEquals(outerResource, outer.getResourceWrapper().getName());
+                    assertEquals(innerResource, inner.getResourceWrapper().getName());
+                }
+                assertSame(outer, ContextUtil.getContext().getCurEntry());
+                assertNull(((CtEntry) outer).child);
+            }
+            assertNull(ContextUtil.getContext());
+        }
+        assertEquals(3, ClusterBuilderSlot.getClusterNode(innerResource).totalSuccess());
+        assertEquals(3, ClusterBuilderSlot.getClusterNode(outerResource).totalSuccess());
+    }
+
+    @Test
+    public void testRecycleBlockedEntry() throws BlockException {
+        String resource = "testRecycleBlockedEntry";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(0)));
+        try {
+            SphU.entry(resource);
+            fail("Should be blocked");
+        } catch (BlockException ex) {
+            assertNull(ContextUtil.getContext());
+        }
+
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        try (Entry entry = SphU.entry(resource)) {
+            // The recycled entry does not keep the block error of the previous invocation.
+            assertNull(entry.getBlockError());
+            assertEquals(1, entry.getCurNode().curThreadNum());
+        }
+
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resource);
+        assertEquals(1, node.blockRequest());
+        assertEquals(1, node.totalPass());
+        assertEquals(1, node.totalSuccess());
+        assertEquals(0, node.curThreadNum());
+    }
+
+    @Test
+    public void testExitNotMatchCurEntry() throws BlockException {
+        Entry outer = SphU.entry("testExitNotMatchCurEntryOuter");
+        SphU.entry("testExitNotMatchCurEntryInner");
+        try {
+            // Forget to exit the inner entry.
+            outer.exit();
+            fail("Mismatch entry-exit should throw an ErrorEntryFreeException");
+        } catch (ErrorEntryFreeException ex) {
+            // Both entries are exited.
+            assertNull(ContextUtil.getContext());
+            assertEquals(0, ClusterBuilderSlot.getClusterNode("testExitNotMatchCurEntryOuter").curThreadNum());
+            assertEquals(0, ClusterBuilderSlot.getClusterNode("testExitNotMatchCurEntryInner").curThreadNum());
+        }
+    }
+
+    @Test
+    public void testAsyncEntryNotRecycled() throws BlockException {
+        String resource = "testAsyncEntryNotRecycled";
+        AsyncEntry asyncEntry = SphU.asyncEntry(resource);
+        asyncEntry.exit();
+        assertEquals(resource, asyncEntry.getResourceWrapper().getName());
+
+        try (Entry entry = SphU.entry(resource)) {
+            assertNotSame(asyncEntry, entry);
+        }
+    }
+
+    @Test
+    public void testEntryExitedInOtherThreadNotRecycled() throws Exception {
+        final Entry entry = SphU.entry("testEntryExitedInOtherThreadNotRecycled");
+        int pooled = EntryPool.current().size();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                entry.exit();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNull(entry.getResourceWrapper());
+        assertEquals(pooled, EntryPool.current().size());
+        // The default context of current thread is left with no entry.
+        assertNull(ContextUtil.getContext().getCurEntry());
+        ContextUtil.exit();
+    }
+
+    @Test
+    public void testNoPoolInVirtualThread() throws Exception {
+        Method startVirtualThread = null;
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException ex) {
+            // Virtual threads are not supported by current JDK.
+        }
+        Assume.assumeNotNull(startVirtualThread);
+
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = (Thread)startVirtualThread.invoke(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    assertNull(EntryPool.current());
+                    Entry entry = SphU.entry("testNoPoolInVirtualThread");
+                    entry.exit();
+                    // The entry is not recycled.
+                    assertNotNull(entry.getResourceWrapper());
+                    assertNull(ContextUtil.getContext());
+                } catch (Throwable ex) {
+                    error.set(ex);
+                }
+            }
+        });
+        thread.join();
+        assertNull(error.get());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for lazy minute-level statistics and second-level statistics shared with the cluster node.
+ */
+public class NodeStatisticModeTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_MINUTE_LAZY);
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_DEFAULT_NODE_SHARED);
+    }
+
+    @Test
+    public void testLazyMinuteStatistic() {
+        setCurrentMillis(10000);
+        StatisticNode node = new StatisticNode();
+        node.addPassRequest(2);
+        node.addRtAndSuccess(10, 2);
+        assertFalse(node.hasMinuteStatistic());
+        // Second-level statistics are always kept.
+        assertEquals(2, node.passQps(), 0.01);
+        assertFalse(node.hasMinuteStatistic());
+
+        // Created at the first read, and only counts the events since then.
+        assertEquals(0, node.totalRequest());
+        assertTrue(node.hasMinuteStatistic());
+        node.addPassRequest(3);
+        node.increaseBlockQps(1);
+        assertEquals(4, node.totalRequest());
+        assertEquals(1, node.blockRequest());
+        assertEquals(5, node.passQps(), 0.01);
+
+        sleep(1000);
+        assertEquals(3, node.previousPassQps(), 0.01);
+    }
+
+    @Test
+    public void testConcurrentLazyMinuteStatistic() throws Exception {
+        setCurrentMillis(10000);
+        final StatisticNode node = new StatisticNode();
+        final int threadCount = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        // Racing to create the statistics, all threads count in the published one.
+                        node.totalRequest();
+                        node.addPassRequest(1);
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(threadCount, node.totalRequest());
+    }
+
+    @Test
+    public void testEagerMinuteStatistic() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_MINUTE_LAZY, "false");
+        StatisticNode node = new StatisticNode();
+        assertTrue(node.hasMinuteStatistic());
+        node.addPassRequest(2);
+        assertEquals(2, node.totalPass());
+    }
+
+    @Test
+    public void testClusterNodeAlwaysEager() {
+        ClusterNode clusterNode = new ClusterNode("testClusterNodeAlwaysEager");
+        assertTrue(clusterNode.hasMinuteStatistic());
+        Node originNode = clusterNode.getOrCreateOriginNode("origin");
+        assertFalse(((StatisticNode)originNode).hasMinuteStatistic());
+    }
+
+    @Test
+    public void testDefaultNodeSharedSecondStatistic() {
+        setCurrentMillis(10000);
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_DEFAULT_NODE_SHARED, "true");
+        ClusterNode clusterNode = new ClusterNode("testDefaultNodeSharedSecondStatistic");
+        DefaultNode node1 = new DefaultNode(new StringResourceWrapper("res", EntryType.IN), null);
+        DefaultNode node2 = new DefaultNode(new StringResourceWrapper("res", EntryType.IN), null);
+        // Before the cluster node is set.
+        assertEquals(0, node1.passQps(), 0.01);
+        node1.setClusterNode(clusterNode);
+        node2.setClusterNode(clusterNode);
+
+        node1.addPassRequest(2);
+        node2.addPassRequest(3);
+        node1.addRtAndSuccess(20, 2);
+        // Not counted twice in the cluster node.
+        assertEquals(5, clusterNode.passQps(), 0.01);
+        // Nodes in each context read statistics of the cluster node.
+        assertEquals(5, node1.passQps(), 0.01);
+        assertEquals(5, node2.passQps(), 0.01);
+        assertEquals(10, node2.avgRt(), 0.01);
+        // Thread count and minute-level statistics are still kept per context.
+        node1.increaseThreadNum();
+        assertEquals(1, node1.curThreadNum());
+        assertEquals(0, node2.curThreadNum());
+        assertEquals(0, node1.totalRequest());
+        node1.addPassRequest(1);
+        assertEquals(1, node1.totalRequest());
+        assertEquals(6, clusterNode.totalRequest());
+    }
+
+    @Test
+    public void testEntranceNodeNotShared() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_DEFAULT_NODE_SHARED, "true");
+        EntranceNode entranceNode = new EntranceNode(new StringResourceWrapper("entrance", EntryType.IN), null);
+        DefaultNode child = new DefaultNode(new StringResourceWrapper("res", EntryType.IN),
+            new ClusterNode("testEntranceNodeNotShared"));
+        entranceNode.addChild(child);
+        child.addPassRequest(1);
+        assertEquals(1, entranceNode.passQps(), 0.01);
+    }
+}
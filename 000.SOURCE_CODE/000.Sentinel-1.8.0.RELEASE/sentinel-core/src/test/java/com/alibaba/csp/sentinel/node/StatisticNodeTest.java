@@ -73,7 +73,8 @@ public class StatisticNodeTest {
         int taskCount = 30;
         int taskBizExecuteCount = 10;
 
-        StatisticNode node = new StatisticNode();
+        // Keep minute-level statistics from the start, as the first read of totalRequest() happens after requests.
+        StatisticNode node = new StatisticNode(true, true);
 
         ExecutorService bizEs = Executors.newFixedThreadPool(THREAD_COUNT);
         ExecutorService tickEs = Executors.newSingleThreadExecutor();
@@ -0,0 +1,210 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MappedMetricWriter} and {@link MappedMetricSearcher}.
+ */
+public class MappedMetricSearcherTest {
+
+    private static final long BASE_TIME = 1600000000000L;
+
+    private File baseDir;
+    private String baseFileName;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("sentinel-metric-test").toFile();
+        baseFileName = MappedMetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                MappedMetricSegment.release(file.getAbsolutePath());
+                file.delete();
+            }
+        }
+        baseDir.delete();
+    }
+
+    private static List<MetricNode> nodes(int resourceCount, long pass) {
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("res-" + i);
+            node.setPassQps(pass);
+            node.setBlockQps(i);
+            node.setRt(7);
+            node.setConcurrency(3);
+            node.setClassification(1);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testWriteAndFind() throws Exception {
+        MappedMetricWriter writer = new MappedMetricWriter(baseDir.getAbsolutePath(), 1024 * 1024, 6);
+        for (int s = 0; s < 10; s++) {
+            writer.write(BASE_TIME + s * 1000, nodes(5, s));
+        }
+        // Earlier seconds are ignored.
+        writer.write(BASE_TIME, nodes(5, 100));
+        MappedMetricSearcher searcher = new MappedMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+
+        List<MetricNode> list = searcher.find(BASE_TIME + 3000, 7);
+        // Metrics of the same second are not split.
+        assertEquals(10, list.size());
+        assertEquals(BASE_TIME + 3000, list.get(0).getTimestamp());
+        assertEquals(BASE_TIME + 4000, list.get(9).getTimestamp());
+        MetricNode node = list.get(6);
+        assertEquals("res-1", node.getResource());
+        assertEquals(4, node.getPassQps());
+        assertEquals(1, node.getBlockQps());
+        assertEquals(7, node.getRt());
+        assertEquals(3, node.getConcurrency());
+        assertEquals(1, node.getClassification());
+        assertNull(searcher.find(BASE_TIME + 10000, 10));
+
+        list = searcher.findByTimeAndResource(BASE_TIME + 2500, BASE_TIME + 5999, null);
+        assertEquals(20, list.size());
+        list = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 9999, "res-3");
+        assertEquals(10, list.size());
+        for (int s = 0; s < 10; s++) {
+            assertEquals("res-3", list.get(s).getResource());
+            assertEquals(s, list.get(s).getPassQps());
+        }
+        assertTrue(searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 9999, "absent").isEmpty());
+        writer.close();
+    }
+
+    @Test
+    public void testRollAndRemoveSegments() throws Exception {
+        int totalFileCount = 3;
+        MappedMetricWriter writer = new MappedMetricWriter(baseDir.getAbsolutePath(),
+            MappedMetricSegment.MIN_FILE_SIZE, totalFileCount);
+        int seconds = 600;
+        for (int s = 0; s < seconds; s++) {
+            writer.write(BASE_TIME + s * 1000, nodes(10, s));
+        }
+        List<String> files = MetricWriter.listMetricFiles(baseDir.getAbsolutePath(), baseFileName);
+        assertEquals(totalFileCount, files.size());
+
+        MappedMetricSearcher searcher = new MappedMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+        List<MetricNode> list = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000, "res-9");
+        // Older segments are removed, while the remaining seconds are continuous across segments.
+        assertFalse(list.isEmpty());
+        assertTrue(list.size() < seconds);
+        long first = list.get(0).getPassQps();
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(first + i, list.get(i).getPassQps());
+        }
+        assertEquals(seconds - 1, list.get(list.size() - 1).getPassQps());
+
+        list = searcher.find(BASE_TIME + (seconds - 3) * 1000, 1);
+        assertEquals(10, list.size());
+        writer.close();
+    }
+
+    @Test
+    public void testExportText() throws Exception {
+        MappedMetricWriter writer = new MappedMetricWriter(baseDir.getAbsolutePath(), 1024 * 1024, 6);
+        for (int s = 0; s < 3; s++) {
+            writer.write(BASE_TIME + s * 1000, nodes(2, s));
+        }
+        MappedMetricSearcher searcher = new MappedMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(6, searcher.exportText(BASE_TIME, BASE_TIME + 2000, null, out));
+        String[] lines = new String(out.toByteArray(), SentinelConfig.charset()).split("\n");
+        assertEquals(6, lines.length);
+        MetricNode node = MetricNode.fromFatString(lines[5]);
+        assertEquals("res-1", node.getResource());
+        assertEquals(BASE_TIME + 2000, node.getTimestamp());
+        assertEquals(2, node.getPassQps());
+        writer.close();
+    }
+
+    @Test
+    public void testConcurrentReadWhileWriting() throws Exception {
+        final MappedMetricWriter writer = new MappedMetricWriter(baseDir.getAbsolutePath(),
+            MappedMetricSegment.MIN_FILE_SIZE, 100);
+        final int seconds = 300;
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int s = 0; s < seconds; s++) {
+                        writer.write(BASE_TIME + s * 1000, nodes(20, s));
+                    }
+                } catch (Throwable ex) {
+                    error.set(ex);
+                }
+            }
+        });
+        writerThread.start();
+        MappedMetricSearcher searcher = new MappedMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+        while (writerThread.isAlive()) {
+            List<MetricNode> list = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000, null);
+            if (list == null) {
+                continue;
+            }
+            // Only the last second may be read while being written, and the others are complete.
+            assertPartialOnlyInLastSecond(list, 20);
+            for (int i = 0; i < list.size(); i++) {
+                MetricNode node = list.get(i);
+                assertEquals("res-" + (i % 20), node.getResource());
+                assertEquals(i / 20, node.getPassQps());
+            }
+            list = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000, "res-7");
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals("res-7", list.get(i).getResource());
+                assertEquals(i, list.get(i).getPassQps());
+            }
+        }
+        writerThread.join();
+        assertNull(error.get());
+        assertEquals(seconds * 20,
+            searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000, null).size());
+        writer.close();
+    }
+
+    private static void assertPartialOnlyInLastSecond(List<MetricNode> list, int resourceCount) {
+        long lastSecond = list.get(list.size() - 1).getTimestamp();
+        for (int i = list.size() - list.size() % resourceCount; i < list.size(); i++) {
+            assertEquals(lastSecond, list.get(i).getTimestamp());
+        }
+    }
+}
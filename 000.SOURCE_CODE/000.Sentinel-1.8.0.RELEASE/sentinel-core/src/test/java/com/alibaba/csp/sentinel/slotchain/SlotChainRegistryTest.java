@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SlotChainRegistryTest {
+
+    @Test
+    public void testGetOrCreate() {
+        SlotChainRegistry registry = new SlotChainRegistry(10);
+        ResourceWrapper r1 = new StringResourceWrapper("abc", EntryType.IN);
+        assertNull(registry.get(r1));
+
+        ProcessorSlotChain chain = registry.getOrCreate(r1);
+        assertNotNull(chain);
+        assertSame(chain, registry.getOrCreate(new StringResourceWrapper("abc", EntryType.OUT)));
+        assertSame(chain, registry.get(r1));
+        assertEquals(1, registry.size());
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertNull(registry.get(r1));
+    }
+
+    @Test
+    public void testMaxSize() {
+        int maxSize = 5;
+        SlotChainRegistry registry = new SlotChainRegistry(maxSize);
+        for (int i = 0; i < maxSize; i++) {
+            assertNotNull(registry.getOrCreate(new StringResourceWrapper("res-" + i, EntryType.IN)));
+        }
+        assertNull(registry.getOrCreate(new StringResourceWrapper("res-overflow", EntryType.IN)));
+        assertEquals(maxSize, registry.size());
+        // Existing resources are still available.
+        assertNotNull(registry.getOrCreate(new StringResourceWrapper("res-0", EntryType.IN)));
+    }
+
+    @Test
+    public void testConcurrentGetOrCreateSameResource() throws Exception {
+        final SlotChainRegistry registry = new SlotChainRegistry(100);
+        final ResourceWrapper resource = new StringResourceWrapper("concurrent-res", EntryType.IN);
+        final Set<ProcessorSlotChain> chains = ConcurrentHashMap.newKeySet();
+        int threadCount = 16;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        chains.add(registry.getOrCreate(resource));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            });
+        }
+        startLatch.countDown();
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertEquals(1, chains.size());
+        assertEquals(1, registry.size());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RuleCheckPlanTest {
+
+    private static final FlowRule[] EMPTY_RULES = new FlowRule[0];
+
+    @Test
+    public void testCompileEmptyRules() {
+        assertNull(RuleCheckPlan.compile("abc", 1, null, EMPTY_RULES).getChecks());
+        assertNull(RuleCheckPlan.compile("abc", 1, new ArrayList<FlowRule>(), EMPTY_RULES).getChecks());
+        assertNull(new RuleCheckPlan<FlowRule>("abc", 1, EMPTY_RULES).getChecks());
+    }
+
+    @Test
+    public void testCompileRules() {
+        FlowRule rule1 = new FlowRule("abc").setCount(1);
+        FlowRule rule2 = new FlowRule("abc").setCount(2);
+        RuleCheckPlan<FlowRule> plan = RuleCheckPlan.compile("abc", 3, Arrays.asList(rule1, rule2), EMPTY_RULES);
+
+        assertArrayEquals(new FlowRule[] {rule1, rule2}, plan.getChecks());
+        assertTrue(plan.isCompiledFor("abc", 3));
+        assertFalse(plan.isCompiledFor("abc", 4));
+        assertFalse(plan.isCompiledFor("abd", 3));
+    }
+}
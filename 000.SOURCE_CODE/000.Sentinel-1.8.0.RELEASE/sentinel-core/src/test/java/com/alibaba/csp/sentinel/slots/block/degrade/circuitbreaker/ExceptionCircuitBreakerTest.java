@@ -15,11 +15,13 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -29,6 +31,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker.State;
 import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
 
 /**
@@ -82,4 +85,47 @@ public class ExceptionCircuitBreakerTest extends AbstractTimeBasedTest {
         assertTrue(entryWithErrorIfPresent(resource, new IllegalArgumentException()));
         assertTrue(entryAndSleepFor(resource, 100));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testKeepOpenAcrossReloads() {
+        String resource = "testKeepOpenAcrossReloads";
+        int retryTimeoutMillis = 10 * 1000;
+        DegradeRuleManager.loadRules(Arrays.asList(exceptionCountRule(resource, 1, retryTimeoutMillis / 1000)));
+
+        assertTrue(entryWithErrorIfPresent(resource, new IllegalArgumentException()));
+        assertTrue(entryWithErrorIfPresent(resource, new IllegalArgumentException())); // -> open
+        assertFalse(entryAndSleepFor(resource, 100));
+
+        // Only the threshold is changed, so the circuit breaker remains open until the previous retry timestamp.
+        final List<State> transitions = new ArrayList<>();
+        EventObserverRegistry.getInstance().addStateChangeObserver(resource,
+            (prevState, newState, rule, snapshotValue) -> {
+                if (rule.getCount() == 5) {
+                    transitions.add(prevState);
+                    transitions.add(newState);
+                }
+            });
+        try {
+            DegradeRuleManager.loadRules(Arrays.asList(exceptionCountRule(resource, 5, retryTimeoutMillis / 1000)));
+        } finally {
+            EventObserverRegistry.getInstance().removeStateChangeObserver(resource);
+        }
+        // Observers are notified of the new circuit breaker being open.
+        assertEquals(Arrays.asList(State.CLOSED, State.OPEN), transitions);
+        assertFalse(entryAndSleepFor(resource, 100));
+        sleep(retryTimeoutMillis / 2);
+        assertFalse(entryAndSleepFor(resource, 100));
+        sleep(retryTimeoutMillis / 2);
+        assertTrue(entryAndSleepFor(resource, 100)); // -> half -> closed
+        assertTrue(entryAndSleepFor(resource, 100));
+    }
+
+    private static DegradeRule exceptionCountRule(String resource, double count, int timeWindow) {
+        return new DegradeRule(resource)
+            .setCount(count)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setStatIntervalMs(20 * 1000)
+            .setTimeWindow(timeWindow)
+            .setMinRequestAmount(1);
+    }
+}
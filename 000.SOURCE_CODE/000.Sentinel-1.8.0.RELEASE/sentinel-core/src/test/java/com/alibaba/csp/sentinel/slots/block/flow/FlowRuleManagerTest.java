@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link FlowRuleManager}.
+ */
+public class FlowRuleManagerTest {
+
+    @Before
+    public void setUp() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testLoadSameRuleUseSameController() {
+        String resource = "testLoadSameRuleUseSameController";
+        FlowRuleManager.loadRules(Arrays.asList(warmUpRule(resource, 100), warmUpRule("abc", 10)));
+        TrafficShapingController controller = FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater();
+        List<FlowRule> abcRules = FlowRuleManager.getFlowRuleMap().get("abc");
+
+        // New rule objects equal to current rules, while rules of another resource are changed.
+        FlowRuleManager.loadRules(Arrays.asList(warmUpRule(resource, 100), warmUpRule("abc", 20)));
+        assertSame(controller, FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater());
+        assertNotSame(abcRules, FlowRuleManager.getFlowRuleMap().get("abc"));
+        assertEquals(20, FlowRuleManager.getFlowRuleMap().get("abc").get(0).getCount(), 0.01);
+
+        FlowRuleManager.loadRules(Arrays.asList(warmUpRule(resource, 200)));
+        assertNotSame(controller, FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater());
+        assertFalse(FlowRuleManager.hasConfig("abc"));
+    }
+
+    private static FlowRule warmUpRule(String resource, double count) {
+        return new FlowRule(resource).setCount(count)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP)
+            .setWarmUpPeriodSec(10);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for the state of traffic shaping controllers across reloading of flow rules.
+ */
+public class FlowRuleReloadTest extends AbstractTimeBasedTest {
+
+    @Before
+    public void setUp() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testRateLimiterNoBurstAcrossReloads() {
+        String resource = "testRateLimiterNoBurstAcrossReloads";
+        Node node = mock(Node.class);
+        setCurrentMillis(System.currentTimeMillis());
+
+        int passed = 0;
+        for (int i = 0; i < 10; i++) {
+            // Reload with a changed threshold under continuous traffic.
+            FlowRuleManager.loadRules(Collections.singletonList(rateLimiterRule(resource, i % 2 == 0 ? 10 : 20)));
+            for (int j = 0; j < 5; j++) {
+                if (currentRater(resource).canPass(node, 1)) {
+                    passed++;
+                }
+            }
+        }
+        // All requests arrive at the same time, so the pacing should let only one pass.
+        assertEquals(1, passed);
+
+        sleep(100);
+        assertTrue(currentRater(resource).canPass(node, 1));
+        assertFalse(currentRater(resource).canPass(node, 1));
+    }
+
+    @Test
+    public void testWarmUpKeepWarmStateAcrossReloads() {
+        String resource = "testWarmUpKeepWarmStateAcrossReloads";
+        Node node = mock(Node.class);
+        setCurrentMillis(System.currentTimeMillis());
+        FlowRuleManager.loadRules(Collections.singletonList(warmUpRule(resource, 10)));
+        TrafficShapingController controller = currentRater(resource);
+
+        // Warm up the controller.
+        when(node.passQps()).thenReturn(1d);
+        when(node.previousPassQps()).thenReturn(10d);
+        for (int i = 0; i < 100; i++) {
+            sleep(100);
+            controller.canPass(node, 1);
+        }
+        when(node.passQps()).thenReturn(9d);
+        assertTrue(controller.canPass(node, 1));
+
+        FlowRuleManager.loadRules(Collections.singletonList(warmUpRule(resource, 12)));
+        assertNotSame(controller, currentRater(resource));
+        // A cold controller would only allow count / coldFactor = 4 QPS.
+        assertFalse(new WarmUpController(12, 10, 3).canPass(node, 1));
+        assertTrue(currentRater(resource).canPass(node, 1));
+        when(node.passQps()).thenReturn(11d);
+        assertTrue(currentRater(resource).canPass(node, 1));
+        when(node.passQps()).thenReturn(12d);
+        assertFalse(currentRater(resource).canPass(node, 1));
+    }
+
+    @Test
+    public void testFindPreviousOfChangedRule() {
+        String resource = "testFindPreviousOfChangedRule";
+        FlowRuleManager.loadRules(Arrays.asList(warmUpRule(resource, 10), warmUpRule(resource, 20)));
+        List<FlowRule> currentRules = FlowRuleManager.getFlowRuleMap().get(resource);
+        FlowRule previous10 = currentRules.get(currentRules.get(0).getCount() == 10 ? 0 : 1);
+
+        // The other rule is unchanged, so the changed one must come from the rule with threshold 10.
+        FlowRule changed = warmUpRule(resource, 12);
+        assertSame(previous10, FlowRuleUtil.findPreviousOfChangedRule(changed,
+            Arrays.asList(changed, warmUpRule(resource, 20)), currentRules));
+        // Both rules are changed, so it's unknown which one each rule comes from.
+        assertNull(FlowRuleUtil.findPreviousOfChangedRule(changed,
+            Arrays.asList(changed, warmUpRule(resource, 22)), currentRules));
+
+        FlowRuleManager.loadRules(Collections.singletonList(warmUpRule(resource, 10)));
+        currentRules = FlowRuleManager.getFlowRuleMap().get(resource);
+        assertSame(currentRules.get(0), FlowRuleUtil.findPreviousOfChangedRule(changed,
+            Collections.singletonList(changed), currentRules));
+        // A rule is split into several ones.
+        assertNull(FlowRuleUtil.findPreviousOfChangedRule(changed,
+            Arrays.asList(changed, warmUpRule(resource, 14)), currentRules));
+    }
+
+    @Test
+    public void testIsSameRuleIdentity() {
+        FlowRule rule = warmUpRule("abc", 10);
+        assertTrue(FlowRuleUtil.isSameRuleIdentity(rule, warmUpRule("abc", 20).setWarmUpPeriodSec(5)));
+        assertFalse(FlowRuleUtil.isSameRuleIdentity(rule, warmUpRule("abd", 10)));
+        assertFalse(FlowRuleUtil.isSameRuleIdentity(rule, (FlowRule)warmUpRule("abc", 10).setLimitApp("app")));
+        assertFalse(FlowRuleUtil.isSameRuleIdentity(rule, warmUpRule("abc", 10)
+            .setStrategy(RuleConstant.STRATEGY_RELATE).setRefResource("def")));
+        assertFalse(FlowRuleUtil.isSameRuleIdentity(rule, warmUpRule("abc", 10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)));
+    }
+
+    private static TrafficShapingController currentRater(String resource) {
+        return FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater();
+    }
+
+    private static FlowRule rateLimiterRule(String resource, double count) {
+        return new FlowRule(resource).setCount(count)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(1);
+    }
+
+    private static FlowRule warmUpRule(String resource, double count) {
+        return new FlowRule(resource).setCount(count)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP)
+            .setWarmUpPeriodSec(10);
+    }
+}
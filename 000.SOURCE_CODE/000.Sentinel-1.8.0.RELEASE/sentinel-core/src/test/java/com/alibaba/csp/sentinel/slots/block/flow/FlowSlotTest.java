@@ -23,7 +23,7 @@ import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
-import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 
 import org.junit.After;
 import org.junit.Before;
@@ -56,7 +56,7 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
+        doCallRealMethod().when(checker).checkFlow(any(RuleCheckPlan.class), any(Context.class),
             any(DefaultNode.class), anyInt(), anyBoolean());
 
         String resA = "resAK";
@@ -82,7 +82,7 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
+        doCallRealMethod().when(checker).checkFlow(any(RuleCheckPlan.class), any(Context.class),
             any(DefaultNode.class), anyInt(), anyBoolean());
 
         String resA = "resAK";
@@ -94,4 +94,38 @@ public class FlowSlotTest {
 
         flowSlot.checkFlow(new StringResourceWrapper(resA, EntryType.IN), context, node, 1, false);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCheckFlowAfterReloadingRules() throws Exception {
+        FlowRuleChecker checker = mock(FlowRuleChecker.class);
+        FlowSlot flowSlot = new FlowSlot(checker);
+        Context context = mock(Context.class);
+        DefaultNode node = mock(DefaultNode.class);
+        doCallRealMethod().when(checker).checkFlow(any(RuleCheckPlan.class), any(Context.class),
+            any(DefaultNode.class), anyInt(), anyBoolean());
+        when(checker.canPassCheck(any(FlowRule.class), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
+            .thenReturn(false);
+
+        String resA = "resAK";
+        ResourceWrapper resource = new StringResourceWrapper(resA, EntryType.IN);
+        // No rules, so the checker is not involved.
+        flowSlot.checkFlow(resource, context, node, 1, false);
+        verify(checker, never()).canPassCheck(any(FlowRule.class), any(Context.class), any(DefaultNode.class),
+            anyInt(), anyBoolean());
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resA).setCount(10)));
+        try {
+            flowSlot.checkFlow(resource, context, node, 1, false);
+            fail("The new rule should be applied");
+        } catch (FlowException ex) {
+            assertEquals(resA, ex.getRule().getResource());
+        }
+
+        // Another resource with the same slot should not get the rules of resA.
+        flowSlot.checkFlow(new StringResourceWrapper("resBK", EntryType.IN), context, node, 1, false);
+
+        FlowRuleManager.loadRules(null);
+        flowSlot.checkFlow(resource, context, node, 1, false);
+    }
 }
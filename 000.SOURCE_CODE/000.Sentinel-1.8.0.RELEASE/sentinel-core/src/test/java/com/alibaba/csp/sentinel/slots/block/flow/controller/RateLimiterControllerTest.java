@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -26,6 +27,7 @@ import org.junit.Test;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.PacingController;
 
 /**
  * @author jialiang.linjl
@@ -95,4 +97,23 @@ public class RateLimiterControllerTest {
             assertTrue(paceController.canPass(node, 0));
         }
     }
+
+    @Test
+    public void testPaceController_tryReserve() {
+        RateLimiterController paceController = new RateLimiterController(250, 10d);
+        Node node = mock(Node.class);
+
+        long start = TimeUtil.currentTimeMillis();
+        assertEquals(0, paceController.tryReserve(node, 1));
+        long waitTime1 = paceController.tryReserve(node, 1);
+        long waitTime2 = paceController.tryReserve(node, 1);
+        // Reservations return at once, with the pass time of every 100 ms.
+        assertTrue(waitTime1 > 0 && waitTime1 <= 100);
+        assertTrue(waitTime2 > waitTime1 && waitTime2 <= 200);
+        assertEquals(PacingController.BLOCKED, paceController.tryReserve(node, 1));
+        assertTrue(TimeUtil.currentTimeMillis() - start < 100);
+
+        assertEquals(0, paceController.tryReserve(node, 0));
+        assertEquals(PacingController.BLOCKED, new RateLimiterController(500, 0d).tryReserve(node, 1));
+    }
 }
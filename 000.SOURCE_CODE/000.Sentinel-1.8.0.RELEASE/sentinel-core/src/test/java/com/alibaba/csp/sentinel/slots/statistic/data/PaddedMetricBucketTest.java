@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link PaddedMetricBucket}.
+ */
+public class PaddedMetricBucketTest {
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_TYPE);
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalStripes() {
+        new PaddedMetricBucket(3);
+    }
+
+    @Test
+    public void testAddAndReset() {
+        MetricBucket bucket = new PaddedMetricBucket(4);
+        bucket.addPass(3);
+        bucket.addBlock(2);
+        bucket.addSuccess(1);
+        bucket.addRT(20);
+        bucket.addRT(10);
+        assertEquals(3, bucket.pass());
+        assertEquals(2, bucket.block());
+        assertEquals(1, bucket.success());
+        assertEquals(30, bucket.rt());
+        assertEquals(10, bucket.minRt());
+        assertEquals(0, bucket.exception());
+
+        MetricBucket copy = new PaddedMetricBucket(2).reset(bucket);
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(bucket.get(event), copy.get(event));
+        }
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+        assertEquals(SentinelConfig.statisticMaxRt(), bucket.minRt());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final MetricBucket bucket = new PaddedMetricBucket(8);
+        final int threadCount = 16;
+        final int times = 10000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < times; j++) {
+                        bucket.addPass(1);
+                        bucket.add(MetricEvent.OCCUPIED_PASS, 2);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(threadCount * times, bucket.pass());
+        assertEquals(threadCount * times * 2, bucket.occupiedPass());
+    }
+
+    @Test
+    public void testProviderSwitch() {
+        assertSame(MetricBucket.class, MetricBucketProvider.newBucket().getClass());
+
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_TYPE, SentinelConfig.STATISTIC_BUCKET_TYPE_PADDED);
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "3");
+        MetricBucket bucket = MetricBucketProvider.newBucket();
+        assertTrue(bucket instanceof PaddedMetricBucket);
+        assertEquals(4, ((PaddedMetricBucket)bucket).stripes());
+
+        BucketLeapArray leapArray = new BucketLeapArray(2, 1000);
+        assertTrue(leapArray.currentWindow().value() instanceof PaddedMetricBucket);
+    }
+}
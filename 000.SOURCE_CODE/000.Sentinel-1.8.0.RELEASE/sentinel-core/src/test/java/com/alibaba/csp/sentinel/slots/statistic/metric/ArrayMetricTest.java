@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
@@ -26,6 +27,7 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
 import org.junit.Test;
+import org.mockito.ArgumentMatchers;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -47,6 +49,8 @@ public class ArrayMetricTest {
             new MetricBucket());
         when(leapArray.currentWindow()).thenReturn(windowWrap);
         when(leapArray.values()).thenReturn(new ArrayList<MetricBucket>() {{ add(windowWrap.value()); }});
+        when(leapArray.sum(ArgumentMatchers.<ToLongFunction<MetricBucket>>any())).thenAnswer(
+            invocation -> invocation.<ToLongFunction<MetricBucket>>getArgument(0).applyAsLong(windowWrap.value()));
 
         ArrayMetric metric = new ArrayMetric(leapArray);
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ThreadUtilTest {
+
+    @Test
+    public void testIsVirtualOfPlatformThread() {
+        assertFalse(ThreadUtil.isVirtual(Thread.currentThread()));
+        assertFalse(ThreadUtil.isVirtual(new Thread()));
+        assertFalse(ThreadUtil.isVirtual(null));
+    }
+
+    @Test
+    public void testIsVirtualOfVirtualThread() throws Exception {
+        Method startVirtualThread = null;
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException ex) {
+            // Virtual threads are not supported by current JDK.
+        }
+        Assume.assumeNotNull(startVirtualThread);
+
+        final AtomicBoolean virtual = new AtomicBoolean();
+        Thread thread = (Thread)startVirtualThread.invoke(null, new Runnable() {
+            @Override
+            public void run() {
+                virtual.set(ThreadUtil.isVirtual(Thread.currentThread()));
+            }
+        });
+        thread.join();
+        assertTrue(virtual.get());
+        assertTrue(ThreadUtil.isVirtual(thread));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AdaptiveTickClock}.
+ */
+public class AdaptiveTickClockTest {
+
+    private final AtomicLong sourceMillis = new AtomicLong(1000);
+
+    private final Clock source = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return sourceMillis.get();
+        }
+    };
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalRate() {
+        new AdaptiveTickClock(source, 100, 200);
+    }
+
+    @Test
+    public void testAdaptiveTicking() {
+        AdaptiveTickClock clock = new AdaptiveTickClock(source, 1000, 500);
+        assertFalse(clock.isTicking());
+
+        // Read the source directly when idle.
+        sourceMillis.set(2000);
+        assertEquals(2000, clock.currentTimeMillis());
+
+        clock.updateState(999);
+        assertFalse(clock.isTicking());
+        clock.updateState(1000);
+        assertTrue(clock.isTicking());
+
+        // Read the cached time when ticking (the tick thread is not started here).
+        sourceMillis.set(3000);
+        assertEquals(2000, clock.currentTimeMillis());
+
+        clock.updateState(500);
+        assertTrue(clock.isTicking());
+        clock.updateState(499);
+        assertFalse(clock.isTicking());
+        assertEquals(3000, clock.currentTimeMillis());
+    }
+
+    @Test
+    public void testCountReadsByTicksWhenTicking() {
+        AdaptiveTickClock clock = new AdaptiveTickClock(source, 1000, 500);
+        for (int i = 0; i < 20; i++) {
+            clock.currentTimeMillis();
+        }
+        assertEquals(20, clock.readRateSince(1000));
+
+        clock.updateState(1000);
+        for (int tick = 0; tick < 10; tick++) {
+            // Reads within a tick are counted once.
+            for (int i = 0; i < 100; i++) {
+                clock.currentTimeMillis();
+            }
+            clock.tick(2000 + tick);
+        }
+        // Ticks without reads are not counted.
+        clock.tick(2010);
+        assertEquals(10, clock.readRateSince(1000));
+        assertEquals(0, clock.readRateSince(1000));
+    }
+
+    @Test
+    public void testAlwaysTicking() throws Exception {
+        AdaptiveTickClock clock = new AdaptiveTickClock(new SystemClock()).start();
+        assertTrue(clock.isTicking());
+        long t1 = clock.currentTimeMillis();
+        Thread.sleep(50);
+        long t2 = clock.currentTimeMillis();
+        assertTrue(t2 > t1);
+        assertTrue(Math.abs(System.currentTimeMillis() - t2) < 1000);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MonotonicClock}, with clock skew injected to the wall clock.
+ */
+public class MonotonicClockTest {
+
+    private static final long START_MILLIS = 1600000000000L;
+
+    private final AtomicLong wallMillis = new AtomicLong(START_MILLIS);
+    private final AtomicLong nanos = new AtomicLong(123456789L);
+
+    private final Clock wallClock = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return wallMillis.get();
+        }
+    };
+
+    private final MonotonicClock monotonicClock = new MonotonicClock(START_MILLIS, nanos.get()) {
+        @Override
+        long nanoTime() {
+            return nanos.get();
+        }
+    };
+
+    private void sleep(long ms) {
+        wallMillis.addAndGet(ms);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private void skewWallClock(long ms) {
+        wallMillis.addAndGet(ms);
+    }
+
+    private static long sumPass(BucketLeapArray leapArray, long time) {
+        long sum = 0;
+        for (MetricBucket bucket : leapArray.values(time)) {
+            sum += bucket.pass();
+        }
+        return sum;
+    }
+
+    @Test
+    public void testMonotonicWhenWallClockSkews() {
+        assertEquals(START_MILLIS, monotonicClock.currentTimeMillis());
+        sleep(100);
+        skewWallClock(-5000);
+        long t1 = monotonicClock.currentTimeMillis();
+        assertEquals(START_MILLIS + 100, t1);
+        sleep(100);
+        skewWallClock(60000);
+        assertEquals(t1 + 100, monotonicClock.currentTimeMillis());
+    }
+
+    @Test
+    public void testWindowsStayConsistentWhenWallClockStepsForward() {
+        BucketLeapArray wallArray = new BucketLeapArray(2, 1000);
+        BucketLeapArray monotonicArray = new BucketLeapArray(2, 1000);
+        for (int i = 0; i < 5; i++) {
+            wallArray.currentWindow(wallClock.currentTimeMillis()).value().addPass(1);
+            monotonicArray.currentWindow(monotonicClock.currentTimeMillis()).value().addPass(1);
+            sleep(100);
+        }
+        assertEquals(5, sumPass(wallArray, wallClock.currentTimeMillis()));
+        assertEquals(5, sumPass(monotonicArray, monotonicClock.currentTimeMillis()));
+
+        // The wall clock steps forward (e.g. adjusted by NTP).
+        skewWallClock(10000);
+
+        // The wall clock based windows are all deprecated, which would admit a burst.
+        assertEquals(0, sumPass(wallArray, wallClock.currentTimeMillis()));
+        assertEquals(5, sumPass(monotonicArray, monotonicClock.currentTimeMillis()));
+    }
+
+    @Test
+    public void testWindowsStayConsistentWhenWallClockStepsBackward() {
+        BucketLeapArray wallArray = new BucketLeapArray(2, 1000);
+        BucketLeapArray monotonicArray = new BucketLeapArray(2, 1000);
+        for (int i = 0; i < 5; i++) {
+            wallArray.currentWindow(wallClock.currentTimeMillis()).value().addPass(1);
+            monotonicArray.currentWindow(monotonicClock.currentTimeMillis()).value().addPass(1);
+            sleep(100);
+        }
+
+        // The wall clock steps backward.
+        skewWallClock(-3000);
+        long wallStartBefore = wallArray.currentWindow(wallClock.currentTimeMillis() + 3000).windowStart();
+        long monotonicStartBefore = monotonicArray.currentWindow(monotonicClock.currentTimeMillis()).windowStart();
+        wallArray.currentWindow(wallClock.currentTimeMillis()).value().addPass(1);
+        monotonicArray.currentWindow(monotonicClock.currentTimeMillis()).value().addPass(1);
+
+        // The wall clock based window moves back in time.
+        assertTrue(wallArray.currentWindow(wallClock.currentTimeMillis()).windowStart() < wallStartBefore);
+        assertEquals(monotonicStartBefore,
+            monotonicArray.currentWindow(monotonicClock.currentTimeMillis()).windowStart());
+        assertEquals(6, sumPass(monotonicArray, monotonicClock.currentTimeMillis()));
+    }
+}
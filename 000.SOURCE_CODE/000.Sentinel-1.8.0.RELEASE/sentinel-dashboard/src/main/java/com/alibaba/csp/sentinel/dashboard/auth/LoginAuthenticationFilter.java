@@ -41,6 +41,7 @@ import java.util.List;
  * <li>index url: {@code /}</li>
  * <li>authentication request url: {@code /login}, {@code /logout}</li>
  * <li>machine registry: {@code /registry/machine}</li>
+ * <li>metric push: {@code /registry/metric}</li>
  * <li>static resources</li>
  * </ul>
  *
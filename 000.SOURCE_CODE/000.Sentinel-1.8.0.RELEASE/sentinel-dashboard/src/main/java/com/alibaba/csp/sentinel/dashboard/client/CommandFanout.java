@@ -0,0 +1,237 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Sends commands to many machines at once and aggregates their results. Commands to different hosts run
+ * concurrently, while at most {@code maxConcurrencyPerHost} commands run on a host at a time, so that a host
+ * of many machines is not flooded. Commands which have not completed by the deadline are cancelled and
+ * reported as failures with {@link TimeoutException}, and queued ones are not sent at all.</p>
+ *
+ * <p>Obtain an instance by {@link SentinelApiClient#newFanout()}, add a command per machine, then
+ * {@link #execute(long)}. An instance can be executed only once.</p>
+ *
+ * @param <T> type of the result of the command
+ * @since 1.8.1
+ */
+public final class CommandFanout<T> {
+
+    private final ScheduledExecutorService timer;
+    private final int maxConcurrencyPerHost;
+
+    /**
+     * {@code host -> commands}
+     */
+    private final Map<String, List<Command<T>>> hosts = new LinkedHashMap<>();
+    private final List<Command<T>> commands = new ArrayList<>();
+    private final AtomicBoolean executed = new AtomicBoolean(false);
+
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final CompletableFuture<FanoutResult<T>> result = new CompletableFuture<>();
+    private volatile boolean expired = false;
+    private volatile ScheduledFuture<?> deadline;
+    private long startTime;
+
+    CommandFanout(ScheduledExecutorService timer, int maxConcurrencyPerHost) {
+        AssertUtil.isTrue(maxConcurrencyPerHost > 0, "maxConcurrencyPerHost should be positive");
+        this.timer = timer;
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+    }
+
+    /**
+     * Add a command to the machine of given command address, identified by {@code ip@port}.
+     *
+     * @param ip      ip of the machine
+     * @param port    command port of the machine
+     * @param command sends the command and returns its result
+     * @return this fan-out
+     */
+    public CommandFanout<T> add(String ip, int port, Supplier<CompletableFuture<T>> command) {
+        return add(ip + '@' + port, ip, command);
+    }
+
+    /**
+     * @param machineId id of the machine in the result
+     * @param host      host of the machine, which limits the concurrency
+     * @param command   sends the command and returns its result
+     * @return this fan-out
+     */
+    public CommandFanout<T> add(String machineId, String host, Supplier<CompletableFuture<T>> command) {
+        AssertUtil.notNull(machineId, "machineId cannot be null");
+        AssertUtil.notNull(command, "command cannot be null");
+        AssertUtil.isTrue(!executed.get(), "fan-out has been executed");
+        Command<T> c = new Command<>(machineId, command);
+        commands.add(c);
+        List<Command<T>> list = hosts.get(host);
+        if (list == null) {
+            list = new ArrayList<>();
+            hosts.put(host, list);
+        }
+        list.add(c);
+        return this;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * @return ids of all machines in the fan-out, in the order of adding
+     */
+    public Set<String> getMachineIds() {
+        Set<String> machineIds = new LinkedHashSet<>();
+        for (Command<T> command : commands) {
+            machineIds.add(command.machineId);
+        }
+        return machineIds;
+    }
+
+    /**
+     * Send all commands.
+     *
+     * @param timeoutMs deadline of all commands in milliseconds
+     * @return aggregated results, which completes once all commands complete or the deadline expires
+     */
+    public CompletableFuture<FanoutResult<T>> execute(long timeoutMs) {
+        AssertUtil.isTrue(timeoutMs > 0, "timeoutMs should be positive");
+        AssertUtil.isTrue(executed.compareAndSet(false, true), "fan-out has been executed");
+        startTime = System.currentTimeMillis();
+        remaining.set(commands.size());
+        if (commands.isEmpty()) {
+            complete();
+            return result;
+        }
+        deadline = timer.schedule(this::expire, timeoutMs, TimeUnit.MILLISECONDS);
+        for (List<Command<T>> list : hosts.values()) {
+            Queue<Command<T>> queue = new ConcurrentLinkedQueue<>(list);
+            for (int i = 0; i < Math.min(maxConcurrencyPerHost, list.size()); i++) {
+                sendNext(queue);
+            }
+        }
+        return result;
+    }
+
+    private void sendNext(Queue<Command<T>> queue) {
+        Command<T> command;
+        while ((command = queue.poll()) != null) {
+            if (expired) {
+                // Reported as timed out by the deadline.
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = command.supplier.get();
+            } catch (Throwable ex) {
+                finish(command, null, ex);
+                continue;
+            }
+            if (future == null) {
+                finish(command, null, new IllegalStateException("command returned null"));
+                continue;
+            }
+            command.future = future;
+            final Command<T> c = command;
+            future.whenComplete((v, ex) -> {
+                finish(c, v, ex);
+                sendNext(queue);
+            });
+            return;
+        }
+    }
+
+    private void finish(Command<T> command, T value, Throwable ex) {
+        if (!command.done.compareAndSet(false, true)) {
+            return;
+        }
+        command.value = value;
+        command.error = unwrap(ex);
+        if (remaining.decrementAndGet() == 0) {
+            ScheduledFuture<?> d = deadline;
+            if (d != null) {
+                d.cancel(false);
+            }
+            complete();
+        }
+    }
+
+    private void expire() {
+        expired = true;
+        for (Command<T> command : commands) {
+            if (!command.done.get()) {
+                finish(command, null, new TimeoutException("command did not complete before the deadline"));
+                CompletableFuture<T> future = command.future;
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private void complete() {
+        Map<String, T> successes = new LinkedHashMap<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (Command<T> command : commands) {
+            if (command.error == null) {
+                successes.put(command.machineId, command.value);
+            } else {
+                failures.put(command.machineId, command.error);
+            }
+        }
+        result.complete(new FanoutResult<>(successes, failures, System.currentTimeMillis() - startTime));
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    private static final class Command<T> {
+        private final String machineId;
+        private final Supplier<CompletableFuture<T>> supplier;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile CompletableFuture<T> future;
+        private volatile T value;
+        private volatile Throwable error;
+
+        Command(String machineId, Supplier<CompletableFuture<T>> supplier) {
+            this.machineId = machineId;
+            this.supplier = supplier;
+        }
+    }
+}
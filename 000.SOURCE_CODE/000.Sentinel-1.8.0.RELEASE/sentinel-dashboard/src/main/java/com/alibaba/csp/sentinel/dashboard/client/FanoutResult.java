@@ -0,0 +1,78 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregated results of a command sent to many machines by {@link CommandFanout}.
+ *
+ * @param <T> type of the result of the command
+ * @since 1.8.1
+ */
+public final class FanoutResult<T> {
+
+    private final Map<String, T> successes;
+    private final Map<String, Throwable> failures;
+    private final long costMs;
+
+    FanoutResult(Map<String, T> successes, Map<String, Throwable> failures, long costMs) {
+        this.successes = Collections.unmodifiableMap(successes);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.costMs = costMs;
+    }
+
+    /**
+     * @return {@code machineId -> result} of succeeded machines
+     */
+    public Map<String, T> getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * @return {@code machineId -> cause} of failed machines, whose cause is a
+     * {@link java.util.concurrent.TimeoutException} if the command did not complete before the deadline
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public Set<String> getFailedMachines() {
+        return failures.keySet();
+    }
+
+    public boolean isAllSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return milliseconds from sending the first command to the completion of the last one
+     */
+    public long getCostMs() {
+        return costMs;
+    }
+
+    @Override
+    public String toString() {
+        return "FanoutResult{" +
+            "success=" + successes.size() +
+            ", failed=" + failures.keySet() +
+            ", costMs=" + costMs +
+            '}';
+    }
+}
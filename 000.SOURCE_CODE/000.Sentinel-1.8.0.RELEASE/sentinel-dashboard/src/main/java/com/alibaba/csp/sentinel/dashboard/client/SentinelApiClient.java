@@ -28,14 +28,19 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
 import com.alibaba.csp.sentinel.command.CommandConstants;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.command.vo.NodeVo;
 import com.alibaba.csp.sentinel.dashboard.datasource.entity.gateway.ApiDefinitionEntity;
 import com.alibaba.csp.sentinel.dashboard.datasource.entity.gateway.GatewayFlowRuleEntity;
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
 import com.alibaba.csp.sentinel.dashboard.util.AsyncUtils;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
@@ -63,8 +68,12 @@ import com.alibaba.csp.sentinel.dashboard.domain.cluster.config.ServerTransportC
 import com.alibaba.csp.sentinel.dashboard.util.VersionUtils;
 
 import org.apache.http.Consts;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -72,6 +81,7 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
@@ -126,6 +136,11 @@ public class SentinelApiClient {
     private static final String SYSTEM_RULE_TYPE = "system";
     private static final String AUTHORITY_TYPE = "authority";
 
+    /**
+     * Max idle time of a kept-alive connection to a machine, if the machine does not tell.
+     */
+    private static final long MAX_KEEP_ALIVE_MS = 30_000;
+
     private CloseableHttpAsyncClient httpClient;
 
     private static final SentinelVersion version160 = new SentinelVersion(1, 6, 0);
@@ -134,16 +149,33 @@ public class SentinelApiClient {
     @Autowired
     private AppManagement appManagement;
 
+    /**
+     * Expires the deadlines of fan-out commands.
+     */
+    private final ScheduledExecutorService fanoutTimer;
+    private final int maxConcurrencyPerHost;
+
     public SentinelApiClient() {
+        maxConcurrencyPerHost = DashboardConfig.getCommandMaxConcurrencyPerHost();
         IOReactorConfig ioConfig = IOReactorConfig.custom().setConnectTimeout(3000).setSoTimeout(10000)
             .setIoThreadCount(Runtime.getRuntime().availableProcessors() * 2).build();
+        // Connections are pooled per machine and kept alive if the command center of the machine supports it,
+        // and concurrent commands to a machine beyond the pool size wait for a pooled connection.
         httpClient = HttpAsyncClients.custom().setRedirectStrategy(new DefaultRedirectStrategy() {
             @Override
             protected boolean isRedirectable(final String method) {
                 return false;
             }
-        }).setMaxConnTotal(4000).setMaxConnPerRoute(1000).setDefaultIOReactorConfig(ioConfig).build();
+        }).setKeepAliveStrategy((response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? Math.min(keepAlive, MAX_KEEP_ALIVE_MS) : MAX_KEEP_ALIVE_MS;
+        }).setMaxConnTotal(4000).setMaxConnPerRoute(maxConcurrencyPerHost)
+            .setDefaultIOReactorConfig(ioConfig).build();
         httpClient.start();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("sentinel-dashboard-command-deadline", true));
+        timer.setRemoveOnCancelPolicy(true);
+        fanoutTimer = timer;
     }
 
     private boolean isSuccess(int statusCode) {
@@ -238,7 +270,12 @@ public class SentinelApiClient {
             }
         } catch (Exception ignore) {
         }
-        return EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        HttpEntity entity = response.getEntity();
+        Header contentEncoding = entity.getContentEncoding();
+        if (contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue())) {
+            entity = new GzipDecompressingEntity(entity);
+        }
+        return EntityUtils.toString(entity, charset != null ? charset : DEFAULT_CHARSET);
     }
     
     /**
@@ -308,7 +345,8 @@ public class SentinelApiClient {
     
     private CompletableFuture<String> executeCommand(HttpUriRequest request) {
         CompletableFuture<String> future = new CompletableFuture<>();
-        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        Future<HttpResponse> httpFuture = httpClient.execute(request, new FutureCallback<HttpResponse>() {
             @Override
             public void completed(final HttpResponse response) {
                 int statusCode = response.getStatusLine().getStatusCode();
@@ -341,10 +379,29 @@ public class SentinelApiClient {
                 future.complete(null);
             }
         });
+        // Abort the request if the command is cancelled, e.g. by the deadline of a fan-out.
+        future.whenComplete((v, ex) -> {
+            if (future.isCancelled()) {
+                httpFuture.cancel(true);
+            }
+        });
         return future;
     }
-    
+
+    /**
+     * Create a fan-out to send a command to many machines concurrently, at most
+     * {@link DashboardConfig#getCommandMaxConcurrencyPerHost()} commands to a host at a time.
+     *
+     * @param <T> type of the result of the command
+     * @return a new fan-out
+     * @since 1.8.1
+     */
+    public <T> CommandFanout<T> newFanout() {
+        return new CommandFanout<>(fanoutTimer, maxConcurrencyPerHost);
+    }
+
     public void close() throws Exception {
+        fanoutTimer.shutdownNow();
         httpClient.close();
     }
     
@@ -64,6 +64,41 @@ public class DashboardConfig {
      */
     public static final String CONFIG_AUTO_REMOVE_MACHINE_MILLIS = "sentinel.dashboard.autoRemoveMachineMillis";
 
+    /**
+     * Storage of metrics: {@code memory} (default) for {@code InMemoryMetricsRepository},
+     * {@code offheap} for {@code OffHeapMetricsRepository}.
+     */
+    public static final String CONFIG_METRIC_STORE = "sentinel.dashboard.metric.store";
+    /**
+     * Retention in millisecond of raw (per-second) metrics in the off-heap metric store.
+     */
+    public static final String CONFIG_METRIC_RAW_RETENTION_MS = "sentinel.dashboard.metric.rawRetentionMs";
+    /**
+     * Retention in millisecond of per-minute rollups in the off-heap metric store.
+     */
+    public static final String CONFIG_METRIC_MINUTE_RETENTION_MS = "sentinel.dashboard.metric.minuteRetentionMs";
+    /**
+     * Retention in millisecond of per-hour rollups in the off-heap metric store.
+     */
+    public static final String CONFIG_METRIC_HOUR_RETENTION_MS = "sentinel.dashboard.metric.hourRetentionMs";
+
+    public static final int DEFAULT_METRIC_RAW_RETENTION_MS = 10 * 60_000;
+    public static final int DEFAULT_METRIC_MINUTE_RETENTION_MS = 24 * 3600_000;
+    public static final int DEFAULT_METRIC_HOUR_RETENTION_MS = 7 * 24 * 3600_000;
+
+    /**
+     * Max amount of concurrent commands sent to a host, and max connections to a machine.
+     */
+    public static final String CONFIG_COMMAND_MAX_CONCURRENCY_PER_HOST
+        = "sentinel.dashboard.command.maxConcurrencyPerHost";
+    /**
+     * Deadline in millisecond of a command sent to all machines of an app, e.g. pushing rules.
+     */
+    public static final String CONFIG_COMMAND_FANOUT_TIMEOUT_MS = "sentinel.dashboard.command.fanoutTimeoutMs";
+
+    public static final int DEFAULT_COMMAND_MAX_CONCURRENCY_PER_HOST = 4;
+    public static final int DEFAULT_COMMAND_FANOUT_TIMEOUT_MS = 10_000;
+
     private static final ConcurrentMap<String, Object> cacheMap = new ConcurrentHashMap<>();
     
     @NonNull
@@ -134,6 +169,26 @@ public class DashboardConfig {
         return getConfigInt(CONFIG_UNHEALTHY_MACHINE_MILLIS, DEFAULT_MACHINE_HEALTHY_TIMEOUT_MS, 30000);
     }
     
+    public static int getMetricRawRetentionMs() {
+        return getConfigInt(CONFIG_METRIC_RAW_RETENTION_MS, DEFAULT_METRIC_RAW_RETENTION_MS, 60_000);
+    }
+
+    public static int getMetricMinuteRetentionMs() {
+        return getConfigInt(CONFIG_METRIC_MINUTE_RETENTION_MS, DEFAULT_METRIC_MINUTE_RETENTION_MS, 3600_000);
+    }
+
+    public static int getMetricHourRetentionMs() {
+        return getConfigInt(CONFIG_METRIC_HOUR_RETENTION_MS, DEFAULT_METRIC_HOUR_RETENTION_MS, 24 * 3600_000);
+    }
+
+    public static int getCommandMaxConcurrencyPerHost() {
+        return getConfigInt(CONFIG_COMMAND_MAX_CONCURRENCY_PER_HOST, DEFAULT_COMMAND_MAX_CONCURRENCY_PER_HOST, 1);
+    }
+
+    public static int getCommandFanoutTimeoutMs() {
+        return getConfigInt(CONFIG_COMMAND_FANOUT_TIMEOUT_MS, DEFAULT_COMMAND_FANOUT_TIMEOUT_MS, 1000);
+    }
+
     public static void clearCache() {
         cacheMap.clear();
     }
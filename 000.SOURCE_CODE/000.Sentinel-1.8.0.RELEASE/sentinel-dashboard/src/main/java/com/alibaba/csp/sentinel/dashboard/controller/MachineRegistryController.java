@@ -21,11 +21,14 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineDiscovery;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
 import com.alibaba.csp.sentinel.dashboard.domain.Result;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricFetcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -38,6 +41,8 @@ public class MachineRegistryController {
 
     @Autowired
     private AppManagement appManagement;
+    @Autowired
+    private MetricFetcher metricFetcher;
 
     @ResponseBody
     @RequestMapping("/machine")
@@ -74,4 +79,26 @@ public class MachineRegistryController {
             return Result.ofFail(-1, e.getMessage());
         }
     }
+
+    /**
+     * Receive delta metrics pushed by a machine.
+     *
+     * @return amount of resource names known of the machine, as plain text
+     */
+    @ResponseBody
+    @PostMapping(value = "/metric", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> receiveMetric(String app, String ip, Integer port, String metric) {
+        if (app == null) {
+            app = MachineDiscovery.UNKNOWN_APP_NAME;
+        }
+        if (ip == null || port == null || StringUtil.isEmpty(metric)) {
+            return ResponseEntity.badRequest().body("ip, port and metric are required");
+        }
+        try {
+            return ResponseEntity.ok(String.valueOf(metricFetcher.receivePushedMetric(app, ip, port, metric)));
+        } catch (Exception e) {
+            logger.warn("Receive metric error from {}:{}", ip, port, e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
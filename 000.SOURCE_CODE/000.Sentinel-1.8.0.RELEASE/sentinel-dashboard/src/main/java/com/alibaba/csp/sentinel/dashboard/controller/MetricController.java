@@ -25,6 +25,9 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.dashboard.domain.Result;
+import com.alibaba.csp.sentinel.dashboard.metric.AppMetricRanking;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricAggregator;
+import com.alibaba.csp.sentinel.dashboard.metric.ResourceMetricSummary;
 import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +55,8 @@ public class MetricController {
 
     @Autowired
     private MetricsRepository<MetricEntity> metricStore;
+    @Autowired
+    private MetricAggregator metricAggregator;
 
     @ResponseBody
     @RequestMapping("/queryTopResourceMetric.json")
@@ -59,7 +64,8 @@ public class MetricController {
                                             Integer pageIndex,
                                             Integer pageSize,
                                             Boolean desc,
-                                            Long startTime, Long endTime, String searchKey) {
+                                            Long startTime, Long endTime, String searchKey,
+                                            String orderBy) {
         if (StringUtil.isEmpty(app)) {
             return Result.ofFail(-1, "app can't be null or empty");
         }
@@ -84,30 +90,59 @@ public class MetricController {
         if (endTime - startTime > maxQueryIntervalMs) {
             return Result.ofFail(-1, "time intervalMs is too big, must <= 1h");
         }
-        List<String> resources = metricStore.listResourcesOfApp(app);
-        logger.debug("queryTopResourceMetric(), resources.size()={}", resources.size());
-
-        if (resources == null || resources.isEmpty()) {
-            return Result.ofSuccess(null);
-        }
-        if (!desc) {
-            Collections.reverse(resources);
-        }
-        if (StringUtil.isNotEmpty(searchKey)) {
-            List<String> searched = new ArrayList<>();
-            for (String resource : resources) {
-                if (resource.contains(searchKey)) {
-                    searched.add(resource);
+        AppMetricRanking ranking = metricAggregator.getRanking(app);
+        List<String> topResource = new ArrayList<>();
+        int totalCount;
+        if (ranking != null) {
+            // Resources are ranked as metrics arrive, so only the requested page is read.
+            List<ResourceMetricSummary> ranked = ranking.getRanked(
+                AppMetricRanking.Order.parse(orderBy, AppMetricRanking.Order.BLOCK_QPS));
+            if (ranked.isEmpty()) {
+                return Result.ofSuccess(null);
+            }
+            if (StringUtil.isNotEmpty(searchKey)) {
+                List<ResourceMetricSummary> searched = new ArrayList<>();
+                for (ResourceMetricSummary summary : ranked) {
+                    if (summary.getResource().contains(searchKey)) {
+                        searched.add(summary);
+                    }
                 }
+                ranked = searched;
+            }
+            totalCount = ranked.size();
+            int from = desc ? (pageIndex - 1) * pageSize : totalCount - pageIndex * pageSize;
+            int to = Math.min(from + pageSize, totalCount);
+            for (int i = Math.max(from, 0); i < to; i++) {
+                topResource.add(ranked.get(i).getResource());
+            }
+            if (!desc) {
+                Collections.reverse(topResource);
+            }
+        } else {
+            List<String> resources = metricStore.listResourcesOfApp(app);
+            logger.debug("queryTopResourceMetric(), resources.size()={}", resources.size());
+            if (resources.isEmpty()) {
+                return Result.ofSuccess(null);
+            }
+            if (!desc) {
+                Collections.reverse(resources);
+            }
+            if (StringUtil.isNotEmpty(searchKey)) {
+                List<String> searched = new ArrayList<>();
+                for (String resource : resources) {
+                    if (resource.contains(searchKey)) {
+                        searched.add(resource);
+                    }
+                }
+                resources = searched;
+            }
+            totalCount = resources.size();
+            if (pageIndex <= (totalCount + pageSize - 1) / pageSize) {
+                topResource = resources.subList((pageIndex - 1) * pageSize,
+                    Math.min(pageIndex * pageSize, resources.size()));
             }
-            resources = searched;
-        }
-        int totalPage = (resources.size() + pageSize - 1) / pageSize;
-        List<String> topResource = new ArrayList<>();
-        if (pageIndex <= totalPage) {
-            topResource = resources.subList((pageIndex - 1) * pageSize,
-                Math.min(pageIndex * pageSize, resources.size()));
         }
+        int totalPage = (totalCount + pageSize - 1) / pageSize;
         final Map<String, Iterable<MetricVo>> map = new ConcurrentHashMap<>();
         logger.debug("topResource={}", topResource);
         long time = System.currentTimeMillis();
@@ -121,7 +156,7 @@ public class MetricController {
         }
         logger.debug("queryTopResourceMetric() total query time={} ms", System.currentTimeMillis() - time);
         Map<String, Object> resultMap = new HashMap<>(16);
-        resultMap.put("totalCount", resources.size());
+        resultMap.put("totalCount", totalCount);
         resultMap.put("totalPage", totalPage);
         resultMap.put("pageIndex", pageIndex);
         resultMap.put("pageSize", pageSize);
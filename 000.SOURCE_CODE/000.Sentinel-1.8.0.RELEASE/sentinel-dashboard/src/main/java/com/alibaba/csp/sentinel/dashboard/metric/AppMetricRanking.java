@@ -0,0 +1,152 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of resources of an app ranked by their metrics in the recent window, which is
+ * published by {@link MetricAggregator} whenever metrics of the app arrive. Reading a page costs
+ * O(page size) as the rankings are sorted in advance.
+ *
+ * @since 1.8.1
+ */
+public final class AppMetricRanking {
+
+    public enum Order {
+        /**
+         * Block QPS descending, then pass QPS descending.
+         */
+        BLOCK_QPS,
+        /**
+         * Pass QPS descending, then block QPS descending.
+         */
+        PASS_QPS,
+        /**
+         * Average RT descending, then pass QPS descending.
+         */
+        RT;
+
+        public static Order parse(String name, Order defaultOrder) {
+            if (name != null) {
+                for (Order order : values()) {
+                    if (order.name().replace("_", "").equalsIgnoreCase(name.replace("_", ""))) {
+                        return order;
+                    }
+                }
+            }
+            return defaultOrder;
+        }
+    }
+
+    static final Comparator<ResourceMetricSummary> BY_BLOCK_QPS = (o1, o2) -> {
+        int t = Long.compare(o2.getBlockQps(), o1.getBlockQps());
+        if (t != 0) {
+            return t;
+        }
+        t = Long.compare(o2.getPassQps(), o1.getPassQps());
+        return t != 0 ? t : o1.getResource().compareTo(o2.getResource());
+    };
+
+    static final Comparator<ResourceMetricSummary> BY_PASS_QPS = (o1, o2) -> {
+        int t = Long.compare(o2.getPassQps(), o1.getPassQps());
+        if (t != 0) {
+            return t;
+        }
+        t = Long.compare(o2.getBlockQps(), o1.getBlockQps());
+        return t != 0 ? t : o1.getResource().compareTo(o2.getResource());
+    };
+
+    static final Comparator<ResourceMetricSummary> BY_RT = (o1, o2) -> {
+        int t = Double.compare(o2.getAvgRt(), o1.getAvgRt());
+        if (t != 0) {
+            return t;
+        }
+        t = Long.compare(o2.getPassQps(), o1.getPassQps());
+        return t != 0 ? t : o1.getResource().compareTo(o2.getResource());
+    };
+
+    static final AppMetricRanking EMPTY = new AppMetricRanking(0, Collections.emptyMap(),
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    private final long latestTimestamp;
+    private final Map<String, ResourceMetricSummary> summaries;
+    private final List<ResourceMetricSummary> byBlockQps;
+    private final List<ResourceMetricSummary> byPassQps;
+    private final List<ResourceMetricSummary> byRt;
+
+    AppMetricRanking(long latestTimestamp, Map<String, ResourceMetricSummary> summaries,
+                     List<ResourceMetricSummary> byBlockQps, List<ResourceMetricSummary> byPassQps,
+                     List<ResourceMetricSummary> byRt) {
+        this.latestTimestamp = latestTimestamp;
+        this.summaries = Collections.unmodifiableMap(summaries);
+        this.byBlockQps = Collections.unmodifiableList(byBlockQps);
+        this.byPassQps = Collections.unmodifiableList(byPassQps);
+        this.byRt = Collections.unmodifiableList(byRt);
+    }
+
+    /**
+     * @return timestamp of the latest metrics included
+     */
+    public long getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    public int getResourceCount() {
+        return summaries.size();
+    }
+
+    /**
+     * @param resource name of the resource
+     * @return sums of metrics of the resource, or null if the resource has no metrics in the window
+     */
+    public ResourceMetricSummary getSummary(String resource) {
+        return summaries.get(resource);
+    }
+
+    /**
+     * @param order ranking order
+     * @return all resources in given order
+     */
+    public List<ResourceMetricSummary> getRanked(Order order) {
+        switch (order) {
+            case PASS_QPS:
+                return byPassQps;
+            case RT:
+                return byRt;
+            case BLOCK_QPS:
+            default:
+                return byBlockQps;
+        }
+    }
+
+    /**
+     * @param order  ranking order
+     * @param offset index of the first resource to return
+     * @param limit  max amount of resources to return
+     * @return view of the resources in given range of the ranking
+     */
+    public List<ResourceMetricSummary> getTop(Order order, int offset, int limit) {
+        List<ResourceMetricSummary> ranked = getRanked(order);
+        if (offset >= ranked.size() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return ranked.subList(Math.max(offset, 0), Math.min(ranked.size(), Math.max(offset, 0) + limit));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Streaming aggregation of the metrics written by {@link MetricFetcher}. For each app, it keeps the sums of
+ * each resource over all machines in the recent minute, and ranks the resources by block QPS, pass QPS and
+ * average RT whenever metrics of the app arrive, so that listing top resources of an app does not have to scan
+ * the series of every resource in the repository.</p>
+ *
+ * <p>The sums slide with the timestamps of arriving metrics: a resource leaves the rankings once it has no
+ * metrics in the minute before the latest metrics of its app. The rankings are re-sorted from their previous
+ * order, which is nearly sorted between two fetches, so the sort takes about linear time.</p>
+ *
+ * @since 1.8.1
+ */
+@Component
+public class MetricAggregator {
+
+    static final int WINDOW_SECONDS = 60;
+    private static final long WINDOW_MS = WINDOW_SECONDS * 1000L;
+
+    private final Map<String, AppWindow> apps = new ConcurrentHashMap<>();
+
+    /**
+     * Add metrics of an app, which have been aggregated over its machines per resource and second.
+     * A later metric of the same resource and second replaces the former one.
+     *
+     * @param app      name of the app
+     * @param entities metrics of the app
+     */
+    public void aggregate(String app, Collection<MetricEntity> entities) {
+        if (app == null || entities == null || entities.isEmpty()) {
+            return;
+        }
+        AppWindow window = apps.get(app);
+        if (window == null) {
+            window = apps.computeIfAbsent(app, e -> new AppWindow());
+        }
+        window.aggregate(entities);
+    }
+
+    /**
+     * @param app name of the app
+     * @return resources of the app ranked by their metrics in the recent minute, empty if the app has no
+     * recent metrics, or null if no metrics of the app have been aggregated
+     */
+    public AppMetricRanking getRanking(String app) {
+        AppWindow window = apps.get(app);
+        if (window == null) {
+            return null;
+        }
+        AppMetricRanking ranking = window.ranking;
+        if (ranking.getLatestTimestamp() <= TimeUtil.currentTimeMillis() - WINDOW_MS) {
+            return AppMetricRanking.EMPTY;
+        }
+        return ranking;
+    }
+
+    public void removeApp(String app) {
+        apps.remove(app);
+    }
+
+    private static final class AppWindow {
+
+        private final Map<String, ResourceWindow> resources = new HashMap<>();
+        private long latestSecond = Long.MIN_VALUE;
+        /**
+         * Windows in the order of the last rankings, which are the initial order of the next sorting.
+         */
+        private List<ResourceWindow> byBlockQps = new ArrayList<>();
+        private List<ResourceWindow> byPassQps = new ArrayList<>();
+        private List<ResourceWindow> byRt = new ArrayList<>();
+
+        private volatile AppMetricRanking ranking = AppMetricRanking.EMPTY;
+
+        synchronized void aggregate(Collection<MetricEntity> entities) {
+            for (MetricEntity entity : entities) {
+                latestSecond = Math.max(latestSecond, entity.getTimestamp().getTime() / 1000);
+            }
+            long minSecond = latestSecond - WINDOW_SECONDS + 1;
+            List<ResourceWindow> added = new ArrayList<>();
+            for (MetricEntity entity : entities) {
+                long second = entity.getTimestamp().getTime() / 1000;
+                if (second < minSecond || entity.getResource() == null) {
+                    continue;
+                }
+                ResourceWindow resource = resources.get(entity.getResource());
+                if (resource == null) {
+                    resource = new ResourceWindow(entity.getResource());
+                    resources.put(entity.getResource(), resource);
+                    added.add(resource);
+                }
+                resource.put(second, entity);
+            }
+            Map<String, ResourceMetricSummary> summaries = new HashMap<>(resources.size() * 4 / 3 + 1);
+            for (Iterator<ResourceWindow> it = resources.values().iterator(); it.hasNext(); ) {
+                ResourceWindow resource = it.next();
+                if (resource.expire(minSecond)) {
+                    it.remove();
+                    resource.removed = true;
+                } else {
+                    resource.summary = resource.summarize();
+                    summaries.put(resource.name, resource.summary);
+                }
+            }
+            byBlockQps = reorder(byBlockQps, added, AppMetricRanking.BY_BLOCK_QPS);
+            byPassQps = reorder(byPassQps, added, AppMetricRanking.BY_PASS_QPS);
+            byRt = reorder(byRt, added, AppMetricRanking.BY_RT);
+            ranking = new AppMetricRanking(latestSecond * 1000, summaries, summariesOf(byBlockQps),
+                summariesOf(byPassQps), summariesOf(byRt));
+        }
+
+        private static List<ResourceWindow> reorder(List<ResourceWindow> last, List<ResourceWindow> added,
+                                                    Comparator<ResourceMetricSummary> comparator) {
+            List<ResourceWindow> windows = new ArrayList<>(last.size() + added.size());
+            for (ResourceWindow resource : last) {
+                if (!resource.removed) {
+                    windows.add(resource);
+                }
+            }
+            windows.addAll(added);
+            // The list is mostly sorted already, which is nearly linear for TimSort.
+            windows.sort((o1, o2) -> comparator.compare(o1.summary, o2.summary));
+            return windows;
+        }
+
+        private static List<ResourceMetricSummary> summariesOf(List<ResourceWindow> windows) {
+            List<ResourceMetricSummary> summaries = new ArrayList<>(windows.size());
+            for (ResourceWindow resource : windows) {
+                summaries.add(resource.summary);
+            }
+            return summaries;
+        }
+    }
+
+    /**
+     * Metrics of a resource in each second of the window, in a ring indexed by second, and their running sums.
+     */
+    private static final class ResourceWindow {
+
+        private final String name;
+        private final long[] seconds = new long[WINDOW_SECONDS];
+        private final long[] passQps = new long[WINDOW_SECONDS];
+        private final long[] successQps = new long[WINDOW_SECONDS];
+        private final long[] blockQps = new long[WINDOW_SECONDS];
+        private final long[] exceptionQps = new long[WINDOW_SECONDS];
+        private final double[] rt = new double[WINDOW_SECONDS];
+        private int size;
+
+        private long passSum;
+        private long successSum;
+        private long blockSum;
+        private long exceptionSum;
+        private double rtSum;
+
+        private ResourceMetricSummary summary;
+        private boolean removed;
+
+        ResourceWindow(String name) {
+            this.name = name;
+            Arrays.fill(seconds, Long.MIN_VALUE);
+        }
+
+        void put(long second, MetricEntity entity) {
+            int i = (int)Math.floorMod(second, (long)WINDOW_SECONDS);
+            if (seconds[i] > second) {
+                // Older than the metrics in the slot.
+                return;
+            }
+            if (seconds[i] != Long.MIN_VALUE) {
+                clear(i);
+            }
+            seconds[i] = second;
+            passQps[i] = valueOf(entity.getPassQps());
+            successQps[i] = valueOf(entity.getSuccessQps());
+            blockQps[i] = valueOf(entity.getBlockQps());
+            exceptionQps[i] = valueOf(entity.getExceptionQps());
+            rt[i] = entity.getRt();
+            passSum += passQps[i];
+            successSum += successQps[i];
+            blockSum += blockQps[i];
+            exceptionSum += exceptionQps[i];
+            rtSum += rt[i];
+            size++;
+        }
+
+        /**
+         * Drop metrics before given second.
+         *
+         * @return true if no metrics are left
+         */
+        boolean expire(long minSecond) {
+            for (int i = 0; i < WINDOW_SECONDS && size > 0; i++) {
+                if (seconds[i] != Long.MIN_VALUE && seconds[i] < minSecond) {
+                    clear(i);
+                }
+            }
+            return size == 0;
+        }
+
+        private void clear(int i) {
+            seconds[i] = Long.MIN_VALUE;
+            passSum -= passQps[i];
+            successSum -= successQps[i];
+            blockSum -= blockQps[i];
+            exceptionSum -= exceptionQps[i];
+            rtSum -= rt[i];
+            size--;
+            if (size == 0) {
+                // Avoid accumulating rounding errors of rt.
+                rtSum = 0;
+            }
+        }
+
+        ResourceMetricSummary summarize() {
+            return new ResourceMetricSummary(name, passSum, successSum, blockSum, exceptionSum, Math.max(rtSum, 0));
+        }
+
+        private static long valueOf(Long value) {
+            return value == null ? 0 : value;
+        }
+    }
+}
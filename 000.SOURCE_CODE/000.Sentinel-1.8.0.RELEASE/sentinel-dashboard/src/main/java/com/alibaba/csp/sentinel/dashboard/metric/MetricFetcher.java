@@ -18,8 +18,10 @@ package com.alibaba.csp.sentinel.dashboard.metric;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,10 +45,15 @@ import com.alibaba.csp.sentinel.dashboard.discovery.AppInfo;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaDecoder;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.ContentType;
@@ -54,7 +61,6 @@ import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.impl.nio.reactor.IOReactorConfig;
-import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +79,10 @@ public class MetricFetcher {
     private static final int HTTP_OK = 200;
     private static final long MAX_LAST_FETCH_INTERVAL_MS = 1000 * 15;
     private static final long FETCH_INTERVAL_SECOND = 6;
+    /**
+     * Machines which pushed metrics in this period are not fetched.
+     */
+    private static final long MAX_LAST_PUSH_INTERVAL_MS = 1000 * 10;
     private static final Charset DEFAULT_CHARSET = Charset.forName(SentinelConfig.charset());
     private final static String METRIC_URL_PATH = "metric";
     private static Logger logger = LoggerFactory.getLogger(MetricFetcher.class);
@@ -80,10 +90,22 @@ public class MetricFetcher {
 
     private Map<String, AtomicLong> appLastFetchTime = new ConcurrentHashMap<>();
 
+    /**
+     * {@code ip:port -> decoder}, which keeps the cursor and resource dictionary of delta metrics of the machine.
+     */
+    private final Map<String, MetricDeltaDecoder> deltaDecoders = new ConcurrentHashMap<>();
+    private final Map<String, Long> machineLastPushTime = new ConcurrentHashMap<>();
+    /**
+     * {@code app -> metrics pushed by machines}, which are aggregated with the fetched ones.
+     */
+    private final Map<String, List<MetricNode>> pushedMetrics = new ConcurrentHashMap<>();
+
     @Autowired
     private MetricsRepository<MetricEntity> metricStore;
     @Autowired
     private AppManagement appManagement;
+    @Autowired
+    private MetricAggregator metricAggregator;
 
     private CloseableHttpAsyncClient httpclient;
 
@@ -134,7 +156,7 @@ public class MetricFetcher {
         }, 10, intervalSecond, TimeUnit.SECONDS);
     }
 
-    private void writeMetric(Map<String, MetricEntity> map) {
+    private void writeMetric(String app, Map<String, MetricEntity> map) {
         if (map.isEmpty()) {
             return;
         }
@@ -144,6 +166,7 @@ public class MetricFetcher {
             entity.setGmtModified(date);
         }
         metricStore.saveAll(map.values());
+        metricAggregator.aggregate(app, map.values());
     }
 
     /**
@@ -177,6 +200,7 @@ public class MetricFetcher {
         if (appInfo.isDead()) {
             logger.info("Dead app removed: {}", app);
             appManagement.removeApp(app);
+            metricAggregator.removeApp(app);
             return;
         }
         Set<MachineInfo> machines = appInfo.getMachines();
@@ -207,10 +231,20 @@ public class MetricFetcher {
                 unhealthy.incrementAndGet();
                 continue;
             }
+            if (isPushing(machine)) {
+                latch.countDown();
+                continue;
+            }
+            // Clients not supporting delta metrics ignore the delta params and respond text metrics.
+            MetricDeltaDecoder decoder = getDeltaDecoder(machine.getIp(), machine.getPort());
+            long cursor = Math.max(decoder.getCursor(), startTime - 1000);
             final String url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_URL_PATH
-                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false;
+                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false
+                + "&format=delta&cursor=" + cursor + "&epoch=" + decoder.getEpoch()
+                + "&dictSize=" + decoder.getDictSize();
             final HttpGet httpGet = new HttpGet(url);
-            httpGet.setHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
+            // Keep the connection alive for the next fetch, and ask for compressed metrics.
+            httpGet.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
             httpclient.execute(httpGet, new FutureCallback<HttpResponse>() {
                 @Override
                 public void completed(final HttpResponse response) {
@@ -251,11 +285,12 @@ public class MetricFetcher {
         } catch (Exception e) {
             logger.info(msg + " metric, wait http client error:", e);
         }
+        drainPushedMetric(app, startTime, endTime, metricMap);
         long cost = System.currentTimeMillis() - start;
         //logger.info("finished " + msg + " metric for " + app + ", time intervalMs [" + startTime + ", " + endTime
         //    + "], total machines=" + machines.size() + ", dead=" + dead + ", fetch success="
         //    + success + ", fetch fail=" + fail + ", time cost=" + cost + " ms");
-        writeMetric(metricMap);
+        writeMetric(app, metricMap);
     }
 
     private void doFetchAppMetric(final String app) {
@@ -304,11 +339,23 @@ public class MetricFetcher {
             }
         } catch (Exception ignore) {
         }
-        String body = EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        HttpEntity entity = response.getEntity();
+        Header contentEncoding = entity.getContentEncoding();
+        if (contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue())) {
+            entity = new GzipDecompressingEntity(entity);
+        }
+        String body = EntityUtils.toString(entity, charset != null ? charset : DEFAULT_CHARSET);
         if (StringUtil.isEmpty(body) || body.startsWith(NO_METRICS)) {
             //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() + ", bodyStr is empty");
             return;
         }
+        if (MetricDeltaDecoder.isDelta(body)) {
+            List<MetricNode> nodes = getDeltaDecoder(machine.getIp(), machine.getPort()).decode(body);
+            for (MetricNode node : nodes) {
+                aggregate(machine.getApp(), node, metricMap);
+            }
+            return;
+        }
         String[] lines = body.split("\n");
         //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() +
         //    ", bodyStr.length()=" + body.length() + ", lines=" + lines.length);
@@ -324,38 +371,94 @@ public class MetricFetcher {
         for (String line : lines) {
             try {
                 MetricNode node = MetricNode.fromThinString(line);
-                if (shouldFilterOut(node.getResource())) {
+                aggregate(machine.getApp(), node, map);
+            } catch (Exception e) {
+                logger.warn("handleBody line exception, machine: {}, line: {}", machine.toLogString(), line);
+            }
+        }
+    }
+
+    /**
+     * Aggregate metrics by app_resource_timeSecond, ignore ip and port.
+     */
+    private void aggregate(String app, MetricNode node, Map<String, MetricEntity> map) {
+        if (shouldFilterOut(node.getResource())) {
+            return;
+        }
+        String key = buildMetricKey(app, node.getResource(), node.getTimestamp());
+        MetricEntity entity = map.get(key);
+        if (entity != null) {
+            entity.addPassQps(node.getPassQps());
+            entity.addBlockQps(node.getBlockQps());
+            entity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+            entity.addExceptionQps(node.getExceptionQps());
+            entity.addCount(1);
+        } else {
+            entity = new MetricEntity();
+            entity.setApp(app);
+            entity.setTimestamp(new Date(node.getTimestamp()));
+            entity.setPassQps(node.getPassQps());
+            entity.setBlockQps(node.getBlockQps());
+            entity.setRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+            entity.setExceptionQps(node.getExceptionQps());
+            entity.setCount(1);
+            entity.setResource(node.getResource());
+            map.put(key, entity);
+        }
+    }
+
+    /**
+     * Receive delta metrics pushed by a machine. The metrics are kept until the time window of
+     * the app including them is fetched.
+     *
+     * @param app     app of the machine
+     * @param ip      ip of the machine
+     * @param port    port of the machine
+     * @param payload delta metrics
+     * @return amount of resource names known of the machine
+     * @throws Exception if the payload is corrupted
+     */
+    public int receivePushedMetric(String app, String ip, int port, String payload) throws Exception {
+        MetricDeltaDecoder decoder = getDeltaDecoder(ip, port);
+        List<MetricNode> nodes = decoder.decode(payload);
+        machineLastPushTime.put(ip + ":" + port, System.currentTimeMillis());
+        List<MetricNode> pending = pushedMetrics.computeIfAbsent(app, e -> new ArrayList<>());
+        synchronized (pending) {
+            pending.addAll(nodes);
+        }
+        return decoder.getDictSize();
+    }
+
+    private void drainPushedMetric(String app, long startTime, long endTime, Map<String, MetricEntity> metricMap) {
+        List<MetricNode> pending = pushedMetrics.get(app);
+        if (pending == null) {
+            return;
+        }
+        synchronized (pending) {
+            Iterator<MetricNode> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                MetricNode node = iterator.next();
+                if (node.getTimestamp() > endTime) {
                     continue;
                 }
-                /*
-                 * aggregation metrics by app_resource_timeSecond, ignore ip and port.
-                 */
-                String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
-                MetricEntity entity = map.get(key);
-                if (entity != null) {
-                    entity.addPassQps(node.getPassQps());
-                    entity.addBlockQps(node.getBlockQps());
-                    entity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
-                    entity.addExceptionQps(node.getExceptionQps());
-                    entity.addCount(1);
-                } else {
-                    entity = new MetricEntity();
-                    entity.setApp(machine.getApp());
-                    entity.setTimestamp(new Date(node.getTimestamp()));
-                    entity.setPassQps(node.getPassQps());
-                    entity.setBlockQps(node.getBlockQps());
-                    entity.setRtAndSuccessQps(node.getRt(), node.getSuccessQps());
-                    entity.setExceptionQps(node.getExceptionQps());
-                    entity.setCount(1);
-                    entity.setResource(node.getResource());
-                    map.put(key, entity);
+                // Metrics pushed after their time window has been fetched are dropped.
+                if (node.getTimestamp() >= startTime) {
+                    aggregate(app, node, metricMap);
                 }
-            } catch (Exception e) {
-                logger.warn("handleBody line exception, machine: {}, line: {}", machine.toLogString(), line);
+                iterator.remove();
             }
         }
     }
 
+    private boolean isPushing(MachineInfo machine) {
+        Long lastPushTime = machineLastPushTime.get(machine.getIp() + ":" + machine.getPort());
+        return lastPushTime != null && System.currentTimeMillis() - lastPushTime < MAX_LAST_PUSH_INTERVAL_MS;
+    }
+
+    private MetricDeltaDecoder getDeltaDecoder(String ip, int port) {
+        return deltaDecoders.computeIfAbsent(ip + ":" + port, e -> new MetricDeltaDecoder());
+    }
+
     private String buildMetricKey(String app, String resource, long timestamp) {
         return app + "__" + resource + "__" + (timestamp / 1000);
     }
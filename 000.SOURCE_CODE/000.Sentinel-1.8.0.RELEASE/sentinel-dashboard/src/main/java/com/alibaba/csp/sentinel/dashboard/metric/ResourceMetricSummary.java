@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+/**
+ * Immutable sums of metrics of a resource over all machines of the app, in the recent window
+ * of {@link MetricAggregator}.
+ *
+ * @since 1.8.1
+ */
+public final class ResourceMetricSummary {
+
+    private final String resource;
+    private final long passQps;
+    private final long successQps;
+    private final long blockQps;
+    private final long exceptionQps;
+    /**
+     * summary rt of all success qps.
+     */
+    private final double rt;
+
+    ResourceMetricSummary(String resource, long passQps, long successQps, long blockQps, long exceptionQps,
+                          double rt) {
+        this.resource = resource;
+        this.passQps = passQps;
+        this.successQps = successQps;
+        this.blockQps = blockQps;
+        this.exceptionQps = exceptionQps;
+        this.rt = rt;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public long getPassQps() {
+        return passQps;
+    }
+
+    public long getSuccessQps() {
+        return successQps;
+    }
+
+    public long getBlockQps() {
+        return blockQps;
+    }
+
+    public long getExceptionQps() {
+        return exceptionQps;
+    }
+
+    public double getRt() {
+        return rt;
+    }
+
+    public double getAvgRt() {
+        return successQps > 0 ? rt / successQps : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceMetricSummary{" +
+            "resource='" + resource + '\'' +
+            ", passQps=" + passQps +
+            ", successQps=" + successQps +
+            ", blockQps=" + blockQps +
+            ", exceptionQps=" + exceptionQps +
+            ", rt=" + rt +
+            '}';
+    }
+}
@@ -15,9 +15,11 @@
  */
 package com.alibaba.csp.sentinel.dashboard.repository.metric;
 
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
 import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -32,11 +34,13 @@ import java.util.stream.Collectors;
 
 /**
  * Caches metrics data in a period of time in memory.
+ * It's the default store, which can also be set by {@code sentinel.dashboard.metric.store=memory}.
  *
  * @author Carpenter Lee
  * @author Eric Zhao
  */
 @Component
+@ConditionalOnProperty(name = DashboardConfig.CONFIG_METRIC_STORE, havingValue = "memory", matchIfMissing = true)
 public class InMemoryMetricsRepository implements MetricsRepository<MetricEntity> {
 
     private static final long MAX_METRIC_LIVE_TIME_MS = 1000 * 60 * 5;
@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Allocates buffers of {@link MetricBlock}s from large direct (off-heap) chunks by bumping a pointer,
+ * so that small blocks do not cost a direct buffer (and its cleaner) each.</p>
+ *
+ * <p>A chunk is freed by GC once the blocks in it are all evicted, so blocks with similar lifetime
+ * (i.e. of the same resolution) should share an arena.</p>
+ *
+ * @since 1.8.1
+ */
+final class MetricArena {
+
+    private final int chunkSize;
+    private final AtomicReference<Chunk> current = new AtomicReference<>();
+
+    MetricArena(int chunkSize) {
+        if (chunkSize <= 0 || (chunkSize & 7) != 0) {
+            throw new IllegalArgumentException("chunkSize should be positive multiple of 8");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Allocate a buffer with the given size, indexed from 0.
+     *
+     * @param size size of the buffer, should be multiple of 8
+     * @return the direct buffer
+     */
+    ByteBuffer allocate(int size) {
+        if (size > chunkSize / 4) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        for (;;) {
+            Chunk chunk = current.get();
+            if (chunk != null) {
+                ByteBuffer buffer = chunk.tryAllocate(size);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+            current.compareAndSet(chunk, new Chunk(ByteBuffer.allocateDirect(chunkSize)));
+        }
+    }
+
+    private static final class Chunk {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger position = new AtomicInteger();
+
+        Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        ByteBuffer tryAllocate(int size) {
+            if (position.get() + size > buffer.capacity()) {
+                return null;
+            }
+            int offset = position.getAndAdd(size);
+            if (offset + size > buffer.capacity()) {
+                return null;
+            }
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(offset);
+            slice.limit(offset + size);
+            return slice.slice();
+        }
+    }
+}
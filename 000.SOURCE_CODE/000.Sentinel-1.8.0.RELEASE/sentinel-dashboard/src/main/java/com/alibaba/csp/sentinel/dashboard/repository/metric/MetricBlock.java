@@ -0,0 +1,309 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>An immutable block of metric records, compressed column by column in a direct (off-heap) buffer.</p>
+ *
+ * <p>The records are sorted by timestamp, and encoded in the way of Gorilla: timestamps with delta-of-delta,
+ * the counters with delta and the rt with XOR of the previous value. Deltas are written as a variable-length
+ * prefix code, so that a steady series costs about one bit per column per record.</p>
+ *
+ * @since 1.8.1
+ */
+final class MetricBlock {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    /**
+     * Id of the head block which the records are sealed from.
+     */
+    private final long sourceId;
+
+    private MetricBlock(ByteBuffer buffer, int size, long minTimestamp, long maxTimestamp, long sourceId) {
+        this.buffer = buffer;
+        this.size = size;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.sourceId = sourceId;
+    }
+
+    /**
+     * Encode the records into a block.
+     *
+     * @param columns  columns of records (see {@link MetricSeries#COLUMN_COUNT}), sorted by timestamp
+     * @param size     amount of records
+     * @param sourceId id of the head block which the records are sealed from
+     * @param arena    arena to allocate the buffer from
+     * @return the encoded block
+     */
+    static MetricBlock encode(long[][] columns, int size, long sourceId, MetricArena arena) {
+        BitOutput out = new BitOutput(size / 4 + 16);
+        long[] timestamps = columns[MetricSeries.TIMESTAMP];
+        long prevTimestamp = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = timestamps[i] - prevTimestamp;
+            if (i == 0) {
+                out.writeBits(timestamps[i], 64);
+            } else {
+                out.writeSigned(delta - prevDelta);
+            }
+            prevDelta = i == 0 ? 0 : delta;
+            prevTimestamp = timestamps[i];
+        }
+        for (int c = MetricSeries.TIMESTAMP + 1; c < MetricSeries.RT; c++) {
+            long prev = 0;
+            for (int i = 0; i < size; i++) {
+                out.writeSigned(columns[c][i] - prev);
+                prev = columns[c][i];
+            }
+        }
+        encodeXor(out, columns[MetricSeries.RT], size);
+        return new MetricBlock(out.toBuffer(arena), size, timestamps[0], timestamps[size - 1], sourceId);
+    }
+
+    private static void encodeXor(BitOutput out, long[] values, int size) {
+        long prev = 0;
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = 0; i < size; i++) {
+            long xor = values[i] ^ prev;
+            prev = values[i];
+            if (xor == 0) {
+                out.writeBits(0, 1);
+                continue;
+            }
+            int leading = Long.numberOfLeadingZeros(xor);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                // Meaningful bits fall into the previous window.
+                out.writeBits(0b10, 2);
+                out.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                out.writeBits(0b11, 2);
+                out.writeBits(leading, 6);
+                out.writeBits(meaningful - 1, 6);
+                out.writeBits(xor >>> trailing, meaningful);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+    }
+
+    /**
+     * Decode all records of the block.
+     *
+     * @return columns of records
+     */
+    long[][] decode() {
+        long[][] columns = new long[MetricSeries.COLUMN_COUNT][size];
+        BitInput in = new BitInput(buffer);
+        long[] timestamps = columns[MetricSeries.TIMESTAMP];
+        long prevDelta = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                timestamps[i] = in.readBits(64);
+            } else {
+                long delta = prevDelta + in.readSigned();
+                timestamps[i] = timestamps[i - 1] + delta;
+                prevDelta = delta;
+            }
+        }
+        for (int c = MetricSeries.TIMESTAMP + 1; c < MetricSeries.RT; c++) {
+            long prev = 0;
+            for (int i = 0; i < size; i++) {
+                prev += in.readSigned();
+                columns[c][i] = prev;
+            }
+        }
+        decodeXor(in, columns[MetricSeries.RT]);
+        return columns;
+    }
+
+    private void decodeXor(BitInput in, long[] values) {
+        long prev = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; i < size; i++) {
+            if (in.readBits(1) == 0) {
+                values[i] = prev;
+                continue;
+            }
+            if (in.readBits(1) == 1) {
+                leading = (int)in.readBits(6);
+                int meaningful = (int)in.readBits(6) + 1;
+                trailing = 64 - leading - meaningful;
+            }
+            prev ^= in.readBits(64 - leading - trailing) << trailing;
+            values[i] = prev;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long getSourceId() {
+        return sourceId;
+    }
+
+    /**
+     * Bit stream writer, from the most significant bit of each word.
+     */
+    private static final class BitOutput {
+
+        private long[] words;
+        private int position;
+
+        BitOutput(int initialWords) {
+            this.words = new long[initialWords];
+        }
+
+        void writeBits(long value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int index = position >>> 6;
+            if (index + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            int free = 64 - (position & 63);
+            if (bits <= free) {
+                words[index] |= value << (free - bits);
+            } else {
+                words[index] |= value >>> (bits - free);
+                words[index + 1] |= value << (64 - bits + free);
+            }
+            position += bits;
+        }
+
+        /**
+         * Write a signed value with prefix code: '0' for 0, '10' for 7 bits, '110' for 9 bits,
+         * '1110' for 12 bits, '1111' for 64 bits.
+         */
+        void writeSigned(long value) {
+            if (value == 0) {
+                writeBits(0, 1);
+            } else if (value >= -64 && value < 64) {
+                writeBits(0b10, 2);
+                writeBits(value, 7);
+            } else if (value >= -256 && value < 256) {
+                writeBits(0b110, 3);
+                writeBits(value, 9);
+            } else if (value >= -2048 && value < 2048) {
+                writeBits(0b1110, 4);
+                writeBits(value, 12);
+            } else {
+                writeBits(0b1111, 4);
+                writeBits(value, 64);
+            }
+        }
+
+        ByteBuffer toBuffer(MetricArena arena) {
+            int wordCount = (position + 63) >>> 6;
+            ByteBuffer buffer = arena.allocate(wordCount << 3);
+            for (int i = 0; i < wordCount; i++) {
+                buffer.putLong(i << 3, words[i]);
+            }
+            return buffer;
+        }
+    }
+
+    private static final class BitInput {
+
+        private final ByteBuffer buffer;
+        private int position;
+        /**
+         * The word being read, to avoid reading the buffer for each value.
+         */
+        private int wordIndex = -1;
+        private long word;
+
+        BitInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private long wordAt(int index) {
+            if (index != wordIndex) {
+                word = buffer.getLong(index << 3);
+                wordIndex = index;
+            }
+            return word;
+        }
+
+        long readBits(int bits) {
+            if (bits == 0) {
+                return 0;
+            }
+            int index = position >>> 6;
+            int offset = position & 63;
+            int free = 64 - offset;
+            long current = wordAt(index);
+            long value;
+            if (bits <= free) {
+                value = (current << offset) >>> (64 - bits);
+            } else {
+                int rest = bits - free;
+                long high = (current << offset) >>> offset;
+                value = (high << rest) | (wordAt(index + 1) >>> (64 - rest));
+            }
+            position += bits;
+            return value;
+        }
+
+        long readSigned() {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(7), 7);
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(9), 9);
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(12), 12);
+            }
+            return readBits(64);
+        }
+
+        private static long signExtend(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+}
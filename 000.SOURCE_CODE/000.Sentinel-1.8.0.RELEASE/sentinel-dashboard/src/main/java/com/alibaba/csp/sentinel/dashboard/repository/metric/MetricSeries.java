@@ -0,0 +1,390 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * <p>Time series of metric records of a resource in one resolution (raw, or rollup of minute/hour).</p>
+ *
+ * <p>Records are appended to a small head block without locking: each writer reserves a slot
+ * by CAS and publishes the slot after writing it. The writer which reserves the slot just past the end
+ * (or finds the head spanning too long) seals the head into a compressed off-heap {@link MetricBlock},
+ * and rolls the records up into the series of coarser resolution. Blocks out of the retention are evicted
+ * by {@link #sweep(long)}.</p>
+ *
+ * @since 1.8.1
+ */
+final class MetricSeries {
+
+    static final int TIMESTAMP = 0;
+    static final int PASS_QPS = 1;
+    static final int SUCCESS_QPS = 2;
+    static final int BLOCK_QPS = 3;
+    static final int EXCEPTION_QPS = 4;
+    static final int COUNT = 5;
+    /**
+     * Amount of raw records which the record is rolled up from.
+     */
+    static final int SAMPLES = 6;
+    /**
+     * Raw bits of the (summary) rt in double.
+     */
+    static final int RT = 7;
+    static final int COLUMN_COUNT = 8;
+
+    private static final AtomicLong HEAD_ID_GENERATOR = new AtomicLong();
+
+    private final long resolutionMs;
+    private final long retentionMs;
+    private final int headCapacity;
+    private final long maxHeadSpanMs;
+    private final MetricArena arena;
+    private final MetricSeries rollup;
+
+    private static final AtomicReferenceFieldUpdater<MetricSeries, HeadBlock> HEAD_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(MetricSeries.class, HeadBlock.class, "head");
+
+    private volatile HeadBlock head;
+    private final ConcurrentLinkedQueue<MetricBlock> blocks = new ConcurrentLinkedQueue<>();
+    private volatile long latestTimestamp = Long.MIN_VALUE;
+
+    /**
+     * @param resolutionMs  resolution of records, 0 for raw records
+     * @param retentionMs   how long the records are retained
+     * @param headCapacity  max amount of records in the head block
+     * @param maxHeadSpanMs max time span of records in the head block before it's sealed
+     * @param arena         arena to allocate sealed blocks from
+     * @param rollup        series of coarser resolution to roll up to, nullable
+     */
+    MetricSeries(long resolutionMs, long retentionMs, int headCapacity, long maxHeadSpanMs, MetricArena arena,
+                 MetricSeries rollup) {
+        this.resolutionMs = resolutionMs;
+        this.retentionMs = retentionMs;
+        this.headCapacity = headCapacity;
+        this.maxHeadSpanMs = maxHeadSpanMs;
+        this.arena = arena;
+        this.rollup = rollup;
+    }
+
+    void append(long[] record) {
+        long timestamp = record[TIMESTAMP];
+        if (timestamp > latestTimestamp) {
+            latestTimestamp = timestamp;
+        }
+        for (;;) {
+            HeadBlock current = head;
+            if (current == null) {
+                HEAD_UPDATER.compareAndSet(this, null, new HeadBlock(headCapacity));
+                continue;
+            }
+            if (timestamp - current.firstTimestamp() >= maxHeadSpanMs && closeAndSeal(current)) {
+                continue;
+            }
+            int slot = current.reserve();
+            if (slot < headCapacity) {
+                current.write(slot, record);
+                return;
+            }
+            if (slot == headCapacity) {
+                seal(current, headCapacity);
+            } else {
+                // Wait for the sealing writer to remove the full head.
+                Thread.yield();
+            }
+        }
+    }
+
+    private boolean closeAndSeal(HeadBlock current) {
+        int size = current.close();
+        if (size < 0) {
+            return false;
+        }
+        seal(current, size);
+        return true;
+    }
+
+    private void seal(HeadBlock current, int size) {
+        long[][] columns = current.readAll(size);
+        if (size > 0) {
+            sortByTimestamp(columns, size);
+            // Publish the block before removing the head, readers skip the block if they have read the head.
+            blocks.offer(MetricBlock.encode(columns, size, current.id, arena));
+        }
+        HEAD_UPDATER.compareAndSet(this, current, null);
+        if (rollup != null && size > 0) {
+            rollUp(columns, size);
+        }
+    }
+
+    private void rollUp(long[][] columns, int size) {
+        long resolution = rollup.resolutionMs;
+        long[] aggregated = null;
+        for (int i = 0; i < size; i++) {
+            long timestamp = columns[TIMESTAMP][i];
+            long bucket = timestamp - Math.floorMod(timestamp, resolution);
+            if (aggregated != null && aggregated[TIMESTAMP] != bucket) {
+                rollup.append(aggregated);
+                aggregated = null;
+            }
+            if (aggregated == null) {
+                aggregated = new long[COLUMN_COUNT];
+                aggregated[TIMESTAMP] = bucket;
+                aggregated[RT] = Double.doubleToRawLongBits(0);
+            }
+            mergeRecord(aggregated, columns, i);
+        }
+        rollup.append(aggregated);
+    }
+
+    private static void mergeRecord(long[] target, long[][] columns, int index) {
+        for (int c = TIMESTAMP + 1; c < RT; c++) {
+            target[c] += columns[c][index];
+        }
+        target[RT] = Double.doubleToRawLongBits(
+            Double.longBitsToDouble(target[RT]) + Double.longBitsToDouble(columns[RT][index]));
+    }
+
+    /**
+     * Merge the counters of a record of the same (rollup) timestamp into the target record.
+     */
+    static void mergeRecord(long[] target, long[] record) {
+        for (int c = TIMESTAMP + 1; c < RT; c++) {
+            target[c] += record[c];
+        }
+        target[RT] = Double.doubleToRawLongBits(
+            Double.longBitsToDouble(target[RT]) + Double.longBitsToDouble(record[RT]));
+    }
+
+    private static void sortByTimestamp(long[][] columns, int size) {
+        long[] timestamps = columns[TIMESTAMP];
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = timestamps[i - 1] <= timestamps[i];
+        }
+        if (sorted) {
+            return;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // Stable, so that records of the same timestamp keep the order of appending.
+        Arrays.sort(order, Comparator.comparingLong(i -> timestamps[i]));
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            long[] column = columns[c];
+            long[] copy = Arrays.copyOf(column, size);
+            for (int i = 0; i < size; i++) {
+                column[i] = copy[order[i]];
+            }
+        }
+    }
+
+    /**
+     * Collect the records with timestamp between {@code [startTime, endTime]}, sealed blocks first,
+     * in the order of appending.
+     *
+     * @param startTime start timestamp
+     * @param endTime   end timestamp
+     * @param consumer  consumer of records
+     * @return the oldest timestamp of records retained in this series, {@link Long#MAX_VALUE} if empty
+     */
+    long collect(long startTime, long endTime, Consumer<long[]> consumer) {
+        long oldest = Long.MAX_VALUE;
+        HeadBlock current = head;
+        for (MetricBlock block : blocks) {
+            if (current != null && block.getSourceId() == current.id) {
+                continue;
+            }
+            oldest = Math.min(oldest, block.getMinTimestamp());
+            if (block.getMaxTimestamp() < startTime || block.getMinTimestamp() > endTime) {
+                continue;
+            }
+            long[][] columns = block.decode();
+            for (int i = 0; i < block.size(); i++) {
+                long timestamp = columns[TIMESTAMP][i];
+                if (timestamp >= startTime && timestamp <= endTime) {
+                    consumer.accept(recordAt(columns, i));
+                }
+            }
+        }
+        if (current != null) {
+            int size = current.readableSize();
+            for (int i = 0; i < size; i++) {
+                if (!current.isReady(i)) {
+                    continue;
+                }
+                long timestamp = current.get(TIMESTAMP, i);
+                oldest = Math.min(oldest, timestamp);
+                if (timestamp >= startTime && timestamp <= endTime) {
+                    consumer.accept(current.recordAt(i));
+                }
+            }
+        }
+        return oldest;
+    }
+
+    private static long[] recordAt(long[][] columns, int index) {
+        long[] record = new long[COLUMN_COUNT];
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            record[c] = columns[c][index];
+        }
+        return record;
+    }
+
+    /**
+     * Seal the head block if it has spanned too long, and evict the blocks out of the retention.
+     *
+     * @param now current timestamp
+     */
+    void sweep(long now) {
+        HeadBlock current = head;
+        if (current != null && now - current.firstTimestamp() >= maxHeadSpanMs) {
+            closeAndSeal(current);
+        }
+        long expireTime = now - retentionMs;
+        MetricBlock block;
+        while ((block = blocks.peek()) != null && block.getMaxTimestamp() < expireTime) {
+            blocks.remove(block);
+        }
+        if (rollup != null) {
+            rollup.sweep(now);
+        }
+    }
+
+    long getResolutionMs() {
+        return resolutionMs;
+    }
+
+    MetricSeries getRollup() {
+        return rollup;
+    }
+
+    long getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    /**
+     * @return size in bytes of the compressed blocks in this series and its rollups
+     */
+    long sizeInBytes() {
+        long size = 0;
+        for (MetricBlock block : blocks) {
+            size += block.sizeInBytes();
+        }
+        return rollup == null ? size : size + rollup.sizeInBytes();
+    }
+
+    private static final class HeadBlock {
+
+        private static final AtomicIntegerFieldUpdater<HeadBlock> RESERVED_UPDATER
+            = AtomicIntegerFieldUpdater.newUpdater(HeadBlock.class, "reserved");
+
+        private final long id = HEAD_ID_GENERATOR.incrementAndGet();
+        private final int capacity;
+        /**
+         * Records one by one, so that writing a record touches one cache line. A record is published
+         * by writing the amount of samples (at least 1) at last.
+         */
+        private final AtomicLongArray values;
+        private volatile int reserved;
+
+        HeadBlock(int capacity) {
+            this.capacity = capacity;
+            this.values = new AtomicLongArray(COLUMN_COUNT * capacity);
+        }
+
+        int reserve() {
+            return RESERVED_UPDATER.getAndIncrement(this);
+        }
+
+        /**
+         * Stop reserving slots, so that the head can be sealed before it's full.
+         *
+         * @return amount of reserved slots, or -1 if the head has been closed or full
+         */
+        int close() {
+            for (;;) {
+                int size = reserved;
+                if (size >= capacity) {
+                    return -1;
+                }
+                if (RESERVED_UPDATER.compareAndSet(this, size, capacity + 1)) {
+                    return size;
+                }
+            }
+        }
+
+        void write(int slot, long[] record) {
+            int offset = slot * COLUMN_COUNT;
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                if (c != SAMPLES) {
+                    values.lazySet(offset + c, record[c]);
+                }
+            }
+            values.set(offset + SAMPLES, record[SAMPLES]);
+        }
+
+        long get(int column, int slot) {
+            return values.get(slot * COLUMN_COUNT + column);
+        }
+
+        long[] recordAt(int slot) {
+            long[] record = new long[COLUMN_COUNT];
+            int offset = slot * COLUMN_COUNT;
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                record[c] = values.get(offset + c);
+            }
+            return record;
+        }
+
+        boolean isReady(int slot) {
+            return values.get(slot * COLUMN_COUNT + SAMPLES) != 0;
+        }
+
+        int readableSize() {
+            return Math.min(reserved, capacity);
+        }
+
+        long firstTimestamp() {
+            return isReady(0) ? values.get(TIMESTAMP) : Long.MAX_VALUE;
+        }
+
+        /**
+         * Read all reserved records column by column, waiting for the writers which have reserved slots.
+         */
+        long[][] readAll(int size) {
+            long[][] columns = new long[COLUMN_COUNT][size];
+            for (int i = 0; i < size; i++) {
+                while (!isReady(i)) {
+                    Thread.yield();
+                }
+                int offset = i * COLUMN_COUNT;
+                for (int c = 0; c < COLUMN_COUNT; c++) {
+                    columns[c][i] = values.get(offset + c);
+                }
+            }
+            return columns;
+        }
+    }
+}
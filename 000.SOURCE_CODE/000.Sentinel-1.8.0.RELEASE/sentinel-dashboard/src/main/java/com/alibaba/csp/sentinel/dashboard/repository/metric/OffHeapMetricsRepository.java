@@ -0,0 +1,286 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Stores metrics in compressed time series of each app and resource, mostly off-heap.</p>
+ *
+ * <p>Raw (per-second) metrics are rolled up to per-minute and per-hour metrics, each with its own retention
+ * (see {@link DashboardConfig#CONFIG_METRIC_RAW_RETENTION_MS} and so on). Queries are served by raw metrics
+ * where they are retained, and by the rollups for earlier time, where each metric is the average in the
+ * minute or hour. Saving does not lock, so it never blocks queries.</p>
+ *
+ * <p>It's enabled by {@code sentinel.dashboard.metric.store=offheap}. It keeps far less heap than
+ * {@link InMemoryMetricsRepository}, but a query alone is slower, as it decodes compressed blocks.</p>
+ *
+ * @since 1.8.1
+ */
+@Component
+@ConditionalOnProperty(name = DashboardConfig.CONFIG_METRIC_STORE, havingValue = "offheap")
+public class OffHeapMetricsRepository implements MetricsRepository<MetricEntity> {
+
+    private static final long MINUTE_MS = 60_000;
+    private static final long HOUR_MS = 3600_000;
+
+    private static final int RAW_HEAD_CAPACITY = 32;
+    private static final long RAW_HEAD_SPAN_MS = 2 * MINUTE_MS;
+    private static final int MINUTE_HEAD_CAPACITY = 16;
+    private static final long MINUTE_HEAD_SPAN_MS = HOUR_MS;
+    private static final int HOUR_HEAD_CAPACITY = 8;
+    private static final long HOUR_HEAD_SPAN_MS = 24 * HOUR_MS;
+
+    private static final int ARENA_CHUNK_SIZE = 256 * 1024;
+    private static final long SWEEP_INTERVAL_MS = 10_000;
+
+    /**
+     * {@code app -> resource -> series}
+     */
+    private final Map<String, Map<String, MetricSeries>> allMetrics = new ConcurrentHashMap<>();
+
+    private final long rawRetentionMs;
+    private final long minuteRetentionMs;
+    private final long hourRetentionMs;
+
+    private final MetricArena rawArena = new MetricArena(ARENA_CHUNK_SIZE);
+    private final MetricArena minuteArena = new MetricArena(ARENA_CHUNK_SIZE);
+    private final MetricArena hourArena = new MetricArena(ARENA_CHUNK_SIZE);
+
+    private final AtomicLong lastSweepTime = new AtomicLong();
+
+    public OffHeapMetricsRepository() {
+        this(DashboardConfig.getMetricRawRetentionMs(), DashboardConfig.getMetricMinuteRetentionMs(),
+            DashboardConfig.getMetricHourRetentionMs());
+    }
+
+    public OffHeapMetricsRepository(long rawRetentionMs, long minuteRetentionMs, long hourRetentionMs) {
+        this.rawRetentionMs = rawRetentionMs;
+        this.minuteRetentionMs = minuteRetentionMs;
+        this.hourRetentionMs = hourRetentionMs;
+    }
+
+    @Override
+    public void save(MetricEntity entity) {
+        if (entity == null || StringUtil.isBlank(entity.getApp()) || entity.getResource() == null
+            || entity.getTimestamp() == null) {
+            return;
+        }
+        MetricSeries series = getSeries(entity.getApp(), entity.getResource());
+        if (series == null) {
+            series = allMetrics.computeIfAbsent(entity.getApp(), e -> new ConcurrentHashMap<>(16))
+                .computeIfAbsent(entity.getResource(), e -> newSeries());
+        }
+        series.append(toRecord(entity));
+        sweepIfNeeded(TimeUtil.currentTimeMillis());
+    }
+
+    @Override
+    public void saveAll(Iterable<MetricEntity> metrics) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.forEach(this::save);
+    }
+
+    private MetricSeries newSeries() {
+        MetricSeries hour = new MetricSeries(HOUR_MS, hourRetentionMs, HOUR_HEAD_CAPACITY, HOUR_HEAD_SPAN_MS,
+            hourArena, null);
+        MetricSeries minute = new MetricSeries(MINUTE_MS, minuteRetentionMs, MINUTE_HEAD_CAPACITY,
+            MINUTE_HEAD_SPAN_MS, minuteArena, hour);
+        return new MetricSeries(0, rawRetentionMs, RAW_HEAD_CAPACITY, RAW_HEAD_SPAN_MS, rawArena, minute);
+    }
+
+    @Override
+    public List<MetricEntity> queryByAppAndResourceBetween(String app, String resource,
+                                                           long startTime, long endTime) {
+        List<MetricEntity> results = new ArrayList<>();
+        MetricSeries series = getSeries(app, resource);
+        if (series == null) {
+            return results;
+        }
+        long upperTime = endTime;
+        for (MetricSeries level = series; level != null; level = level.getRollup()) {
+            List<long[]> records = new ArrayList<>();
+            long oldest = level.collect(startTime, upperTime, records::add);
+            // Coarser levels cover earlier time.
+            results.addAll(0, toEntities(app, resource, records, level.getResolutionMs() == 0));
+            if (oldest != Long.MAX_VALUE && level.getRollup() != null) {
+                // Only the rollups covering time earlier than the records of finer resolution.
+                upperTime = Math.min(upperTime, oldest - level.getRollup().getResolutionMs());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<String> listResourcesOfApp(String app) {
+        List<String> results = new ArrayList<>();
+        if (StringUtil.isBlank(app)) {
+            return results;
+        }
+        Map<String, MetricSeries> resourceMap = allMetrics.get(app);
+        if (resourceMap == null) {
+            return results;
+        }
+        final long minTimeMs = TimeUtil.currentTimeMillis() - MINUTE_MS;
+        // resource -> {passQps, blockQps} in last minute
+        Map<String, long[]> resourceCount = new HashMap<>(32);
+        for (Entry<String, MetricSeries> entry : resourceMap.entrySet()) {
+            long[] count = new long[2];
+            boolean[] present = new boolean[1];
+            entry.getValue().collect(minTimeMs, Long.MAX_VALUE, record -> {
+                count[0] += record[MetricSeries.PASS_QPS];
+                count[1] += record[MetricSeries.BLOCK_QPS];
+                present[0] = true;
+            });
+            if (present[0]) {
+                resourceCount.put(entry.getKey(), count);
+            }
+        }
+        // Order by last minute b_qps DESC.
+        return resourceCount.entrySet()
+            .stream()
+            .sorted((o1, o2) -> {
+                int t = Long.compare(o2.getValue()[1], o1.getValue()[1]);
+                if (t != 0) {
+                    return t;
+                }
+                return Long.compare(o2.getValue()[0], o1.getValue()[0]);
+            })
+            .map(Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private void sweepIfNeeded(long now) {
+        long last = lastSweepTime.get();
+        if (now - last >= SWEEP_INTERVAL_MS && lastSweepTime.compareAndSet(last, now)) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Seal idle head blocks (so that they are rolled up), evict expired blocks and remove expired series.
+     */
+    void sweep(long now) {
+        long expireTime = now - Math.max(rawRetentionMs, Math.max(minuteRetentionMs, hourRetentionMs));
+        for (Map<String, MetricSeries> resourceMap : allMetrics.values()) {
+            for (Entry<String, MetricSeries> entry : resourceMap.entrySet()) {
+                MetricSeries series = entry.getValue();
+                series.sweep(now);
+                if (series.getLatestTimestamp() < expireTime) {
+                    resourceMap.remove(entry.getKey(), series);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return size in bytes of compressed metrics of the resource
+     */
+    long sizeInBytes(String app, String resource) {
+        MetricSeries series = getSeries(app, resource);
+        return series == null ? 0 : series.sizeInBytes();
+    }
+
+    private MetricSeries getSeries(String app, String resource) {
+        if (StringUtil.isBlank(app) || resource == null) {
+            return null;
+        }
+        Map<String, MetricSeries> resourceMap = allMetrics.get(app);
+        return resourceMap == null ? null : resourceMap.get(resource);
+    }
+
+    private static List<MetricEntity> toEntities(String app, String resource, List<long[]> records, boolean raw) {
+        // Stable, and mostly sorted already.
+        records.sort(Comparator.comparingLong(r -> r[MetricSeries.TIMESTAMP]));
+        List<long[]> distinct = new ArrayList<>(records.size());
+        long[] last = null;
+        for (long[] record : records) {
+            if (last != null && last[MetricSeries.TIMESTAMP] == record[MetricSeries.TIMESTAMP]) {
+                if (raw) {
+                    // The latest saved one wins.
+                    distinct.set(distinct.size() - 1, record);
+                    last = record;
+                } else {
+                    // Partial rollups of the same minute or hour.
+                    MetricSeries.mergeRecord(last, record);
+                }
+                continue;
+            }
+            distinct.add(record);
+            last = record;
+        }
+        List<MetricEntity> entities = new ArrayList<>(distinct.size());
+        for (long[] record : distinct) {
+            entities.add(toEntity(app, resource, record));
+        }
+        return entities;
+    }
+
+    private static long[] toRecord(MetricEntity entity) {
+        long[] record = new long[MetricSeries.COLUMN_COUNT];
+        record[MetricSeries.TIMESTAMP] = entity.getTimestamp().getTime();
+        record[MetricSeries.PASS_QPS] = valueOf(entity.getPassQps());
+        record[MetricSeries.SUCCESS_QPS] = valueOf(entity.getSuccessQps());
+        record[MetricSeries.BLOCK_QPS] = valueOf(entity.getBlockQps());
+        record[MetricSeries.EXCEPTION_QPS] = valueOf(entity.getExceptionQps());
+        record[MetricSeries.COUNT] = entity.getCount();
+        record[MetricSeries.SAMPLES] = 1;
+        record[MetricSeries.RT] = Double.doubleToRawLongBits(entity.getRt());
+        return record;
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static MetricEntity toEntity(String app, String resource, long[] record) {
+        // Rollups are averaged over the raw metrics.
+        double samples = Math.max(1, record[MetricSeries.SAMPLES]);
+        Date timestamp = new Date(record[MetricSeries.TIMESTAMP]);
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(app);
+        entity.setResource(resource);
+        entity.setTimestamp(timestamp);
+        entity.setGmtCreate(timestamp);
+        entity.setGmtModified(timestamp);
+        entity.setPassQps(Math.round(record[MetricSeries.PASS_QPS] / samples));
+        entity.setSuccessQps(Math.round(record[MetricSeries.SUCCESS_QPS] / samples));
+        entity.setBlockQps(Math.round(record[MetricSeries.BLOCK_QPS] / samples));
+        entity.setExceptionQps(Math.round(record[MetricSeries.EXCEPTION_QPS] / samples));
+        entity.setRt(Double.longBitsToDouble(record[MetricSeries.RT]) / samples);
+        entity.setCount((int)record[MetricSeries.COUNT]);
+        return entity;
+    }
+}
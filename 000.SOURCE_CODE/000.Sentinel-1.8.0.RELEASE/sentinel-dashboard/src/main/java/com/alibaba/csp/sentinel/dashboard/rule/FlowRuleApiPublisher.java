@@ -18,12 +18,17 @@ package com.alibaba.csp.sentinel.dashboard.rule;
 import java.util.List;
 import java.util.Set;
 
+import com.alibaba.csp.sentinel.dashboard.client.CommandFanout;
+import com.alibaba.csp.sentinel.dashboard.client.FanoutResult;
 import com.alibaba.csp.sentinel.dashboard.client.SentinelApiClient;
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import com.alibaba.csp.sentinel.dashboard.datasource.entity.rule.FlowRuleEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -34,6 +39,8 @@ import org.springframework.stereotype.Component;
 @Component("flowRuleDefaultPublisher")
 public class FlowRuleApiPublisher implements DynamicRulePublisher<List<FlowRuleEntity>> {
 
+    private final Logger logger = LoggerFactory.getLogger(FlowRuleApiPublisher.class);
+
     @Autowired
     private SentinelApiClient sentinelApiClient;
     @Autowired
@@ -49,12 +56,18 @@ public class FlowRuleApiPublisher implements DynamicRulePublisher<List<FlowRuleE
         }
         Set<MachineInfo> set = appManagement.getDetailApp(app).getMachines();
 
+        // Push to all machines concurrently rather than one by one.
+        CommandFanout<Void> fanout = sentinelApiClient.newFanout();
         for (MachineInfo machine : set) {
             if (!machine.isHealthy()) {
                 continue;
             }
-            // TODO: parse the results
-            sentinelApiClient.setFlowRuleOfMachine(app, machine.getIp(), machine.getPort(), rules);
+            fanout.add(machine.getIp(), machine.getPort(),
+                () -> sentinelApiClient.setFlowRuleOfMachineAsync(app, machine.getIp(), machine.getPort(), rules));
+        }
+        FanoutResult<Void> result = fanout.execute(DashboardConfig.getCommandFanoutTimeoutMs()).get();
+        if (!result.isAllSuccess()) {
+            logger.warn("Failed to publish flow rules of app <{}> to machines: {}", app, result.getFailures());
         }
     }
 }
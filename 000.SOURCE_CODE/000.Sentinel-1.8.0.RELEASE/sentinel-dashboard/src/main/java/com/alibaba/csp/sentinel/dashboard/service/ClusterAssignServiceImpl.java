@@ -28,9 +28,11 @@ import java.util.stream.Collectors;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.state.ClusterUniversalStatePairVO;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.function.Tuple2;
 
+import com.alibaba.csp.sentinel.dashboard.client.CommandFanout;
+import com.alibaba.csp.sentinel.dashboard.client.FanoutResult;
 import com.alibaba.csp.sentinel.dashboard.client.SentinelApiClient;
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.ClusterAppAssignResultVO;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.ClusterGroupEntity;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.config.ClusterClientConfig;
@@ -85,15 +87,14 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
     }
 
     private void modifyToNonStarted(Set<String> toModifySet, Set<String> failedSet) {
-        toModifySet.parallelStream()
+        CommandFanout<Void> fanout = sentinelApiClient.newFanout();
+        toModifySet.stream()
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(e -> {
-                CompletableFuture<Void> f = modifyMode(e.r1, e.r2, ClusterStateManager.CLUSTER_NOT_STARTED);
-                return Tuple2.of(e.r1 + '@' + e.r2, f);
-            })
-            .forEach(f -> handleFutureSync(f, failedSet));
+            .forEach(e -> fanout.add(e.r1, e.r2,
+                () -> modifyMode(e.r1, e.r2, ClusterStateManager.CLUSTER_NOT_STARTED)));
+        awaitFanout(fanout, failedSet);
     }
 
     @Override
@@ -149,22 +150,25 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
         Set<String> failedClientSet = new HashSet<>();
 
         // Assign server and apply config.
+        CommandFanout<Void> serverFanout = sentinelApiClient.newFanout();
         clusterMap.stream()
             .filter(Objects::nonNull)
             .filter(ClusterAppAssignMap::getBelongToApp)
-            .map(e -> {
+            .forEach(e -> {
                 String ip = e.getIp();
                 int commandPort = parsePort(e);
-                CompletableFuture<Void> f = modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_SERVER)
-                    .thenCompose(v -> applyServerConfigChange(app, ip, commandPort, e));
-                return Tuple2.of(e.getMachineId(), f);
-            })
-            .forEach(t -> handleFutureSync(t, failedServerSet));
+                serverFanout.add(e.getMachineId(), ip,
+                    () -> modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_SERVER)
+                        .thenCompose(v -> applyServerConfigChange(app, ip, commandPort, e)));
+            });
+        awaitFanout(serverFanout, failedServerSet);
 
         // Assign client of servers and apply config.
-        clusterMap.parallelStream()
+        CommandFanout<Void> clientFanout = sentinelApiClient.newFanout();
+        clusterMap.stream()
             .filter(Objects::nonNull)
-            .forEach(e -> applyAllClientConfigChange(app, e, failedClientSet));
+            .forEach(e -> addAllClientConfigChange(app, e, clientFanout));
+        awaitFanout(clientFanout, failedClientSet);
 
         // Unbind remaining (unassigned) machines.
         applyAllRemainingMachineSet(app, remainingSet, failedClientSet);
@@ -178,22 +182,19 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
         if (remainingSet == null || remainingSet.isEmpty()) {
             return;
         }
-        remainingSet.parallelStream()
+        CommandFanout<Void> fanout = sentinelApiClient.newFanout();
+        remainingSet.stream()
             .filter(Objects::nonNull)
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(ipPort -> {
-                String ip = ipPort.r1;
-                int commandPort = ipPort.r2;
-                CompletableFuture<Void> f = modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_NOT_STARTED);
-                return Tuple2.of(ip + '@' + commandPort, f);
-            })
-            .forEach(t -> handleFutureSync(t, failedSet));
+            .forEach(ipPort -> fanout.add(ipPort.r1, ipPort.r2,
+                () -> modifyMode(ipPort.r1, ipPort.r2, ClusterStateManager.CLUSTER_NOT_STARTED)));
+        awaitFanout(fanout, failedSet);
     }
 
-    private void applyAllClientConfigChange(String app, ClusterAppAssignMap assignMap,
-                                            Set<String> failedSet) {
+    private void addAllClientConfigChange(String app, ClusterAppAssignMap assignMap,
+                                          CommandFanout<Void> fanout) {
         Set<String> clientSet = assignMap.getClientSet();
         if (clientSet == null || clientSet.isEmpty()) {
             return;
@@ -204,29 +205,27 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(ipPort -> {
-                CompletableFuture<Void> f = sentinelApiClient
-                    .modifyClusterMode(ipPort.r1, ipPort.r2, ClusterStateManager.CLUSTER_CLIENT)
-                    .thenCompose(v -> sentinelApiClient.modifyClusterClientConfig(app, ipPort.r1, ipPort.r2,
-                        new ClusterClientConfig().setRequestTimeout(20)
-                            .setServerHost(serverIp)
-                            .setServerPort(serverPort)
-                    ));
-                return Tuple2.of(ipPort.r1 + '@' + ipPort.r2, f);
-            })
-            .forEach(t -> handleFutureSync(t, failedSet));
+            .forEach(ipPort -> fanout.add(ipPort.r1, ipPort.r2, () -> sentinelApiClient
+                .modifyClusterMode(ipPort.r1, ipPort.r2, ClusterStateManager.CLUSTER_CLIENT)
+                .thenCompose(v -> sentinelApiClient.modifyClusterClientConfig(app, ipPort.r1, ipPort.r2,
+                    new ClusterClientConfig().setRequestTimeout(20)
+                        .setServerHost(serverIp)
+                        .setServerPort(serverPort)
+                ))));
     }
 
-    private void handleFutureSync(Tuple2<String, CompletableFuture<Void>> t, Set<String> failedSet) {
+    /**
+     * Send the commands to all machines concurrently, and wait for them until the deadline.
+     */
+    private void awaitFanout(CommandFanout<Void> fanout, Set<String> failedSet) {
         try {
-            t.r2.get(10, TimeUnit.SECONDS);
+            FanoutResult<Void> result = fanout.execute(DashboardConfig.getCommandFanoutTimeoutMs()).get();
+            result.getFailures().forEach((machineId, ex) -> LOGGER.error("Request for <{}> failed", machineId, ex));
+            failedSet.addAll(result.getFailedMachines());
         } catch (Exception ex) {
-            if (ex instanceof ExecutionException) {
-                LOGGER.error("Request for <{}> failed", t.r1, ex.getCause());
-            } else {
-                LOGGER.error("Request for <{}> failed", t.r1, ex);
-            }
-            failedSet.add(t.r1);
+            LOGGER.error("Request for machines failed", ex);
+            // None of the machines is confirmed.
+            failedSet.addAll(fanout.getMachineIds());
         }
     }
 
@@ -0,0 +1,188 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.rule.FlowRuleEntity;
+import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test cases for {@link CommandFanout}, with a simulated fleet whose machines are distinct loopback addresses
+ * served by one HTTP server that answers commands with a delay.
+ */
+public class CommandFanoutTest {
+
+    private static final String APP = "fleet";
+    private static final int FLEET_SIZE = 500;
+    private static final long COMMAND_LATENCY_MS = 20;
+    /**
+     * Machines on this address never answer in time.
+     */
+    private static final String SLOW_IP_PREFIX = "127.0.3.";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private SentinelApiClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        // Wire logs of every request would dominate the latency.
+        ((Logger)LoggerFactory.getLogger("org.apache.http")).setLevel(Level.INFO);
+        server = HttpServer.create(new InetSocketAddress("0.0.0.0", 0), 1024);
+        server.createContext("/", exchange -> {
+            try {
+                boolean slow = exchange.getLocalAddress().getAddress().getHostAddress().startsWith(SLOW_IP_PREFIX);
+                Thread.sleep(slow ? 5000 : COMMAND_LATENCY_MS);
+                byte[] body = "success".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (Exception ignore) {
+            } finally {
+                exchange.close();
+            }
+        });
+        serverExecutor = new ThreadPoolExecutor(FLEET_SIZE, FLEET_SIZE, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        client = new SentinelApiClient();
+        ReflectionTestUtils.setField(client, "appManagement", mock(AppManagement.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPushFleet() throws Exception {
+        int port = server.getAddress().getPort();
+        List<FlowRuleEntity> rules = Collections.singletonList(rule());
+        CommandFanout<Void> fanout = client.newFanout();
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            String ip = ipOf(i);
+            fanout.add(ip, port, () -> client.setFlowRuleOfMachineAsync(APP, ip, port, rules));
+        }
+        FanoutResult<Void> result = fanout.execute(30_000).get();
+
+        assertTrue(result.getFailures().toString(), result.isAllSuccess());
+        assertEquals(FLEET_SIZE, result.getSuccesses().size());
+        assertTrue(result.getSuccesses().containsKey(ipOf(0) + '@' + port));
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        int port = server.getAddress().getPort();
+        List<FlowRuleEntity> rules = Collections.singletonList(rule());
+        CommandFanout<Void> fanout = client.newFanout();
+        for (int i = 0; i < 20; i++) {
+            String ip = i < 10 ? ipOf(i) : SLOW_IP_PREFIX + i;
+            fanout.add(ip, port, () -> client.setFlowRuleOfMachineAsync(APP, ip, port, rules));
+        }
+        long start = System.currentTimeMillis();
+        FanoutResult<Void> result = fanout.execute(1000).get();
+
+        assertTrue(System.currentTimeMillis() - start < 3000);
+        assertEquals(10, result.getSuccesses().size());
+        assertEquals(10, result.getFailures().size());
+        for (Throwable ex : result.getFailures().values()) {
+            assertTrue(ex instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void testMaxConcurrencyPerHost() throws Exception {
+        CommandFanout<String> fanout = new CommandFanout<>(
+            new ScheduledThreadPoolExecutor(1), 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<String>> pending = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            String id = "machine-" + i;
+            fanout.add(id, "host", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                CompletableFuture<String> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            });
+        }
+        fanout.add("other", "other-host", () -> {
+            throw new IllegalStateException("failed");
+        });
+        CompletableFuture<FanoutResult<String>> result = fanout.execute(5000);
+        while (!result.isDone()) {
+            CompletableFuture<String> future;
+            synchronized (pending) {
+                future = pending.isEmpty() ? null : pending.remove(0);
+            }
+            if (future != null) {
+                running.decrementAndGet();
+                future.complete("ok");
+            }
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals(10, result.get().getSuccesses().size());
+        assertEquals("ok", result.get().getSuccesses().get("machine-0"));
+        assertTrue(result.get().getFailures().get("other") instanceof IllegalStateException);
+    }
+
+    private static String ipOf(int index) {
+        return "127.0." + (1 + index / 250) + '.' + (1 + index % 250);
+    }
+
+    private static FlowRuleEntity rule() {
+        FlowRuleEntity rule = new FlowRuleEntity();
+        rule.setApp(APP);
+        rule.setResource("abc");
+        rule.setGrade(1);
+        rule.setCount(10d);
+        rule.setLimitApp("default");
+        rule.setStrategy(0);
+        rule.setControlBehavior(0);
+        return rule;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.InMemoryMetricsRepository;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.OffHeapMetricsRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for listing the top resources of an app in a simulated fleet, whose resources all report every
+ * second: by scanning the series of every resource in the repository, and by the rankings of
+ * {@link MetricAggregator}. It also measures aggregating a second of metrics of the app.</p>
+ *
+ * <p>The minute of metrics is centered at the start time of the trial so that it stays in the recent minute
+ * during the trial. Run with {@code java -Xmx3g -cp <test classpath> org.openjdk.jmh.Main MetricAggregatorBenchmark}.</p>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class MetricAggregatorBenchmark {
+
+    private static final String APP = "fleet";
+    private static final int SECONDS = 60;
+    private static final int PAGE_SIZE = 6;
+
+    @Param({"1000", "10000"})
+    int resourceCount;
+
+    @Param({"memory", "offheap"})
+    String store;
+
+    private List<List<MetricEntity>> batches;
+    private MetricsRepository<MetricEntity> repository;
+    private MetricAggregator aggregator;
+    private int nextBatch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long startTime = System.currentTimeMillis() / 1000 * 1000 - SECONDS / 2 * 1000L;
+        Random random = new Random(17);
+        batches = new ArrayList<>(SECONDS);
+        for (int s = 0; s < SECONDS; s++) {
+            List<MetricEntity> batch = new ArrayList<>(resourceCount);
+            for (int r = 0; r < resourceCount; r++) {
+                // Skewed traffic, a few resources take most of it.
+                long passQps = 1 + (long)(1000 * Math.pow(random.nextDouble(), 8));
+                MetricEntity entity = new MetricEntity();
+                entity.setApp(APP);
+                entity.setResource("resource-" + r);
+                entity.setTimestamp(new Date(startTime + s * 1000L));
+                entity.setPassQps(passQps);
+                entity.setBlockQps(random.nextInt(100) == 0 ? (long)random.nextInt(50) : 0L);
+                entity.setExceptionQps(0L);
+                entity.setRtAndSuccessQps(1 + random.nextInt(100), passQps);
+                entity.setCount(1);
+                batch.add(entity);
+            }
+            batches.add(batch);
+        }
+        if ("memory".equals(store)) {
+            repository = new InMemoryMetricsRepository();
+        } else {
+            repository = new OffHeapMetricsRepository(DashboardConfig.DEFAULT_METRIC_RAW_RETENTION_MS,
+                DashboardConfig.DEFAULT_METRIC_MINUTE_RETENTION_MS, DashboardConfig.DEFAULT_METRIC_HOUR_RETENTION_MS);
+        }
+        aggregator = new MetricAggregator();
+        for (List<MetricEntity> batch : batches) {
+            repository.saveAll(batch);
+            aggregator.aggregate(APP, batch);
+        }
+    }
+
+    /**
+     * @return the next second of metrics after the minute saved in setup
+     */
+    private List<MetricEntity> nextBatch() {
+        int second = nextBatch++;
+        long offset = (second / SECONDS + 1) * SECONDS * 1000L;
+        List<MetricEntity> batch = new ArrayList<>(resourceCount);
+        for (MetricEntity entity : batches.get(second % SECONDS)) {
+            MetricEntity copy = MetricEntity.copyOf(entity);
+            copy.setTimestamp(new Date(entity.getTimestamp().getTime() + offset));
+            batch.add(copy);
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public List<String> topPageByScan() {
+        List<String> resources = repository.listResourcesOfApp(APP);
+        return new ArrayList<>(resources.subList(0, Math.min(PAGE_SIZE, resources.size())));
+    }
+
+    @Benchmark
+    public List<String> topPageByRanking() {
+        List<String> resources = new ArrayList<>(PAGE_SIZE);
+        for (ResourceMetricSummary summary : aggregator.getRanking(APP)
+            .getTop(AppMetricRanking.Order.BLOCK_QPS, 0, PAGE_SIZE)) {
+            resources.add(summary.getResource());
+        }
+        return resources;
+    }
+
+    /**
+     * Aggregate a second of metrics of the app, which is the cost moved from queries to the fetcher.
+     * Includes copying the batch.
+     */
+    @Benchmark
+    public MetricAggregator aggregateSecond() {
+        aggregator.aggregate(APP, nextBatch());
+        return aggregator;
+    }
+}
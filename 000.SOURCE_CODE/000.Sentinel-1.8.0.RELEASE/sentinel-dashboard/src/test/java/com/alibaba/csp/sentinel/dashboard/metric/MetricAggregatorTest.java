@@ -0,0 +1,143 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.metric.AppMetricRanking.Order;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricAggregator}.
+ */
+public class MetricAggregatorTest {
+
+    private static final String APP = "default";
+
+    private MetricAggregator aggregator;
+    private long now;
+
+    @Before
+    public void setUp() {
+        aggregator = new MetricAggregator();
+        now = System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    @Test
+    public void testRankings() {
+        aggregator.aggregate(APP, Arrays.asList(
+            entity("a", now - 2000, 10, 0, 1),
+            entity("a", now - 1000, 10, 0, 1),
+            entity("b", now - 1000, 5, 3, 20),
+            entity("c", now - 1000, 30, 1, 5)));
+
+        AppMetricRanking ranking = aggregator.getRanking(APP);
+        assertEquals(3, ranking.getResourceCount());
+        assertEquals(Arrays.asList("b", "c", "a"), resourcesOf(ranking.getRanked(Order.BLOCK_QPS)));
+        assertEquals(Arrays.asList("c", "a", "b"), resourcesOf(ranking.getRanked(Order.PASS_QPS)));
+        assertEquals(Arrays.asList("b", "c", "a"), resourcesOf(ranking.getRanked(Order.RT)));
+        assertEquals(Collections.singletonList("a"), resourcesOf(ranking.getTop(Order.PASS_QPS, 1, 1)));
+        assertTrue(ranking.getTop(Order.PASS_QPS, 3, 1).isEmpty());
+
+        ResourceMetricSummary a = ranking.getSummary("a");
+        assertEquals(20, a.getPassQps());
+        assertEquals(20, a.getSuccessQps());
+        assertEquals(1, a.getAvgRt(), 0.001);
+        assertNull(aggregator.getRanking("other"));
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        aggregator.aggregate(APP, Arrays.asList(entity("a", now - 3000, 10, 0, 1),
+            entity("b", now - 3000, 20, 0, 1)));
+        AppMetricRanking first = aggregator.getRanking(APP);
+        assertEquals(Arrays.asList("b", "a"), resourcesOf(first.getRanked(Order.PASS_QPS)));
+
+        aggregator.aggregate(APP, Arrays.asList(entity("a", now - 2000, 30, 0, 1),
+            entity("c", now - 2000, 1, 0, 1)));
+        AppMetricRanking second = aggregator.getRanking(APP);
+        assertEquals(Arrays.asList("a", "b", "c"), resourcesOf(second.getRanked(Order.PASS_QPS)));
+        assertEquals(40, second.getSummary("a").getPassQps());
+        // Published rankings are immutable snapshots.
+        assertEquals(Arrays.asList("b", "a"), resourcesOf(first.getRanked(Order.PASS_QPS)));
+
+        // A later metric of the same second replaces the former one.
+        aggregator.aggregate(APP, Collections.singletonList(entity("a", now - 2000, 5, 0, 1)));
+        assertEquals(15, aggregator.getRanking(APP).getSummary("a").getPassQps());
+        assertEquals(Arrays.asList("b", "a", "c"), resourcesOf(aggregator.getRanking(APP).getRanked(Order.PASS_QPS)));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        long start = now - 100 * 1000;
+        List<MetricEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entities.add(entity("a", start + i * 1000, 1, 0, 1));
+        }
+        entities.add(entity("b", start, 100, 0, 1));
+        aggregator.aggregate(APP, entities);
+
+        AppMetricRanking ranking = aggregator.getRanking(APP);
+        assertEquals(MetricAggregator.WINDOW_SECONDS, ranking.getSummary("a").getPassQps());
+        // Metrics of b are out of the window.
+        assertNull(ranking.getSummary("b"));
+        assertEquals(1, ranking.getResourceCount());
+
+        aggregator.aggregate(APP, Collections.singletonList(entity("b", now, 70, 0, 1)));
+        ranking = aggregator.getRanking(APP);
+        assertEquals(MetricAggregator.WINDOW_SECONDS - 1, ranking.getSummary("a").getPassQps());
+        assertEquals(Arrays.asList("b", "a"), resourcesOf(ranking.getRanked(Order.PASS_QPS)));
+    }
+
+    @Test
+    public void testStaleApp() {
+        aggregator.aggregate(APP, Collections.singletonList(entity("a", now - 120 * 1000, 1, 0, 1)));
+        assertEquals(0, aggregator.getRanking(APP).getResourceCount());
+
+        aggregator.removeApp(APP);
+        assertNull(aggregator.getRanking(APP));
+    }
+
+    private static List<String> resourcesOf(List<ResourceMetricSummary> summaries) {
+        List<String> resources = new ArrayList<>();
+        for (ResourceMetricSummary summary : summaries) {
+            resources.add(summary.getResource());
+        }
+        return resources;
+    }
+
+    private static MetricEntity entity(String resource, long timestamp, long passQps, long blockQps, double rt) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(APP);
+        entity.setResource(resource);
+        entity.setTimestamp(new Date(timestamp));
+        entity.setPassQps(passQps);
+        entity.setBlockQps(blockQps);
+        entity.setExceptionQps(0L);
+        entity.setRtAndSuccessQps(rt, passQps);
+        entity.setCount(1);
+        return entity;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for metrics repositories at 1M metrics per minute, i.e. 16,667 resources reporting every
+ * second: ingesting a minute of metrics, querying a minute of metrics of a resource, and querying while
+ * ingesting.</p>
+ *
+ * <p>Run with {@code java -Xmx3g -cp <test classpath> org.openjdk.jmh.Main MetricsRepositoryBenchmark}.
+ * {@link #main(String[])} prints the memory footprint of a minute of metrics.</p>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MetricsRepositoryBenchmark {
+
+    private static final int RESOURCE_COUNT = 16_667;
+    private static final int APP_COUNT = 10;
+    private static final int SECONDS = 60;
+
+    /**
+     * @param minutesAgo the minute to generate, 0 for the last minute before now
+     * @return metrics of each second in the minute
+     */
+    static List<List<MetricEntity>> generateMinute(int minutesAgo) {
+        long startTime = System.currentTimeMillis() / 1000 * 1000 - (minutesAgo + 1) * SECONDS * 1000L;
+        Random random = new Random(17 + minutesAgo);
+        List<List<MetricEntity>> batches = new ArrayList<>(SECONDS);
+        for (int s = 0; s < SECONDS; s++) {
+            List<MetricEntity> batch = new ArrayList<>(RESOURCE_COUNT);
+            for (int r = 0; r < RESOURCE_COUNT; r++) {
+                long passQps = 50 + random.nextInt(20);
+                MetricEntity entity = new MetricEntity();
+                entity.setApp(appOf(r));
+                entity.setResource(resourceOf(r));
+                entity.setTimestamp(new Date(startTime + s * 1000L));
+                entity.setPassQps(passQps);
+                entity.setBlockQps((long)random.nextInt(3));
+                entity.setExceptionQps(0L);
+                entity.setRtAndSuccessQps(1 + random.nextInt(10), passQps);
+                entity.setCount(1);
+                batch.add(entity);
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    static MetricsRepository<MetricEntity> newRepository(String store) {
+        if ("memory".equals(store)) {
+            return new InMemoryMetricsRepository();
+        }
+        return new OffHeapMetricsRepository(DashboardConfig.DEFAULT_METRIC_RAW_RETENTION_MS,
+            DashboardConfig.DEFAULT_METRIC_MINUTE_RETENTION_MS, DashboardConfig.DEFAULT_METRIC_HOUR_RETENTION_MS);
+    }
+
+    private static String appOf(int resourceIndex) {
+        return "app-" + resourceIndex % APP_COUNT;
+    }
+
+    private static String resourceOf(int resourceIndex) {
+        return "resource-" + resourceIndex;
+    }
+
+    @State(Scope.Benchmark)
+    public static class IngestState {
+
+        @Param({"memory", "offheap"})
+        String store;
+
+        List<List<MetricEntity>> batches;
+        MetricsRepository<MetricEntity> repository;
+
+        @Setup(Level.Trial)
+        public void setUpTrial() {
+            batches = generateMinute(0);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUpIteration() {
+            repository = newRepository(store);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class QueryState {
+
+        @Param({"memory", "offheap"})
+        String store;
+
+        List<List<MetricEntity>> batches;
+        MetricsRepository<MetricEntity> repository;
+        long startTime;
+        long endTime;
+        int nextBatch;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = generateMinute(0);
+            repository = newRepository(store);
+            for (List<MetricEntity> batch : batches) {
+                repository.saveAll(batch);
+            }
+            startTime = batches.get(0).get(0).getTimestamp().getTime();
+            endTime = startTime + SECONDS * 1000;
+        }
+
+        /**
+         * @return the next second of metrics after the minute saved in setup
+         */
+        List<MetricEntity> nextBatch() {
+            int second = nextBatch++;
+            long offset = (second / SECONDS + 1) * SECONDS * 1000L;
+            List<MetricEntity> batch = new ArrayList<>(RESOURCE_COUNT);
+            for (MetricEntity entity : batches.get(second % SECONDS)) {
+                MetricEntity copy = MetricEntity.copyOf(entity);
+                copy.setTimestamp(new Date(entity.getTimestamp().getTime() + offset));
+                batch.add(copy);
+            }
+            return batch;
+        }
+
+        List<MetricEntity> queryRandomResource() {
+            int r = ThreadLocalRandom.current().nextInt(RESOURCE_COUNT);
+            return repository.queryByAppAndResourceBetween(appOf(r), resourceOf(r), startTime, endTime);
+        }
+    }
+
+    /**
+     * Ingest a minute of metrics (1M) into an empty repository, in batches of a second as the fetcher does.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public MetricsRepository<MetricEntity> ingestMinute(IngestState state) {
+        for (List<MetricEntity> batch : state.batches) {
+            state.repository.saveAll(batch);
+        }
+        return state.repository;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public List<MetricEntity> queryMinute(QueryState state) {
+        return state.queryRandomResource();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void mixedIngestSecond(QueryState state) {
+        state.repository.saveAll(state.nextBatch());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public List<MetricEntity> mixedQueryMinute(QueryState state) {
+        return state.queryRandomResource();
+    }
+
+    /**
+     * Print heap and direct memory retained by metrics of given minutes (1 by default) before now,
+     * with arguments {@code <memory|offheap> [minutes]}.
+     */
+    public static void main(String[] args) throws Exception {
+        String store = args.length > 0 ? args[0] : "offheap";
+        int minutes = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        MetricsRepository<MetricEntity> repository = newRepository(store);
+        for (int m = minutes - 1; m >= 0; m--) {
+            for (List<MetricEntity> batch : generateMinute(m)) {
+                repository.saveAll(batch);
+            }
+        }
+        // Only the repository retains the metrics now.
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%s, %d minute(s): heap %.1f MB, direct %.1f MB, %.1f bytes per metric%n", store,
+            minutes, heap / 1048576.0, direct / 1048576.0,
+            (heap + direct) / ((double)minutes * SECONDS * RESOURCE_COUNT));
+        // Keep the repository reachable until measured.
+        System.out.println(repository.listResourcesOfApp(appOf(0)).size() + " resources in " + appOf(0));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
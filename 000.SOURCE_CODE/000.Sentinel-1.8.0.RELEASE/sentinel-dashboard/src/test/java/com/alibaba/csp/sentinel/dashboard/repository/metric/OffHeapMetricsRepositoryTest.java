@@ -0,0 +1,206 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link OffHeapMetricsRepository}.
+ */
+public class OffHeapMetricsRepositoryTest {
+
+    private static final String DEFAULT_APP = "defaultApp";
+    private static final String DEFAULT_RESOURCE = "defaultResource";
+
+    private OffHeapMetricsRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new OffHeapMetricsRepository(10 * 60_000, 3600_000, 24 * 3600_000);
+    }
+
+    @Test
+    public void testSaveAndQuery() {
+        long now = TimeUtil.currentTimeMillis() / 1000 * 1000;
+        List<MetricEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            entities.add(newEntity(DEFAULT_APP, DEFAULT_RESOURCE, now - (300 - i) * 1000L, i, i % 3));
+        }
+        repository.saveAll(entities);
+
+        List<MetricEntity> results = repository.queryByAppAndResourceBetween(DEFAULT_APP, DEFAULT_RESOURCE,
+            now - 100 * 1000, now);
+        assertEquals(100, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            MetricEntity entity = results.get(i);
+            assertEquals(now - (100 - i) * 1000L, entity.getTimestamp().getTime());
+            assertEquals(200 + i, entity.getPassQps().longValue());
+            assertEquals((200 + i) % 3, entity.getBlockQps().longValue());
+            assertEquals((200 + i) * 1.5, entity.getRt(), 0.0001);
+            assertEquals(1, entity.getCount());
+        }
+        assertTrue(repository.queryByAppAndResourceBetween(DEFAULT_APP, "other", now - 100 * 1000, now).isEmpty());
+        assertTrue(repository.queryByAppAndResourceBetween("", DEFAULT_RESOURCE, now - 100 * 1000, now).isEmpty());
+        // Compressed to a few bytes per metric.
+        assertTrue(repository.sizeInBytes(DEFAULT_APP, DEFAULT_RESOURCE) < 300 * 16);
+    }
+
+    @Test
+    public void testSaveOutOfOrderAndDuplicated() {
+        long now = TimeUtil.currentTimeMillis() / 1000 * 1000;
+        Random random = new Random(7);
+        List<Long> timestamps = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            timestamps.add(now - random.nextInt(200) * 1000L);
+        }
+        for (long timestamp : timestamps) {
+            repository.save(newEntity(DEFAULT_APP, DEFAULT_RESOURCE, timestamp, 1, 0));
+        }
+        // The latest saved one wins for duplicated timestamps.
+        repository.save(newEntity(DEFAULT_APP, DEFAULT_RESOURCE, timestamps.get(0), 99, 0));
+
+        List<MetricEntity> results = repository.queryByAppAndResourceBetween(DEFAULT_APP, DEFAULT_RESOURCE,
+            now - 200 * 1000, now);
+        assertEquals(timestamps.stream().distinct().count(), results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getTimestamp().before(results.get(i).getTimestamp()));
+        }
+        for (MetricEntity entity : results) {
+            long expected = entity.getTimestamp().getTime() == timestamps.get(0) ? 99 : 1;
+            assertEquals(expected, entity.getPassQps().longValue());
+        }
+    }
+
+    @Test
+    public void testQueryRollupsOutOfRawRetention() {
+        repository = new OffHeapMetricsRepository(60_000, 3600_000, 24 * 3600_000);
+        long now = TimeUtil.currentTimeMillis();
+        long startTime = (now - 30 * 60_000) / 60_000 * 60_000;
+        for (int i = 0; i < 600; i++) {
+            repository.save(newEntity(DEFAULT_APP, DEFAULT_RESOURCE, startTime + i * 1000L, 10, (i % 2) * 2));
+        }
+        repository.sweep(now);
+
+        List<MetricEntity> results = repository.queryByAppAndResourceBetween(DEFAULT_APP, DEFAULT_RESOURCE,
+            startTime, now);
+        assertEquals(10, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            MetricEntity entity = results.get(i);
+            assertEquals(startTime + i * 60_000L, entity.getTimestamp().getTime());
+            // Average in the minute.
+            assertEquals(10, entity.getPassQps().longValue());
+            assertEquals(1, entity.getBlockQps().longValue());
+            assertEquals(15, entity.getRt(), 0.0001);
+            assertEquals(60, entity.getCount());
+        }
+    }
+
+    @Test
+    public void testListResourcesOfApp() {
+        long now = TimeUtil.currentTimeMillis();
+        repository.save(newEntity(DEFAULT_APP, "a", now - 1000, 10, 0));
+        repository.save(newEntity(DEFAULT_APP, "b", now - 1000, 5, 1));
+        repository.save(newEntity(DEFAULT_APP, "c", now - 2000, 20, 0));
+        repository.save(newEntity(DEFAULT_APP, "c", now - 1000, 20, 0));
+        repository.save(newEntity(DEFAULT_APP, "d", now - 5 * 60_000, 100, 100));
+
+        List<String> resources = repository.listResourcesOfApp(DEFAULT_APP);
+        assertEquals(3, resources.size());
+        assertEquals("b", resources.get(0));
+        assertEquals("c", resources.get(1));
+        assertEquals("a", resources.get(2));
+        assertTrue(repository.listResourcesOfApp("other").isEmpty());
+    }
+
+    @Test
+    public void testConcurrentSave() throws Exception {
+        final long now = TimeUtil.currentTimeMillis() / 1000 * 1000;
+        final int threadCount = 8;
+        final int countPerThread = 1000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            new Thread(() -> {
+                for (int i = 0; i < countPerThread; i++) {
+                    long timestamp = now - (i * threadCount + offset);
+                    repository.save(newEntity(DEFAULT_APP, DEFAULT_RESOURCE, timestamp, offset, 0));
+                }
+                latch.countDown();
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        List<MetricEntity> results = repository.queryByAppAndResourceBetween(DEFAULT_APP, DEFAULT_RESOURCE,
+            now - threadCount * countPerThread, now);
+        assertEquals(threadCount * countPerThread, results.size());
+        for (MetricEntity entity : results) {
+            long index = now - entity.getTimestamp().getTime();
+            assertEquals(index % threadCount, entity.getPassQps().longValue());
+        }
+    }
+
+    @Test
+    public void testBlockEncodeAndDecode() {
+        Random random = new Random(42);
+        int size = 128;
+        long[][] columns = new long[MetricSeries.COLUMN_COUNT][size];
+        long timestamp = 1600000000000L;
+        for (int i = 0; i < size; i++) {
+            timestamp += random.nextInt(10) == 0 ? random.nextInt(100000) : 1000;
+            columns[MetricSeries.TIMESTAMP][i] = timestamp;
+            for (int c = MetricSeries.PASS_QPS; c < MetricSeries.RT; c++) {
+                int bound = new int[] {2, 100, 1000, 100000}[random.nextInt(4)];
+                columns[c][i] = random.nextBoolean() ? random.nextInt(bound) : -random.nextInt(bound);
+            }
+            columns[MetricSeries.COUNT][i] = random.nextLong();
+            double rt = random.nextInt(3) == 0 ? 1.5 : random.nextDouble() * 1000;
+            columns[MetricSeries.RT][i] = Double.doubleToRawLongBits(rt);
+        }
+        MetricBlock block = MetricBlock.encode(columns, size, 1, new MetricArena(4096));
+        assertEquals(size, block.size());
+        long[][] decoded = block.decode();
+        for (int c = 0; c < MetricSeries.COLUMN_COUNT; c++) {
+            assertArrayEquals(columns[c], decoded[c]);
+        }
+    }
+
+    private static MetricEntity newEntity(String app, String resource, long timestamp, long passQps,
+                                          long blockQps) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(app);
+        entity.setResource(resource);
+        entity.setTimestamp(new Date(timestamp));
+        entity.setPassQps(passQps);
+        entity.setBlockQps(blockQps);
+        entity.setExceptionQps(0L);
+        entity.setRtAndSuccessQps(1.5, passQps);
+        entity.setCount(1);
+        return entity;
+    }
+}
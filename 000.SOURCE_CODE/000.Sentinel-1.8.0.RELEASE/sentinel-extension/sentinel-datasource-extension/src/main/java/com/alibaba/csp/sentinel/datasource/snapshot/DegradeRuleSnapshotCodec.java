@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.datasource.snapshot;
+
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+
+/**
+ * Binary snapshot codec of {@link DegradeRule}s.
+ *
+ * @since 1.8.1
+ */
+public class DegradeRuleSnapshotCodec extends RuleSnapshotCodec<DegradeRule> {
+
+    public DegradeRuleSnapshotCodec() {
+        super(RULE_TYPE_DEGRADE);
+    }
+
+    @Override
+    protected void writeRule(DegradeRule rule, SnapshotWriter writer) {
+        writer.writeString(rule.getResource());
+        writer.writeString(rule.getLimitApp());
+        writer.writeInt32(rule.getGrade());
+        writer.writeDouble(rule.getCount());
+        writer.writeInt32(rule.getTimeWindow());
+        writer.writeInt32(rule.getMinRequestAmount());
+        writer.writeDouble(rule.getSlowRatioThreshold());
+        writer.writeInt32(rule.getStatIntervalMs());
+    }
+
+    @Override
+    protected DegradeRule readRule(SnapshotReader reader) {
+        DegradeRule rule = new DegradeRule();
+        rule.setResource(reader.readString(rule.getResource()));
+        rule.setLimitApp(reader.readString(rule.getLimitApp()));
+        rule.setGrade(reader.readInt32(rule.getGrade()));
+        rule.setCount(reader.readDouble(rule.getCount()));
+        rule.setTimeWindow(reader.readInt32(rule.getTimeWindow()));
+        rule.setMinRequestAmount(reader.readInt32(rule.getMinRequestAmount()));
+        rule.setSlowRatioThreshold(reader.readDouble(rule.getSlowRatioThreshold()));
+        rule.setStatIntervalMs(reader.readInt32(rule.getStatIntervalMs()));
+        return rule;
+    }
+}
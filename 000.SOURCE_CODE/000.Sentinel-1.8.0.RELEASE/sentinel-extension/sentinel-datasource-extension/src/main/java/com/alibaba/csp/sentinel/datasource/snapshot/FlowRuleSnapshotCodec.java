@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.datasource.snapshot;
+
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * Binary snapshot codec of {@link FlowRule}s.
+ *
+ * @since 1.8.1
+ */
+public class FlowRuleSnapshotCodec extends RuleSnapshotCodec<FlowRule> {
+
+    public FlowRuleSnapshotCodec() {
+        super(RULE_TYPE_FLOW);
+    }
+
+    @Override
+    protected void writeRule(FlowRule rule, SnapshotWriter writer) {
+        writer.writeString(rule.getResource());
+        writer.writeString(rule.getLimitApp());
+        writer.writeInt32(rule.getGrade());
+        writer.writeDouble(rule.getCount());
+        writer.writeInt32(rule.getStrategy());
+        writer.writeString(rule.getRefResource());
+        writer.writeInt32(rule.getControlBehavior());
+        writer.writeInt32(rule.getWarmUpPeriodSec());
+        writer.writeInt32(rule.getMaxQueueingTimeMs());
+        writer.writeBoolean(rule.isClusterMode());
+        ClusterFlowConfig clusterConfig = rule.getClusterConfig();
+        writer.writeBoolean(clusterConfig != null);
+        if (clusterConfig != null) {
+            Long flowId = clusterConfig.getFlowId();
+            writer.writeBoolean(flowId != null);
+            if (flowId != null) {
+                writer.writeInt64(flowId);
+            }
+            writer.writeInt32(clusterConfig.getThresholdType());
+            writer.writeBoolean(clusterConfig.isFallbackToLocalWhenFail());
+            writer.writeInt32(clusterConfig.getStrategy());
+            writer.writeInt32(clusterConfig.getSampleCount());
+            writer.writeInt32(clusterConfig.getWindowIntervalMs());
+        }
+    }
+
+    @Override
+    protected FlowRule readRule(SnapshotReader reader) {
+        FlowRule rule = new FlowRule();
+        rule.setResource(reader.readString(rule.getResource()));
+        rule.setLimitApp(reader.readString(rule.getLimitApp()));
+        rule.setGrade(reader.readInt32(rule.getGrade()));
+        rule.setCount(reader.readDouble(rule.getCount()));
+        rule.setStrategy(reader.readInt32(rule.getStrategy()));
+        rule.setRefResource(reader.readString(rule.getRefResource()));
+        rule.setControlBehavior(reader.readInt32(rule.getControlBehavior()));
+        rule.setWarmUpPeriodSec(reader.readInt32(rule.getWarmUpPeriodSec()));
+        rule.setMaxQueueingTimeMs(reader.readInt32(rule.getMaxQueueingTimeMs()));
+        rule.setClusterMode(reader.readBoolean(rule.isClusterMode()));
+        if (reader.readBoolean(false)) {
+            ClusterFlowConfig clusterConfig = new ClusterFlowConfig();
+            if (reader.readBoolean(false)) {
+                clusterConfig.setFlowId(reader.readInt64());
+            }
+            clusterConfig.setThresholdType(reader.readInt32(clusterConfig.getThresholdType()));
+            clusterConfig.setFallbackToLocalWhenFail(reader.readBoolean(clusterConfig.isFallbackToLocalWhenFail()));
+            clusterConfig.setStrategy(reader.readInt32(clusterConfig.getStrategy()));
+            clusterConfig.setSampleCount(reader.readInt32(clusterConfig.getSampleCount()));
+            clusterConfig.setWindowIntervalMs(reader.readInt32(clusterConfig.getWindowIntervalMs()));
+            rule.setClusterConfig(clusterConfig);
+        }
+        return rule;
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.datasource.snapshot;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Codec of compact binary rule snapshots, which are much faster to decode than JSON rules.</p>
+ *
+ * <p>A snapshot consists of a header (magic, format version, rule type and snapshot version), a string table
+ * and the rules. Strings (e.g. resource names and limit apps) are written once in the table and referred
+ * by index, so repeated strings take little space and are shared after decoding. Each rule is prefixed
+ * with its length, so that readers of an older format version can skip the fields appended later.</p>
+ *
+ * <p>The snapshot version is given by the producer of snapshots (e.g. a revision number of the config),
+ * 0 for unversioned. See {@link RuleSnapshotConverter}.</p>
+ *
+ * @param <T> type of rule
+ * @since 1.8.1
+ */
+public abstract class RuleSnapshotCodec<T> {
+
+    public static final int MAGIC = 0x534E5053;
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int RULE_TYPE_FLOW = 1;
+    public static final int RULE_TYPE_DEGRADE = 2;
+
+    /**
+     * Length of the header: magic (4), format version (1), rule type (1) and snapshot version (8).
+     */
+    static final int HEADER_LENGTH = 14;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final int ruleType;
+
+    protected RuleSnapshotCodec(int ruleType) {
+        this.ruleType = ruleType;
+    }
+
+    /**
+     * Write the fields of the rule.
+     *
+     * @param rule   a rule, not null
+     * @param writer snapshot writer
+     */
+    protected abstract void writeRule(T rule, SnapshotWriter writer);
+
+    /**
+     * Read the fields of a rule. Fields may be missing at the end of the rule (e.g. the fields appended in
+     * a newer format version, read from an older snapshot), so implementations should pass the default value
+     * of each field (e.g. read from a default-constructed rule) to the reader.
+     *
+     * @param reader snapshot reader, limited to the fields of the rule
+     * @return the rule
+     */
+    protected abstract T readRule(SnapshotReader reader);
+
+    public int getRuleType() {
+        return ruleType;
+    }
+
+    /**
+     * Encode the rules to a snapshot. Null rules are ignored.
+     *
+     * @param version snapshot version, 0 for unversioned
+     * @param rules   rules to encode
+     * @return the snapshot
+     */
+    public byte[] encode(long version, List<T> rules) {
+        AssertUtil.notNull(rules, "rules cannot be null");
+        SnapshotWriter body = new SnapshotWriter(new LinkedHashMap<String, Integer>(), rules.size() * 32);
+        SnapshotWriter ruleWriter = new SnapshotWriter(body.strings, 64);
+        int count = 0;
+        for (T rule : rules) {
+            if (rule == null) {
+                continue;
+            }
+            ruleWriter.reset();
+            writeRule(rule, ruleWriter);
+            body.writeVarint(ruleWriter.size);
+            body.writeBytes(ruleWriter.buf, 0, ruleWriter.size);
+            count++;
+        }
+
+        SnapshotWriter out = new SnapshotWriter(null, HEADER_LENGTH + body.size + body.strings.size() * 16 + 10);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(ruleType);
+        out.writeLong(version);
+        out.writeVarint(body.strings.size());
+        for (String s : body.strings.keySet()) {
+            byte[] bytes = s.getBytes(UTF_8);
+            out.writeVarint(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+        out.writeVarint(count);
+        out.writeBytes(body.buf, 0, body.size);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the rules from a snapshot.
+     *
+     * @param data the snapshot
+     * @return decoded rules
+     * @throws IllegalArgumentException if the data is not a valid snapshot of the rule type
+     */
+    public List<T> decode(byte[] data) {
+        checkHeader(data);
+        if (data[5] != ruleType) {
+            throw new IllegalArgumentException("Rule type mismatch, expected " + ruleType + " but got " + data[5]);
+        }
+        try {
+            SnapshotReader reader = new SnapshotReader(data, HEADER_LENGTH, data.length, null);
+            int stringCount = readCount(reader);
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                int length = reader.readVarint();
+                strings[i] = new String(data, reader.pos, length, UTF_8);
+                reader.skip(length);
+            }
+            int count = readCount(reader);
+            List<T> rules = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = reader.readVarint();
+                int end = reader.pos + length;
+                if (length < 0 || end > data.length) {
+                    throw new IllegalArgumentException("Truncated rule snapshot");
+                }
+                rules.add(readRule(new SnapshotReader(data, reader.pos, end, strings)));
+                reader.pos = end;
+            }
+            return rules;
+        } catch (IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Truncated rule snapshot", ex);
+        }
+    }
+
+    /**
+     * Read the amount of strings or rules, each of which takes at least a byte, so that a corrupted amount
+     * is rejected before allocating for it.
+     */
+    private static int readCount(SnapshotReader reader) {
+        int count = reader.readVarint();
+        if (count < 0 || count > reader.end - reader.pos) {
+            throw new IllegalArgumentException("Bad count in rule snapshot: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Read the snapshot version from the header of a snapshot.
+     *
+     * @param data the snapshot
+     * @return the snapshot version
+     * @throws IllegalArgumentException if the data is not a valid snapshot
+     */
+    public static long readVersion(byte[] data) {
+        checkHeader(data);
+        return new SnapshotReader(data, 6, HEADER_LENGTH, null).readLong();
+    }
+
+    private static void checkHeader(byte[] data) {
+        if (data == null || data.length < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Not a rule snapshot: too short");
+        }
+        SnapshotReader reader = new SnapshotReader(data, 0, HEADER_LENGTH, null);
+        if (reader.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a rule snapshot: bad magic");
+        }
+        int formatVersion = reader.readByte();
+        if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported rule snapshot format version: " + formatVersion);
+        }
+    }
+
+    /**
+     * Writer of rule fields. Integers are written as zig-zag varints, and strings as indexes of the string table.
+     */
+    protected static final class SnapshotWriter {
+
+        private final Map<String, Integer> strings;
+        private byte[] buf;
+        private int size;
+
+        SnapshotWriter(Map<String, Integer> strings, int capacity) {
+            this.strings = strings;
+            this.buf = new byte[Math.max(capacity, 16)];
+        }
+
+        public void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        public void writeInt32(int value) {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+        public void writeInt64(long value) {
+            long v = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[size++] = (byte)((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte)v;
+        }
+
+        public void writeDouble(double value) {
+            writeLong(Double.doubleToLongBits(value));
+        }
+
+        public void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.put(value, index);
+            }
+            writeVarint(index + 1);
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buf[size++] = (byte)value;
+        }
+
+        void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buf[size++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte)value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            buf[size++] = (byte)(value >>> 24);
+            buf[size++] = (byte)(value >>> 16);
+            buf[size++] = (byte)(value >>> 8);
+            buf[size++] = (byte)value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int)(value >>> 32));
+            writeInt((int)value);
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buf, size, length);
+            size += length;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return size == buf.length ? buf : Arrays.copyOf(buf, size);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, size + length));
+            }
+        }
+    }
+
+    /**
+     * Reader of rule fields. Reading beyond the fields of a rule (e.g. the fields appended in a newer format
+     * version, read from an older snapshot) returns the given default value, or the zero value if none.
+     */
+    protected static final class SnapshotReader {
+
+        private final byte[] data;
+        private final int end;
+        private final String[] strings;
+        /**
+         * Whether the reader is limited to the fields of a rule, where reading beyond the end gets zero.
+         */
+        private final boolean ruleFields;
+        private int pos;
+
+        SnapshotReader(byte[] data, int pos, int end, String[] strings) {
+            this.data = data;
+            this.pos = pos;
+            this.end = end;
+            this.strings = strings;
+            this.ruleFields = strings != null;
+        }
+
+        public boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        public boolean readBoolean(boolean defaultValue) {
+            return hasMoreFields() ? readBoolean() : defaultValue;
+        }
+
+        public int readInt32() {
+            int v = readVarint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        public int readInt32(int defaultValue) {
+            return hasMoreFields() ? readInt32() : defaultValue;
+        }
+
+        public long readInt64() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                v |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        public double readDouble() {
+            return Double.longBitsToDouble(readLong());
+        }
+
+        public double readDouble(double defaultValue) {
+            return hasMoreFields() ? readDouble() : defaultValue;
+        }
+
+        public String readString() {
+            int index = readVarint();
+            if (index == 0) {
+                return null;
+            }
+            if (index > strings.length) {
+                throw new IllegalArgumentException("Bad string index in rule snapshot: " + index);
+            }
+            return strings[index - 1];
+        }
+
+        public String readString(String defaultValue) {
+            return hasMoreFields() ? readString() : defaultValue;
+        }
+
+        /**
+         * Whether there are fields left in the rule.
+         */
+        public boolean hasMoreFields() {
+            return pos < end;
+        }
+
+        int readByte() {
+            if (pos >= end) {
+                if (!ruleFields) {
+                    throw new IndexOutOfBoundsException();
+                }
+                return 0;
+            }
+            return data[pos++] & 0xFF;
+        }
+
+        int readVarint() {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return v;
+        }
+
+        int readInt() {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        long readLong() {
+            return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        void skip(int length) {
+            if (pos + length > end) {
+                throw new IndexOutOfBoundsException();
+            }
+            pos += length;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.datasource.snapshot;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.datasource.Converter;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>Converter of Base64-encoded binary rule snapshots (see {@link RuleSnapshotCodec}), which can be used
+ * with the text-based data sources in place of JSON converters, e.g.:</p>
+ *
+ * <pre>
+ * ReadableDataSource&lt;String, List&lt;FlowRule&gt;&gt; ds = new FileRefreshableDataSource&lt;&gt;(file,
+ *     new RuleSnapshotConverter&lt;&gt;(new FlowRuleSnapshotCodec()));
+ * </pre>
+ *
+ * <p>If the snapshot version is the same as the last converted one (and not 0), the last converted rules
+ * are returned without decoding. As it's the same list object, the rule property will not be updated.</p>
+ *
+ * @param <T> type of rule
+ * @since 1.8.1
+ */
+public class RuleSnapshotConverter<T> implements Converter<String, List<T>> {
+
+    private final RuleSnapshotCodec<T> codec;
+
+    private long lastVersion;
+    private List<T> lastRules;
+
+    public RuleSnapshotConverter(RuleSnapshotCodec<T> codec) {
+        AssertUtil.notNull(codec, "codec cannot be null");
+        this.codec = codec;
+    }
+
+    @Override
+    public synchronized List<T> convert(String source) {
+        if (StringUtil.isBlank(source)) {
+            return new ArrayList<>();
+        }
+        byte[] data = Base64.getMimeDecoder().decode(source);
+        long version = RuleSnapshotCodec.readVersion(data);
+        if (version != 0 && version == lastVersion && lastRules != null) {
+            return lastRules;
+        }
+        List<T> rules = codec.decode(data);
+        this.lastVersion = version;
+        this.lastRules = rules;
+        return rules;
+    }
+
+    /**
+     * Encode the rules to the text form accepted by this converter.
+     *
+     * @param version snapshot version, 0 for unversioned
+     * @param rules   rules to encode
+     * @return Base64-encoded rule snapshot
+     */
+    public String encode(long version, List<T> rules) {
+        return Base64.getEncoder().encodeToString(codec.encode(version, rules));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.datasource.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RuleSnapshotCodec} and {@link RuleSnapshotConverter}.
+ */
+public class RuleSnapshotCodecTest {
+
+    private final FlowRuleSnapshotCodec flowCodec = new FlowRuleSnapshotCodec();
+
+    @Test
+    public void testFlowRuleRoundTrip() {
+        FlowRule clusterRule = new FlowRule("cluster-resource").setCount(1.5)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(Long.MAX_VALUE)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                .setFallbackToLocalWhenFail(false)
+                .setSampleCount(5)
+                .setWindowIntervalMs(500));
+        FlowRule relateRule = new FlowRule("资源-a").setCount(20)
+            .setStrategy(RuleConstant.STRATEGY_RELATE)
+            .setRefResource("resource-b")
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER)
+            .setWarmUpPeriodSec(30)
+            .setMaxQueueingTimeMs(-1);
+        relateRule.setLimitApp("app-x");
+        List<FlowRule> rules = Arrays.asList(clusterRule, relateRule, new FlowRule("resource-b"), null);
+
+        byte[] data = flowCodec.encode(42, rules);
+        assertEquals(42, RuleSnapshotCodec.readVersion(data));
+        List<FlowRule> decoded = flowCodec.decode(data);
+        assertEquals(Arrays.asList(clusterRule, relateRule, new FlowRule("resource-b")), decoded);
+        // Repeated strings are decoded to the same object.
+        assertSame(decoded.get(1).getRefResource(), decoded.get(2).getResource());
+        assertNull(decoded.get(2).getRefResource());
+        assertNull(decoded.get(2).getClusterConfig());
+    }
+
+    @Test
+    public void testDegradeRuleRoundTrip() {
+        DegradeRuleSnapshotCodec codec = new DegradeRuleSnapshotCodec();
+        DegradeRule rule = new DegradeRule("resource-a").setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+            .setCount(0.5)
+            .setTimeWindow(10)
+            .setMinRequestAmount(20)
+            .setSlowRatioThreshold(0.8)
+            .setStatIntervalMs(30000);
+        List<DegradeRule> decoded = codec.decode(codec.encode(0, Collections.singletonList(rule)));
+        assertEquals(Collections.singletonList(rule), decoded);
+        assertTrue(codec.decode(codec.encode(0, new ArrayList<DegradeRule>())).isEmpty());
+    }
+
+    @Test
+    public void testDecodeInvalidSnapshot() {
+        byte[] data = flowCodec.encode(1, Collections.singletonList(new FlowRule("abc")));
+        assertDecodeFails(Arrays.copyOf(data, 10));
+        assertDecodeFails(Arrays.copyOf(data, data.length - 3));
+        byte[] badMagic = data.clone();
+        badMagic[0] = 0;
+        assertDecodeFails(badMagic);
+        byte[] newerFormat = data.clone();
+        newerFormat[4] = RuleSnapshotCodec.FORMAT_VERSION + 1;
+        assertDecodeFails(newerFormat);
+        try {
+            new DegradeRuleSnapshotCodec().decode(data);
+            fail("Rule type mismatch should fail");
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testDecodeOlderSnapshotWithDefaults() {
+        // An older codec which only knows the leading fields of the rules.
+        FlowRuleSnapshotCodec olderCodec = new FlowRuleSnapshotCodec() {
+            @Override
+            protected void writeRule(FlowRule rule, SnapshotWriter writer) {
+                writer.writeString(rule.getResource());
+                writer.writeString(rule.getLimitApp());
+                writer.writeInt32(rule.getGrade());
+                writer.writeDouble(rule.getCount());
+            }
+        };
+        FlowRule rule = new FlowRule("abc").setCount(10);
+        FlowRule decoded = flowCodec.decode(olderCodec.encode(0, Collections.singletonList(rule))).get(0);
+        assertEquals(rule, decoded);
+        assertEquals(500, decoded.getMaxQueueingTimeMs());
+        assertEquals(10, decoded.getWarmUpPeriodSec());
+
+        DegradeRuleSnapshotCodec degradeCodec = new DegradeRuleSnapshotCodec();
+        DegradeRuleSnapshotCodec olderDegradeCodec = new DegradeRuleSnapshotCodec() {
+            @Override
+            protected void writeRule(DegradeRule rule, SnapshotWriter writer) {
+                writer.writeString(rule.getResource());
+                writer.writeString(rule.getLimitApp());
+                writer.writeInt32(rule.getGrade());
+                writer.writeDouble(rule.getCount());
+                writer.writeInt32(rule.getTimeWindow());
+            }
+        };
+        DegradeRule degradeRule = new DegradeRule("abc").setCount(100).setTimeWindow(10);
+        assertEquals(Collections.singletonList(degradeRule),
+            degradeCodec.decode(olderDegradeCodec.encode(0, Collections.singletonList(degradeRule))));
+    }
+
+    @Test
+    public void testDecodeCorruptedCount() {
+        byte[] data = flowCodec.encode(1, Collections.singletonList(new FlowRule("abc")));
+        // A huge string count right after the header.
+        byte[] badStringCount = Arrays.copyOf(data, RuleSnapshotCodec.HEADER_LENGTH + 5);
+        System.arraycopy(new byte[] {(byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07}, 0, badStringCount,
+            RuleSnapshotCodec.HEADER_LENGTH, 5);
+        assertDecodeFails(badStringCount);
+
+        // A huge rule count after an empty string table.
+        byte[] badRuleCount = Arrays.copyOf(data, RuleSnapshotCodec.HEADER_LENGTH + 6);
+        System.arraycopy(new byte[] {0, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07}, 0, badRuleCount,
+            RuleSnapshotCodec.HEADER_LENGTH, 6);
+        assertDecodeFails(badRuleCount);
+    }
+
+    private void assertDecodeFails(byte[] data) {
+        try {
+            flowCodec.decode(data);
+            fail("Invalid snapshot should fail");
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testConverterSkipsSameVersion() {
+        RuleSnapshotConverter<FlowRule> converter = new RuleSnapshotConverter<>(flowCodec);
+        List<FlowRule> rules = Collections.singletonList(new FlowRule("abc").setCount(10));
+        List<FlowRule> first = converter.convert(converter.encode(7, rules));
+        assertEquals(rules, first);
+        assertSame(first, converter.convert(converter.encode(7, rules) + "\n"));
+
+        List<FlowRule> second = converter.convert(converter.encode(8, rules));
+        assertNotSame(first, second);
+        assertEquals(rules, second);
+        // Unversioned snapshots are always decoded.
+        assertNotSame(converter.convert(converter.encode(0, rules)), converter.convert(converter.encode(0, rules)));
+        assertTrue(converter.convert("").isEmpty());
+    }
+}
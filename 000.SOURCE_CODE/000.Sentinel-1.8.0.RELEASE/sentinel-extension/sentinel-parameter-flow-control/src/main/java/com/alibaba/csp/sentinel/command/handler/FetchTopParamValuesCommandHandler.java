@@ -0,0 +1,74 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.fastjson.JSON;
+
+/**
+ * @since 1.8.1
+ */
+@CommandMapping(name = "topParamValues", desc = "get top values of approximate parameter flow rules, "
+    + "request param: id={resourceName}, count={topCount}")
+public class FetchTopParamValuesCommandHandler implements CommandHandler<String> {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String id = request.getParam("id");
+        if (StringUtil.isEmpty(id)) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("Invalid parameter: empty resource name"));
+        }
+        int count = DEFAULT_COUNT;
+        String countStr = request.getParam("count");
+        if (StringUtil.isNotBlank(countStr)) {
+            try {
+                count = Integer.parseInt(countStr);
+            } catch (NumberFormatException ex) {
+                return CommandResponse.ofFailure(new IllegalArgumentException("Invalid parameter: count"));
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        ParameterMetric metric = ParameterMetricStorage.getParamMetricForResource(id);
+        if (metric != null) {
+            for (ParamFlowRule rule : ParamFlowRuleManager.getRulesOfResource(id)) {
+                if (!rule.isApproximateMode()) {
+                    continue;
+                }
+                Map<String, Object> item = new HashMap<>();
+                item.put("paramIdx", rule.getParamIdx());
+                item.put("topValues", metric.getTopValues(rule, count));
+                result.add(item);
+            }
+        }
+        return CommandResponse.ofSuccess(JSON.toJSONString(result));
+    }
+}
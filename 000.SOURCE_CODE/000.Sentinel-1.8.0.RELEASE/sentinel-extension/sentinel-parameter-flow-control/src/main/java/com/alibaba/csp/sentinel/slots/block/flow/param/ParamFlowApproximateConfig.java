@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+/**
+ * <p>Config of the approximate mode of parameter flow rules (QPS grade with default control behavior only).
+ * In approximate mode, the passed count of each parameter value in the sliding window is estimated with
+ * Count-Min sketches, which take fixed memory no matter how many distinct values there are, instead of
+ * being kept in per-value counters that are evicted when there are too many values.</p>
+ *
+ * <p>The estimated count of a value is never less than the real count. With probability at least
+ * {@code confidence}, it exceeds the real count by no more than {@code errorRate * N}, where {@code N} is the
+ * total passed count of all values of the rule in the sliding window. So the error can only make the rule
+ * stricter than configured, never looser. Each of the {@code sampleCount} buckets takes
+ * {@code ceil(ln(1 / (1 - confidence)))} rows of at least {@code e / errorRate} int counters.</p>
+ *
+ * <p>Exclusion items ({@link ParamFlowItem}) of the rule are still checked with exact counters.</p>
+ *
+ * @since 1.8.1
+ */
+public class ParamFlowApproximateConfig {
+
+    public static final double DEFAULT_ERROR_RATE = 0.001;
+    public static final double DEFAULT_CONFIDENCE = 0.99;
+    public static final int DEFAULT_SAMPLE_COUNT = 2;
+    public static final int DEFAULT_TOP_COUNT = 10;
+
+    /**
+     * Min error rate allowed, which bounds the memory taken by each row to 1 MB.
+     */
+    public static final double MIN_ERROR_RATE = 0.00001;
+
+    private double errorRate = DEFAULT_ERROR_RATE;
+    private double confidence = DEFAULT_CONFIDENCE;
+    /**
+     * Amount of buckets in the sliding window of {@code durationInSec}.
+     */
+    private int sampleCount = DEFAULT_SAMPLE_COUNT;
+    /**
+     * Amount of hot values tracked for reporting, 0 for no tracking.
+     */
+    private int topCount = DEFAULT_TOP_COUNT;
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public ParamFlowApproximateConfig setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public ParamFlowApproximateConfig setConfidence(double confidence) {
+        this.confidence = confidence;
+        return this;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public ParamFlowApproximateConfig setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+        return this;
+    }
+
+    public int getTopCount() {
+        return topCount;
+    }
+
+    public ParamFlowApproximateConfig setTopCount(int topCount) {
+        this.topCount = topCount;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        ParamFlowApproximateConfig config = (ParamFlowApproximateConfig)o;
+
+        if (Double.compare(config.errorRate, errorRate) != 0) { return false; }
+        if (Double.compare(config.confidence, confidence) != 0) { return false; }
+        if (sampleCount != config.sampleCount) { return false; }
+        return topCount == config.topCount;
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        temp = Double.doubleToLongBits(errorRate);
+        result = (int)(temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(confidence);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+        result = 31 * result + sampleCount;
+        result = 31 * result + topCount;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ParamFlowApproximateConfig{" +
+            "errorRate=" + errorRate +
+            ", confidence=" + confidence +
+            ", sampleCount=" + sampleCount +
+            ", topCount=" + topCount +
+            '}';
+    }
+}
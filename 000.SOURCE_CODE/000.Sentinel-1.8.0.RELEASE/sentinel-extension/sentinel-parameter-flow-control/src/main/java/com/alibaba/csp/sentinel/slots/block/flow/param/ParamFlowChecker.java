@@ -35,6 +35,8 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
+import com.alibaba.csp.sentinel.slots.statistic.cache.ParamTokenTable;
+import com.alibaba.csp.sentinel.slots.statistic.metric.CountMinSketchLeapArray;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
@@ -107,6 +109,9 @@ public final class ParamFlowChecker {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
                 return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
+            } else if (rule.isApproximateMode() && !rule.getParsedHotItems().containsKey(value)) {
+                // Exclusion items are always checked with exact counters.
+                return passApproximateLocalCheck(resourceWrapper, rule, acquireCount, value);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
             }
@@ -127,10 +132,11 @@ public final class ParamFlowChecker {
     static boolean passDefaultLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                          Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
+        ParamTokenTable tokenTable = metric == null ? null : metric.getRuleTokenTable(rule);
         CacheMap<Object, AtomicLong> tokenCounters = metric == null ? null : metric.getRuleTokenCounter(rule);
         CacheMap<Object, AtomicLong> timeCounters = metric == null ? null : metric.getRuleTimeCounter(rule);
 
-        if (tokenCounters == null || timeCounters == null) {
+        if (tokenTable == null && (tokenCounters == null || timeCounters == null)) {
             return true;
         }
 
@@ -150,6 +156,11 @@ public final class ParamFlowChecker {
             return false;
         }
 
+        if (tokenTable != null) {
+            return tokenTable.tryAcquire(value, acquireCount, tokenCount, maxCount, rule.getDurationInSec() * 1000,
+                TimeUtil.currentTimeMillis());
+        }
+
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
@@ -201,11 +212,25 @@ public final class ParamFlowChecker {
         }
     }
 
+    static boolean passApproximateLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
+                                             Object value) {
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        CountMinSketchLeapArray sketch = metric == null ? null : metric.getRuleSketch(rule);
+        if (sketch == null) {
+            return true;
+        }
+        // The estimated passed count never falls below the real count, and the count is added before checking
+        // (then rolled back if exceeded), so this never lets extra requests pass, even under contention.
+        long maxCount = (long)rule.getCount() + rule.getBurstCount();
+        return sketch.tryAdd(value, acquireCount, maxCount);
+    }
+
     static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                           Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
+        ParamTokenTable tokenTable = metric == null ? null : metric.getRuleTokenTable(rule);
         CacheMap<Object, AtomicLong> timeRecorderMap = metric == null ? null : metric.getRuleTimeCounter(rule);
-        if (timeRecorderMap == null) {
+        if (tokenTable == null && timeRecorderMap == null) {
             return true;
         }
 
@@ -221,6 +246,21 @@ public final class ParamFlowChecker {
         }
 
         long costTime = Math.round(1.0 * 1000 * acquireCount * rule.getDurationInSec() / tokenCount);
+        if (tokenTable != null) {
+            long waitTime = tokenTable.tryAcquireInQueue(value, costTime, rule.getMaxQueueingTimeMs(),
+                TimeUtil.currentTimeMillis());
+            if (waitTime < 0) {
+                return false;
+            }
+            if (waitTime > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(waitTime);
+                } catch (InterruptedException e) {
+                    RecordLog.warn("passThrottleLocalCheck: wait interrupted", e);
+                }
+            }
+            return true;
+        }
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
             AtomicLong timeRecorder = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
@@ -82,6 +82,15 @@ public class ParamFlowRule extends AbstractRule {
      */
     private ParamFlowClusterConfig clusterConfig;
 
+    /**
+     * Indicating whether the passed count of parameter values is estimated approximately (since 1.8.1).
+     */
+    private boolean approximateMode = false;
+    /**
+     * Approximate mode specific config for parameter flow rule (since 1.8.1).
+     */
+    private ParamFlowApproximateConfig approximateConfig;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -188,6 +197,24 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isApproximateMode() {
+        return approximateMode;
+    }
+
+    public ParamFlowRule setApproximateMode(boolean approximateMode) {
+        this.approximateMode = approximateMode;
+        return this;
+    }
+
+    public ParamFlowApproximateConfig getApproximateConfig() {
+        return approximateConfig;
+    }
+
+    public ParamFlowRule setApproximateConfig(ParamFlowApproximateConfig approximateConfig) {
+        this.approximateConfig = approximateConfig;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -204,7 +231,9 @@ public class ParamFlowRule extends AbstractRule {
         if (durationInSec != that.durationInSec) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
+        if (approximateMode != that.approximateMode) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
+        if (!Objects.equals(approximateConfig, that.approximateConfig)) { return false; }
         return Objects.equals(clusterConfig, that.clusterConfig);
     }
 
@@ -223,6 +252,8 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
+        result = 31 * result + (approximateMode ? 1 : 0);
+        result = 31 * result + (approximateConfig != null ? approximateConfig.hashCode() : 0);
         return result;
     }
 
@@ -239,6 +270,8 @@ public class ParamFlowRule extends AbstractRule {
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
+            ", approximateMode=" + approximateMode +
+            ", approximateConfig=" + approximateConfig +
             '}';
     }
 }
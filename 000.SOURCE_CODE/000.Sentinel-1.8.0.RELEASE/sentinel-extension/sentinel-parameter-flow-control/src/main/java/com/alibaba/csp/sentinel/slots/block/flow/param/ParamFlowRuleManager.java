@@ -24,6 +24,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.RuleMapUtil;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -37,6 +38,11 @@ public final class ParamFlowRuleManager {
 
     private static final Map<String, List<ParamFlowRule>> PARAM_FLOW_RULES = new ConcurrentHashMap<>();
 
+    /**
+     * Incremented after each loading of rules, see {@link com.alibaba.csp.sentinel.slots.block.RuleCheckPlan}.
+     */
+    private static volatile long ruleVersion = 0;
+
     private final static RulePropertyListener PROPERTY_LISTENER = new RulePropertyListener();
     private static SentinelProperty<List<ParamFlowRule>> currentProperty = new DynamicSentinelProperty<>();
 
@@ -78,6 +84,17 @@ public final class ParamFlowRuleManager {
         return new ArrayList<>(PARAM_FLOW_RULES.get(resourceName));
     }
 
+    /**
+     * Get the rules of the resource without copying. DO NOT modify the returned list.
+     */
+    static List<ParamFlowRule> getRulesOfResourceInternal(String resourceName) {
+        return PARAM_FLOW_RULES.get(resourceName);
+    }
+
+    static long getRuleVersion() {
+        return ruleVersion;
+    }
+
     public static boolean hasRules(String resourceName) {
         List<ParamFlowRule> rules = PARAM_FLOW_RULES.get(resourceName);
         return rules != null && !rules.isEmpty();
@@ -100,22 +117,23 @@ public final class ParamFlowRuleManager {
 
         @Override
         public void configUpdate(List<ParamFlowRule> list) {
-            Map<String, List<ParamFlowRule>> rules = aggregateAndPrepareParamRules(list);
-            if (rules != null) {
-                PARAM_FLOW_RULES.clear();
-                PARAM_FLOW_RULES.putAll(rules);
-            }
+            applyRules(list);
             RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: " + PARAM_FLOW_RULES);
         }
 
         @Override
         public void configLoad(List<ParamFlowRule> list) {
+            applyRules(list);
+            RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: " + PARAM_FLOW_RULES);
+        }
+
+        private synchronized void applyRules(List<ParamFlowRule> list) {
             Map<String, List<ParamFlowRule>> rules = aggregateAndPrepareParamRules(list);
             if (rules != null) {
-                PARAM_FLOW_RULES.clear();
-                PARAM_FLOW_RULES.putAll(rules);
+                // Unchanged resources are not touched, and other resources are never absent during the update.
+                RuleMapUtil.updateRuleMap(PARAM_FLOW_RULES, rules);
             }
-            RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: " + PARAM_FLOW_RULES);
+            ruleVersion++;
         }
 
         private Map<String, List<ParamFlowRule>> aggregateAndPrepareParamRules(List<ParamFlowRule> list) {
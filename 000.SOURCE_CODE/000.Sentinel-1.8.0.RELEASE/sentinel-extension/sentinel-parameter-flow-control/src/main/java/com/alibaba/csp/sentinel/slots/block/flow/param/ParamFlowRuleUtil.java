@@ -48,7 +48,29 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
-            && checkCluster(rule);
+            && checkCluster(rule) && checkApproximate(rule);
+    }
+
+    private static boolean checkApproximate(/*@PreChecked*/ ParamFlowRule rule) {
+        if (!rule.isApproximateMode()) {
+            return true;
+        }
+        ParamFlowApproximateConfig config = rule.getApproximateConfig();
+        if (config == null) {
+            return false;
+        }
+        // Sketches only count passed requests, so only default QPS flow control is supported.
+        if (rule.getGrade() != RuleConstant.FLOW_GRADE_QPS
+            || rule.getControlBehavior() != RuleConstant.CONTROL_BEHAVIOR_DEFAULT) {
+            return false;
+        }
+        if (config.getErrorRate() < ParamFlowApproximateConfig.MIN_ERROR_RATE || config.getErrorRate() >= 1
+            || config.getConfidence() <= 0 || config.getConfidence() >= 1 || config.getTopCount() < 0) {
+            return false;
+        }
+        long intervalInMs = rule.getDurationInSec() * 1000;
+        return intervalInMs <= Integer.MAX_VALUE
+            && FlowRuleUtil.isWindowConfigValid(config.getSampleCount(), (int)intervalInMs);
     }
 
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
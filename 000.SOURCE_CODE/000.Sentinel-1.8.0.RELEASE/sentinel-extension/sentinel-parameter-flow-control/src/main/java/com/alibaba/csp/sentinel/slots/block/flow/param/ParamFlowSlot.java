@@ -20,10 +20,9 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckPlan;
 import com.alibaba.csp.sentinel.spi.SpiOrder;
 
-import java.util.List;
-
 /**
  * A processor slot that is responsible for flow control by frequent ("hot spot") parameters.
  *
@@ -34,14 +33,16 @@ import java.util.List;
 @SpiOrder(-3000)
 public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    private static final ParamFlowRule[] EMPTY_RULES = new ParamFlowRule[0];
+
+    /**
+     * Parameter flow rules of the resource of the slot chain.
+     */
+    private volatile RuleCheckPlan<ParamFlowRule> checkPlan;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
-        if (!ParamFlowRuleManager.hasRules(resourceWrapper.getName())) {
-            fireEntry(context, resourceWrapper, node, count, prioritized, args);
-            return;
-        }
-
         checkFlow(resourceWrapper, count, args);
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
@@ -67,10 +68,10 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         if (args == null) {
             return;
         }
-        if (!ParamFlowRuleManager.hasRules(resourceWrapper.getName())) {
+        ParamFlowRule[] rules = checkPlanOf(resourceWrapper.getName()).getChecks();
+        if (rules == null) {
             return;
         }
-        List<ParamFlowRule> rules = ParamFlowRuleManager.getRulesOfResource(resourceWrapper.getName());
 
         for (ParamFlowRule rule : rules) {
             applyRealParamIdx(rule, args.length);
@@ -88,4 +89,15 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             }
         }
     }
+
+    private RuleCheckPlan<ParamFlowRule> checkPlanOf(String resource) {
+        long ruleVersion = ParamFlowRuleManager.getRuleVersion();
+        RuleCheckPlan<ParamFlowRule> plan = this.checkPlan;
+        if (plan == null || !plan.isCompiledFor(resource, ruleVersion)) {
+            plan = RuleCheckPlan.compile(resource, ruleVersion,
+                ParamFlowRuleManager.getRulesOfResourceInternal(resource), EMPTY_RULES);
+            this.checkPlan = plan;
+        }
+        return plan;
+    }
 }
@@ -22,9 +22,13 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.cache.ParamTokenTable;
+import com.alibaba.csp.sentinel.slots.statistic.data.CountMinSketch;
+import com.alibaba.csp.sentinel.slots.statistic.metric.CountMinSketchLeapArray;
 
 /**
  * Metrics for frequent ("hot spot") parameters.
@@ -34,11 +38,23 @@ import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWra
  */
 public class ParameterMetric {
 
+    /**
+     * Type of the token counters of parameter flow rules in QPS mode: {@code map} (by default, counters in
+     * {@link CacheMap}) or {@code table} (primitive counters in {@link ParamTokenTable}).
+     *
+     * @since 1.8.1
+     */
+    public static final String COUNTER_TYPE = "csp.sentinel.param.flow.counter.type";
+    public static final String COUNTER_TYPE_MAP = "map";
+    public static final String COUNTER_TYPE_TABLE = "table";
+
     private static final int THREAD_COUNT_MAX_CAPACITY = 4000;
     private static final int BASE_PARAM_MAX_CAPACITY = 4000;
     private static final int TOTAL_MAX_CAPACITY = 20_0000;
 
     private final Object lock = new Object();
+    private final boolean tokenTableEnabled = COUNTER_TYPE_TABLE.equalsIgnoreCase(
+        SentinelConfig.getConfig(COUNTER_TYPE));
 
     /**
      * Format: (rule, (value, timeRecorder))
@@ -52,6 +68,18 @@ public class ParameterMetric {
      * @since 1.6.0
      */
     private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTokenCounter = new HashMap<>();
+    /**
+     * Format: (rule, token table), used instead of the time and token counters if token table is enabled.
+     *
+     * @since 1.8.1
+     */
+    private final Map<ParamFlowRule, ParamTokenTable> ruleTokenTables = new HashMap<>();
+    /**
+     * Format: (rule, sketch), only for rules in approximate mode.
+     *
+     * @since 1.8.1
+     */
+    private final Map<ParamFlowRule, CountMinSketchLeapArray> ruleSketches = new HashMap<>();
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
 
     /**
@@ -76,11 +104,51 @@ public class ParameterMetric {
         return ruleTimeCounters.get(rule);
     }
 
+    /**
+     * Get the token table for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated token table, or null if token table is not enabled
+     * @since 1.8.1
+     */
+    public ParamTokenTable getRuleTokenTable(ParamFlowRule rule) {
+        return ruleTokenTables.get(rule);
+    }
+
+    /**
+     * Get the sketch of passed count for given parameter rule in approximate mode.
+     *
+     * @param rule valid parameter rule
+     * @return the associated sketch, or null if the rule is not in approximate mode
+     * @since 1.8.1
+     */
+    public CountMinSketchLeapArray getRuleSketch(ParamFlowRule rule) {
+        return ruleSketches.get(rule);
+    }
+
+    /**
+     * Get "top-N" value-QPS map of hot values for given parameter rule in approximate mode.
+     *
+     * @param rule   valid parameter rule
+     * @param number max number of values
+     * @return "top-N" value map, or empty map if the rule is not in approximate mode
+     * @since 1.8.1
+     */
+    public Map<Object, Double> getTopValues(ParamFlowRule rule, int number) {
+        CountMinSketchLeapArray sketch = ruleSketches.get(rule);
+        if (sketch == null) {
+            return new HashMap<>();
+        }
+        return sketch.getTopValues(number);
+    }
+
     public void clear() {
         synchronized (lock) {
             threadCountMap.clear();
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
+            ruleTokenTables.clear();
+            ruleSketches.clear();
         }
     }
 
@@ -88,11 +156,58 @@ public class ParameterMetric {
         synchronized (lock) {
             ruleTimeCounters.remove(rule);
             ruleTokenCounter.remove(rule);
+            ruleTokenTables.remove(rule);
+            ruleSketches.remove(rule);
             threadCountMap.remove(rule.getParamIdx());
         }
     }
 
     public void initialize(ParamFlowRule rule) {
+        if (tokenTableEnabled) {
+            initializeTokenTable(rule);
+        } else {
+            initializeCounters(rule);
+        }
+        // Exclusion items are still checked with the exact counters above.
+        if (rule.isApproximateMode()) {
+            initializeSketch(rule);
+        }
+
+        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+            synchronized (lock) {
+                if (threadCountMap.get(rule.getParamIdx()) == null) {
+                    threadCountMap.put(rule.getParamIdx(),
+                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                }
+            }
+        }
+    }
+
+    private void initializeTokenTable(ParamFlowRule rule) {
+        if (!ruleTokenTables.containsKey(rule)) {
+            synchronized (lock) {
+                if (ruleTokenTables.get(rule) == null) {
+                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
+                    ruleTokenTables.put(rule, new ParamTokenTable((int)size));
+                }
+            }
+        }
+    }
+
+    private void initializeSketch(ParamFlowRule rule) {
+        if (!ruleSketches.containsKey(rule)) {
+            synchronized (lock) {
+                if (ruleSketches.get(rule) == null) {
+                    ParamFlowApproximateConfig config = rule.getApproximateConfig();
+                    ruleSketches.put(rule, new CountMinSketchLeapArray(config.getSampleCount(),
+                        (int)(rule.getDurationInSec() * 1000), CountMinSketch.depthFor(config.getConfidence()),
+                        CountMinSketch.widthFor(config.getErrorRate()), config.getTopCount()));
+                }
+            }
+        }
+    }
+
+    private void initializeCounters(ParamFlowRule rule) {
         if (!ruleTimeCounters.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTimeCounters.get(rule) == null) {
@@ -110,15 +225,6 @@ public class ParameterMetric {
                 }
             }
         }
-
-        if (!threadCountMap.containsKey(rule.getParamIdx())) {
-            synchronized (lock) {
-                if (threadCountMap.get(rule.getParamIdx()) == null) {
-                    threadCountMap.put(rule.getParamIdx(),
-                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
-                }
-            }
-        }
     }
 
     @SuppressWarnings("rawtypes")
@@ -264,4 +370,8 @@ public class ParameterMetric {
     Map<ParamFlowRule, CacheMap<Object, AtomicLong>> getRuleTimeCounterMap() {
         return ruleTimeCounters;
     }
+
+    Map<ParamFlowRule, ParamTokenTable> getRuleTokenTableMap() {
+        return ruleTokenTables;
+    }
 }
@@ -0,0 +1,582 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.cache;
+
+/**
+ * <p>A fixed-capacity table that keeps the token state of hot parameter values for one parameter flow rule.
+ * The value, its token count and its timestamp are stored inline in primitive arrays, so checking a value
+ * does not allocate anything (unlike {@code CacheMap<Object, AtomicLong>}, which allocates a map node and an
+ * {@code AtomicLong} for each new value and keeps a LRU list on every access).</p>
+ *
+ * <p>Values of {@code Long}, {@code Integer}, {@code Short} and {@code Byte} are stored as primitive longs,
+ * tagged with their type (so {@code 1} and {@code 1L} are still different values, as they are in a map).
+ * Other values (e.g. strings) are stored by reference together with their hash, and compared with
+ * {@code equals}. Both kinds are kept in open-addressing tables with linear probing.</p>
+ *
+ * <p>The table is split into segments by hash, and each operation only locks one segment, so the token update
+ * of a value is atomic. When a segment is full, an entry is evicted with the CLOCK (second chance) algorithm:
+ * the clock hand skips (and clears) entries that have been accessed since it last passed them.</p>
+ *
+ * @since 1.8.1
+ */
+public final class ParamTokenTable {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final int INITIAL_LENGTH = 8;
+
+    private static final byte FREE = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_SHORT = 3;
+    private static final byte TYPE_BYTE = 4;
+
+    private final int capacity;
+    private final int segmentShift;
+    private final LongSegment[] longSegments;
+    private final ObjectSegment[] objectSegments;
+
+    /**
+     * @param capacity max amount of values of each kind (primitive or not) kept in the table
+     */
+    public ParamTokenTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Table capacity should be positive: " + capacity);
+        }
+        int segments = MAX_SEGMENTS;
+        while (segments > 1 && capacity / segments < MIN_SEGMENT_CAPACITY) {
+            segments >>>= 1;
+        }
+        int segmentCapacity = (capacity + segments - 1) / segments;
+        this.capacity = segmentCapacity * segments;
+        // Segments are picked by the high bits of the hash, and slots by the low bits.
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segments);
+        this.longSegments = new LongSegment[segments];
+        this.objectSegments = new ObjectSegment[segments];
+        for (int i = 0; i < segments; i++) {
+            longSegments[i] = new LongSegment(segmentCapacity);
+            objectSegments[i] = new ObjectSegment(segmentCapacity);
+        }
+    }
+
+    /**
+     * <p>Try to acquire tokens of the value, with the simplified token bucket algorithm used by default
+     * parameter flow control: the tokens are replenished only when the statistic duration has passed
+     * since last replenishment.</p>
+     *
+     * @param value        parameter value
+     * @param acquireCount amount of tokens to acquire
+     * @param tokenCount   tokens added per duration (the threshold)
+     * @param maxCount     max tokens (the threshold plus burst count)
+     * @param durationInMs statistic duration in milliseconds
+     * @param currentTime  current time in milliseconds
+     * @return true if tokens are acquired, otherwise false
+     */
+    public boolean tryAcquire(Object value, int acquireCount, long tokenCount, long maxCount, long durationInMs,
+                              long currentTime) {
+        byte type = typeOf(value);
+        if (type != FREE) {
+            long key = ((Number)value).longValue();
+            int hash = hash(key);
+            LongSegment segment = longSegments[segmentIndex(hash)];
+            synchronized (segment) {
+                int i = segment.locate(key, type, hash);
+                return i >= 0 ? segment.acquire(i, acquireCount, tokenCount, maxCount, durationInMs, currentTime)
+                    : segment.initTokens(~i, maxCount - acquireCount, currentTime);
+            }
+        }
+        int hash = hash(value.hashCode());
+        ObjectSegment segment = objectSegments[segmentIndex(hash)];
+        synchronized (segment) {
+            int i = segment.locate(value, hash);
+            return i >= 0 ? segment.acquire(i, acquireCount, tokenCount, maxCount, durationInMs, currentTime)
+                : segment.initTokens(~i, maxCount - acquireCount, currentTime);
+        }
+    }
+
+    /**
+     * <p>Try to reserve a pass time for the value, with the rate limiter algorithm (uniform intervals of
+     * {@code costTime} between passes, queueing no longer than {@code maxQueueingTimeMs}).</p>
+     *
+     * @param value             parameter value
+     * @param costTime          interval between two passes in milliseconds
+     * @param maxQueueingTimeMs max queueing time in milliseconds
+     * @param currentTime       current time in milliseconds
+     * @return the time to wait in milliseconds before passing ({@code 0} for passing immediately),
+     * or {@code -1} if the value should be blocked
+     */
+    public long tryAcquireInQueue(Object value, long costTime, long maxQueueingTimeMs, long currentTime) {
+        byte type = typeOf(value);
+        if (type != FREE) {
+            long key = ((Number)value).longValue();
+            int hash = hash(key);
+            LongSegment segment = longSegments[segmentIndex(hash)];
+            synchronized (segment) {
+                int i = segment.locate(key, type, hash);
+                return i >= 0 ? segment.acquireInQueue(i, costTime, maxQueueingTimeMs, currentTime)
+                    : segment.initTime(~i, currentTime);
+            }
+        }
+        int hash = hash(value.hashCode());
+        ObjectSegment segment = objectSegments[segmentIndex(hash)];
+        synchronized (segment) {
+            int i = segment.locate(value, hash);
+            return i >= 0 ? segment.acquireInQueue(i, costTime, maxQueueingTimeMs, currentTime)
+                : segment.initTime(~i, currentTime);
+        }
+    }
+
+    /**
+     * Check whether the value is kept in the table.
+     *
+     * @param value parameter value
+     * @return true if the value is in the table
+     */
+    public boolean containsKey(Object value) {
+        byte type = typeOf(value);
+        if (type != FREE) {
+            long key = ((Number)value).longValue();
+            int hash = hash(key);
+            LongSegment segment = longSegments[segmentIndex(hash)];
+            synchronized (segment) {
+                return segment.indexOf(key, type, hash) >= 0;
+            }
+        }
+        int hash = hash(value.hashCode());
+        ObjectSegment segment = objectSegments[segmentIndex(hash)];
+        synchronized (segment) {
+            return segment.indexOf(value, hash) >= 0;
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < longSegments.length; i++) {
+            synchronized (longSegments[i]) {
+                size += longSegments[i].size;
+            }
+            synchronized (objectSegments[i]) {
+                size += objectSegments[i].size;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < longSegments.length; i++) {
+            synchronized (longSegments[i]) {
+                longSegments[i].reset();
+            }
+            synchronized (objectSegments[i]) {
+                objectSegments[i].reset();
+            }
+        }
+    }
+
+    /**
+     * @return max amount of values of each kind kept in the table
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int segmentIndex(int hash) {
+        return segmentShift == 32 ? 0 : hash >>> segmentShift;
+    }
+
+    private static byte typeOf(Object value) {
+        Class<?> clazz = value.getClass();
+        if (clazz == Long.class) {
+            return TYPE_LONG;
+        } else if (clazz == Integer.class) {
+            return TYPE_INTEGER;
+        } else if (clazz == Short.class) {
+            return TYPE_SHORT;
+        } else if (clazz == Byte.class) {
+            return TYPE_BYTE;
+        }
+        return FREE;
+    }
+
+    static int hash(long key) {
+        return hash((int)(key ^ (key >>> 32)));
+    }
+
+    static int hash(int h) {
+        // Finalization mix of MurmurHash3.
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int tableLengthFor(int capacity) {
+        // Keep the load factor no more than 0.75 when full.
+        int minLength = Math.max(capacity + capacity / 3 + 1, INITIAL_LENGTH);
+        return Integer.highestOneBit(minLength - 1) << 1;
+    }
+
+    /**
+     * Token state of the entries in one segment. All methods should be called with the segment locked.
+     */
+    private abstract static class Segment {
+
+        final int capacity;
+        final int maxLength;
+
+        long[] times;
+        long[] tokens;
+        boolean[] referenced;
+        int size;
+        int hand;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.maxLength = tableLengthFor(capacity);
+        }
+
+        abstract boolean isFree(int i);
+
+        abstract int homeOf(int i);
+
+        abstract void moveKey(int from, int to);
+
+        abstract void clearKey(int i);
+
+        abstract void allocate(int length);
+
+        abstract void rehash(int length);
+
+        final void allocateValues(int length) {
+            times = new long[length];
+            tokens = new long[length];
+            referenced = new boolean[length];
+        }
+
+        final int mask() {
+            return times.length - 1;
+        }
+
+        final void reset() {
+            allocate(Math.min(INITIAL_LENGTH, maxLength));
+            size = 0;
+            hand = 0;
+        }
+
+        /**
+         * Make room for a new entry, either by growing the table or by evicting an entry.
+         */
+        final void ensureRoom() {
+            if (size >= capacity) {
+                evict();
+            } else if (size + 1 > times.length / 4 * 3 && times.length < maxLength) {
+                rehash(times.length << 1);
+            }
+        }
+
+        private void evict() {
+            int mask = mask();
+            while (true) {
+                int i = hand;
+                hand = (hand + 1) & mask;
+                if (isFree(i)) {
+                    continue;
+                }
+                if (referenced[i]) {
+                    // Second chance.
+                    referenced[i] = false;
+                    continue;
+                }
+                removeAt(i);
+                return;
+            }
+        }
+
+        private void removeAt(int i) {
+            // Backward shift deletion, which keeps the probe sequences valid without tombstones.
+            int mask = mask();
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (isFree(j)) {
+                    break;
+                }
+                int home = homeOf(j);
+                // The entry in j can be moved to i only if its home slot is not in the cyclic range (i, j].
+                boolean stay = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stay) {
+                    moveKey(j, i);
+                    times[i] = times[j];
+                    tokens[i] = tokens[j];
+                    referenced[i] = referenced[j];
+                    i = j;
+                }
+            }
+            clearKey(i);
+            size--;
+        }
+
+        final boolean initTokens(int i, long restTokens, long currentTime) {
+            // Token never added, just replenish the tokens and consume immediately.
+            times[i] = currentTime;
+            tokens[i] = restTokens;
+            referenced[i] = true;
+            return true;
+        }
+
+        final boolean acquire(int i, int acquireCount, long tokenCount, long maxCount, long durationInMs,
+                              long currentTime) {
+            referenced[i] = true;
+            long passTime = currentTime - times[i];
+            if (passTime > durationInMs) {
+                long restCount = tokens[i];
+                long toAddCount = (passTime * tokenCount) / durationInMs;
+                long newCount = toAddCount + restCount > maxCount ? (maxCount - acquireCount)
+                    : (restCount + toAddCount - acquireCount);
+                if (newCount < 0) {
+                    return false;
+                }
+                tokens[i] = newCount;
+                times[i] = currentTime;
+                return true;
+            }
+            if (tokens[i] - acquireCount >= 0) {
+                tokens[i] -= acquireCount;
+                return true;
+            }
+            return false;
+        }
+
+        final long initTime(int i, long currentTime) {
+            times[i] = currentTime;
+            referenced[i] = true;
+            return 0;
+        }
+
+        final long acquireInQueue(int i, long costTime, long maxQueueingTimeMs, long currentTime) {
+            referenced[i] = true;
+            long expectedTime = times[i] + costTime;
+            if (expectedTime <= currentTime || expectedTime - currentTime < maxQueueingTimeMs) {
+                long waitTime = expectedTime - currentTime;
+                if (waitTime > 0) {
+                    times[i] = expectedTime;
+                    return waitTime;
+                }
+                times[i] = currentTime;
+                return 0;
+            }
+            return -1;
+        }
+    }
+
+    private static final class LongSegment extends Segment {
+
+        long[] keys;
+        byte[] types;
+
+        LongSegment(int capacity) {
+            super(capacity);
+            reset();
+        }
+
+        int indexOf(long key, byte type, int hash) {
+            int mask = mask();
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                byte t = types[i];
+                if (t == FREE) {
+                    return -1;
+                }
+                if (t == type && keys[i] == key) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * @return index of the entry, or the complement ({@code ~index}) of the index if newly inserted
+         */
+        int locate(long key, byte type, int hash) {
+            int i = indexOf(key, type, hash);
+            if (i >= 0) {
+                return i;
+            }
+            ensureRoom();
+            int mask = mask();
+            i = hash & mask;
+            while (types[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            types[i] = type;
+            size++;
+            return ~i;
+        }
+
+        @Override
+        boolean isFree(int i) {
+            return types[i] == FREE;
+        }
+
+        @Override
+        int homeOf(int i) {
+            return hash(keys[i]) & mask();
+        }
+
+        @Override
+        void moveKey(int from, int to) {
+            keys[to] = keys[from];
+            types[to] = types[from];
+        }
+
+        @Override
+        void clearKey(int i) {
+            types[i] = FREE;
+        }
+
+        @Override
+        void allocate(int length) {
+            keys = new long[length];
+            types = new byte[length];
+            allocateValues(length);
+        }
+
+        @Override
+        void rehash(int length) {
+            long[] oldKeys = keys;
+            byte[] oldTypes = types;
+            long[] oldTimes = times;
+            long[] oldTokens = tokens;
+            boolean[] oldReferenced = referenced;
+            allocate(length);
+            int mask = length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldTypes[j] == FREE) {
+                    continue;
+                }
+                int i = hash(oldKeys[j]) & mask;
+                while (types[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                types[i] = oldTypes[j];
+                times[i] = oldTimes[j];
+                tokens[i] = oldTokens[j];
+                referenced[i] = oldReferenced[j];
+            }
+            hand = 0;
+        }
+    }
+
+    private static final class ObjectSegment extends Segment {
+
+        Object[] keys;
+        int[] hashes;
+
+        ObjectSegment(int capacity) {
+            super(capacity);
+            reset();
+        }
+
+        int indexOf(Object key, int hash) {
+            int mask = mask();
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Object k = keys[i];
+                if (k == null) {
+                    return -1;
+                }
+                if (hashes[i] == hash && (k == key || k.equals(key))) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * @return index of the entry, or the complement ({@code ~index}) of the index if newly inserted
+         */
+        int locate(Object key, int hash) {
+            int i = indexOf(key, hash);
+            if (i >= 0) {
+                return i;
+            }
+            ensureRoom();
+            int mask = mask();
+            i = hash & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            hashes[i] = hash;
+            size++;
+            return ~i;
+        }
+
+        @Override
+        boolean isFree(int i) {
+            return keys[i] == null;
+        }
+
+        @Override
+        int homeOf(int i) {
+            return hashes[i] & mask();
+        }
+
+        @Override
+        void moveKey(int from, int to) {
+            keys[to] = keys[from];
+            hashes[to] = hashes[from];
+        }
+
+        @Override
+        void clearKey(int i) {
+            keys[i] = null;
+        }
+
+        @Override
+        void allocate(int length) {
+            keys = new Object[length];
+            hashes = new int[length];
+            allocateValues(length);
+        }
+
+        @Override
+        void rehash(int length) {
+            Object[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            long[] oldTimes = times;
+            long[] oldTokens = tokens;
+            boolean[] oldReferenced = referenced;
+            allocate(length);
+            int mask = length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == null) {
+                    continue;
+                }
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+                times[i] = oldTimes[j];
+                tokens[i] = oldTokens[j];
+                referenced[i] = oldReferenced[j];
+            }
+            hand = 0;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>A Count-Min sketch that counts the occurrences of parameter values in fixed memory.</p>
+ *
+ * <p>The sketch is a matrix of {@code depth} rows and {@code width} counters. Each value is counted in one
+ * counter per row, picked by an independently seeded hash function of each row, and the estimated count of
+ * the value is the minimum of its counters. Values that share counters only make the estimation larger, so the estimation
+ * is never less than the real count.</p>
+ *
+ * @since 1.8.1
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param depth amount of rows
+     * @param width amount of counters in each row, should be power of 2
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0 || (width & (width - 1)) != 0) {
+            throw new IllegalArgumentException("depth should be positive and width should be positive power of 2");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    /**
+     * Get the width needed for the given error rate, i.e. {@code e / errorRate} rounded up to power of 2.
+     *
+     * @param errorRate max error of estimation relative to the total count
+     * @return the width
+     */
+    public static int widthFor(double errorRate) {
+        int width = (int)Math.ceil(Math.E / errorRate);
+        return width <= 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+    }
+
+    /**
+     * Get the depth needed for the given confidence, i.e. {@code ln(1 / (1 - confidence))} rounded up.
+     *
+     * @param confidence probability that the error of estimation is within the error rate
+     * @return the depth
+     */
+    public static int depthFor(double confidence) {
+        return Math.max((int)Math.ceil(Math.log(1 / (1 - confidence))), 1);
+    }
+
+    /**
+     * <p>Get the 64-bit key of the value, from which the counters of all rows are picked.</p>
+     *
+     * <p>Values with equal {@code hashCode()} are easy to hit (e.g. {@code 0L} and {@code -1L}) or to forge
+     * (strings), and would share the counter in every row if the rows were picked from the hash code only.
+     * So numbers are keyed by their own bits, and strings by their hash code combined with a second hash of
+     * their chars. Values of other types are keyed by their hash code.</p>
+     *
+     * @param value non-null value
+     * @return the key of the value
+     */
+    public static long hash(Object value) {
+        if (value instanceof String) {
+            String s = (String)value;
+            // FNV-1a of the chars as the second hash.
+            int h = 0x811c9dc5;
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x01000193;
+            }
+            return ((long)s.hashCode() << 32) | (h & 0xFFFFFFFFL);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number)value).longValue();
+        }
+        if (value instanceof Double) {
+            return Double.doubleToLongBits((Double)value);
+        }
+        if (value instanceof Float) {
+            return Float.floatToIntBits((Float)value);
+        }
+        if (value instanceof Character) {
+            return (Character)value;
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * Finalization mix of 64-bit MurmurHash3.
+     *
+     * @param h the key
+     * @return the mixed key
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private int indexOf(int row, long hash) {
+        // Each row mixes the key with its own seed, so that the rows are picked independently.
+        return row * width + ((int)mix(hash ^ ((row + 1) * 0x9E3779B97F4A7C15L)) & (width - 1));
+    }
+
+    /**
+     * Get the counter of the value (identified by its {@link #hash(Object)}) in given row.
+     *
+     * @param row  row index
+     * @param hash key of the value
+     * @return the counter
+     */
+    public long get(int row, long hash) {
+        return counters.get(indexOf(row, hash));
+    }
+
+    public long estimate(Object value) {
+        long hash = hash(value);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, get(row, hash));
+        }
+        return min;
+    }
+
+    public void add(long hash, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(indexOf(row, hash), count);
+        }
+    }
+
+    public void add(Object value, int count) {
+        add(hash(value), count);
+    }
+
+    public CountMinSketch reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        return this;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
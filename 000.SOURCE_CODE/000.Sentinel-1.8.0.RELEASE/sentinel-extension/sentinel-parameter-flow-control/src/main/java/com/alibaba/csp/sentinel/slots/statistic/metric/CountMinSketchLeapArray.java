@@ -0,0 +1,210 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.CountMinSketch;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Sliding window of {@link CountMinSketch} buckets, for approximate parameter flow control of
+ * values with very high cardinality. The estimated count of a value in the window is the minimum over
+ * rows of the sum of its counters in all valid buckets.</p>
+ *
+ * <p>It also keeps a small direct-mapped table of hot value candidates: each value competes for one slot
+ * (by hash) with its estimated count, and the value with the larger count wins. The top values are picked
+ * from the candidates with their counts estimated again. The candidates are updated without locking, so
+ * the reported top values are best-effort.</p>
+ *
+ * @since 1.8.1
+ */
+public class CountMinSketchLeapArray extends LeapArray<CountMinSketch> {
+
+    private final int depth;
+    private final int width;
+
+    private final int candidateMask;
+    private final Object[] candidateValues;
+    private final long[] candidateCounts;
+    private final long[] candidateTimes;
+
+    /**
+     * @param sampleCount  amount of buckets
+     * @param intervalInMs total time length of the sliding window
+     * @param depth        depth of the sketches
+     * @param width        width of the sketches, should be power of 2
+     * @param topCount     amount of hot values to track, 0 for no tracking
+     */
+    public CountMinSketchLeapArray(int sampleCount, int intervalInMs, int depth, int width, int topCount) {
+        super(sampleCount, intervalInMs);
+        if (depth <= 0 || width <= 0 || (width & (width - 1)) != 0) {
+            throw new IllegalArgumentException("depth should be positive and width should be positive power of 2");
+        }
+        this.depth = depth;
+        this.width = width;
+        int candidateSize = topCount <= 0 ? 0 : Integer.highestOneBit(Math.max(topCount * 8, 16) - 1) << 1;
+        this.candidateMask = candidateSize - 1;
+        this.candidateValues = new Object[candidateSize];
+        this.candidateCounts = new long[candidateSize];
+        this.candidateTimes = new long[candidateSize];
+    }
+
+    @Override
+    public CountMinSketch newEmptyBucket(long timeMillis) {
+        return new CountMinSketch(depth, width);
+    }
+
+    @Override
+    protected WindowWrap<CountMinSketch> resetWindowTo(WindowWrap<CountMinSketch> w, long startTime) {
+        w.resetTo(startTime);
+        w.value().reset();
+        return w;
+    }
+
+    /**
+     * Add the count of the value if the estimated count in the window would not exceed the threshold.
+     * The check and the addition are atomic as a whole, i.e. the real count of the value that is added
+     * in the window never exceeds the threshold, even under concurrent adding.
+     *
+     * @param value     parameter value
+     * @param count     count to add
+     * @param threshold max count of the value in the window
+     * @return true if added (i.e. the request should pass), otherwise false
+     */
+    public boolean tryAdd(Object value, int count, long threshold) {
+        return tryAdd(value, count, threshold, TimeUtil.currentTimeMillis());
+    }
+
+    public boolean tryAdd(Object value, int count, long threshold, long timeMillis) {
+        CountMinSketch current = currentWindow(timeMillis).value();
+        long hash = CountMinSketch.hash(value);
+        long estimated = estimate(hash, timeMillis);
+        boolean pass = estimated + count <= threshold;
+        if (pass) {
+            // Add before checking and roll back if exceeded, so that concurrent requests which have read
+            // the same estimation cannot pass more than the threshold in total.
+            current.add(hash, count);
+            estimated = estimate(hash, timeMillis);
+            pass = estimated <= threshold;
+            if (!pass) {
+                current.add(hash, -count);
+                estimated -= count;
+            }
+        }
+        if (candidateMask >= 0) {
+            recordCandidate(value, hash, estimated, timeMillis);
+        }
+        return pass;
+    }
+
+    public long estimate(Object value) {
+        return estimate(value, TimeUtil.currentTimeMillis());
+    }
+
+    public long estimate(Object value, long timeMillis) {
+        return estimate(CountMinSketch.hash(value), timeMillis);
+    }
+
+    private long estimate(long hash, long timeMillis) {
+        int size = array.length();
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                WindowWrap<CountMinSketch> windowWrap = array.get(i);
+                if (windowWrap == null || isWindowDeprecated(timeMillis, windowWrap)) {
+                    continue;
+                }
+                sum += windowWrap.value().get(row, hash);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private void recordCandidate(Object value, long hash, long estimated, long timeMillis) {
+        int i = (int)CountMinSketch.mix(hash) & candidateMask;
+        Object candidate = candidateValues[i];
+        if (candidate != null && candidate.equals(value)) {
+            // Refresh at most once per bucket, to keep hot values from writing the slot on every request.
+            if (timeMillis - candidateTimes[i] >= windowLengthInMs) {
+                candidateCounts[i] = estimated;
+                candidateTimes[i] = timeMillis;
+            }
+            return;
+        }
+        if (candidate == null || estimated > candidateCounts[i] || timeMillis - candidateTimes[i] > intervalInMs) {
+            candidateValues[i] = value;
+            candidateCounts[i] = estimated;
+            candidateTimes[i] = timeMillis;
+        }
+    }
+
+    /**
+     * Get "top-N" value-QPS map of hot values.
+     *
+     * @param number max number of values
+     * @return "top-N" value map, ordered by QPS descending
+     */
+    public Map<Object, Double> getTopValues(int number) {
+        return getTopValues(number, TimeUtil.currentTimeMillis());
+    }
+
+    public Map<Object, Double> getTopValues(int number, long timeMillis) {
+        List<Entry<Object, Long>> list = new ArrayList<Entry<Object, Long>>();
+        for (int i = 0; i < candidateValues.length; i++) {
+            Object value = candidateValues[i];
+            if (value == null || timeMillis - candidateTimes[i] > intervalInMs) {
+                continue;
+            }
+            long count = estimate(value, timeMillis);
+            if (count > 0) {
+                list.add(new SimpleEntry<Object, Long>(value, count));
+            }
+        }
+        Collections.sort(list, new Comparator<Entry<Object, Long>>() {
+            @Override
+            public int compare(Entry<Object, Long> a, Entry<Object, Long> b) {
+                return Long.compare(b.getValue(), a.getValue());
+            }
+        });
+
+        Map<Object, Double> result = new LinkedHashMap<Object, Double>();
+        for (int i = 0; i < list.size() && i < number; i++) {
+            Entry<Object, Long> entry = list.get(i);
+            result.put(entry.getKey(), entry.getValue() / getIntervalInSecond());
+        }
+        return result;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
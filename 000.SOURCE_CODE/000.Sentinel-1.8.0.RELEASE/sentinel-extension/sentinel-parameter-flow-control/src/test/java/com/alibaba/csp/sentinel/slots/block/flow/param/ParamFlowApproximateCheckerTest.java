@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for parameter flow control in approximate mode.
+ */
+public class ParamFlowApproximateCheckerTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testApproximateCheckQps() {
+        final String resourceName = "testApproximateCheckQps";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        String valueA = "valueA";
+        String valueB = "valueB";
+
+        ParamFlowItem item = new ParamFlowItem().setObject(valueB).setClassType(String.class.getName()).setCount(2);
+        ParamFlowRule rule = new ParamFlowRule(resourceName)
+            .setCount(5)
+            .setParamIdx(0)
+            .setParamFlowItemList(Collections.singletonList(item))
+            .setApproximateMode(true)
+            .setApproximateConfig(new ParamFlowApproximateConfig());
+        rule.setParsedHotItems(ParamFlowRuleUtil.parseHotItems(rule.getParamFlowItemList()));
+
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.initialize(rule);
+        assertNotNull(metric.getRuleSketch(rule));
+
+        setCurrentMillis(System.currentTimeMillis());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        }
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        // Exclusion items are checked with exact counters.
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+        assertEquals(0, metric.getRuleSketch(rule).estimate(valueB));
+        assertEquals(5.0, metric.getTopValues(rule, 1).get(valueA), 0.01);
+
+        sleep(3000);
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -43,6 +45,30 @@ public class ParamFlowRuleUtilTest {
         assertTrue(ParamFlowRuleUtil.isValidRule(goodRule));
     }
 
+    @Test
+    public void testCheckValidApproximateRule() {
+        ParamFlowRule rule = new ParamFlowRule("abc").setParamIdx(0).setCount(10)
+            .setApproximateMode(true);
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setApproximateConfig(new ParamFlowApproximateConfig());
+        assertTrue(ParamFlowRuleUtil.isValidRule(rule));
+
+        rule.setApproximateConfig(new ParamFlowApproximateConfig().setErrorRate(1));
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setApproximateConfig(new ParamFlowApproximateConfig().setConfidence(0));
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setApproximateConfig(new ParamFlowApproximateConfig().setSampleCount(3));
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setApproximateConfig(new ParamFlowApproximateConfig().setTopCount(-1));
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+
+        rule.setApproximateConfig(new ParamFlowApproximateConfig())
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER);
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_DEFAULT).setGrade(RuleConstant.FLOW_GRADE_THREAD);
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+    }
+
     @Test
     public void testParseHotParamExceptionItemsFailure() {
         String valueB = "Sentinel";
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -27,8 +28,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
+import com.alibaba.csp.sentinel.slots.statistic.cache.ParamTokenTable;
 
 /**
  * Test cases for {@link ParameterMetric}.
@@ -76,6 +79,29 @@ public class ParameterMetricTest {
         assertEquals(0, metric.getRuleTokenCounterMap().size());
     }
 
+    @Test
+    public void testInitWithTokenTable() {
+        SentinelConfig.setConfig(ParameterMetric.COUNTER_TYPE, ParameterMetric.COUNTER_TYPE_TABLE);
+        try {
+            ParameterMetric metric = new ParameterMetric();
+            ParamFlowRule rule = new ParamFlowRule("abc")
+                .setParamIdx(1);
+            metric.initialize(rule);
+            ParamTokenTable tokenTable = metric.getRuleTokenTable(rule);
+            assertNotNull(tokenTable);
+            assertNull(metric.getRuleTimeCounter(rule));
+            assertNull(metric.getRuleTokenCounter(rule));
+            assertNotNull(metric.getThreadCountMap().get(rule.getParamIdx()));
+            metric.initialize(rule);
+            assertSame(tokenTable, metric.getRuleTokenTable(rule));
+
+            metric.clearForRule(rule);
+            assertNull(metric.getRuleTokenTable(rule));
+        } finally {
+            SentinelConfig.removeConfig(ParameterMetric.COUNTER_TYPE);
+        }
+    }
+
     @Test
     public void testAddAndDecreaseThreadCountCommon() {
         testAddAndDecreaseThreadCount(PARAM_TYPE_NORMAL);
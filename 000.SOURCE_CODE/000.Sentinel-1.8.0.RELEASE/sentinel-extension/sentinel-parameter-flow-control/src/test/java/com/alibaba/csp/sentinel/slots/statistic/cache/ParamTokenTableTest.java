@@ -0,0 +1,172 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.cache;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamTokenTable}.
+ */
+public class ParamTokenTableTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalCapacity() {
+        new ParamTokenTable(0);
+    }
+
+    @Test
+    public void testTryAcquire() {
+        ParamTokenTable table = new ParamTokenTable(100);
+        long tokenCount = 5;
+        long duration = 1000;
+        long now = 10000;
+        for (int i = 0; i < tokenCount; i++) {
+            assertTrue(table.tryAcquire("a", 1, tokenCount, tokenCount, duration, now));
+        }
+        assertFalse(table.tryAcquire("a", 1, tokenCount, tokenCount, duration, now + 500));
+        // Other values have their own tokens.
+        assertTrue(table.tryAcquire("b", 1, tokenCount, tokenCount, duration, now + 500));
+        assertTrue(table.tryAcquire(1L, 5, tokenCount, tokenCount, duration, now + 500));
+        assertFalse(table.tryAcquire(1L, 1, tokenCount, tokenCount, duration, now + 500));
+        // Integer 1 is different from Long 1.
+        assertTrue(table.tryAcquire(1, 1, tokenCount, tokenCount, duration, now + 500));
+        assertEquals(4, table.size());
+
+        // Tokens are replenished after the duration.
+        assertTrue(table.tryAcquire("a", 5, tokenCount, tokenCount, duration, now + 1001));
+        assertFalse(table.tryAcquire("a", 1, tokenCount, tokenCount, duration, now + 1002));
+        assertTrue(table.tryAcquire(1L, 2, tokenCount, tokenCount, duration, now + 1600));
+    }
+
+    @Test
+    public void testTryAcquireInQueue() {
+        ParamTokenTable table = new ParamTokenTable(100);
+        long costTime = 100;
+        long maxQueueingTime = 250;
+        long now = 10000;
+        assertEquals(0, table.tryAcquireInQueue(7, costTime, maxQueueingTime, now));
+        assertEquals(100, table.tryAcquireInQueue(7, costTime, maxQueueingTime, now));
+        assertEquals(200, table.tryAcquireInQueue(7, costTime, maxQueueingTime, now));
+        assertEquals(-1, table.tryAcquireInQueue(7, costTime, maxQueueingTime, now));
+        assertEquals(0, table.tryAcquireInQueue("7", costTime, maxQueueingTime, now));
+        assertEquals(0, table.tryAcquireInQueue(7, costTime, maxQueueingTime, now + 300));
+    }
+
+    @Test
+    public void testClockEviction() {
+        ParamTokenTable table = new ParamTokenTable(16);
+        assertEquals(16, table.getCapacity());
+        for (long i = 0; i < 16; i++) {
+            table.tryAcquire(i, 1, 10, 10, 1000, 0);
+        }
+        assertEquals(16, table.size());
+        // All entries have been accessed, so the first sweep clears their reference bits and then evicts one.
+        table.tryAcquire(100L, 1, 10, 10, 1000, 0);
+        assertEquals(16, table.size());
+        assertTrue(table.containsKey(100L));
+        assertEquals(15, countContained(table, 16));
+
+        // An entry accessed since then gets a second chance, while the others do not.
+        long accessed = -1;
+        for (long i = 0; i < 16 && accessed < 0; i++) {
+            if (table.containsKey(i)) {
+                accessed = i;
+            }
+        }
+        table.tryAcquire(accessed, 1, 10, 10, 1000, 0);
+        table.tryAcquire(101L, 1, 10, 10, 1000, 0);
+        assertTrue(table.containsKey(accessed));
+        assertTrue(table.containsKey(100L));
+        assertTrue(table.containsKey(101L));
+        assertEquals(14, countContained(table, 16));
+    }
+
+    private static int countContained(ParamTokenTable table, long bound) {
+        int count = 0;
+        for (long i = 0; i < bound; i++) {
+            if (table.containsKey(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testRandomInsertAndEvict() {
+        int capacity = 1000;
+        int keyRange = 5000;
+        ParamTokenTable table = new ParamTokenTable(capacity);
+        Random random = new Random(42);
+        for (int i = 1; i <= 100000; i++) {
+            Object value = random.nextBoolean() ? (Object)(long)random.nextInt(keyRange)
+                : "key-" + random.nextInt(keyRange);
+            table.tryAcquire(value, 1, 100, 100, 1000, 0);
+            assertTrue(table.containsKey(value));
+            if (i % 5000 == 0) {
+                // Every entry should still be reachable after removals have shifted entries around.
+                assertEquals(table.size(), countContained(table, keyRange));
+                assertTrue(table.size() <= table.getCapacity() * 2);
+            }
+        }
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(0, countContained(table, keyRange));
+    }
+
+    private static int countContained(ParamTokenTable table, int keyRange) {
+        int count = 0;
+        for (int i = 0; i < keyRange; i++) {
+            if (table.containsKey((long)i)) {
+                count++;
+            }
+            if (table.containsKey("key-" + i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        final ParamTokenTable table = new ParamTokenTable(1000);
+        final long tokenCount = 1000;
+        final AtomicInteger passed = new AtomicInteger();
+        int threadCount = 8;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        if (table.tryAcquire("hot", 1, tokenCount, tokenCount, 1000, 0)) {
+                            passed.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(tokenCount, passed.get());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CountMinSketchLeapArray}.
+ */
+public class CountMinSketchLeapArrayTest {
+
+    @Test
+    public void testNeverUnderestimate() {
+        CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(2, 1000, 3, 64, 0);
+        int[] counts = new int[1000];
+        Random random = new Random(7);
+        long now = 10000;
+        long total = 0;
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(counts.length);
+            assertTrue(sketch.tryAdd(value, 1, Long.MAX_VALUE, now));
+            counts[value]++;
+            total++;
+        }
+        for (int value = 0; value < counts.length; value++) {
+            long estimated = sketch.estimate(value, now);
+            assertTrue(estimated >= counts[value]);
+            assertTrue(estimated <= total);
+        }
+    }
+
+    @Test
+    public void testThresholdAndWindowExpiry() {
+        CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(2, 1000, 4, 1024, 0);
+        long now = 10000;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sketch.tryAdd("a", 1, 5, now));
+        }
+        assertFalse(sketch.tryAdd("a", 1, 5, now + 100));
+        assertEquals(5, sketch.estimate("a", now + 100));
+        assertTrue(sketch.tryAdd("b", 3, 5, now + 100));
+
+        // The first bucket is still in the window.
+        assertFalse(sketch.tryAdd("a", 1, 5, now + 600));
+        assertTrue(sketch.tryAdd("a", 2, 5, now + 1200));
+        assertEquals(2, sketch.estimate("a", now + 1200));
+        assertEquals(0, sketch.estimate("a", now + 3000));
+    }
+
+    @Test
+    public void testNoExtraPassUnderContention() throws Exception {
+        final CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(2, 1000, 4, 1024, 3);
+        final long now = 10000;
+        final int threshold = 100;
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger passed = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < 5000; i++) {
+                        if (sketch.tryAdd("hot", 1, threshold, now)) {
+                            passed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        gate.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(passed.get() <= threshold);
+        assertEquals(passed.get(), sketch.estimate("hot", now));
+    }
+
+    @Test
+    public void testValuesOfSameHashCodeNotBlockedTogether() {
+        assertEquals(Long.valueOf(0L).hashCode(), Long.valueOf(-1L).hashCode());
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(2, 1000, 4, 1024, 0);
+        long now = 10000;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sketch.tryAdd(0L, 1, 5, now));
+            assertTrue(sketch.tryAdd("Aa", 1, 5, now));
+        }
+        assertFalse(sketch.tryAdd(0L, 1, 5, now));
+        assertFalse(sketch.tryAdd("Aa", 1, 5, now));
+
+        // The hot values are blocked, but the cold ones sharing their hash codes are not.
+        assertTrue(sketch.tryAdd(-1L, 1, 5, now));
+        assertTrue(sketch.tryAdd("BB", 1, 5, now));
+        assertEquals(1, sketch.estimate(-1L, now));
+        assertEquals(1, sketch.estimate("BB", now));
+    }
+
+    @Test
+    public void testTopValues() {
+        CountMinSketchLeapArray sketch = new CountMinSketchLeapArray(2, 1000, 4, 1024, 3);
+        long now = 10000;
+        for (int value = 0; value < 200; value++) {
+            sketch.tryAdd(value, 1, Long.MAX_VALUE, now);
+        }
+        sketch.tryAdd("hot1", 100, Long.MAX_VALUE, now);
+        sketch.tryAdd("hot2", 50, Long.MAX_VALUE, now);
+        sketch.tryAdd("hot3", 20, Long.MAX_VALUE, now);
+
+        Map<Object, Double> top = sketch.getTopValues(3, now);
+        assertEquals(3, top.size());
+        Iterator<Map.Entry<Object, Double>> iterator = top.entrySet().iterator();
+        Map.Entry<Object, Double> first = iterator.next();
+        assertEquals("hot1", first.getKey());
+        assertEquals(100, first.getValue(), 0.01);
+        assertEquals("hot2", iterator.next().getKey());
+        assertEquals("hot3", iterator.next().getKey());
+
+        // Values out of the window are not reported.
+        assertTrue(sketch.getTopValues(3, now + 3000).isEmpty());
+    }
+}
@@ -23,12 +23,10 @@ import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
-import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricLogSearcher;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
-import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
-import com.alibaba.csp.sentinel.node.metric.MetricWriter;
 import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
-import com.alibaba.csp.sentinel.util.PidUtil;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaProvider;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -39,28 +37,18 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
  * @author Eric Zhao
  */
 @CommandMapping(name = "metric", desc = "get and aggregate metrics, accept param: "
-    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}")
+    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}, "
+    + "or format=delta&cursor={cursor}&endTime={endTime}&epoch={epoch}&dictSize={dictSize}")
 public class SendMetricCommandHandler implements CommandHandler<String> {
 
-    private volatile MetricSearcher searcher;
-
-    private final Object lock = new Object();
+    private static final String FORMAT_DELTA = "delta";
 
     @Override
     public CommandResponse<String> handle(CommandRequest request) {
-        // Note: not thread-safe.
-        if (searcher == null) {
-            synchronized (lock) {
-                String appName = SentinelConfig.getAppName();
-                if (appName == null) {
-                    appName = "";
-                }
-                if (searcher == null) {
-                    searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
-                        MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
-                }
-            }
+        if (FORMAT_DELTA.equals(request.getParam("format"))) {
+            return handleDelta(request);
         }
+        MetricLogSearcher searcher = MetricDeltaProvider.getSearcher();
         String startTimeStr = request.getParam("startTime");
         String endTimeStr = request.getParam("endTime");
         String maxLinesStr = request.getParam("maxLines");
@@ -101,6 +89,36 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         return CommandResponse.ofSuccess(sb.toString());
     }
 
+    /**
+     * Get metrics of the seconds after {@code cursor} (or since {@code startTime} if no cursor given)
+     * in the delta format, see {@link MetricDeltaProvider}.
+     */
+    private CommandResponse<String> handleDelta(CommandRequest request) {
+        try {
+            long cursor;
+            String cursorStr = request.getParam("cursor");
+            if (StringUtil.isNotBlank(cursorStr)) {
+                cursor = Long.parseLong(cursorStr);
+            } else if (StringUtil.isNotBlank(request.getParam("startTime"))) {
+                cursor = Long.parseLong(request.getParam("startTime")) - 1000;
+            } else {
+                return CommandResponse.ofFailure(new IllegalArgumentException("cursor or startTime is required"));
+            }
+            String endTimeStr = request.getParam("endTime");
+            String epochStr = request.getParam("epoch");
+            String dictSizeStr = request.getParam("dictSize");
+            long endTime = MetricDeltaProvider.resolveEndTime(cursor,
+                StringUtil.isNotBlank(endTimeStr) ? Long.parseLong(endTimeStr) : -1);
+            long epoch = StringUtil.isNotBlank(epochStr) ? Long.parseLong(epochStr) : 0;
+            int dictSize = StringUtil.isNotBlank(dictSizeStr) ? Integer.parseInt(dictSizeStr) : 0;
+            return CommandResponse.ofSuccess(MetricDeltaProvider.fetchDelta(cursor, endTime, epoch, dictSize));
+        } catch (NumberFormatException ex) {
+            return CommandResponse.ofFailure(ex);
+        } catch (Exception ex) {
+            return CommandResponse.ofFailure(new RuntimeException("Error when retrieving metrics", ex));
+        }
+    }
+
     /**
      * add current cpu usage and load to the metric list.
      *
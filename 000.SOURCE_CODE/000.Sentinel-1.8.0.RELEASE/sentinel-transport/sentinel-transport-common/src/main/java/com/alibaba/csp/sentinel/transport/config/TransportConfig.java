@@ -35,8 +35,25 @@ public class TransportConfig {
     public static final String HEARTBEAT_INTERVAL_MS = "csp.sentinel.heartbeat.interval.ms";
     public static final String HEARTBEAT_CLIENT_IP = "csp.sentinel.heartbeat.client.ip";
     public static final String HEARTBEAT_API_PATH = "csp.sentinel.heartbeat.api.path";
+    /**
+     * Interval of pushing metrics to the dashboard, non-positive (by default) for not pushing, in which case
+     * the dashboard fetches metrics via the {@code metric} command.
+     *
+     * @since 1.8.1
+     */
+    public static final String METRIC_PUSH_INTERVAL_MS = "csp.sentinel.metric.push.interval.ms";
+    public static final String METRIC_PUSH_API_PATH = "csp.sentinel.metric.push.api.path";
+    /**
+     * Max threads executing commands in the Netty command center, 2 by default, which bounds the CPU
+     * taken from the business threads by commands.
+     *
+     * @since 1.8.1
+     */
+    public static final String COMMAND_CENTER_THREADS = "csp.sentinel.command.center.threads";
 
     public static final String HEARTBEAT_DEFAULT_PATH = "/registry/machine";
+    public static final String METRIC_PUSH_DEFAULT_PATH = "/registry/metric";
+    public static final int DEFAULT_COMMAND_CENTER_THREADS = 2;
 
     private static int runtimePort = -1;
 
@@ -176,4 +193,60 @@ public class TransportConfig {
         }
         return apiPath;
     }
+
+    /**
+     * Get the interval of pushing metrics to the dashboard.
+     *
+     * @return the interval in milliseconds, or -1 if not configured or invalid config
+     * @since 1.8.1
+     */
+    public static long getMetricPushIntervalMs() {
+        String interval = SentinelConfig.getConfig(METRIC_PUSH_INTERVAL_MS);
+        if (StringUtil.isBlank(interval)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(interval.trim());
+        } catch (Exception ex) {
+            RecordLog.warn("[TransportConfig] Failed to parse metric push interval: " + interval);
+            return -1;
+        }
+    }
+
+    /**
+     * Get the metric push api path, which should be consistent with the API path of the dashboard.
+     *
+     * @return the metric push api path
+     * @since 1.8.1
+     */
+    public static String getMetricPushApiPath() {
+        String apiPath = SentinelConfig.getConfig(METRIC_PUSH_API_PATH);
+        if (StringUtil.isBlank(apiPath)) {
+            return METRIC_PUSH_DEFAULT_PATH;
+        }
+        if (!apiPath.startsWith("/")) {
+            apiPath = "/" + apiPath;
+        }
+        return apiPath;
+    }
+
+    /**
+     * Get the max threads executing commands in the command center.
+     *
+     * @return the max threads, or {@link #DEFAULT_COMMAND_CENTER_THREADS} if not configured or invalid config
+     * @since 1.8.1
+     */
+    public static int getCommandCenterThreads() {
+        String threads = SentinelConfig.getConfig(COMMAND_CENTER_THREADS);
+        if (StringUtil.isBlank(threads)) {
+            return DEFAULT_COMMAND_CENTER_THREADS;
+        }
+        try {
+            int value = Integer.parseInt(threads.trim());
+            return value > 0 ? value : DEFAULT_COMMAND_CENTER_THREADS;
+        } catch (Exception ex) {
+            RecordLog.warn("[TransportConfig] Failed to parse command center threads: " + threads);
+            return DEFAULT_COMMAND_CENTER_THREADS;
+        }
+    }
 }
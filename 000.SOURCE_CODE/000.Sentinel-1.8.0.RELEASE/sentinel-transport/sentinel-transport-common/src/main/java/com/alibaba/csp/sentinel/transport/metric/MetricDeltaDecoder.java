@@ -0,0 +1,187 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaFormat.Reader;
+
+import static com.alibaba.csp.sentinel.transport.metric.MetricDeltaFormat.*;
+
+/**
+ * Decoder of the delta metric format (see {@link MetricDeltaFormat}) on the receiver side, one for each
+ * client. It keeps the resource dictionary, the rows of the last delta and the cursor of the client, which
+ * should be sent back as {@code epoch}, {@code dictSize} and {@code cursor} in the next request. If a delta
+ * could not be decoded, the dictionary and the rows are dropped, so the next delta carries all of them.
+ *
+ * @since 1.8.1
+ */
+public class MetricDeltaDecoder {
+
+    private long epoch;
+    private long cursor = -1;
+    private final List<String> names = new ArrayList<String>();
+
+    private final List<long[]> lastRows = new ArrayList<long[]>();
+    private BitSet lastSecondIds = new BitSet();
+    private long rowCursor = -1;
+
+    public static boolean isDelta(String body) {
+        return body != null && body.startsWith(PREFIX);
+    }
+
+    /**
+     * Decode a delta and advance the cursor.
+     *
+     * @param payload the encoded delta
+     * @return metrics in the delta
+     * @throws DataFormatException if the payload is corrupted
+     */
+    public synchronized List<MetricNode> decode(String payload) throws DataFormatException {
+        try {
+            return doDecode(unpack(payload));
+        } catch (RuntimeException ex) {
+            epoch = 0;
+            names.clear();
+            resetRows();
+            throw ex;
+        }
+    }
+
+    private List<MetricNode> doDecode(Reader reader) {
+        byte version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported delta metric version: " + version);
+        }
+        long deltaEpoch = reader.readVarLong();
+        long deltaCursor = reader.readVarLong();
+        long rowBase = reader.readZigZag();
+        int dictBase = reader.readVarInt();
+        if (deltaEpoch != epoch) {
+            if (dictBase != 0) {
+                throw new IllegalStateException("Unknown resource dictionary of epoch " + deltaEpoch);
+            }
+            names.clear();
+            resetRows();
+            epoch = deltaEpoch;
+        }
+        if (dictBase > names.size()) {
+            throw new IllegalStateException("Missing resource names since " + names.size());
+        }
+        if (rowBase < 0) {
+            resetRows();
+        } else if (rowBase != rowCursor) {
+            throw new IllegalStateException("Unknown metric rows of cursor " + rowBase);
+        }
+        // Names are never changed, so the ones sent again (e.g. by concurrent requests) are the same.
+        while (names.size() > dictBase) {
+            names.remove(names.size() - 1);
+        }
+        int nameCount = reader.readVarInt();
+        for (int i = 0; i < nameCount; i++) {
+            names.add(reader.readString());
+        }
+
+        int secondCount = reader.readVarInt();
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        long timestamp = 0;
+        for (int s = 0; s < secondCount; s++) {
+            timestamp += reader.readZigZag();
+            BitSet secondIds = (BitSet)lastSecondIds.clone();
+            int goneCount = reader.readVarInt();
+            for (int i = 0; i < goneCount; i++) {
+                secondIds.clear(readId(reader));
+            }
+            int changedCount = reader.readVarInt();
+            for (int i = 0; i < changedCount; i++) {
+                int id = readId(reader);
+                long[] last = lastRowOf(id);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    last[f] += reader.readZigZag();
+                }
+                secondIds.set(id);
+            }
+            // Resources of the last second that are neither gone nor changed repeat their last row.
+            for (int id = secondIds.nextSetBit(0); id >= 0; id = secondIds.nextSetBit(id + 1)) {
+                nodes.add(toNode(timestamp, id, lastRowOf(id)));
+            }
+            lastSecondIds = secondIds;
+        }
+        rowCursor = deltaCursor;
+        cursor = Math.max(cursor, deltaCursor);
+        return nodes;
+    }
+
+    private int readId(Reader reader) {
+        int id = reader.readVarInt();
+        if (id >= names.size()) {
+            throw new IllegalArgumentException("Unknown resource id in delta metric: " + id);
+        }
+        return id;
+    }
+
+    private long[] lastRowOf(int id) {
+        while (lastRows.size() <= id) {
+            lastRows.add(null);
+        }
+        long[] last = lastRows.get(id);
+        if (last == null) {
+            last = new long[FIELD_COUNT];
+            lastRows.set(id, last);
+        }
+        return last;
+    }
+
+    private MetricNode toNode(long timestamp, int id, long[] row) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(names.get(id));
+        node.setClassification((int)row[0]);
+        node.setPassQps(row[1]);
+        node.setBlockQps(row[2]);
+        node.setSuccessQps(row[3]);
+        node.setExceptionQps(row[4]);
+        node.setRt(row[5]);
+        node.setOccupiedPassQps(row[6]);
+        node.setConcurrency((int)row[7]);
+        return node;
+    }
+
+    private void resetRows() {
+        lastRows.clear();
+        lastSecondIds = new BitSet();
+        rowCursor = -1;
+    }
+
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized int getDictSize() {
+        return names.size();
+    }
+
+    /**
+     * @return timestamp of the last second received, or -1 if none
+     */
+    public synchronized long getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaFormat.Writer;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import static com.alibaba.csp.sentinel.transport.metric.MetricDeltaFormat.*;
+
+/**
+ * <p>Encoder of the delta metric format (see {@link MetricDeltaFormat}) on the client side. The epoch tells
+ * receivers whether their dictionary is still valid, e.g. after the client restarts. When the dictionary
+ * grows beyond the max size (e.g. with short-lived resource names), a new epoch is started with an empty
+ * dictionary.</p>
+ *
+ * <p>The encoder keeps the rows sent in the last delta, so that a receiver asking from the cursor of that
+ * delta only gets the rows changed since. Other receivers (e.g. one that lost the last delta) get all rows.</p>
+ *
+ * @since 1.8.1
+ */
+public class MetricDeltaEncoder {
+
+    /**
+     * Max amount of names in the dictionary of an epoch, which is far more than the resources of a client.
+     */
+    public static final int DEFAULT_MAX_DICT_SIZE = 20000;
+
+    private final int maxDictSize;
+
+    private long epoch;
+    private final Map<String, Integer> resourceIds = new HashMap<String, Integer>();
+    private final List<String> names = new ArrayList<String>();
+
+    /**
+     * Last row sent of each resource ID, and resources of the last second sent.
+     */
+    private final List<long[]> lastRows = new ArrayList<long[]>();
+    private BitSet lastSecondIds = new BitSet();
+    /**
+     * Cursor of the last delta, which the rows kept are tied to, or -1 if none.
+     */
+    private long baseCursor = -1;
+
+    public MetricDeltaEncoder() {
+        this(TimeUtil.currentTimeMillis(), DEFAULT_MAX_DICT_SIZE);
+    }
+
+    MetricDeltaEncoder(long epoch, int maxDictSize) {
+        this.epoch = epoch;
+        this.maxDictSize = maxDictSize;
+    }
+
+    /**
+     * Encode the metrics of the seconds in (knownCursor, cursor].
+     *
+     * @param nodes         metrics in time order
+     * @param knownCursor   timestamp of the last second the receiver has got
+     * @param cursor        timestamp of the last second of the delta
+     * @param knownEpoch    epoch of the dictionary the receiver knows, 0 if none
+     * @param knownDictSize amount of names the receiver knows
+     * @return the encoded delta
+     */
+    public synchronized String encode(List<MetricNode> nodes, long knownCursor, long cursor, long knownEpoch,
+                                      int knownDictSize) {
+        if (names.size() >= maxDictSize) {
+            newEpoch();
+        }
+        int[] ids = new int[nodes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(nodes.get(i).getResource());
+        }
+        boolean known = knownEpoch == epoch;
+        int dictBase = known ? Math.max(0, Math.min(knownDictSize, names.size())) : 0;
+        long rowBase = known && baseCursor >= 0 && knownCursor == baseCursor ? baseCursor : -1;
+        if (rowBase < 0) {
+            lastRows.clear();
+            lastSecondIds = new BitSet();
+        }
+
+        Writer out = new Writer(64 + nodes.size() * 16);
+        out.writeByte(VERSION);
+        out.writeVarLong(epoch);
+        out.writeVarLong(cursor);
+        out.writeZigZag(rowBase);
+        out.writeVarLong(dictBase);
+        out.writeVarLong(names.size() - dictBase);
+        for (int i = dictBase; i < names.size(); i++) {
+            out.writeString(names.get(i));
+        }
+        out.writeVarLong(countSeconds(nodes));
+        long[] fields = new long[FIELD_COUNT];
+        long lastTimestamp = 0;
+        int[] changed = new int[nodes.size()];
+        for (int start = 0; start < ids.length; ) {
+            long timestamp = nodes.get(start).getTimestamp();
+            int end = start;
+            int changedCount = 0;
+            BitSet secondIds = new BitSet();
+            while (end < ids.length && nodes.get(end).getTimestamp() == timestamp) {
+                int id = ids[end];
+                readFields(nodes.get(end), fields);
+                // A resource has a single row in a second of the metric log.
+                if (!secondIds.get(id) && (!lastSecondIds.get(id) || !equalsLastRow(id, fields))) {
+                    changed[changedCount++] = end;
+                }
+                secondIds.set(id);
+                end++;
+            }
+            out.writeZigZag(timestamp - lastTimestamp);
+            lastTimestamp = timestamp;
+            BitSet gone = (BitSet)lastSecondIds.clone();
+            gone.andNot(secondIds);
+            out.writeVarLong(gone.cardinality());
+            for (int id = gone.nextSetBit(0); id >= 0; id = gone.nextSetBit(id + 1)) {
+                out.writeVarLong(id);
+            }
+            out.writeVarLong(changedCount);
+            for (int c = 0; c < changedCount; c++) {
+                int id = ids[changed[c]];
+                readFields(nodes.get(changed[c]), fields);
+                long[] last = lastRowOf(id);
+                out.writeVarLong(id);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    out.writeZigZag(fields[f] - last[f]);
+                    last[f] = fields[f];
+                }
+            }
+            lastSecondIds = secondIds;
+            start = end;
+        }
+        baseCursor = cursor;
+        return out.pack();
+    }
+
+    private static int countSeconds(List<MetricNode> nodes) {
+        int count = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i == 0 || nodes.get(i).getTimestamp() != nodes.get(i - 1).getTimestamp()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void readFields(MetricNode node, long[] fields) {
+        fields[0] = node.getClassification();
+        fields[1] = node.getPassQps();
+        fields[2] = node.getBlockQps();
+        fields[3] = node.getSuccessQps();
+        fields[4] = node.getExceptionQps();
+        fields[5] = node.getRt();
+        fields[6] = node.getOccupiedPassQps();
+        fields[7] = node.getConcurrency();
+    }
+
+    private boolean equalsLastRow(int id, long[] fields) {
+        long[] last = id < lastRows.size() ? lastRows.get(id) : null;
+        if (last == null) {
+            return false;
+        }
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            if (last[f] != fields[f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] lastRowOf(int id) {
+        while (lastRows.size() <= id) {
+            lastRows.add(null);
+        }
+        long[] last = lastRows.get(id);
+        if (last == null) {
+            last = new long[FIELD_COUNT];
+            lastRows.set(id, last);
+        }
+        return last;
+    }
+
+    private void newEpoch() {
+        epoch = Math.max(epoch + 1, TimeUtil.currentTimeMillis());
+        resourceIds.clear();
+        names.clear();
+        lastRows.clear();
+        lastSecondIds = new BitSet();
+        baseCursor = -1;
+    }
+
+    private int idOf(String resource) {
+        Integer id = resourceIds.get(resource);
+        if (id == null) {
+            id = names.size();
+            resourceIds.put(resource, id);
+            // Keep the same names as the text format.
+            names.add(resource.indexOf('|') >= 0 ? resource.replace('|', '_') : resource);
+        }
+        return id;
+    }
+
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized int getDictSize() {
+        return names.size();
+    }
+}
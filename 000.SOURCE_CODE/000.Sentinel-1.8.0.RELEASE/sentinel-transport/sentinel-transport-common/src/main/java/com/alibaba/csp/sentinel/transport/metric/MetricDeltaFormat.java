@@ -0,0 +1,191 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Shared definitions of the delta metric format. A delta carries the metrics of the seconds in
+ * (previous cursor, cursor] of a client:</p>
+ *
+ * <pre>
+ * version(byte) epoch(varlong) cursor(varlong) rowBase(zigzag)
+ * dictBase(varint) nameCount(varint) (length(varint) UTF-8 name)*
+ * secondCount(varint) (timestampDelta(zigzag) goneCount(varint) resourceId(varint)*
+ *     changedCount(varint) (resourceId(varint) fieldDelta(zigzag)*8)*)*
+ * </pre>
+ *
+ * <p>Resource names are sent once per client epoch: each delta only carries the names added to the dictionary
+ * since {@code dictBase}, the amount of names the receiver already knows.</p>
+ *
+ * <p>Only changed rows are sent. The rows of a second are those of the previous second sent (which may be in
+ * the previous delta), except the resources that are gone, and with the changed rows replaced or added. The
+ * fields of a row are classification, pass, block, success, exception, rt, occupied pass and concurrency,
+ * each encoded as the difference to the last row sent of the resource. The last rows of the previous delta
+ * are only used if it ended at {@code rowBase}, otherwise {@code rowBase} is -1 and all rows start from zero.</p>
+ *
+ * <p>The bytes are deflated and encoded in URL-safe Base64, as command responses are text, and prefixed with
+ * {@link #PREFIX} so that receivers tell them apart from text metric lines.</p>
+ *
+ * @since 1.8.1
+ */
+final class MetricDeltaFormat {
+
+    static final String PREFIX = "@delta:";
+    static final byte VERSION = 2;
+    static final int FIELD_COUNT = 8;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final class Writer {
+
+        private byte[] bytes;
+        private int size;
+
+        Writer(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 64)];
+        }
+
+        void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte)value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int)((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int)value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] b = value.getBytes(UTF_8);
+            writeVarLong(b.length);
+            for (byte v : b) {
+                writeByte(v);
+            }
+        }
+
+        /**
+         * Deflate and encode the written bytes.
+         */
+        String pack() {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(bytes, 0, size);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, size / 4));
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    out.write(buffer, 0, n);
+                }
+                return PREFIX + new String(Base64.getUrlEncoder().withoutPadding().encode(out.toByteArray()), UTF_8);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    static Reader unpack(String payload) throws DataFormatException {
+        byte[] compressed = Base64.getUrlDecoder().decode(payload.substring(PREFIX.length()).trim());
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated delta metric");
+                }
+                out.write(buffer, 0, n);
+            }
+            return new Reader(out.toByteArray());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        byte readByte() {
+            checkAvailable(1);
+            return bytes[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in delta metric");
+        }
+
+        int readVarInt() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid length in delta metric: " + value);
+            }
+            return (int)value;
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = readVarInt();
+            checkAvailable(length);
+            String value = new String(bytes, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void checkAvailable(int length) {
+            if (bytes.length - position < length) {
+                throw new IllegalArgumentException("Truncated delta metric");
+            }
+        }
+    }
+
+    private MetricDeltaFormat() {}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MappedMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MappedMetricWriter;
+import com.alibaba.csp.sentinel.node.metric.MetricLogSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Provides the metric logs of this process, both for the {@code metric} command and for pushing
+ * delta metrics to the dashboard.
+ *
+ * @since 1.8.1
+ */
+public final class MetricDeltaProvider {
+
+    /**
+     * Max amount of seconds in a delta, which bounds the delta after the receiver has been away.
+     */
+    public static final int MAX_DELTA_SECONDS = 60;
+
+    /**
+     * Metrics of a second are written to the log in the next one or two seconds, see
+     * {@link com.alibaba.csp.sentinel.node.metric.MetricTimerListener}.
+     */
+    private static final long STABLE_DELAY_MS = 2000;
+
+    private static final MetricDeltaEncoder ENCODER = new MetricDeltaEncoder();
+    private static final Object LOCK = new Object();
+
+    private static volatile MetricLogSearcher searcher;
+
+    public static MetricLogSearcher getSearcher() {
+        if (searcher == null) {
+            synchronized (LOCK) {
+                if (searcher == null) {
+                    String appName = SentinelConfig.getAppName();
+                    if (appName == null) {
+                        appName = "";
+                    }
+                    if (SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(SentinelConfig.metricFileFormat())) {
+                        searcher = new MappedMetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                            MappedMetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    } else {
+                        searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                            MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    }
+                }
+            }
+        }
+        return searcher;
+    }
+
+    /**
+     * @return timestamp of the latest second whose metrics should have been written to the log
+     */
+    public static long getStableTime() {
+        return TimeUtil.currentTimeMillis() / 1000 * 1000 - STABLE_DELAY_MS;
+    }
+
+    /**
+     * Resolve the last second of the next delta, which is never later than the seconds whose metrics
+     * have been written.
+     *
+     * @param cursor  timestamp of the last second the receiver has got
+     * @param endTime the max timestamp the receiver wants, or non-positive for no limit
+     * @return timestamp of the last second of the next delta
+     */
+    public static long resolveEndTime(long cursor, long endTime) {
+        long end = getStableTime();
+        if (endTime > 0) {
+            end = Math.min(end, endTime / 1000 * 1000);
+        }
+        return Math.max(cursor, Math.min(end, cursor + MAX_DELTA_SECONDS * 1000L));
+    }
+
+    /**
+     * Get the encoded delta of the seconds in (cursor, endTime].
+     *
+     * @param cursor        timestamp of the last second the receiver has got
+     * @param endTime       timestamp of the last second of the delta, see {@link #resolveEndTime(long, long)}
+     * @param knownEpoch    epoch of the dictionary the receiver knows, 0 if none
+     * @param knownDictSize amount of names the receiver knows
+     * @return the encoded delta
+     * @throws Exception if failed to read the metric logs
+     */
+    public static String fetchDelta(long cursor, long endTime, long knownEpoch, int knownDictSize) throws Exception {
+        cursor = cursor / 1000 * 1000;
+        List<MetricNode> nodes = null;
+        if (endTime > cursor) {
+            nodes = getSearcher().findByTimeAndResource(cursor + 1000, endTime, null);
+        }
+        if (nodes == null) {
+            nodes = Collections.emptyList();
+        }
+        return ENCODER.encode(nodes, cursor, Math.max(cursor, endTime), knownEpoch, knownDictSize);
+    }
+
+    public static long getEpoch() {
+        return ENCODER.getEpoch();
+    }
+
+    private MetricDeltaProvider() {}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+
+import org.junit.Test;
+
+import static com.alibaba.csp.sentinel.transport.metric.MetricDeltaFormat.FIELD_COUNT;
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricDeltaEncoder} and {@link MetricDeltaDecoder}.
+ */
+public class MetricDeltaEncoderTest {
+
+    private static MetricNode node(long timestamp, String resource, long pass) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setPassQps(pass);
+        node.setBlockQps(pass / 10);
+        node.setSuccessQps(pass);
+        node.setExceptionQps(1);
+        node.setRt(pass % 7);
+        node.setOccupiedPassQps(0);
+        node.setConcurrency(3);
+        node.setClassification(1);
+        return node;
+    }
+
+    private static void assertNodeEquals(MetricNode expected, MetricNode actual) {
+        assertEquals(expected.toThinString(), actual.toThinString());
+    }
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        MetricDeltaEncoder encoder = new MetricDeltaEncoder(42, MetricDeltaEncoder.DEFAULT_MAX_DICT_SIZE);
+        MetricDeltaDecoder decoder = new MetricDeltaDecoder();
+        assertFalse(MetricDeltaDecoder.isDelta("1600000000000|res|1|0|1|0|1|0|0|0"));
+
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        for (int s = 1; s <= 3; s++) {
+            nodes.add(node(s * 1000, "a", 100 + s));
+            nodes.add(node(s * 1000, "b|c", 5));
+        }
+        String payload = encoder.encode(nodes, decoder.getCursor(), 3000, decoder.getEpoch(),
+            decoder.getDictSize());
+        assertTrue(MetricDeltaDecoder.isDelta(payload));
+        List<MetricNode> decoded = decoder.decode(payload);
+        assertEquals(nodes.size(), decoded.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertNodeEquals(nodes.get(i), decoded.get(i));
+        }
+        assertEquals("b_c", decoded.get(1).getResource());
+        assertEquals(42, decoder.getEpoch());
+        assertEquals(2, decoder.getDictSize());
+        assertEquals(3000, decoder.getCursor());
+
+        // Only new names are sent once the dictionary is known.
+        List<MetricNode> next = new ArrayList<MetricNode>();
+        next.add(node(4000, "b|c", 6));
+        next.add(node(4000, "d", 7));
+        String nextPayload = encoder.encode(next, decoder.getCursor(), 5000, decoder.getEpoch(),
+            decoder.getDictSize());
+        decoded = decoder.decode(nextPayload);
+        assertEquals(2, decoded.size());
+        assertNodeEquals(next.get(0), decoded.get(0));
+        assertNodeEquals(next.get(1), decoded.get(1));
+        assertEquals(3, decoder.getDictSize());
+        assertEquals(5000, decoder.getCursor());
+
+        // Empty deltas still advance the cursor.
+        decoder.decode(encoder.encode(Collections.<MetricNode>emptyList(), 5000, 6000, 42, 3));
+        assertEquals(6000, decoder.getCursor());
+    }
+
+    @Test
+    public void testUnknownDictionary() throws Exception {
+        MetricDeltaEncoder encoder = new MetricDeltaEncoder(7, MetricDeltaEncoder.DEFAULT_MAX_DICT_SIZE);
+        List<MetricNode> nodes = Collections.singletonList(node(1000, "a", 1));
+        encoder.encode(nodes, 0, 1000, 0, 0);
+        // The receiver claims to know the dictionary, but it does not.
+        String payload = encoder.encode(Collections.singletonList(node(2000, "a", 2)), 1000, 2000, 7, 1);
+        MetricDeltaDecoder decoder = new MetricDeltaDecoder();
+        try {
+            decoder.decode(payload);
+            fail("Should fail with unknown dictionary");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, decoder.getEpoch());
+        assertEquals(0, decoder.getDictSize());
+
+        // The full dictionary is sent for an unknown epoch, e.g. after the client restarts.
+        List<MetricNode> decoded = decoder.decode(encoder.encode(nodes, 2000, 3000, decoder.getEpoch(), 0));
+        assertEquals("a", decoded.get(0).getResource());
+        assertEquals(7, decoder.getEpoch());
+        MetricDeltaEncoder restarted = new MetricDeltaEncoder(8, MetricDeltaEncoder.DEFAULT_MAX_DICT_SIZE);
+        decoded = decoder.decode(
+            restarted.encode(Collections.singletonList(node(4000, "x", 1)), 3000, 4000, 7, 1));
+        assertEquals("x", decoded.get(0).getResource());
+        assertEquals(8, decoder.getEpoch());
+        assertEquals(1, decoder.getDictSize());
+    }
+
+    @Test
+    public void testSkipUnchangedRows() throws Exception {
+        MetricDeltaEncoder encoder = new MetricDeltaEncoder(9, MetricDeltaEncoder.DEFAULT_MAX_DICT_SIZE);
+        MetricDeltaDecoder decoder = new MetricDeltaDecoder();
+        String first = encoder.encode(steadyNodes(1000, 3, 50), decoder.getCursor(), 3000, 0, 0);
+        decoder.decode(first);
+
+        // Rows not changed since the last delta are not sent again, but still decoded.
+        List<MetricNode> steady = steadyNodes(4000, 3, 50);
+        String payload = encoder.encode(steady, decoder.getCursor(), 6000, decoder.getEpoch(),
+            decoder.getDictSize());
+        assertTrue(rawSize(payload) < 32);
+        assertTrue(rawSize(first) > 50 * FIELD_COUNT);
+        List<MetricNode> decoded = decoder.decode(payload);
+        assertNodesEquals(steady, decoded);
+
+        // A resource gone in a second is not repeated, and a changed row is sent again.
+        List<MetricNode> next = new ArrayList<MetricNode>();
+        next.add(node(7000, "r0", 1));
+        next.add(node(8000, "r0", 1));
+        next.add(node(8000, "r1", 2));
+        decoded = decoder.decode(encoder.encode(next, decoder.getCursor(), 8000, decoder.getEpoch(),
+            decoder.getDictSize()));
+        assertNodesEquals(next, decoded);
+
+        // A receiver that lost the last delta gets all rows again.
+        encoder.encode(steadyNodes(9000, 1, 50), 8000, 9000, decoder.getEpoch(), decoder.getDictSize());
+        List<MetricNode> retry = steadyNodes(9000, 1, 50);
+        decoded = decoder.decode(encoder.encode(retry, decoder.getCursor(), 9000, decoder.getEpoch(),
+            decoder.getDictSize()));
+        assertNodesEquals(retry, decoded);
+        assertEquals(9000, decoder.getCursor());
+    }
+
+    @Test
+    public void testNewEpochWhenDictionaryIsFull() throws Exception {
+        MetricDeltaEncoder encoder = new MetricDeltaEncoder(11, 100);
+        MetricDeltaDecoder decoder = new MetricDeltaDecoder();
+        decoder.decode(encoder.encode(steadyNodes(1000, 1, 100), decoder.getCursor(), 1000, 0, 0));
+        assertEquals(11, decoder.getEpoch());
+        assertEquals(100, decoder.getDictSize());
+
+        List<MetricNode> nodes = Collections.singletonList(node(2000, "fresh", 1));
+        List<MetricNode> decoded = decoder.decode(encoder.encode(nodes, decoder.getCursor(), 2000,
+            decoder.getEpoch(), decoder.getDictSize()));
+        assertTrue(encoder.getEpoch() > 11);
+        assertEquals(encoder.getEpoch(), decoder.getEpoch());
+        assertEquals(1, encoder.getDictSize());
+        assertEquals(1, decoder.getDictSize());
+        assertNodesEquals(nodes, decoded);
+    }
+
+    private static List<MetricNode> steadyNodes(long startTime, int seconds, int resourceCount) {
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        for (int s = 0; s < seconds; s++) {
+            for (int i = 0; i < resourceCount; i++) {
+                nodes.add(node(startTime + s * 1000, "r" + i, 10 + i));
+            }
+        }
+        return nodes;
+    }
+
+    private static void assertNodesEquals(List<MetricNode> expected, List<MetricNode> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertNodeEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * Size of the delta before it is deflated.
+     */
+    private static int rawSize(String payload) throws Exception {
+        MetricDeltaFormat.Reader reader = MetricDeltaFormat.unpack(payload);
+        int size = 0;
+        try {
+            while (true) {
+                reader.readByte();
+                size++;
+            }
+        } catch (IllegalArgumentException ex) {
+            return size;
+        }
+    }
+}
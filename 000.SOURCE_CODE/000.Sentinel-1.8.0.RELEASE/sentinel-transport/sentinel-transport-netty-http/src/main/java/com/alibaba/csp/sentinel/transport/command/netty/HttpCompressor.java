@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.netty;
+
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+
+/**
+ * Compresses responses if the client accepts gzip or deflate, except small ones which are not worth it.
+ * The fastest compression level is used, as metric lines compress well anyway and the command center
+ * should take little CPU of the application.
+ *
+ * @since 1.8.1
+ */
+class HttpCompressor extends HttpContentCompressor {
+
+    static final int MIN_COMPRESS_SIZE = 1024;
+    static final int COMPRESSION_LEVEL = 1;
+
+    HttpCompressor() {
+        super(COMPRESSION_LEVEL);
+    }
+
+    @Override
+    protected Result beginEncode(HttpResponse headers, String acceptEncoding) throws Exception {
+        String length = headers.headers().get(HttpHeaderNames.CONTENT_LENGTH);
+        if (length != null && Long.parseLong(length) < MIN_COMPRESS_SIZE) {
+            return null;
+        }
+        return super.beginEncode(headers, acceptEncoding);
+    }
+}
@@ -17,10 +17,13 @@ package com.alibaba.csp.sentinel.transport.command.netty;
 
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.transport.config.TransportConfig;
@@ -29,6 +32,7 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
@@ -40,19 +44,32 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 public final class HttpServer {
 
     private static final int DEFAULT_PORT = 8719;
+    /**
+     * Max commands waiting for a worker, beyond which commands are rejected with 503.
+     */
+    private static final int COMMAND_QUEUE_SIZE = 64;
 
     private Channel channel;
 
     final static Map<String, CommandHandler> handlerMap = new ConcurrentHashMap<String, CommandHandler>();
 
     public void start() throws Exception {
-        EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
+        EventLoopGroup bossGroup = new NioEventLoopGroup(1,
+            new NamedThreadFactory("sentinel-command-center-boss", true));
+        // A single IO thread is enough for command traffic. Commands are executed by a few workers,
+        // so that the command center takes a bounded number of threads regardless of the cores.
+        EventLoopGroup workerGroup = new NioEventLoopGroup(1,
+            new NamedThreadFactory("sentinel-command-center-io", true));
+        int threads = TransportConfig.getCommandCenterThreads();
+        ThreadPoolExecutor commandExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(COMMAND_QUEUE_SIZE),
+            new NamedThreadFactory("sentinel-command-center-worker", true));
         try {
             ServerBootstrap b = new ServerBootstrap();
             b.group(bossGroup, workerGroup)
                 .channel(NioServerSocketChannel.class)
-                .childHandler(new HttpServerInitializer());
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new HttpServerInitializer(commandExecutor));
             int port;
             try {
                 if (StringUtil.isEmpty(TransportConfig.getPort())) {
@@ -87,6 +104,7 @@ public final class HttpServer {
         } finally {
             workerGroup.shutdownGracefully();
             bossGroup.shutdownGracefully();
+            commandExecutor.shutdownNow();
         }
     }
     
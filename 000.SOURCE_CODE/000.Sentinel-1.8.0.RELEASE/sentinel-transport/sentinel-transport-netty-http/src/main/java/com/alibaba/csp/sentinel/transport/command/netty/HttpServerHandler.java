@@ -15,11 +15,16 @@
  */
 package com.alibaba.csp.sentinel.transport.command.netty;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
@@ -36,11 +41,14 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
@@ -49,44 +57,123 @@ import io.netty.handler.codec.http.multipart.HttpData;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData.HttpDataType;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.timeout.IdleStateEvent;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 
 /**
- * Netty-based HTTP server handler for command center.
+ * <p>Netty-based HTTP server handler for command center.</p>
  *
- * Note: HTTP chunked is not tested!
+ * <p>Connections are kept alive unless the client asks to close. Commands are executed by the command
+ * executor if given, one at a time per connection so that responses keep the order of requests. Large
+ * responses are written in chunks.</p>
  *
  * @author Eric Zhao
  */
 public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
 
+    /**
+     * Responses larger than this are written in chunks of this size.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
     private final CodecRegistry codecRegistry = new CodecRegistry();
 
+    private final Executor commandExecutor;
+    /**
+     * Commands received but not executed yet, which is only accessed in the IO thread.
+     */
+    private final Queue<PendingCommand> pendingCommands = new ArrayDeque<PendingCommand>();
+    private boolean executing = false;
+
+    public HttpServerHandler() {
+        this(null);
+    }
+
+    /**
+     * @param commandExecutor executor of commands, or null to execute commands in the IO thread
+     * @since 1.8.1
+     */
+    public HttpServerHandler(Executor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
         ctx.flush();
     }
 
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            ctx.close();
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
         FullHttpRequest httpRequest = (FullHttpRequest)msg;
+        boolean keepAlive = HttpUtil.isKeepAlive(httpRequest);
         try {
             CommandRequest request = parseRequest(httpRequest);
             if (StringUtil.isBlank(HttpCommandUtils.getTarget(request))) {
-                writeErrorResponse(BAD_REQUEST.code(), "Invalid command", ctx);
+                writeErrorResponse(BAD_REQUEST.code(), "Invalid command", ctx, keepAlive);
                 return;
             }
-            handleRequest(request, ctx, HttpUtil.isKeepAlive(httpRequest));
-
+            if (commandExecutor == null) {
+                handleRequest(request, ctx, keepAlive);
+            } else {
+                pendingCommands.offer(new PendingCommand(request, keepAlive));
+                if (!executing) {
+                    executeNext(ctx);
+                }
+            }
         } catch (Exception ex) {
-            writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx);
+            writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx, false);
             CommandCenterLog.warn("Internal error", ex);
         }
     }
 
+    /**
+     * Execute the next pending command of the connection in the command executor. Called in the IO thread.
+     */
+    private void executeNext(final ChannelHandlerContext ctx) {
+        final PendingCommand command = pendingCommands.poll();
+        if (command == null) {
+            executing = false;
+            return;
+        }
+        executing = true;
+        try {
+            commandExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        handleRequest(command.request, ctx, command.keepAlive);
+                    } catch (Throwable ex) {
+                        writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx, false);
+                        CommandCenterLog.warn("Internal error", ex);
+                    }
+                    ctx.executor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            executeNext(ctx);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            writeErrorResponse(SERVICE_UNAVAILABLE.code(), "Too many commands", ctx, command.keepAlive);
+            executeNext(ctx);
+        }
+    }
+
     private void handleRequest(CommandRequest request, ChannelHandlerContext ctx, boolean keepAlive)
         throws Exception {
         String commandName = HttpCommandUtils.getTarget(request);
@@ -97,7 +184,8 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
             writeResponse(response, ctx, keepAlive);
         } else {
             // No matching command handler.
-            writeErrorResponse(BAD_REQUEST.code(), String.format("Unknown command \"%s\"", commandName), ctx);
+            writeErrorResponse(BAD_REQUEST.code(), String.format("Unknown command \"%s\"", commandName), ctx,
+                keepAlive);
         }
     }
 
@@ -113,15 +201,23 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         return null;
     }
 
-    private void writeErrorResponse(int statusCode, String message, ChannelHandlerContext ctx) {
+    private void writeErrorResponse(int statusCode, String message, ChannelHandlerContext ctx, boolean keepAlive) {
         FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
             HttpResponseStatus.valueOf(statusCode),
             Unpooled.copiedBuffer(message, Charset.forName(SentinelConfig.charset())));
 
         httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
-        ctx.write(httpResponse);
+        httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
+        HttpUtil.setKeepAlive(httpResponse, keepAlive);
+        writeAndFlush(httpResponse, ctx, keepAlive);
+    }
 
-        ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+    private void writeAndFlush(Object httpResponse, ChannelHandlerContext ctx, boolean keepAlive) {
+        if (keepAlive) {
+            ctx.writeAndFlush(httpResponse);
+        } else {
+            ctx.writeAndFlush(httpResponse).addListener(ChannelFutureListener.CLOSE);
+        }
     }
 
     private void writeResponse(CommandResponse response, ChannelHandlerContext ctx, boolean keepAlive)
@@ -133,7 +229,7 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
             } else {
                 Encoder encoder = pickEncoder(response.getResult().getClass());
                 if (encoder == null) {
-                    writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx);
+                    writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx, keepAlive);
                     CommandCenterLog.warn("Error when encoding object",
                         new IllegalStateException("No compatible encoder"));
                     return;
@@ -146,23 +242,26 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
 
         HttpResponseStatus status = response.isSuccess() ? OK : BAD_REQUEST;
 
+        if (body.length > CHUNK_SIZE) {
+            // Write large responses (e.g. metric, jsonTree) in chunks as the connection becomes writable,
+            // rather than in one large buffer.
+            HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+            httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
+            httpResponse.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            HttpUtil.setKeepAlive(httpResponse, keepAlive);
+            ctx.write(httpResponse);
+            writeAndFlush(new HttpChunkedInput(new ChunkedStream(new ByteArrayInputStream(body), CHUNK_SIZE)), ctx,
+                keepAlive);
+            return;
+        }
+
         FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
-            Unpooled.copiedBuffer(body));
+            Unpooled.wrappedBuffer(body));
 
         httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
-
-        //if (keepAlive) {
-        //    httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
-        //    httpResponse.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
-        //}
-        //ctx.write(httpResponse);
-        //if (!keepAlive) {
-        //    ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
-        //}
         httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
-        httpResponse.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
-        ctx.write(httpResponse);
-        ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        HttpUtil.setKeepAlive(httpResponse, keepAlive);
+        writeAndFlush(httpResponse, ctx, keepAlive);
     }
 
     private CommandRequest parseRequest(FullHttpRequest request) {
@@ -245,4 +344,14 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
     }
 
     private static final String SERVER_ERROR_MESSAGE = "Command server error";
+
+    private static final class PendingCommand {
+        private final CommandRequest request;
+        private final boolean keepAlive;
+
+        PendingCommand(CommandRequest request, boolean keepAlive) {
+            this.request = request;
+            this.keepAlive = keepAlive;
+        }
+    }
 }
@@ -15,26 +15,52 @@
  */
 package com.alibaba.csp.sentinel.transport.command.netty;
 
+import java.util.concurrent.Executor;
+
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateHandler;
 
 /**
  * @author Eric Zhao
  */
 public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * Kept-alive connections idle for this period are closed.
+     */
+    static final int IDLE_TIMEOUT_SECONDS = 60;
+
+    private final Executor commandExecutor;
+
+    public HttpServerInitializer() {
+        this(null);
+    }
+
+    /**
+     * @param commandExecutor executor of commands, or null to execute commands in the IO thread
+     * @since 1.8.1
+     */
+    public HttpServerInitializer(Executor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
     @Override
     protected void initChannel(SocketChannel socketChannel) throws Exception {
         ChannelPipeline p = socketChannel.pipeline();
 
+        p.addLast(new IdleStateHandler(0, 0, IDLE_TIMEOUT_SECONDS));
         p.addLast(new HttpRequestDecoder());
         p.addLast(new HttpObjectAggregator(1024 * 1024));
         p.addLast(new HttpResponseEncoder());
+        p.addLast(new HttpCompressor());
+        p.addLast(new ChunkedWriteHandler());
 
-        p.addLast(new HttpServerHandler());
+        p.addLast(new HttpServerHandler(commandExecutor));
     }
 }
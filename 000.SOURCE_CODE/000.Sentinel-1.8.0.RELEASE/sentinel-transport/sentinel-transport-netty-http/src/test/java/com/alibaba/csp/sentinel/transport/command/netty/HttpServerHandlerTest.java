@@ -16,6 +16,9 @@
 package com.alibaba.csp.sentinel.transport.command.netty;
 
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.init.InitExecutor;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -29,20 +32,30 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test cases for {@link HttpServerHandler}.
@@ -82,11 +95,14 @@ public class HttpServerHandlerTest {
         HttpRequestDecoder httpRequestDecoder = new HttpRequestDecoder();
         HttpObjectAggregator httpObjectAggregator = new HttpObjectAggregator(1024 * 1024);
         HttpResponseEncoder httpResponseEncoder = new HttpResponseEncoder();
+        HttpCompressor httpCompressor = new HttpCompressor();
+        ChunkedWriteHandler chunkedWriteHandler = new ChunkedWriteHandler();
 
         HttpServerHandler httpServerHandler = new HttpServerHandler();
 
         // Create new EmbeddedChannel every method call
-        embeddedChannel = new EmbeddedChannel(httpRequestDecoder, httpObjectAggregator, httpResponseEncoder, httpServerHandler);
+        embeddedChannel = new EmbeddedChannel(httpRequestDecoder, httpObjectAggregator, httpResponseEncoder,
+            httpCompressor, chunkedWriteHandler, httpServerHandler);
 
         // Clear flow rules
         FlowRuleManager.loadRules(Collections.EMPTY_LIST);
@@ -189,6 +205,174 @@ public class HttpServerHandlerTest {
         processSuccess(httpRequestStr, expectedBody);
     }
 
+    @Test
+    public void testKeepAlive() {
+        String httpRequestStr = "GET /version HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        String expectedBody = Constants.SENTINEL_VERSION;
+
+        processSuccess(httpRequestStr, expectedBody);
+        assertTrue(embeddedChannel.isOpen());
+        // The second request on the same connection.
+        processSuccess(httpRequestStr, expectedBody);
+        assertTrue(embeddedChannel.isOpen());
+    }
+
+    @Test
+    public void testConnectionClose() {
+        String httpRequestStr = "GET /version HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + "Connection: close" + CRLF
+                              + CRLF;
+        String responseStr = processResponse(httpRequestStr);
+
+        assertTrue(responseStr.contains("connection: close" + CRLF));
+        assertTrue(responseStr.endsWith(Constants.SENTINEL_VERSION));
+        assertFalse(embeddedChannel.isOpen());
+    }
+
+    @Test
+    public void testLargeResponseInChunks() {
+        String body = registerLargeCommand("testLargeResponseInChunks", HttpServerHandler.CHUNK_SIZE * 3);
+        String httpRequestStr = "GET /testLargeResponseInChunks HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        String responseStr = processResponse(httpRequestStr);
+
+        assertTrue(responseStr.startsWith(HttpVersion.HTTP_1_1 + " " + OK + CRLF));
+        assertTrue(responseStr.contains("transfer-encoding: chunked" + CRLF));
+        assertFalse(responseStr.contains("content-length"));
+        String chunks = responseStr.substring(responseStr.indexOf(CRLF + CRLF) + 4);
+        assertEquals(body, decodeChunks(chunks));
+        assertTrue(embeddedChannel.isOpen());
+    }
+
+    @Test
+    public void testGzipResponse() throws IOException {
+        String body = registerLargeCommand("testGzipResponse", HttpCompressor.MIN_COMPRESS_SIZE * 10);
+        String httpRequestStr = "GET /testGzipResponse HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + "Accept-Encoding: gzip" + CRLF
+                              + CRLF;
+        embeddedChannel.writeInbound(Unpooled.wrappedBuffer(httpRequestStr.getBytes(SENTINEL_CHARSET)));
+        ByteBuf response = Unpooled.buffer();
+        ByteBuf byteBuf;
+        while ((byteBuf = embeddedChannel.readOutbound()) != null) {
+            response.writeBytes(byteBuf);
+            byteBuf.release();
+        }
+        // ISO-8859-1 keeps the binary content as is.
+        String responseStr = response.toString(Charset.forName("ISO-8859-1"));
+
+        assertTrue(responseStr.contains("content-encoding: gzip" + CRLF));
+        byte[] compressed = responseStr.substring(responseStr.indexOf(CRLF + CRLF) + 4)
+            .getBytes(Charset.forName("ISO-8859-1"));
+        assertTrue(responseStr.contains("content-length: " + compressed.length + CRLF));
+        assertTrue(compressed.length < body.length());
+        assertEquals(body, new String(gunzip(compressed), SENTINEL_CHARSET));
+    }
+
+    @Test
+    public void testSmallResponseNotCompressed() {
+        String httpRequestStr = "GET /version HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + "Accept-Encoding: gzip" + CRLF
+                              + CRLF;
+        String expectedBody = Constants.SENTINEL_VERSION;
+
+        processSuccess(httpRequestStr, expectedBody);
+    }
+
+    @Test
+    public void testCommandsRejected() {
+        embeddedChannel = new EmbeddedChannel(new HttpRequestDecoder(), new HttpObjectAggregator(1024 * 1024),
+            new HttpResponseEncoder(), new HttpServerHandler(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    throw new RejectedExecutionException();
+                }
+            }));
+        String httpRequestStr = "GET /version HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+
+        processError(httpRequestStr, SERVICE_UNAVAILABLE, "Too many commands");
+        assertTrue(embeddedChannel.isOpen());
+    }
+
+    @Test
+    public void testPipelinedCommandsInExecutor() {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        embeddedChannel = new EmbeddedChannel(new HttpRequestDecoder(), new HttpObjectAggregator(1024 * 1024),
+            new HttpResponseEncoder(), new HttpServerHandler(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    tasks.add(command);
+                }
+            }));
+        String httpRequestStr = "GET /version HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF
+                              + "GET /aaa HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        embeddedChannel.writeInbound(Unpooled.wrappedBuffer(httpRequestStr.getBytes(SENTINEL_CHARSET)));
+        // Commands of a connection are executed one by one.
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        embeddedChannel.runPendingTasks();
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        embeddedChannel.runPendingTasks();
+        assertEquals(0, tasks.size());
+
+        String responseStr = processResponse("");
+        int first = responseStr.indexOf(Constants.SENTINEL_VERSION);
+        int second = responseStr.indexOf("Unknown command");
+        assertTrue(first > 0 && second > first);
+    }
+
+    private static String registerLargeCommand(String name, int size) {
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append("resource-").append(sb.length()).append(',');
+        }
+        final String body = sb.toString();
+        HttpServer.handlerMap.put(name, new CommandHandler<String>() {
+            @Override
+            public CommandResponse<String> handle(CommandRequest request) {
+                return CommandResponse.ofSuccess(body);
+            }
+        });
+        return body;
+    }
+
+    private static String decodeChunks(String chunks) {
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        while (true) {
+            int lineEnd = chunks.indexOf(CRLF, index);
+            int size = Integer.parseInt(chunks.substring(index, lineEnd), 16);
+            if (size == 0) {
+                return sb.toString();
+            }
+            sb.append(chunks, lineEnd + 2, lineEnd + 2 + size);
+            index = lineEnd + 2 + size + 2;
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
     private void processError(String httpRequestStr, String expectedBody) {
         processError(httpRequestStr, BAD_REQUEST, expectedBody);
     }
@@ -228,6 +412,7 @@ public class HttpServerHandlerTest {
         StringBuilder text = new StringBuilder();
         text.append(HttpVersion.HTTP_1_1.toString()).append(' ').append(status.toString()).append(CRLF);
         text.append("Content-Type: text/plain; charset=").append(SENTINEL_CHARSET_NAME).append(CRLF);
+        text.append("content-length: " + expectedBody.length()).append(CRLF);
         text.append(CRLF);
         text.append(expectedBody);
 
@@ -239,7 +424,6 @@ public class HttpServerHandlerTest {
         text.append(HttpVersion.HTTP_1_1.toString()).append(' ').append(status.toString()).append(CRLF);
         text.append("Content-Type: text/plain; charset=").append(SENTINEL_CHARSET_NAME).append(CRLF);
         text.append("content-length: " + expectedBody.length()).append(CRLF);
-        text.append("connection: close").append(CRLF);
         text.append(CRLF);
         text.append(expectedBody);
 
@@ -53,7 +53,7 @@ public class HeartbeatMessage {
         // Version of Sentinel.
         message.put("v", Constants.SENTINEL_VERSION);
         // Actually timestamp.
-        message.put("version", String.valueOf(TimeUtil.currentTimeMillis()));
+        message.put("version", String.valueOf(TimeUtil.wallClockMillis()));
         message.put("port", String.valueOf(TransportConfig.getPort()));
         return message;
     }
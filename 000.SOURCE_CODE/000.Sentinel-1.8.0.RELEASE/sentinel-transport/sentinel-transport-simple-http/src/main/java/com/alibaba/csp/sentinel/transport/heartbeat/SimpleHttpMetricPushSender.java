@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.heartbeat;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.heartbeat.client.SimpleHttpClient;
+import com.alibaba.csp.sentinel.transport.heartbeat.client.SimpleHttpRequest;
+import com.alibaba.csp.sentinel.transport.heartbeat.client.SimpleHttpResponse;
+import com.alibaba.csp.sentinel.transport.metric.MetricDeltaProvider;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.function.Tuple2;
+
+/**
+ * Pushes metrics of the seconds since the last push to the dashboard in the delta format
+ * (see {@link MetricDeltaProvider}), so the dashboard does not need to fetch them. The dashboard
+ * responds with the amount of resource names it knows, so only new names are pushed afterwards.
+ *
+ * @since 1.8.1
+ */
+public class SimpleHttpMetricPushSender {
+
+    private static final int OK_STATUS = 200;
+
+    private final HeartbeatMessage message = new HeartbeatMessage();
+    private final SimpleHttpClient httpClient = new SimpleHttpClient();
+    private final List<Tuple2<String, Integer>> addressList = TransportConfig.getConsoleServerList();
+
+    private long cursor = -1;
+    private long knownEpoch;
+    private int knownDictSize;
+
+    /**
+     * Push metrics of the seconds since the last push. Not thread-safe.
+     *
+     * @return true if pushed
+     * @throws Exception if any error occurred
+     */
+    public boolean sendMetric() throws Exception {
+        if (TransportConfig.getRuntimePort() <= 0 || addressList.isEmpty()) {
+            return false;
+        }
+        if (cursor < 0) {
+            // Start from now on, the seconds before are fetched by the dashboard.
+            cursor = MetricDeltaProvider.getStableTime();
+            return false;
+        }
+        long endTime = MetricDeltaProvider.resolveEndTime(cursor, -1);
+        if (endTime <= cursor) {
+            return false;
+        }
+        String payload = MetricDeltaProvider.fetchDelta(cursor, endTime, knownEpoch, knownDictSize);
+        // Seconds not pushed are dropped, as the dashboard only accepts recent ones.
+        cursor = endTime;
+
+        Tuple2<String, Integer> addrInfo = addressList.get(0);
+        InetSocketAddress addr = new InetSocketAddress(addrInfo.r1, addrInfo.r2);
+        SimpleHttpRequest request = new SimpleHttpRequest(addr, TransportConfig.getMetricPushApiPath());
+        request.setParams(message.generateCurrentMessage());
+        request.addParam("metric", payload);
+        try {
+            SimpleHttpResponse response = httpClient.post(request);
+            if (response.getStatusCode() == OK_STATUS) {
+                String body = response.getBodyAsString();
+                knownEpoch = MetricDeltaProvider.getEpoch();
+                knownDictSize = StringUtil.isBlank(body) ? 0 : Integer.parseInt(body.trim());
+                return true;
+            }
+            RecordLog.warn("[SimpleHttpMetricPushSender] Failed to push metrics to " + addr
+                + ", http status code: " + response.getStatusCode());
+        } catch (Exception e) {
+            RecordLog.warn("[SimpleHttpMetricPushSender] Failed to push metrics to " + addr, e);
+        }
+        // Push the full dictionary next time, as the dashboard may not know it.
+        knownEpoch = 0;
+        knownDictSize = 0;
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.init;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.DiscardOldestPolicy;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.init.InitFunc;
+import com.alibaba.csp.sentinel.init.InitOrder;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.heartbeat.SimpleHttpMetricPushSender;
+
+/**
+ * Global init function for pushing metrics to the dashboard, which is enabled by
+ * {@link TransportConfig#METRIC_PUSH_INTERVAL_MS}.
+ *
+ * @since 1.8.1
+ */
+@InitOrder(-1)
+public class MetricPushInitFunc implements InitFunc {
+
+    @Override
+    public void init() {
+        long interval = TransportConfig.getMetricPushIntervalMs();
+        if (interval <= 0) {
+            return;
+        }
+        final SimpleHttpMetricPushSender sender = new SimpleHttpMetricPushSender();
+        ScheduledExecutorService pool = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("sentinel-metric-push-task", true), new DiscardOldestPolicy());
+        pool.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sender.sendMetric();
+                } catch (Throwable e) {
+                    RecordLog.warn("[MetricPushInitFunc] Push metric error", e);
+                }
+            }
+        }, 5000, interval, TimeUnit.MILLISECONDS);
+        RecordLog.info("[MetricPushInitFunc] Metric push started, interval: " + interval + " ms");
+    }
+}